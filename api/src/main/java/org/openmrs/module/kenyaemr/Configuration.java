@@ -16,10 +16,17 @@ package org.openmrs.module.kenyaemr;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.openmrs.api.context.Context;
 import org.openmrs.module.kenyacore.CoreUtils;
+import org.openmrs.module.kenyaemr.reporting.PrecomputeMonthlyReportsTask;
 import org.openmrs.module.kenyaemr.visit.EmrVisitAssignmentHandler;
+import org.openmrs.scheduler.SchedulerException;
+import org.openmrs.scheduler.SchedulerService;
+import org.openmrs.scheduler.TaskDefinition;
 import org.openmrs.util.OpenmrsConstants;
 
+import java.util.Calendar;
+
 /**
  * Manages the KenyaEMR configuration
  */
@@ -32,5 +39,42 @@ public class Configuration {
 	 */
 	public static void configure() {
 		CoreUtils.setGlobalProperty(OpenmrsConstants.GP_VISIT_ASSIGNMENT_HANDLER, EmrVisitAssignmentHandler.class.getName());
+
+		configureScheduledTasks();
+	}
+
+	/**
+	 * Setup required scheduled tasks
+	 */
+	protected static void configureScheduledTasks() {
+		SchedulerService schedulerService = Context.getSchedulerService();
+
+		if (schedulerService.getTaskByName(PrecomputeMonthlyReportsTask.TASK_NAME) == null) {
+			// Run nightly at 1am, the task itself only does work on the first of the month
+			Calendar startTime = Calendar.getInstance();
+			startTime.add(Calendar.DAY_OF_MONTH, 1);
+			startTime.set(Calendar.HOUR_OF_DAY, 1);
+			startTime.set(Calendar.MINUTE, 0);
+			startTime.set(Calendar.SECOND, 0);
+			startTime.set(Calendar.MILLISECOND, 0);
+
+			TaskDefinition task = new TaskDefinition();
+			task.setName(PrecomputeMonthlyReportsTask.TASK_NAME);
+			task.setDescription("Evaluates the previous month's reports on the first of each month");
+			task.setTaskClass(PrecomputeMonthlyReportsTask.class.getName());
+			task.setStartTime(startTime.getTime());
+			task.setRepeatInterval(24 * 60 * 60L);
+			task.setStartOnStartup(true);
+
+			schedulerService.saveTask(task);
+
+			try {
+				schedulerService.scheduleTask(task);
+				log.info("Scheduled task '" + task.getName() + "'");
+			}
+			catch (SchedulerException ex) {
+				log.error("Unable to schedule task '" + task.getName() + "'", ex);
+			}
+		}
 	}
 }
\ No newline at end of file
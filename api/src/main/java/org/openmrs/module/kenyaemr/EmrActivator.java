@@ -52,10 +52,17 @@ public class EmrActivator implements ModuleActivator {
 	 * @see ModuleActivator#contextRefreshed()
 	 */
 	public void contextRefreshed() {
+		StartupReport.begin();
+
+		long start = System.currentTimeMillis();
 		Configuration.configure();
+		StartupReport.record("Configuration", start);
 
 		try {
+			// Includes the install of each metadata bundle, which are recorded separately
+			start = System.currentTimeMillis();
 			CoreContext.getInstance().refresh();
+			StartupReport.record("Core context refresh (bundles and content managers)", start);
 		}
 		catch (Exception ex) {
 			// If an error occurs during core refresh, we need KenyaEMR to still start so that the error can be
@@ -65,6 +72,8 @@ public class EmrActivator implements ModuleActivator {
 			// TODO re-enable once someone fixes TRUNK-4267
 			//Context.getAlertService().notifySuperUsers("Unable to start KenyaEMR", ex);
 		}
+
+		log.info(StartupReport.end());
 	}
 
 	/**
@@ -47,6 +47,9 @@ public class EmrConstants {
 	public static final String GP_SUPPORT_PHONE_NUMBER = MODULE_ID + ".supportPhoneNumber";
 	public static final String GP_SUPPORT_EMAIL_ADDRESS = MODULE_ID + ".supportEmailAddress";
 	public static final String GP_EXTERNAL_HELP_URL = MODULE_ID + ".externalHelpUrl";
+	public static final String GP_PRECOMPUTED_REPORTS = MODULE_ID + ".precomputedReports";
+	public static final String GP_MFL_SYNC_HASH = MODULE_ID + ".mflSyncHash";
+	public static final String GP_BUNDLE_FINGERPRINT_PREFIX = MODULE_ID + ".bundleFingerprint.";
 
 	/**
 	 * Default global property values
@@ -54,4 +57,11 @@ public class EmrConstants {
 	public static final String DEFAULT_SUPPORT_PHONE_NUMBER = "0800720701";
 	public static final String DEFAULT_SUPPORT_EMAIL_ADDRESS = "help@kenyaemr.org";
 	public static final String DEFAULT_EXTERNAL_HELP_URL = "/help";
+
+	/**
+	 * Report definitions precomputed for the previous month (NAP monthly adult and child). Only reports which are
+	 * registered in the report configuration can be precomputed.
+	 */
+	public static final String DEFAULT_PRECOMPUTED_REPORTS = "cf3709c1-92bc-426c-9dd4-6889cd4a564a,"
+			+ "9a07cdc9-aa24-4985-9c5d-491f5214c158";
 }
\ No newline at end of file
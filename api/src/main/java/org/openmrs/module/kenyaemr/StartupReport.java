@@ -0,0 +1,78 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records how long each step of the module startup takes, e.g. the install of each metadata bundle, so that they can
+ * be logged together once startup completes. Steps are only recorded between {@link #begin()} and {@link #end()} so
+ * that later refreshes, e.g. of a content manager, don't accumulate.
+ */
+public class StartupReport {
+
+	private static final List<String> steps = new ArrayList<String>();
+
+	private static boolean recording = false;
+
+	/**
+	 * Begins recording steps
+	 */
+	public static synchronized void begin() {
+		steps.clear();
+		recording = true;
+	}
+
+	/**
+	 * Records a step which started at the given time and has just ended
+	 * @param step the step name
+	 * @param startTime the start time in milliseconds
+	 */
+	public static void record(String step, long startTime) {
+		record(step, startTime, null);
+	}
+
+	/**
+	 * Records a step which started at the given time and has just ended
+	 * @param step the step name
+	 * @param startTime the start time in milliseconds
+	 * @param note the note to show with the step (may be null)
+	 */
+	public static synchronized void record(String step, long startTime, String note) {
+		if (!recording) {
+			return;
+		}
+
+		long elapsed = System.currentTimeMillis() - startTime;
+		steps.add(step + ": " + elapsed + "ms" + (note != null ? " (" + note + ")" : ""));
+	}
+
+	/**
+	 * Ends recording steps
+	 * @return the report of the recorded steps, one per line
+	 */
+	public static synchronized String end() {
+		StringBuilder sb = new StringBuilder("Startup report");
+		for (String step : steps) {
+			sb.append("\n  ").append(step);
+		}
+
+		steps.clear();
+		recording = false;
+		return sb.toString();
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.advice;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openmrs.module.kenyacore.report.cohort.definition.CalculationCohortDefinition;
+import org.openmrs.module.kenyaemr.util.PerformanceMonitor;
+import org.openmrs.module.reporting.cohort.EvaluatedCohort;
+import org.openmrs.module.reporting.evaluation.parameter.Mapped;
+
+/**
+ * Records the time taken by each evaluation of a calculation based cohort definition
+ */
+public class CohortDefinitionServiceAdvice implements MethodInterceptor {
+
+	/**
+	 * @see MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
+	 */
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		Object[] args = invocation.getArguments();
+		if (!invocation.getMethod().getName().equals("evaluate") || args.length == 0) {
+			return invocation.proceed();
+		}
+
+		Object definition = args[0] instanceof Mapped ? ((Mapped) args[0]).getParameterizable() : args[0];
+		if (!(definition instanceof CalculationCohortDefinition)) {
+			return invocation.proceed();
+		}
+
+		String name = ((CalculationCohortDefinition) definition).getCalculation().getClass().getSimpleName();
+
+		long start = System.nanoTime();
+		int size = 0;
+		try {
+			Object result = invocation.proceed();
+			if (result instanceof EvaluatedCohort) {
+				size = ((EvaluatedCohort) result).size();
+			}
+			return result;
+		}
+		finally {
+			PerformanceMonitor.record(PerformanceMonitor.CATEGORY_COHORTS, name, start, size);
+		}
+	}
+}
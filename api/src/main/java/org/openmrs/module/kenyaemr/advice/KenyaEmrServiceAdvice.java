@@ -0,0 +1,64 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.advice;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openmrs.module.kenyaemr.util.PerformanceMonitor;
+
+import java.util.Collection;
+
+/**
+ * Records the time taken by each invocation of a report count query
+ */
+public class KenyaEmrServiceAdvice implements MethodInterceptor {
+
+	/**
+	 * @see MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
+	 */
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		String name = invocation.getMethod().getName();
+		if (!isCountQuery(name)) {
+			return invocation.proceed();
+		}
+
+		long start = System.nanoTime();
+		int size = 0;
+		try {
+			Object result = invocation.proceed();
+			if (result instanceof Integer) {
+				size = (Integer) result;
+			}
+			else if (result instanceof Collection) {
+				size = ((Collection) result).size();
+			}
+			return result;
+		}
+		finally {
+			PerformanceMonitor.record(PerformanceMonitor.CATEGORY_QUERIES, name, start, size);
+		}
+	}
+
+	/**
+	 * Checks whether a service method is one of the report count queries, e.g. getNoOfPatientsOnART
+	 * @param name the method name
+	 * @return true if method is a count query
+	 */
+	protected static boolean isCountQuery(String name) {
+		return name.contains("NoOf") || name.startsWith("getCohortBasedOn") || name.equals("getPatientCount");
+	}
+}
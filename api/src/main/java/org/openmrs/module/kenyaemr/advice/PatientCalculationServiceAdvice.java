@@ -0,0 +1,130 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.advice;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openmrs.calculation.patient.PatientCalculation;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.result.CalculationResultMap;
+import org.openmrs.module.kenyaemr.calculation.MemoizedCalculation;
+import org.openmrs.module.kenyaemr.util.PerformanceMonitor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the time taken by each evaluation of a calculation, and re-uses results of memoized calculations which have
+ * already been evaluated in the same calculation context
+ */
+public class PatientCalculationServiceAdvice implements MethodInterceptor {
+
+	/**
+	 * @see MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
+	 */
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		if (!invocation.getMethod().getName().equals("evaluate")) {
+			return invocation.proceed();
+		}
+
+		PatientCalculation calculation = null;
+		Collection<Integer> cohort = null;
+		Map<String, Object> parameterValues = null;
+		PatientCalculationContext context = null;
+		int cohortSize = 0;
+
+		for (Object arg : invocation.getArguments()) {
+			if (arg instanceof PatientCalculation) {
+				calculation = (PatientCalculation) arg;
+			}
+			else if (arg instanceof Collection) {
+				cohort = (Collection<Integer>) arg;
+				cohortSize = cohort.size();
+			}
+			else if (arg instanceof Integer) {
+				cohortSize = 1;
+			}
+			else if (arg instanceof Map) {
+				parameterValues = (Map<String, Object>) arg;
+			}
+			else if (arg instanceof PatientCalculationContext) {
+				context = (PatientCalculationContext) arg;
+			}
+		}
+
+		if (calculation == null) {
+			return invocation.proceed();
+		}
+
+		Object memoKey = null;
+		if (calculation instanceof MemoizedCalculation && cohort != null && context != null) {
+			memoKey = memoKey(calculation, parameterValues, cohort, context);
+
+			CalculationResultMap memoized = (CalculationResultMap) context.getFromCache(memoKey);
+			if (memoized != null) {
+				return copy(memoized);
+			}
+		}
+
+		long start = System.nanoTime();
+		Object result;
+		try {
+			result = invocation.proceed();
+		}
+		finally {
+			PerformanceMonitor.record(PerformanceMonitor.CATEGORY_CALCULATIONS, calculation.getClass().getSimpleName(), start, cohortSize);
+		}
+
+		if (memoKey != null && result instanceof CalculationResultMap) {
+			context.addToCache(memoKey, copy((CalculationResultMap) result));
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the key under which the result of a memoized calculation is stored in the calculation context
+	 * @param calculation the calculation
+	 * @param parameterValues the parameter values
+	 * @param cohort the cohort
+	 * @param context the calculation context
+	 * @return the key
+	 */
+	protected static Object memoKey(PatientCalculation calculation, Map<String, Object> parameterValues, Collection<Integer> cohort, PatientCalculationContext context) {
+		List<Object> key = Arrays.asList(
+				MemoizedCalculation.class.getName(),
+				calculation.getClass().getName(),
+				parameterValues != null && !parameterValues.isEmpty() ? parameterValues : null,
+				new HashSet<Integer>(cohort),
+				context.getNow() != null ? context.getNow().getTime() : null
+		);
+		return key;
+	}
+
+	/**
+	 * Copies a result map so that callers can't modify the memoized results
+	 * @param results the result map
+	 * @return the copy
+	 */
+	protected static CalculationResultMap copy(CalculationResultMap results) {
+		CalculationResultMap copy = new CalculationResultMap();
+		copy.putAll(results);
+		return copy;
+	}
+}
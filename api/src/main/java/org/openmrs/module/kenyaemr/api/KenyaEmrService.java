@@ -14,6 +14,7 @@
 
 package org.openmrs.module.kenyaemr.api;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +38,7 @@ import org.openmrs.api.OpenmrsService;
 import org.openmrs.module.kenyaemr.model.DrugInfo;
 import org.openmrs.module.kenyaemr.model.DrugObsProcessed;
 import org.openmrs.module.kenyaemr.model.DrugOrderProcessed;
+import org.openmrs.module.kenyaemr.model.LabWorklistEntry;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -219,5 +221,66 @@ public interface KenyaEmrService extends OpenmrsService {
 	public Integer getNoOfChildPatientsHavingRegimenWithoutDose(String ageCategory,String startOfPeriod,String endOfPeriod,String drugRegimen);
 	public Integer getNoOfPatientsstockdispensed(String ageCategory,String startOfPeriod,String endOfPeriod,String drugRegimen,String doseRegimen);
 	public Integer getNoOfPatientsstockdispensedWithoutDose(String ageCategory,String startOfPeriod,String endOfPeriod,String drugRegimen);
-	
+
+	/**
+	 * Gets the latest time at which an encounter or obs dated inside the given period was created, changed or voided
+	 * @param startDate the period start date
+	 * @param endDate the period end date
+	 * @return the latest change time (null if there is no data in the period)
+	 */
+	@Transactional(readOnly = true)
+	public Date getLastDataChangeForPeriod(Date startDate, Date endDate);
+
+	/**
+	 * Gets the lab order encounters of a patient, each with the latest lab results encounter of the same visit
+	 * @param patient the patient
+	 * @return the worklist entries ordered by date created
+	 */
+	@Transactional(readOnly = true)
+	public List<LabWorklistEntry> getLabWorklist(Patient patient);
+
+	/**
+	 * Gets the lab order encounters of all patients which have no lab results encounter in the same visit
+	 * @param firstResult the index of the first entry
+	 * @param maxResults the maximum number of entries (null for all)
+	 * @return the worklist entries ordered by date created
+	 */
+	@Transactional(readOnly = true)
+	public List<LabWorklistEntry> getPendingLabWorklist(Integer firstResult, Integer maxResults);
+
+	/**
+	 * Gets the number of lab order encounters of all patients which have no lab results encounter in the same visit
+	 * @return the number of pending lab orders
+	 */
+	@Transactional(readOnly = true)
+	public Integer getNoOfPendingLabOrders();
+
+	/**
+	 * Saves the drug orders and processed drug orders of a regimen change in a single transaction. Orders are saved
+	 * first so that new processed drug orders can reference new orders.
+	 * @param drugOrders the new and discontinued drug orders
+	 * @param drugOrderProcesseds the new and updated processed drug orders
+	 * @return the saved processed drug orders
+	 */
+	public List<DrugOrderProcessed> saveRegimenChange(Collection<DrugOrder> drugOrders, Collection<DrugOrderProcessed> drugOrderProcesseds);
+
+	/**
+	 * Gets the ids of patients with a scheduled return visit on each day of a period. Days without any scheduled
+	 * patients are not included.
+	 * @param fromDate the start of the period
+	 * @param toDate the end of the period
+	 * @return the map of the start of each day to the scheduled patient ids, ordered by day
+	 */
+	@Transactional(readOnly = true)
+	public Map<Date, Set<Integer>> getScheduledPatientIds(Date fromDate, Date toDate);
+
+	/**
+	 * Gets the visits of the given patients which overlap a period
+	 * @param patientIds the patient ids
+	 * @param fromDate the start of the period
+	 * @param toDate the end of the period
+	 * @return the map of patient ids to visits ordered by start date. Patients without visits are not included.
+	 */
+	@Transactional(readOnly = true)
+	public Map<Integer, List<Visit>> getVisitsByPatient(Collection<Integer> patientIds, Date fromDate, Date toDate);
 }
@@ -14,6 +14,7 @@
 
 package org.openmrs.module.kenyaemr.api.db;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -144,5 +145,11 @@ public interface KenyaEmrDAO {
 	public Integer getNoOfChildPatientsHavingRegimenWithoutDose(String ageCategory,String startOfPeriod,String endOfPeriod,String drugRegimen);
 	public Integer getNoOfPatientsstockdispensed(String ageCategory,String startOfPeriod,String endOfPeriod,String drugRegimen,String doseRegimen);
 	public Integer getNoOfPatientsstockdispensedWithoutDose(String ageCategory,String startOfPeriod,String endOfPeriod,String drugRegimen);
-    
-}
\ No newline at end of file
+	public Date getLastDataChangeForPeriod(Date startDate, Date endDate);
+	public List<Object[]> getLabOrderAndResultEncounters(Patient patient, EncounterType orderType, EncounterType resultType);
+	public List<Encounter> getPendingLabOrderEncounters(EncounterType orderType, EncounterType resultType, Integer firstResult, Integer maxResults);
+	public Integer getNoOfPendingLabOrders(EncounterType orderType, EncounterType resultType);
+	public List<DrugOrderProcessed> saveDrugOrderProcesseds(Collection<DrugOrderProcessed> drugOrderProcesseds);
+	public List<Object[]> getPatientIdsAndValueDatetimes(Concept concept, Date fromDate, Date toDate);
+	public List<Visit> getVisitsInPeriod(Collection<Integer> patientIds, Date fromDate, Date toDate);
+}
@@ -65,6 +65,13 @@ import org.springframework.jdbc.core.JdbcTemplate;
 @SuppressWarnings("deprecation")
 public class HibernateKenyaEmrDAO implements KenyaEmrDAO {
 
+	/**
+	 * Criteria for lab order encounters with no lab results encounter in the same visit
+	 */
+	private static final String PENDING_LAB_ORDERS_CRITERIA = " where o.encounterType = :orderType and o.voided = false"
+			+ " and v.voided = false and o.patient.voided = false"
+			+ " and not exists (select r.encounterId from Encounter r where r.visit = v and r.encounterType = :resultType and r.voided = false)";
+
 	SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
 	SimpleDateFormat formatterExt = new SimpleDateFormat("yyyy-MM-dd");
@@ -5358,4 +5365,124 @@ public class HibernateKenyaEmrDAO implements KenyaEmrDAO {
 		return jdbcTemplate.queryForInt(query);
 	}
 
-}
\ No newline at end of file
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.db.KenyaEmrDAO#getLastDataChangeForPeriod(java.util.Date, java.util.Date)
+	 */
+	@Override
+	public Date getLastDataChangeForPeriod(Date startDate, Date endDate) {
+		Query encounterQuery = getCurrentSession().createQuery(
+				"select max(e.dateCreated), max(e.dateChanged), max(e.dateVoided) from Encounter e"
+				+ " where e.encounterDatetime between :startDate and :endDate");
+		encounterQuery.setTimestamp("startDate", startDate);
+		encounterQuery.setTimestamp("endDate", endDate);
+
+		Query obsQuery = getCurrentSession().createQuery(
+				"select max(o.dateCreated), max(o.dateVoided) from Obs o"
+				+ " where o.obsDatetime between :startDate and :endDate");
+		obsQuery.setTimestamp("startDate", startDate);
+		obsQuery.setTimestamp("endDate", endDate);
+
+		Date latest = null;
+		for (Object[] row : new Object[][] { (Object[]) encounterQuery.uniqueResult(), (Object[]) obsQuery.uniqueResult() }) {
+			if (row == null) {
+				continue;
+			}
+			for (Object value : row) {
+				if (value != null && (latest == null || ((Date) value).after(latest))) {
+					latest = (Date) value;
+				}
+			}
+		}
+		return latest;
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.db.KenyaEmrDAO#getLabOrderAndResultEncounters(org.openmrs.Patient, org.openmrs.EncounterType, org.openmrs.EncounterType)
+	 */
+	@Override
+	public List<Object[]> getLabOrderAndResultEncounters(Patient patient, EncounterType orderType, EncounterType resultType) {
+		Query query = getCurrentSession().createQuery(
+				"select o, r from Encounter o join o.visit v"
+				+ " left join v.encounters r with r.encounterType = :resultType and r.voided = false"
+				+ " where o.patient = :patient and o.encounterType = :orderType and o.voided = false and v.voided = false"
+				+ " order by o.dateCreated, o.encounterId, r.encounterDatetime, r.encounterId");
+		query.setParameter("patient", patient);
+		query.setParameter("orderType", orderType);
+		query.setParameter("resultType", resultType);
+		return query.list();
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.db.KenyaEmrDAO#getPendingLabOrderEncounters(org.openmrs.EncounterType, org.openmrs.EncounterType, Integer, Integer)
+	 */
+	@Override
+	public List<Encounter> getPendingLabOrderEncounters(EncounterType orderType, EncounterType resultType, Integer firstResult, Integer maxResults) {
+		Query query = getCurrentSession().createQuery(
+				"select o from Encounter o join o.visit v" + PENDING_LAB_ORDERS_CRITERIA + " order by o.dateCreated, o.encounterId");
+		query.setParameter("orderType", orderType);
+		query.setParameter("resultType", resultType);
+		if (firstResult != null) {
+			query.setFirstResult(firstResult);
+		}
+		if (maxResults != null) {
+			query.setMaxResults(maxResults);
+		}
+		return query.list();
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.db.KenyaEmrDAO#getNoOfPendingLabOrders(org.openmrs.EncounterType, org.openmrs.EncounterType)
+	 */
+	@Override
+	public Integer getNoOfPendingLabOrders(EncounterType orderType, EncounterType resultType) {
+		Query query = getCurrentSession().createQuery(
+				"select count(o) from Encounter o join o.visit v" + PENDING_LAB_ORDERS_CRITERIA);
+		query.setParameter("orderType", orderType);
+		query.setParameter("resultType", resultType);
+		return ((Number) query.uniqueResult()).intValue();
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.db.KenyaEmrDAO#saveDrugOrderProcesseds(java.util.Collection)
+	 */
+	@Override
+	public List<DrugOrderProcessed> saveDrugOrderProcesseds(Collection<DrugOrderProcessed> drugOrderProcesseds) {
+		Session session = getCurrentSession();
+		List<DrugOrderProcessed> saved = new ArrayList<DrugOrderProcessed>(drugOrderProcesseds.size());
+		for (DrugOrderProcessed drugOrderProcessed : drugOrderProcesseds) {
+			saved.add((DrugOrderProcessed) session.merge(drugOrderProcessed));
+		}
+		session.flush();
+		return saved;
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.db.KenyaEmrDAO#getPatientIdsAndValueDatetimes(org.openmrs.Concept, java.util.Date, java.util.Date)
+	 */
+	@Override
+	public List<Object[]> getPatientIdsAndValueDatetimes(Concept concept, Date fromDate, Date toDate) {
+		Query query = getCurrentSession().createQuery(
+				"select p.patientId, o.valueDatetime from Obs o, Patient p" +
+				" where p.patientId = o.person.personId and p.voided = false and o.voided = false" +
+				" and o.concept = :concept and o.valueDatetime between :fromDate and :toDate");
+		query.setParameter("concept", concept);
+		query.setTimestamp("fromDate", fromDate);
+		query.setTimestamp("toDate", toDate);
+		return query.list();
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.db.KenyaEmrDAO#getVisitsInPeriod(java.util.Collection, java.util.Date, java.util.Date)
+	 */
+	@Override
+	public List<Visit> getVisitsInPeriod(Collection<Integer> patientIds, Date fromDate, Date toDate) {
+		Query query = getCurrentSession().createQuery(
+				"from Visit v where v.voided = false and v.patient.patientId in (:patientIds)" +
+				" and v.startDatetime <= :toDate and (v.stopDatetime is null or v.stopDatetime >= :fromDate)" +
+				" order by v.startDatetime, v.visitId");
+		query.setParameterList("patientIds", patientIds);
+		query.setTimestamp("fromDate", fromDate);
+		query.setTimestamp("toDate", toDate);
+		return query.list();
+	}
+}
@@ -15,12 +15,16 @@
 package org.openmrs.module.kenyaemr.api.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -47,6 +51,7 @@ import org.openmrs.api.APIException;
 import org.openmrs.api.EncounterService;
 import org.openmrs.api.FormService;
 import org.openmrs.api.LocationService;
+import org.openmrs.api.OrderService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.impl.BaseOpenmrsService;
 import org.openmrs.module.idgen.AutoGenerationOption;
@@ -55,6 +60,7 @@ import org.openmrs.module.idgen.SequentialIdentifierGenerator;
 import org.openmrs.module.idgen.service.IdentifierSourceService;
 import org.openmrs.module.idgen.validator.LuhnModNIdentifierValidator;
 import org.openmrs.module.kenyacore.identifier.IdentifierManager;
+import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.EmrConstants;
 import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import org.openmrs.module.kenyaemr.api.db.KenyaEmrDAO;
@@ -64,8 +70,10 @@ import org.openmrs.module.kenyaemr.metadata.HivMetadata;
 import org.openmrs.module.kenyaemr.model.DrugInfo;
 import org.openmrs.module.kenyaemr.model.DrugObsProcessed;
 import org.openmrs.module.kenyaemr.model.DrugOrderProcessed;
+import org.openmrs.module.kenyaemr.model.LabWorklistEntry;
 import org.openmrs.module.kenyaemr.wrapper.Facility;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
+import org.openmrs.module.reporting.common.DateUtil;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -699,5 +707,118 @@ public class KenyaEmrServiceImpl extends BaseOpenmrsService implements KenyaEmrS
 	public Integer getNoOfPatientsstockdispensedWithoutDose(String ageCategory,String startOfPeriod,String endOfPeriod,String drugRegimen) {
 		return dao.getNoOfPatientsstockdispensedWithoutDose(ageCategory,startOfPeriod,endOfPeriod,drugRegimen);
 	}
-	
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.KenyaEmrService#getLastDataChangeForPeriod(java.util.Date, java.util.Date)
+	 */
+	@Override
+	public Date getLastDataChangeForPeriod(Date startDate, Date endDate) {
+		return dao.getLastDataChangeForPeriod(startDate, endDate);
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.KenyaEmrService#getLabWorklist(org.openmrs.Patient)
+	 */
+	@Override
+	public List<LabWorklistEntry> getLabWorklist(Patient patient) {
+		EncounterType orderType = MetadataUtils.existing(EncounterType.class, CommonMetadata._EncounterType.LAB_ORDERS);
+		EncounterType resultType = MetadataUtils.existing(EncounterType.class, CommonMetadata._EncounterType.LAB_RESULTS);
+
+		// Rows are ordered by order encounter then result date, so the last row of each order has its latest result
+		Map<Integer, LabWorklistEntry> entries = new LinkedHashMap<Integer, LabWorklistEntry>();
+		for (Object[] row : dao.getLabOrderAndResultEncounters(patient, orderType, resultType)) {
+			Encounter orderEncounter = (Encounter) row[0];
+			Encounter resultEncounter = (Encounter) row[1];
+
+			LabWorklistEntry entry = entries.get(orderEncounter.getEncounterId());
+			if (entry == null) {
+				entry = new LabWorklistEntry(orderEncounter, resultEncounter);
+				entries.put(orderEncounter.getEncounterId(), entry);
+			}
+			else if (resultEncounter != null) {
+				entry.setResultEncounter(resultEncounter);
+			}
+		}
+		return new ArrayList<LabWorklistEntry>(entries.values());
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.KenyaEmrService#getPendingLabWorklist(Integer, Integer)
+	 */
+	@Override
+	public List<LabWorklistEntry> getPendingLabWorklist(Integer firstResult, Integer maxResults) {
+		EncounterType orderType = MetadataUtils.existing(EncounterType.class, CommonMetadata._EncounterType.LAB_ORDERS);
+		EncounterType resultType = MetadataUtils.existing(EncounterType.class, CommonMetadata._EncounterType.LAB_RESULTS);
+
+		List<LabWorklistEntry> entries = new ArrayList<LabWorklistEntry>();
+		for (Encounter orderEncounter : dao.getPendingLabOrderEncounters(orderType, resultType, firstResult, maxResults)) {
+			entries.add(new LabWorklistEntry(orderEncounter, null));
+		}
+		return entries;
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.KenyaEmrService#getNoOfPendingLabOrders()
+	 */
+	@Override
+	public Integer getNoOfPendingLabOrders() {
+		EncounterType orderType = MetadataUtils.existing(EncounterType.class, CommonMetadata._EncounterType.LAB_ORDERS);
+		EncounterType resultType = MetadataUtils.existing(EncounterType.class, CommonMetadata._EncounterType.LAB_RESULTS);
+
+		return dao.getNoOfPendingLabOrders(orderType, resultType);
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.KenyaEmrService#saveRegimenChange(java.util.Collection, java.util.Collection)
+	 */
+	@Override
+	public List<DrugOrderProcessed> saveRegimenChange(Collection<DrugOrder> drugOrders, Collection<DrugOrderProcessed> drugOrderProcesseds) {
+		OrderService orderService = Context.getOrderService();
+		for (DrugOrder drugOrder : drugOrders) {
+			orderService.saveOrder(drugOrder);
+		}
+		return dao.saveDrugOrderProcesseds(drugOrderProcesseds);
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.KenyaEmrService#getScheduledPatientIds(java.util.Date, java.util.Date)
+	 */
+	@Override
+	public Map<Date, Set<Integer>> getScheduledPatientIds(Date fromDate, Date toDate) {
+		Concept returnVisitDate = Dictionary.getConcept(Dictionary.RETURN_VISIT_DATE);
+
+		Map<Date, Set<Integer>> scheduled = new TreeMap<Date, Set<Integer>>();
+		for (Object[] row : dao.getPatientIdsAndValueDatetimes(returnVisitDate, fromDate, toDate)) {
+			Date day = DateUtil.getStartOfDay((Date) row[1]);
+			Set<Integer> patientIds = scheduled.get(day);
+			if (patientIds == null) {
+				patientIds = new TreeSet<Integer>();
+				scheduled.put(day, patientIds);
+			}
+			patientIds.add((Integer) row[0]);
+		}
+		return scheduled;
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.KenyaEmrService#getVisitsByPatient(java.util.Collection, java.util.Date, java.util.Date)
+	 */
+	@Override
+	public Map<Integer, List<Visit>> getVisitsByPatient(Collection<Integer> patientIds, Date fromDate, Date toDate) {
+		Map<Integer, List<Visit>> visits = new HashMap<Integer, List<Visit>>();
+		if (patientIds.isEmpty()) {
+			return visits;
+		}
+
+		for (Visit visit : dao.getVisitsInPeriod(patientIds, fromDate, toDate)) {
+			Integer patientId = visit.getPatient().getPatientId();
+			List<Visit> forPatient = visits.get(patientId);
+			if (forPatient == null) {
+				forPatient = new ArrayList<Visit>();
+				visits.put(patientId, forPatient);
+			}
+			forPatient.add(visit);
+		}
+		return visits;
+	}
 }
@@ -0,0 +1,92 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.calculation;
+
+import org.openmrs.calculation.patient.PatientCalculation;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.result.CalculationResult;
+import org.openmrs.calculation.result.CalculationResultMap;
+import org.openmrs.module.kenyacore.calculation.BooleanResult;
+
+/**
+ * Builds the result map of a boolean calculation. Every patient shares one of three result objects (true, false or
+ * empty) rather than each getting a new one. Dense builders store a result for every patient and pre-size the map for the cohort. Sparse
+ * builders only store patients whose result is true, so should only be used for calculations whose results are
+ * consumed via CalculationUtils.patientsThatPass or ResultUtil.isTrue, for which a missing result means false.
+ */
+public class BooleanResultMapBuilder {
+
+	private final CalculationResultMap results;
+
+	private final CalculationResult trueResult;
+
+	private final CalculationResult falseResult;
+
+	private final CalculationResult nullResult;
+
+	private final boolean sparse;
+
+	/**
+	 * Creates a new builder
+	 * @param expectedSize the expected number of patients
+	 * @param calculation the calculation
+	 * @param context the calculation context
+	 * @param sparse whether to only store true results
+	 */
+	public BooleanResultMapBuilder(int expectedSize, PatientCalculation calculation, PatientCalculationContext context, boolean sparse) {
+		this.results = sparse ? new CalculationResultMap() : EmrCalculationUtils.newResultMap(expectedSize);
+		this.trueResult = new BooleanResult(true, calculation, context);
+		this.falseResult = new BooleanResult(false, calculation, context);
+		this.nullResult = new BooleanResult(null, calculation, context);
+		this.sparse = sparse;
+	}
+
+	/**
+	 * Adds the result for a patient
+	 * @param ptId the patient id
+	 * @param value the result value
+	 * @return this builder
+	 */
+	public BooleanResultMapBuilder put(Integer ptId, boolean value) {
+		if (value) {
+			results.put(ptId, trueResult);
+		}
+		else if (!sparse) {
+			results.put(ptId, falseResult);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds an empty result for a patient, e.g. when the calculation doesn't apply to them
+	 * @param ptId the patient id
+	 * @return this builder
+	 */
+	public BooleanResultMapBuilder putNull(Integer ptId) {
+		if (!sparse) {
+			results.put(ptId, nullResult);
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the result map
+	 * @return the result map
+	 */
+	public CalculationResultMap build() {
+		return results;
+	}
+}
@@ -0,0 +1,37 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.calculation;
+
+import org.openmrs.calculation.patient.PatientCalculation;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.result.CalculationResult;
+
+import java.util.Map;
+
+/**
+ * A calculation whose result is the same for every patient, e.g. the facility name. The result is evaluated once and
+ * the same result object is given to every patient in the cohort.
+ */
+public interface ConstantCalculation extends PatientCalculation {
+
+	/**
+	 * Evaluates the single result shared by all patients
+	 * @param parameterValues the parameter values
+	 * @param context the calculation context
+	 * @return the result
+	 */
+	CalculationResult evaluateConstant(Map<String, Object> parameterValues, PatientCalculationContext context);
+}
@@ -23,6 +23,7 @@ import org.openmrs.Patient;
 import org.openmrs.api.context.Context;
 import org.openmrs.calculation.CalculationContext;
 import org.openmrs.calculation.patient.PatientCalculation;
+import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.patient.PatientCalculationService;
 import org.openmrs.calculation.result.CalculationResult;
 import org.openmrs.calculation.result.CalculationResultMap;
@@ -31,25 +32,32 @@ import org.openmrs.calculation.result.ResultUtil;
 import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyacore.CoreContext;
 import org.openmrs.module.kenyacore.calculation.CalculationUtils;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import org.openmrs.module.kenyaemr.regimen.RegimenDefinition;
 import org.openmrs.module.kenyaemr.regimen.RegimenManager;
 import org.openmrs.module.kenyaemr.regimen.RegimenOrder;
 import org.openmrs.util.OpenmrsUtil;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
 
 /**
  * Calculation utility methods, also used by some reporting classes
  */
 public class EmrCalculationUtils {
 
+	private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
 	/**
 	 * Evaluates the specified calculation for a single patient
 	 * @param calculationClass the calculation class
@@ -139,6 +147,56 @@ public class EmrCalculationUtils {
 		return null;
 	}
 
+	/**
+	 * Creates a result map in which every patient of the cohort has the same result
+	 * @param cohort the patient ids
+	 * @param result the shared result
+	 * @return the calculation result map
+	 */
+	public static CalculationResultMap constantResultMap(Collection<Integer> cohort, CalculationResult result) {
+		CalculationResultMap ret = newResultMap(cohort.size());
+		for (Integer ptId : cohort) {
+			ret.put(ptId, result);
+		}
+		return ret;
+	}
+
+	/**
+	 * Creates an empty result map which can hold the given number of results without being resized
+	 * @param expectedSize the expected number of results
+	 * @return the calculation result map
+	 */
+	public static CalculationResultMap newResultMap(int expectedSize) {
+		CalculationResultMap ret = new CalculationResultMap();
+		if (expectedSize > 0) {
+			// CalculationResultMap has no capacity constructor, but HashMap.putAll sizes its table for the size of the
+			// given map before adding that map's entries, of which a size hint has none
+			ret.putAll(new SizeHint(expectedSize));
+		}
+		return ret;
+	}
+
+	/**
+	 * Creates a builder for a boolean result map which stores a result for every patient in the cohort
+	 * @param cohort the patient ids
+	 * @param calculation the calculation
+	 * @param context the calculation context
+	 * @return the builder
+	 */
+	public static BooleanResultMapBuilder booleanResults(Collection<Integer> cohort, PatientCalculation calculation, PatientCalculationContext context) {
+		return new BooleanResultMapBuilder(cohort.size(), calculation, context, false);
+	}
+
+	/**
+	 * Creates a builder for a boolean result map which only stores the patients with true results
+	 * @param calculation the calculation
+	 * @param context the calculation context
+	 * @return the builder
+	 */
+	public static BooleanResultMapBuilder sparseBooleanResults(PatientCalculation calculation, PatientCalculationContext context) {
+		return new BooleanResultMapBuilder(0, calculation, context, true);
+	}
+
 	/**
 	 * Checks if a regimen order matches a definition in a regimen group
 	 * @param order the regimen order
@@ -179,6 +237,66 @@ public class EmrCalculationUtils {
 		return result;
 	}
 
+	/**
+	 * Loads the obs with the given concepts from the encounters in a calculation result map. Obs are fetched with a
+	 * single query rather than by initializing the obs collection of each encounter.
+	 * @param encounters the encounter results
+	 * @param concepts the obs concepts
+	 * @return the map of patient ids to the matching obs of their encounter, ordered by obs id
+	 */
+	public static Map<Integer, List<Obs>> obsForEncounterResults(CalculationResultMap encounters, Collection<Concept> concepts) {
+		Map<Integer, List<Obs>> ret = new HashMap<Integer, List<Obs>>();
+
+		Set<Integer> encounterIds = new HashSet<Integer>();
+		for (Integer ptId : encounters.keySet()) {
+			Encounter encounter = encounterResultForPatient(encounters, ptId);
+			if (encounter != null) {
+				encounterIds.add(encounter.getEncounterId());
+			}
+		}
+
+		if (encounterIds.isEmpty() || concepts.isEmpty()) {
+			return ret;
+		}
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("encounterIds", encounterIds);
+		params.put("concepts", concepts);
+
+		List<Object> obss = Context.getService(KenyaEmrService.class).executeHqlQuery(
+				"from Obs o where o.encounter.encounterId in (:encounterIds) and o.concept in (:concepts) and o.voided = false order by o.obsId", params);
+
+		for (Object o : obss) {
+			Obs obs = (Obs) o;
+			Integer ptId = obs.getPerson().getPersonId();
+			List<Obs> patientObss = ret.get(ptId);
+			if (patientObss == null) {
+				patientObss = new ArrayList<Obs>();
+				ret.put(ptId, patientObss);
+			}
+			patientObss.add(obs);
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Finds the first obs with the given concept
+	 * @param obss the obs (may be null)
+	 * @param concept the obs concept
+	 * @return the obs or null
+	 */
+	public static Obs firstObs(List<Obs> obss, Concept concept) {
+		if (obss != null) {
+			for (Obs obs : obss) {
+				if (obs.getConcept().equals(concept)) {
+					return obs;
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Calculates the days since the given date
 	 * @param date the date
@@ -190,4 +308,90 @@ public class EmrCalculationUtils {
 		DateTime d2 = new DateTime(calculationContext.getNow().getTime());
 		return Days.daysBetween(d1, d2).getDays();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Converts a date to a day number, i.e. the number of whole days since 1-Jan-1970 in the default time zone. Day
+	 * numbers of two dates can be subtracted to give the number of calendar days between them.
+	 * @param date the date
+	 * @return the day number
+	 */
+	public static int dayNumber(Date date) {
+		long time = date.getTime();
+		long localTime = time + TimeZone.getDefault().getOffset(time);
+		return (int) (localTime >= 0 ? localTime / MILLIS_PER_DAY : (localTime - MILLIS_PER_DAY + 1) / MILLIS_PER_DAY);
+	}
+
+	/**
+	 * Counts the day numbers in a sorted array which fall within the given range
+	 * @param days the sorted day numbers
+	 * @param fromDay the first day of the range (inclusive)
+	 * @param toDay the last day of the range (inclusive)
+	 * @return the count
+	 */
+	public static int countInRange(int[] days, int fromDay, int toDay) {
+		if (days == null || fromDay > toDay) {
+			return 0;
+		}
+		return firstIndexAfter(days, toDay) - firstIndexAfter(days, fromDay - 1);
+	}
+
+	/**
+	 * Checks whether any two day numbers in a sorted array which fall within the given range are at least the given
+	 * number of days apart. Only the first and last days in the range need to be compared.
+	 * @param days the sorted day numbers
+	 * @param fromDay the first day of the range (inclusive)
+	 * @param toDay the last day of the range (inclusive)
+	 * @param minDaysApart the minimum number of days between two days
+	 * @return true if any two days are far enough apart
+	 */
+	public static boolean anyTwoApart(int[] days, int fromDay, int toDay, int minDaysApart) {
+		if (days == null || fromDay > toDay) {
+			return false;
+		}
+		int first = firstIndexAfter(days, fromDay - 1);
+		int last = firstIndexAfter(days, toDay) - 1;
+		return last > first && days[last] - days[first] >= minDaysApart;
+	}
+
+	/**
+	 * Finds the index of the first value in a sorted array which is greater than the given value
+	 * @param days the sorted day numbers
+	 * @param day the day number
+	 * @return the index, which is the array length if there is no greater value
+	 */
+	private static int firstIndexAfter(int[] days, int day) {
+		int low = 0, high = days.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (days[mid] <= day) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Map with a size but no entries, used to pre-size result maps
+	 */
+	private static class SizeHint extends AbstractMap<Integer, CalculationResult> {
+
+		private final int size;
+
+		public SizeHint(int size) {
+			this.size = size;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Set<Entry<Integer, CalculationResult>> entrySet() {
+			return Collections.emptySet();
+		}
+	}
+}
@@ -0,0 +1,26 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.calculation;
+
+import org.openmrs.calculation.patient.PatientCalculation;
+
+/**
+ * Marks a calculation whose result depends only on its class, parameter values, cohort and the calculation context's
+ * "now" date (i.e. it has no configurable state). Results of such calculations are stored in the calculation context,
+ * so a calculation used by several others in the same evaluation is only evaluated once.
+ */
+public interface MemoizedCalculation extends PatientCalculation {
+}
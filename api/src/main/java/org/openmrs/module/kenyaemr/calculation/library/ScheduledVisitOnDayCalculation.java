@@ -16,20 +16,17 @@ package org.openmrs.module.kenyaemr.calculation.library;
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
-import org.openmrs.Concept;
-import org.openmrs.api.PatientSetService.TimeModifier;
+import org.openmrs.api.context.Context;
 import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.result.CalculationResultMap;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
-import org.openmrs.module.kenyacore.calculation.CalculationUtils;
-import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyacore.calculation.BooleanResult;
-import org.openmrs.module.reporting.cohort.EvaluatedCohort;
-import org.openmrs.module.reporting.cohort.definition.DateObsCohortDefinition;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import org.openmrs.module.reporting.common.DateUtil;
-import org.openmrs.module.reporting.common.RangeComparator;
 
 /**
  * Returns whether patients have a scheduled visit on the specified date
@@ -48,17 +45,12 @@ public class ScheduledVisitOnDayCalculation extends AbstractPatientCalculation {
 
 		Date startOfDay = DateUtil.getStartOfDay(date);
 		Date endOfDay = DateUtil.getEndOfDay(date);
-		Concept returnVisitDate = Dictionary.getConcept(Dictionary.RETURN_VISIT_DATE);
 
-		DateObsCohortDefinition cd = new DateObsCohortDefinition();
-		cd.setTimeModifier(TimeModifier.ANY);
-		cd.setQuestion(returnVisitDate);
-		cd.setOperator1(RangeComparator.GREATER_EQUAL);
-		cd.setValue1(startOfDay);
-		cd.setOperator2(RangeComparator.LESS_EQUAL);
-		cd.setValue2(endOfDay);
-		
-		EvaluatedCohort withScheduledVisit = CalculationUtils.evaluateWithReporting(cd, cohort, null, context);
+		// Only the patients scheduled on this day are fetched, regardless of the size of the cohort
+		Set<Integer> withScheduledVisit = new HashSet<Integer>();
+		for (Set<Integer> scheduled : Context.getService(KenyaEmrService.class).getScheduledPatientIds(startOfDay, endOfDay).values()) {
+			withScheduledVisit.addAll(scheduled);
+		}
 		
 		CalculationResultMap ret = new CalculationResultMap();
 		for (Integer ptId : cohort) {
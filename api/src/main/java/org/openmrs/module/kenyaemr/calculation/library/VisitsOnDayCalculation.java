@@ -14,13 +14,11 @@
 
 package org.openmrs.module.kenyaemr.calculation.library;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
-import org.openmrs.Patient;
 import org.openmrs.Visit;
 import org.openmrs.api.context.Context;
 import org.openmrs.calculation.patient.PatientCalculationContext;
@@ -29,6 +27,7 @@ import org.openmrs.calculation.result.ListResult;
 import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyacore.calculation.CalculationUtils;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import org.openmrs.module.reporting.common.DateUtil;
 
 /**
@@ -48,24 +47,17 @@ public class VisitsOnDayCalculation extends AbstractPatientCalculation {
 		Date startOfDay = DateUtil.getStartOfDay(date);
 		Date endOfDay = DateUtil.getEndOfDay(date);
 		
-		List<Patient> patientStubs = new ArrayList<Patient>();
-		for (Integer ptId : cohort) {
-			patientStubs.add(new Patient(ptId));
-		}
-		
-		// look for visits that started before endOfDay and ended after startOfDay 
-		List<Visit> visits = Context.getVisitService().getVisits(null, patientStubs, null, null, null, endOfDay, startOfDay, null, null, true, false);
+		// look for visits that started before endOfDay and ended after startOfDay
+		Map<Integer, List<Visit>> visits = Context.getService(KenyaEmrService.class).getVisitsByPatient(cohort, startOfDay, endOfDay);
 		
 		// organize by patient
 		CalculationResultMap ret = new CalculationResultMap();
-		for (Visit v : visits) {
-			Integer ptId = v.getPatient().getId();
-			ListResult holder = (ListResult) ret.get(ptId);
-			if (holder == null) {
-				holder = new ListResult();
-				ret.put(ptId, holder);
+		for (Map.Entry<Integer, List<Visit>> entry : visits.entrySet()) {
+			ListResult holder = new ListResult();
+			for (Visit v : entry.getValue()) {
+				holder.add(new SimpleResult(v, this));
 			}
-			holder.add(new SimpleResult(v, this));
+			ret.put(entry.getKey(), holder);
 		}
 		
 		CalculationUtils.ensureEmptyListResults(ret, cohort);
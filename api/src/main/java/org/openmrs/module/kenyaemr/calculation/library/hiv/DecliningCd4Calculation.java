@@ -18,13 +18,13 @@ import org.openmrs.Program;
 import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.result.CalculationResultMap;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
-import org.openmrs.module.kenyacore.calculation.BooleanResult;
 import org.openmrs.module.kenyacore.calculation.CalculationUtils;
 import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyacore.calculation.Filters;
 import org.openmrs.module.kenyacore.calculation.PatientFlagCalculation;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.HivConstants;
+import org.openmrs.module.kenyaemr.calculation.BooleanResultMapBuilder;
 import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
 import org.openmrs.module.kenyaemr.metadata.HivMetadata;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
@@ -60,7 +60,7 @@ public class DecliningCd4Calculation extends AbstractPatientCalculation implemen
 		CalculationResultMap oldCD4Obss = Calculations.lastObsAtLeastDaysAgo(Dictionary.getConcept(Dictionary.CD4_COUNT), HivConstants.DECLINING_CD4_COUNT_ACROSS_DAYS, inHivProgram, context);
 		Set<Integer> ltfu = CalculationUtils.patientsThatPass(calculate(new LostToFollowUpCalculation(), cohort, context));
 
-		CalculationResultMap ret = new CalculationResultMap();
+		BooleanResultMapBuilder ret = EmrCalculationUtils.booleanResults(cohort, this, context);
 		for (Integer ptId : cohort) {
 			boolean declining = false;
 
@@ -76,8 +76,8 @@ public class DecliningCd4Calculation extends AbstractPatientCalculation implemen
 					declining = false;
 				}
 			}
-			ret.put(ptId, new BooleanResult(declining, this, context));
+			ret.put(ptId, declining);
 		}
-		return ret;
+		return ret.build();
 	}
 }
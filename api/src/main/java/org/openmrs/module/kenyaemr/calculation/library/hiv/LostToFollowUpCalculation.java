@@ -21,14 +21,15 @@ import org.openmrs.Obs;
 import org.openmrs.Program;
 import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.result.CalculationResultMap;
-import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyacore.calculation.Filters;
 import org.openmrs.module.kenyacore.calculation.PatientFlagCalculation;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.HivConstants;
+import org.openmrs.module.kenyaemr.calculation.BooleanResultMapBuilder;
 import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.calculation.MemoizedCalculation;
 import org.openmrs.module.kenyaemr.metadata.HivMetadata;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 
@@ -43,7 +44,7 @@ import static org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils.daysSi
  * Calculates whether a patient has been lost to follow up. Calculation returns true if patient
  * is alive, enrolled in the HIV program, but hasn't had an encounter in LOST_TO_FOLLOW_UP_THRESHOLD_DAYS days
  */
-public class LostToFollowUpCalculation extends AbstractPatientCalculation implements PatientFlagCalculation {
+public class LostToFollowUpCalculation extends AbstractPatientCalculation implements PatientFlagCalculation, MemoizedCalculation {
 
 	@Override
 	public String getFlagMessage() {
@@ -71,7 +72,7 @@ public class LostToFollowUpCalculation extends AbstractPatientCalculation implem
 		CalculationResultMap lastReturnDateObss = Calculations.lastObs(Dictionary.getConcept(Dictionary.RETURN_VISIT_DATE), inHivProgram, context);
 		CalculationResultMap lastProgramDiscontinuation = Calculations.lastObs(reasonForDiscontinuation, cohort, context);
 
-		CalculationResultMap ret = new CalculationResultMap();
+		BooleanResultMapBuilder ret = EmrCalculationUtils.booleanResults(cohort, this, context);
 		for (Integer ptId : cohort) {
 			boolean lost = false;
 
@@ -92,9 +93,8 @@ public class LostToFollowUpCalculation extends AbstractPatientCalculation implem
 				}
 
 			}
-			ret.put(ptId, new SimpleResult(lost, this, context));
-
+			ret.put(ptId, lost);
 		}
-		return ret;
+		return ret.build();
 	}
 }
@@ -5,22 +5,13 @@
  */
 package org.openmrs.module.kenyaemr.calculation.library.hiv;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
-import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import org.openmrs.Obs;
-import org.openmrs.Patient;
-import org.openmrs.Person;
 import org.openmrs.Program;
-import org.openmrs.api.ObsService;
 import org.openmrs.api.context.Context;
 import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.result.CalculationResultMap;
@@ -31,11 +22,15 @@ import org.openmrs.module.kenyacore.calculation.Filters;
 import org.openmrs.module.kenyacore.calculation.PatientFlagCalculation;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.HivConstants;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import static org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils.daysSince;
 import org.openmrs.module.kenyaemr.metadata.HivMetadata;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 
-
+/**
+ * Calculates whether patients in HIV care are due for a viral load, i.e. they have an obs with the viral load concept
+ * as its coded value (e.g. a viral load test order) which is more than DUE_DATE_FOR_VIRAL_LOAD days old
+ */
 public class PatientsDueForViralLoadCalculation extends AbstractPatientCalculation implements PatientFlagCalculation {
 
     @Override
@@ -50,29 +45,14 @@ public class PatientsDueForViralLoadCalculation extends AbstractPatientCalculati
         Set<Integer> alive = Filters.alive(cohort, context);
         Set<Integer> inHIV = Filters.inProgram(hivProgram, alive, context);
         Set<Integer> ltfu = CalculationUtils.patientsThatPass(calculate(new LostToFollowUpCalculation(), cohort, context));
+        Map<Integer, Date> earliestViralLoadObsDates = earliestViralLoadObsDates(inHIV);
         CalculationResultMap finalList = new CalculationResultMap();
-        
-        ObsService obs = Context.getObsService();
+
         for (Integer pId : cohort) {
             if (inHIV.contains(pId)) {
-                boolean trigger = false;
-
-                Person p = new Patient(pId);
-                List<Obs> obsListForPatient = obs.getObservationsByPerson(p);
-                Date obsDate = null;
-                int valueCount = 0;
-
-                for (Obs values : obsListForPatient) {
-                    if (values.getValueCoded() == Dictionary.getConcept(Dictionary.HIV_VIRAL_LOAD)) {
-                        if (daysSince(values.getObsDatetime(), context) > HivConstants.DUE_DATE_FOR_VIRAL_LOAD) {
-                            obsDate = values.getObsDatetime();
-                            valueCount++;
-                        }
-                    }
-                }
-                if (valueCount > 0 && obsDate != null) {
-                    trigger = true;
-                }
+                // If the earliest such obs isn't old enough then none are
+                Date obsDate = earliestViralLoadObsDates.get(pId);
+                boolean trigger = obsDate != null && daysSince(obsDate, context) > HivConstants.DUE_DATE_FOR_VIRAL_LOAD;
 
                 if (ltfu.contains(pId)) {
                     trigger = false;
@@ -84,4 +64,30 @@ public class PatientsDueForViralLoadCalculation extends AbstractPatientCalculati
         return finalList;
     }
 
+    /**
+     * Gets the date of the earliest non-voided obs with the viral load concept as its coded value, for each patient
+     * @param patientIds the patient ids
+     * @return the obs dates by patient id
+     */
+    protected static Map<Integer, Date> earliestViralLoadObsDates(Set<Integer> patientIds) {
+        Map<Integer, Date> dates = new HashMap<Integer, Date>();
+        if (patientIds.isEmpty()) {
+            return dates;
+        }
+
+        Map<String, Object> substitutions = new HashMap<String, Object>();
+        substitutions.put("viralLoad", Dictionary.getConcept(Dictionary.HIV_VIRAL_LOAD));
+        substitutions.put("patientIds", patientIds);
+
+        List<Object> rows = Context.getService(KenyaEmrService.class).executeHqlQuery(
+                "select o.person.personId, min(o.obsDatetime) from Obs o"
+                + " where o.valueCoded = :viralLoad and o.voided = false and o.person.personId in (:patientIds)"
+                + " group by o.person.personId", substitutions);
+
+        for (Object row : rows) {
+            Object[] values = (Object[]) row;
+            dates.put((Integer) values[0], (Date) values[1]);
+        }
+        return dates;
+    }
 }
@@ -22,6 +22,7 @@ import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyacore.calculation.CalculationUtils;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.calculation.BaseEmrCalculation;
+import org.openmrs.module.kenyaemr.calculation.MemoizedCalculation;
 import org.openmrs.module.kenyaemr.regimen.RegimenOrder;
 
 import java.util.Collection;
@@ -31,7 +32,7 @@ import java.util.Map;
 /**
  * Calculates the current ART regimen of each patient as a list of drug orders. Returns empty list if patient is not on ART
  */
-public class CurrentArtRegimenCalculation extends BaseEmrCalculation {
+public class CurrentArtRegimenCalculation extends BaseEmrCalculation implements MemoizedCalculation {
 	
 	/**
 	 * @see org.openmrs.calculation.patient.PatientCalculation#evaluate(java.util.Collection,
@@ -25,11 +25,12 @@ import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.calculation.BaseEmrCalculation;
 import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.calculation.MemoizedCalculation;
 
 /**
  * Calculates the date on which a patient first started ART
  */
-public class InitialArtStartDateCalculation extends BaseEmrCalculation {
+public class InitialArtStartDateCalculation extends BaseEmrCalculation implements MemoizedCalculation {
 
 	/**
 	 * @see org.openmrs.calculation.patient.PatientCalculation#evaluate(java.util.Collection, java.util.Map, org.openmrs.calculation.patient.PatientCalculationContext)
@@ -23,6 +23,7 @@ import org.openmrs.module.kenyacore.calculation.CalculationUtils;
 import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.calculation.MemoizedCalculation;
 
 import java.util.Collection;
 import java.util.Map;
@@ -31,7 +32,7 @@ import java.util.Set;
 /**
  * Calculates whether a patient is a transfer in based on the status
  */
-public class IsTransferInCalculation extends AbstractPatientCalculation {
+public class IsTransferInCalculation extends AbstractPatientCalculation implements MemoizedCalculation {
 
 	/**
 	 * @see org.openmrs.calculation.patient.PatientCalculation#evaluate(java.util.Collection,
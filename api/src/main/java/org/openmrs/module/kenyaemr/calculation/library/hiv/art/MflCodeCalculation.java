@@ -13,32 +13,40 @@
  */
 package org.openmrs.module.kenyaemr.calculation.library.hiv.art;
 
+import org.openmrs.Location;
 import org.openmrs.api.context.Context;
 import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.result.CalculationResult;
 import org.openmrs.calculation.result.CalculationResultMap;
 import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.openmrs.module.kenyaemr.calculation.ConstantCalculation;
+import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
 import org.openmrs.module.kenyaemr.wrapper.Facility;
 
 import java.util.Collection;
 import java.util.Map;
 
 /**
- * Return the mfl code for a patient
+ * Return the MFL code of the facility, which is the same for every patient
  */
-public class MflCodeCalculation extends AbstractPatientCalculation {
+public class MflCodeCalculation extends AbstractPatientCalculation implements ConstantCalculation {
+
+	/**
+	 * @see org.openmrs.calculation.patient.PatientCalculation#evaluate(java.util.Collection, java.util.Map, org.openmrs.calculation.patient.PatientCalculationContext)
+	 */
 	@Override
 	public CalculationResultMap evaluate(Collection<Integer> cohort, Map<String, Object> parameterValues, PatientCalculationContext context) {
+		return EmrCalculationUtils.constantResultMap(cohort, evaluateConstant(parameterValues, context));
+	}
 
-		CalculationResultMap location = calculate(new FacilityNameCalculation(), cohort, context);
-
-		CalculationResultMap ret = new CalculationResultMap();
-		for (Integer ptId: cohort) {
-			Facility facility = new Facility(Context.getService(KenyaEmrService.class).getDefaultLocation());
-
-			ret.put(ptId, new SimpleResult(facility.getMflCode(), this));
-		}
-		return ret;
+	/**
+	 * @see org.openmrs.module.kenyaemr.calculation.ConstantCalculation#evaluateConstant(java.util.Map, org.openmrs.calculation.patient.PatientCalculationContext)
+	 */
+	@Override
+	public CalculationResult evaluateConstant(Map<String, Object> parameterValues, PatientCalculationContext context) {
+		Location location = Context.getService(KenyaEmrService.class).getDefaultLocation();
+		return new SimpleResult(location != null ? new Facility(location).getMflCode() : null, this);
 	}
 }
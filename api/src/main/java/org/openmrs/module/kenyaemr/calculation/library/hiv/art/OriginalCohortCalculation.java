@@ -19,6 +19,7 @@ import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyacore.calculation.CalculationUtils;
 import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.calculation.MemoizedCalculation;
 
 import java.util.Collection;
 import java.util.Date;
@@ -28,7 +29,7 @@ import java.util.Set;
 /**
  * Calculates the patient arv start date in this facility
  */
-public class OriginalCohortCalculation extends AbstractPatientCalculation {
+public class OriginalCohortCalculation extends AbstractPatientCalculation implements MemoizedCalculation {
 
 	/**
 	 * @see org.openmrs.calculation.patient.PatientCalculation#evaluate(java.util.Collection,
@@ -38,9 +39,9 @@ public class OriginalCohortCalculation extends AbstractPatientCalculation {
 	public CalculationResultMap evaluate(Collection<Integer> cohort, Map<String, Object> parameterValues,
 										 PatientCalculationContext context) {
 
-		Set<Integer> artStartDate = CalculationUtils.patientsThatPass(calculate(new InitialArtStartDateCalculation(), cohort, context));
-		//Set<Integer> transferIns = CalculationUtils.patientsThatPass(calculate(new StartedArtAtTransferingFacilityCalculation(), cohort, context));
 		CalculationResultMap initialArtStartDate = calculate(new InitialArtStartDateCalculation(), cohort, context);
+		Set<Integer> artStartDate = CalculationUtils.patientsThatPass(initialArtStartDate);
+		//Set<Integer> transferIns = CalculationUtils.patientsThatPass(calculate(new StartedArtAtTransferingFacilityCalculation(), cohort, context));
 		CalculationResultMap result = new CalculationResultMap();
 		for (Integer ptId : cohort) {
 			Date arvStartDate = null;
@@ -14,9 +14,7 @@
 package org.openmrs.module.kenyaemr.calculation.library.hiv.art;
 
 import org.openmrs.Concept;
-import org.openmrs.Encounter;
 import org.openmrs.EncounterType;
-import org.openmrs.Obs;
 import org.openmrs.api.context.Context;
 import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.patient.PatientCalculationService;
@@ -24,95 +22,175 @@ import org.openmrs.calculation.result.CalculationResultMap;
 import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyacore.calculation.CalculationUtils;
-import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyacore.calculation.Filters;
 import org.openmrs.module.kenyaemr.Dictionary;
-import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import org.openmrs.module.kenyaemr.calculation.library.DeceasedPatientsCalculation;
 import org.openmrs.module.kenyaemr.calculation.library.hiv.LostToFollowUpCalculation;
 import org.openmrs.module.kenyaemr.metadata.HivMetadata;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Calculate possible patient outcomes at the end of the cohort period
  */
 public class PatientOutComeCalculation extends AbstractPatientCalculation {
 
+	public static final String ALIVE = "Alive";
+	public static final String TRANSFERRED_OUT = "Transferred Out";
+	public static final String DEAD = "Dead";
+	public static final String LOST_TO_FOLLOW_UP = "Lost To Follow-Up";
+	public static final String STOPPED_ART = "Stopped ART";
+
+	private static final String LOST_TO_FOLLOW_UP_CONCEPT_UUID = "5240AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA";
+
 	@Override
 	public CalculationResultMap evaluate(Collection<Integer> cohort, Map<String, Object> parameterValues,
 										 PatientCalculationContext context) {
 
 		Integer months = (parameterValues != null && parameterValues.containsKey("months")) ? (Integer) parameterValues.get("months") : null;
-		Date evaluationDate = context.getNow();
 
-		//get date that is months a head from the now
-		Calendar calendarMonthsAhead = Calendar.getInstance();
-		calendarMonthsAhead.setTime(evaluationDate);
-		calendarMonthsAhead.add(Calendar.MONTH, months);
+		Map<Integer, Map<Integer, String>> outcomes = evaluateOutcomes(cohort, Collections.singletonList(months), context);
 
-		//override the patient context back to now
-		PatientCalculationService service = Context.getService(PatientCalculationService.class);
-		PatientCalculationContext pContext = service.createCalculationContext();
-		pContext.setNow(calendarMonthsAhead.getTime());
+		CalculationResultMap ret = new CalculationResultMap();
+		for (Integer ptId : cohort) {
+			ret.put(ptId, new SimpleResult(outcomes.get(ptId).get(months), this));
+		}
+		return ret;
+	}
 
-		CalculationResultMap lastEncounterOfHivDisco = Calculations.lastEncounter(MetadataUtils.existing(EncounterType.class, HivMetadata._EncounterType.HIV_DISCONTINUATION), cohort, pContext);
+	/**
+	 * Evaluates the outcomes of each patient a number of months after the context's date, for several numbers of
+	 * months at once. The HIV discontinuation reasons for all of these are loaded by a single query.
+	 * @param cohort the patient ids
+	 * @param horizons the numbers of months after the context's date
+	 * @param context the calculation context
+	 * @return the map of patient ids to maps of months to outcomes
+	 */
+	public Map<Integer, Map<Integer, String>> evaluateOutcomes(Collection<Integer> cohort, Collection<Integer> horizons, PatientCalculationContext context) {
+		Map<Integer, Map<Integer, String>> ret = new HashMap<Integer, Map<Integer, String>>();
+		for (Integer ptId : cohort) {
+			ret.put(ptId, new TreeMap<Integer, String>());
+		}
+		if (cohort.isEmpty()) {
+			return ret;
+		}
 
 		Set<Integer> lostPatients = CalculationUtils.patientsThatPass(calculate(new LostToFollowUpCalculation(), cohort, context));
 
-		Set<Integer> alive = Filters.alive(cohort,pContext);
+		Map<Integer, List<Object[]>> reasons = getDiscontinuationReasons(cohort);
 
-		Set<Integer> patientsWhoStartedArt = CalculationUtils.patientsThatPass(calculate( new InitialArtRegimenCalculation(), cohort, pContext));
+		//declare possible options that would be displayed
+		Integer transferOut = Dictionary.getConcept(Dictionary.TRANSFERRED_OUT).getConceptId();
+		Integer died = Dictionary.getConcept(Dictionary.DIED).getConceptId();
+		Concept ltfuConcept = Context.getConceptService().getConceptByUuid(LOST_TO_FOLLOW_UP_CONCEPT_UUID);
+		Integer ltfu = ltfuConcept != null ? ltfuConcept.getConceptId() : null;
 
-		Set<Integer> patientCurrentArt = CalculationUtils.patientsThatPass(calculate(new CurrentArtRegimenCalculation(), cohort, pContext));
+		PatientCalculationService service = Context.getService(PatientCalculationService.class);
 
-		Set<Integer> deceased = CalculationUtils.patientsThatPass(calculate( new DeceasedPatientsCalculation(), cohort, pContext));
+		for (Integer months : horizons) {
+			//get date that is months a head from the now
+			Calendar calendarMonthsAhead = Calendar.getInstance();
+			calendarMonthsAhead.setTime(context.getNow());
+			calendarMonthsAhead.add(Calendar.MONTH, months);
+			Date horizon = calendarMonthsAhead.getTime();
 
-		//declare possible options that would be displayed
-		Concept transferOut = Dictionary.getConcept(Dictionary.TRANSFERRED_OUT);
-		Concept died = Dictionary.getConcept(Dictionary.DIED);
-		Concept ltfu = Context.getConceptService().getConceptByUuid("5240AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA");
+			PatientCalculationContext pContext = service.createCalculationContext();
+			pContext.setNow(horizon);
 
-		CalculationResultMap ret = new CalculationResultMap();
-		for (Integer ptId : cohort) {
-		   String status = "Alive";
-			Encounter encounter = EmrCalculationUtils.encounterResultForPatient(lastEncounterOfHivDisco, ptId);
-
-			if(encounter != null && encounter.getEncounterDatetime().before(calendarMonthsAhead.getTime())) {
-				for(Obs obs :encounter.getAllObs()){
-					if(obs.getConcept().equals(Dictionary.getConcept(Dictionary.REASON_FOR_PROGRAM_DISCONTINUATION))){
-
-						if(obs.getValueCoded().equals(transferOut)) {
-							status = "Transferred Out";
-						}
-						if(obs.getValueCoded().equals(died) || !(alive.contains(ptId))) {
-							status = "Dead";
-						}
-						if (obs.getValueCoded().equals(ltfu) || lostPatients.contains(ptId)) {
-							status = "Lost To Follow-Up";
-						}
+			Set<Integer> alive = Filters.alive(cohort, pContext);
+			Set<Integer> patientsWhoStartedArt = CalculationUtils.patientsThatPass(calculate(new InitialArtRegimenCalculation(), cohort, pContext));
+			Set<Integer> patientCurrentArt = CalculationUtils.patientsThatPass(calculate(new CurrentArtRegimenCalculation(), cohort, pContext));
+			Set<Integer> deceased = CalculationUtils.patientsThatPass(calculate(new DeceasedPatientsCalculation(), cohort, pContext));
+
+			for (Integer ptId : cohort) {
+				String status = ALIVE;
+				Integer reason = lastReasonBefore(reasons.get(ptId), horizon);
+
+				if (reason != null) {
+					if (reason.equals(transferOut)) {
+						status = TRANSFERRED_OUT;
+					}
+					if (reason.equals(died) || !alive.contains(ptId)) {
+						status = DEAD;
+					}
+					if (reason.equals(ltfu) || lostPatients.contains(ptId)) {
+						status = LOST_TO_FOLLOW_UP;
 					}
 				}
-			}
-			if((patientsWhoStartedArt.contains(ptId)) && (!patientCurrentArt.contains(ptId))) {
-				status = "Stopped ART";
-			}
+				if (patientsWhoStartedArt.contains(ptId) && !patientCurrentArt.contains(ptId)) {
+					status = STOPPED_ART;
+				}
+				if (deceased.contains(ptId)) {
+					status = DEAD;
+				}
+				if (lostPatients.contains(ptId)) {
+					status = LOST_TO_FOLLOW_UP;
+				}
 
-			if(deceased.contains(ptId)) {
-				status = "Dead";
+				ret.get(ptId).put(months, status);
 			}
+		}
+		return ret;
+	}
 
-			if(lostPatients.contains(ptId)){
-				status = "Lost To Follow-Up";
+	/**
+	 * Gets the reasons recorded on HIV discontinuation encounters with a single projection query
+	 * @param cohort the patient ids
+	 * @return the map of patient ids to lists of {encounter date, reason concept id}, ordered by encounter date
+	 */
+	protected static Map<Integer, List<Object[]>> getDiscontinuationReasons(Collection<Integer> cohort) {
+		EncounterType discontinuation = MetadataUtils.existing(EncounterType.class, HivMetadata._EncounterType.HIV_DISCONTINUATION);
+
+		String hql = "select o.person.personId, o.encounter.encounterDatetime, o.valueCoded.conceptId from Obs o"
+				+ " where o.voided = false and o.encounter.voided = false and o.concept = :reason"
+				+ " and o.encounter.encounterType = :discontinuation and o.person.personId in (:patientIds)"
+				+ " order by o.person.personId, o.encounter.encounterDatetime, o.obsId";
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("reason", Dictionary.getConcept(Dictionary.REASON_FOR_PROGRAM_DISCONTINUATION));
+		params.put("discontinuation", discontinuation);
+		params.put("patientIds", cohort);
+
+		Map<Integer, List<Object[]>> ret = new HashMap<Integer, List<Object[]>>();
+		for (Object row : Context.getService(KenyaEmrService.class).executeHqlQuery(hql, params)) {
+			Object[] columns = (Object[]) row;
+			List<Object[]> patientReasons = ret.get(columns[0]);
+			if (patientReasons == null) {
+				patientReasons = new ArrayList<Object[]>();
+				ret.put((Integer) columns[0], patientReasons);
 			}
+			patientReasons.add(new Object[] { columns[1], columns[2] });
+		}
+		return ret;
+	}
 
-			ret.put(ptId, new SimpleResult(status, this));
+	/**
+	 * Gets the reason from the last discontinuation before the given date
+	 * @param reasons the patient's reasons ordered by date (may be null)
+	 * @param date the date
+	 * @return the reason concept id or null
+	 */
+	protected static Integer lastReasonBefore(List<Object[]> reasons, Date date) {
+		Integer reason = null;
+		if (reasons != null) {
+			for (Object[] dateAndReason : reasons) {
+				if (!((Date) dateAndReason[0]).before(date)) {
+					break;
+				}
+				reason = (Integer) dateAndReason[1];
+			}
 		}
-		 return  ret;
+		return reason;
 	}
 }
@@ -22,6 +22,7 @@ import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.calculation.MemoizedCalculation;
 
 import java.util.Collection;
 import java.util.Date;
@@ -30,7 +31,7 @@ import java.util.Map;
 /**
  * Calculates whether a patient is a transfer in date
  */
-public class TransferInDateCalculation extends AbstractPatientCalculation {
+public class TransferInDateCalculation extends AbstractPatientCalculation implements MemoizedCalculation {
 	/**
 	 * @see org.openmrs.calculation.patient.PatientCalculation#evaluate(java.util.Collection,
 	 *      java.util.Map, org.openmrs.calculation.patient.PatientCalculationContext)
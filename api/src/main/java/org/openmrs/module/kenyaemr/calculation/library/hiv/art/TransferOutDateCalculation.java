@@ -21,6 +21,7 @@ import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.calculation.MemoizedCalculation;
 
 import java.util.Collection;
 import java.util.Date;
@@ -29,7 +30,7 @@ import java.util.Map;
 /**
  * Calculates whether a patient has a transfer out date
  */
-public class TransferOutDateCalculation extends AbstractPatientCalculation {
+public class TransferOutDateCalculation extends AbstractPatientCalculation implements MemoizedCalculation {
 
 	/**
 	 * @see org.openmrs.calculation.patient.PatientCalculation#evaluate(java.util.Collection,
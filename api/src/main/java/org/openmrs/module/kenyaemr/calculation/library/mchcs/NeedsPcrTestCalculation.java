@@ -20,12 +20,12 @@ import org.openmrs.Program;
 import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.result.CalculationResultMap;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
-import org.openmrs.module.kenyacore.calculation.BooleanResult;
 import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyacore.calculation.Filters;
 import org.openmrs.module.kenyacore.calculation.PatientFlagCalculation;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.calculation.BooleanResultMapBuilder;
 import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
 import org.openmrs.module.kenyaemr.metadata.MchMetadata;
 
@@ -64,7 +64,7 @@ public class NeedsPcrTestCalculation extends AbstractPatientCalculation  {
 
 		Concept hivExposed = Dictionary.getConcept(Dictionary.EXPOSURE_TO_HIV);
 
-		CalculationResultMap ret = new CalculationResultMap();
+		BooleanResultMapBuilder ret = EmrCalculationUtils.booleanResults(cohort, this, context);
 
 		for (Integer ptId : cohort) {
 
@@ -81,8 +81,8 @@ public class NeedsPcrTestCalculation extends AbstractPatientCalculation  {
 				}
 			}
 
-			ret.put(ptId, new BooleanResult(needsPcr, this, context));
+			ret.put(ptId, needsPcr);
 		}
-		return ret;
+		return ret.build();
 	}
 }
\ No newline at end of file
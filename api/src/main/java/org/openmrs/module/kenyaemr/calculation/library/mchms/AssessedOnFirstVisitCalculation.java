@@ -25,14 +25,15 @@ import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyacore.calculation.BooleanResult;
 import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyacore.calculation.Filters;
-import org.openmrs.module.kenyaemr.wrapper.EncounterWrapper;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 import org.openmrs.module.kenyaemr.ArtAssessmentMethod;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
 import org.openmrs.module.kenyaemr.metadata.MchMetadata;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -62,6 +63,7 @@ public class AssessedOnFirstVisitCalculation extends AbstractPatientCalculation
 		Set<Integer> inMchmsProgram = Filters.inProgram(mchmsProgram, alive, context);
 
 		CalculationResultMap crm = Calculations.firstEncounter(mchConsultation, inMchmsProgram, context);
+		Map<Integer, List<Obs>> firstVisitObss = EmrCalculationUtils.obsForEncounterResults(crm, Arrays.asList(whoStageConcept, cd4CountConcept));
 
 		CalculationResultMap resultMap = new CalculationResultMap();
 
@@ -70,19 +72,19 @@ public class AssessedOnFirstVisitCalculation extends AbstractPatientCalculation
 			Encounter encounter = EmrCalculationUtils.encounterResultForPatient(crm, ptId);
 
 			if (encounter != null) {
-				EncounterWrapper wrapper = new EncounterWrapper(encounter);
+				List<Obs> obss = firstVisitObss.get(ptId);
 
 				if (artAssessmentMethod == ArtAssessmentMethod.WHO_STAGING) {
-					Obs whoStageObs = wrapper.firstObs(whoStageConcept);
+					Obs whoStageObs = EmrCalculationUtils.firstObs(obss, whoStageConcept);
 					qualified = whoStageObs != null && whoStageObs.getValueCoded() != null;
 				}
 				else if (artAssessmentMethod == ArtAssessmentMethod.CD4_COUNT) {
-					Obs cd4CountObs = wrapper.firstObs(cd4CountConcept);
+					Obs cd4CountObs = EmrCalculationUtils.firstObs(obss, cd4CountConcept);
 					qualified = cd4CountObs != null && cd4CountObs.getValueNumeric() != null;
 				}
 				else {
-					Obs whoStageObs = wrapper.firstObs(whoStageConcept);
-					Obs cd4CountObs = wrapper.firstObs(cd4CountConcept);
+					Obs whoStageObs = EmrCalculationUtils.firstObs(obss, whoStageConcept);
+					Obs cd4CountObs = EmrCalculationUtils.firstObs(obss, cd4CountConcept);
 					qualified = (whoStageObs != null && whoStageObs.getValueCoded() != null)
 							|| (cd4CountObs != null && cd4CountObs.getValueNumeric() != null);
 				}
@@ -14,16 +14,15 @@
 
 package org.openmrs.module.kenyaemr.calculation.library.mchms;
 
+import org.openmrs.Concept;
 import org.openmrs.Encounter;
 import org.openmrs.EncounterType;
 import org.openmrs.Form;
 import org.openmrs.Obs;
-import org.openmrs.api.ObsService;
-import org.openmrs.api.PersonService;
-import org.openmrs.api.context.Context;
 import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.result.CalculationResultMap;
 import org.openmrs.calculation.result.ListResult;
+import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyacore.calculation.BooleanResult;
 import org.openmrs.module.kenyacore.calculation.CalculationUtils;
@@ -31,6 +30,7 @@ import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyacore.calculation.Filters;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.Metadata;
+import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
 import org.openmrs.module.kenyaemr.metadata.MchMetadata;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 
@@ -57,20 +57,25 @@ public class DeliveriesWithFullPartographsCalculation extends AbstractPatientCal
 		 * concept list that defines full partograph.
 		 * TODO: This is a list of concepts used with delivery form. It is assumed that full partograph requires all these concepts. Verify this
 		 */
-		List<String> conceptList = Arrays.asList(
-				Dictionary.getConcept(Metadata.Concept.PREGNANCY_DURATION_AMOUNT).getUuid(),
-				Dictionary.getConcept(Metadata.Concept.METHOD_OF_DELIVERY).getUuid(),
-				Dictionary.getConcept(Metadata.Concept.DATE_OF_CONFINEMENT).getUuid(),
-				Dictionary.getConcept(Metadata.Concept.ESTIMATED_MATERNAL_BLOOD_LOSS_QUALITATIVE).getUuid(),
-				Dictionary.getConcept(Metadata.Concept.MATERNAL_CONDITION_DURING_PUERPERIUM).getUuid(),
-				Dictionary.getConcept(Metadata.Concept.APGAR_SCORE_AT_1_MINUTE).getUuid(),
-				Dictionary.getConcept(Metadata.Concept.APGAR_SCORE_AT_5_MINUTES).getUuid(),
-				Dictionary.getConcept(Metadata.Concept.APGAR_SCORE_AT_10_MINUTES).getUuid(),
-				Dictionary.getConcept(Metadata.Concept.NEONTAL_RESUSCITATION).getUuid(),
-				Dictionary.getConcept(Metadata.Concept.LOCATION_OF_BIRTH).getUuid(),
-				Dictionary.getConcept(Metadata.Concept.DELIVERY_ASSISTANT).getUuid()
+		List<Concept> partographConcepts = Arrays.asList(
+				Dictionary.getConcept(Metadata.Concept.PREGNANCY_DURATION_AMOUNT),
+				Dictionary.getConcept(Metadata.Concept.METHOD_OF_DELIVERY),
+				Dictionary.getConcept(Metadata.Concept.DATE_OF_CONFINEMENT),
+				Dictionary.getConcept(Metadata.Concept.ESTIMATED_MATERNAL_BLOOD_LOSS_QUALITATIVE),
+				Dictionary.getConcept(Metadata.Concept.MATERNAL_CONDITION_DURING_PUERPERIUM),
+				Dictionary.getConcept(Metadata.Concept.APGAR_SCORE_AT_1_MINUTE),
+				Dictionary.getConcept(Metadata.Concept.APGAR_SCORE_AT_5_MINUTES),
+				Dictionary.getConcept(Metadata.Concept.APGAR_SCORE_AT_10_MINUTES),
+				Dictionary.getConcept(Metadata.Concept.NEONTAL_RESUSCITATION),
+				Dictionary.getConcept(Metadata.Concept.LOCATION_OF_BIRTH),
+				Dictionary.getConcept(Metadata.Concept.DELIVERY_ASSISTANT)
 		);
 
+		Set<String> conceptList = new HashSet<String>();
+		for (Concept concept : partographConcepts) {
+			conceptList.add(concept.getUuid());
+		}
+
 		Integer onOrAfter = (Integer)parameterValues.get("onOrAfter");
 
 		Calendar cal = Calendar.getInstance();
@@ -84,33 +89,38 @@ public class DeliveriesWithFullPartographsCalculation extends AbstractPatientCal
 
         CalculationResultMap allEncountersForMCHConsultation = Calculations.allEncountersOnOrAfter(MetadataUtils.existing(EncounterType.class, MchMetadata._EncounterType.MCHMS_CONSULTATION), effectiveDate, female, context);
         Set<Integer> deliveries = allEncountersForMCHConsultation.keySet();
-        CalculationResultMap ret = new CalculationResultMap();
-		ObsService obsService = Context.getObsService();
-		PersonService personService = Context.getPersonService();
-		for (Integer ptId : cohort) {
 
-            boolean result = false;
-            if (deliveries != null && deliveries.contains(ptId)){
-                ListResult mchcsEncountersResult = (ListResult) allEncountersForMCHConsultation.get(ptId);
-                List<Encounter> encounters = CalculationUtils.extractResultValues(mchcsEncountersResult);
+		// Find each patient's delivery encounter so that their obs can be fetched in one query
+		CalculationResultMap deliveryEncounters = new CalculationResultMap();
+		for (Integer ptId : deliveries) {
+			ListResult mchcsEncountersResult = (ListResult) allEncountersForMCHConsultation.get(ptId);
+			List<Encounter> encounters = CalculationUtils.extractResultValues(mchcsEncountersResult);
+
+			for (Encounter e : encounters) {
+				if (deliveryForm.getUuid().equals(e.getForm().getUuid())) {
+					//TODO: This code assumes that delivery form is filled in one encounter. This will need to be changed if logic changes
+					deliveryEncounters.put(ptId, new SimpleResult(e, this));
+					break;
+				}
+			}
+		}
 
-                for(Encounter e: encounters){
-                    if(deliveryForm.getUuid().equals(e.getForm().getUuid())){
-						//TODO: This code assumes that delivery form is filled in one encounter. This will need to be changed if logic changes
-						List<Obs> deliveryObs = obsService.getObservations(Arrays.asList(personService.getPerson(ptId)), Arrays.asList(e), null, null, null, null, null, null, null, null, null, false);
-                            result = isCompletePartograph(conceptList, deliveryObs);
-							break;
+		Map<Integer, List<Obs>> deliveryObss = EmrCalculationUtils.obsForEncounterResults(deliveryEncounters, partographConcepts);
 
-                    }
-                }
-            }
+        CalculationResultMap ret = new CalculationResultMap();
+		for (Integer ptId : cohort) {
+			boolean result = isCompletePartograph(conceptList, deliveryObss.get(ptId));
 
             ret.put(ptId, new BooleanResult(result, this));
         }
         return ret;
     }
 
-	private boolean isCompletePartograph(List<String> fullPartographConcepts, List<Obs> deliveryObs){
+	private boolean isCompletePartograph(Set<String> fullPartographConcepts, List<Obs> deliveryObs){
+		if (deliveryObs == null) {
+			return false;
+		}
+
 		Set<String> deliveryObsConceptUUIDs = new HashSet<String>();
 		for (Obs o: deliveryObs) {
 			deliveryObsConceptUUIDs.add(o.getConcept().getUuid());
@@ -59,16 +59,17 @@ public class HivTestedAtEnrollmentCalculation extends AbstractPatientCalculation
 		Concept notHivTestedConcept = Dictionary.getConcept(Dictionary.NOT_HIV_TESTED);
 
 		CalculationResultMap ret = new CalculationResultMap();
-		CalculationResultMap crm = Calculations.lastEncounter(MetadataUtils.existing(EncounterType.class, MchMetadata._EncounterType.MCHMS_ENROLLMENT), cohort, context);
+		CalculationResultMap crm = Calculations.lastEncounter(MetadataUtils.existing(EncounterType.class, MchMetadata._EncounterType.MCHMS_ENROLLMENT), inMchmsProgram, context);
 		for (Integer ptId : cohort) {
 			// Is patient alive and in MCH program?
 			boolean hivTestedAtEnrollment = false;
 			if (inMchmsProgram.contains(ptId)) {
 				Concept hivStatus = EmrCalculationUtils.codedObsResultForPatient(hivStatusObs, ptId);
 				Date hivTestDate = EmrCalculationUtils.datetimeObsResultForPatient(hivTestDateObs, ptId);
+				Encounter lastMchEnrollment = EmrCalculationUtils.encounterResultForPatient(crm, ptId);
 				if (hivStatus != null && !hivStatus.equals(notHivTestedConcept)) {
-					if (hivTestDate != null) {
-						Date enrollmentDate = ((Encounter) crm.get(ptId).getValue()).getDateCreated();
+					if (hivTestDate != null && lastMchEnrollment != null) {
+						Date enrollmentDate = lastMchEnrollment.getDateCreated();
 						hivTestedAtEnrollment = (hivTestDate.before(enrollmentDate)
 								|| hivTestDate.equals(enrollmentDate));
 					}
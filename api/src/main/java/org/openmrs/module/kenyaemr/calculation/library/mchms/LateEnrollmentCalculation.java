@@ -16,6 +16,7 @@ package org.openmrs.module.kenyaemr.calculation.library.mchms;
 
 import org.joda.time.DateTime;
 import org.joda.time.Weeks;
+import org.openmrs.Concept;
 import org.openmrs.Encounter;
 import org.openmrs.EncounterType;
 import org.openmrs.Obs;
@@ -26,12 +27,14 @@ import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyacore.calculation.BooleanResult;
 import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyacore.calculation.Filters;
-import org.openmrs.module.kenyaemr.wrapper.EncounterWrapper;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
 import org.openmrs.module.kenyaemr.metadata.MchMetadata;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -55,12 +58,17 @@ public class LateEnrollmentCalculation extends AbstractPatientCalculation {
 		Set<Integer> inMchmsProgram = Filters.inProgram(mchmsProgram, alive, context);
 
 		CalculationResultMap ret = new CalculationResultMap();
-		CalculationResultMap crm = Calculations.lastEncounter(MetadataUtils.existing(EncounterType.class, MchMetadata._EncounterType.MCHMS_ENROLLMENT), cohort, context);
+		CalculationResultMap crm = Calculations.lastEncounter(MetadataUtils.existing(EncounterType.class, MchMetadata._EncounterType.MCHMS_ENROLLMENT), inMchmsProgram, context);
+		Concept lmpConcept = Dictionary.getConcept(Dictionary.LAST_MONTHLY_PERIOD);
+		Map<Integer, List<Obs>> enrollmentObss = EmrCalculationUtils.obsForEncounterResults(crm, Collections.singleton(lmpConcept));
+
 		for (Integer ptId : cohort) {
 			// Is patient alive and in MCH program?
 			boolean lateEnrollment = false;
 			if (inMchmsProgram.contains(ptId)) {
-				lateEnrollment = gestationAtEnrollmentWasGreaterThan28Weeks(ptId, crm);
+				Encounter lastMchEnrollment = EmrCalculationUtils.encounterResultForPatient(crm, ptId);
+				Obs lmpObs = EmrCalculationUtils.firstObs(enrollmentObss.get(ptId), lmpConcept);
+				lateEnrollment = gestationAtEnrollmentWasGreaterThan28Weeks(lastMchEnrollment, lmpObs);
 			}
 			ret.put(ptId, new BooleanResult(lateEnrollment, this, context));
 		}
@@ -71,12 +79,8 @@ public class LateEnrollmentCalculation extends AbstractPatientCalculation {
 	 * @return true if the given patient's gestation at enrollment was greater than 28 weeks at enrollment and false
 	 * otherwise.
 	 * */
-	protected boolean gestationAtEnrollmentWasGreaterThan28Weeks(Integer patientId, CalculationResultMap crm) {
-		Encounter lastMchEnrollment = (Encounter) crm.get(patientId).getValue();
-		EncounterWrapper wrapper = new EncounterWrapper(lastMchEnrollment);
-
-		Obs lmpObs = wrapper.firstObs(Dictionary.getConcept(Dictionary.LAST_MONTHLY_PERIOD));
-		if (lmpObs != null) {
+	protected boolean gestationAtEnrollmentWasGreaterThan28Weeks(Encounter lastMchEnrollment, Obs lmpObs) {
+		if (lastMchEnrollment != null && lmpObs != null) {
 			Weeks weeks = Weeks.weeksBetween(new DateTime(lmpObs.getValueDate()), new DateTime(lastMchEnrollment.getDateCreated()));
 			if (weeks.getWeeks() > 28) {
 				return true;
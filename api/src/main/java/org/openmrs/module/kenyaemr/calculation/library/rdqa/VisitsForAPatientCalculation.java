@@ -13,17 +13,15 @@
  */
 package org.openmrs.module.kenyaemr.calculation.library.rdqa;
 
-import org.openmrs.Visit;
 import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.result.CalculationResultMap;
-import org.openmrs.calculation.result.ListResult;
 import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
 import org.openmrs.module.kenyacore.calculation.CalculationUtils;
-import org.openmrs.module.kenyacore.report.data.patient.definition.VisitsForPatientDataDefinition;
+import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.VisitDatesDataDefinition;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,14 +32,13 @@ public class VisitsForAPatientCalculation extends AbstractPatientCalculation {
 	@Override
 	public CalculationResultMap evaluate(Collection<Integer> cohort, Map<String, Object> parameterValues, PatientCalculationContext context) {
 
-		VisitsForPatientDataDefinition definition = new VisitsForPatientDataDefinition();
+		VisitDatesDataDefinition definition = new VisitDatesDataDefinition();
 		CalculationResultMap data = CalculationUtils.evaluateWithReporting(definition, cohort, parameterValues, null, context);
 		CalculationResultMap ret = new CalculationResultMap();
 
 		for (Integer ptid : cohort) {
-			ListResult result = (ListResult) data.get(ptid);
-			List<Visit> visits = CalculationUtils.extractResultValues(result);
-			Integer noOfVisits = visits != null && visits.size() > 0? visits.size(): 0;
+			int[] visitDays = EmrCalculationUtils.resultForPatient(data, ptid);
+			Integer noOfVisits = visitDays != null ? visitDays.length : 0;
 			ret.put(ptid, new SimpleResult(noOfVisits, this));
 		}
 
@@ -17,7 +17,6 @@ package org.openmrs.module.kenyaemr.calculation.library.tb;
 import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.result.CalculationResultMap;
 import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
-import org.openmrs.module.kenyacore.calculation.Calculations;
 import org.openmrs.module.kenyaemr.Dictionary;
 
 import java.util.Collection;
@@ -33,6 +32,6 @@ public class TbDiseaseClassificationCalculation extends AbstractPatientCalculati
 	 */
 	@Override
 	public CalculationResultMap evaluate(Collection<Integer> cohort, Map<String, Object> arg1, PatientCalculationContext context) {
-		return Calculations.lastObs(Dictionary.getConcept(Dictionary.TB_SITE), cohort, context);
+		return TbTreatmentEpisodeCalculation.lastObs(Dictionary.getConcept(Dictionary.TB_SITE), cohort, context, this);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.calculation.library.tb;
+
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.calculation.patient.PatientCalculation;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.result.CalculationResultMap;
+import org.openmrs.calculation.result.ObsResult;
+import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
+import org.openmrs.module.kenyacore.calculation.CalculationUtils;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.calculation.MemoizedCalculation;
+import org.openmrs.module.kenyaemr.model.TbTreatmentEpisode;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.TbTreatmentEpisodeDataDefinition;
+import org.openmrs.module.metadatadeploy.MissingMetadataException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates each patient's TB treatment episode. The TB calculations which need a patient's last TB enrollment,
+ * treatment or outcome obs are projections of this calculation, so it is only evaluated once per calculation context.
+ */
+public class TbTreatmentEpisodeCalculation extends AbstractPatientCalculation implements MemoizedCalculation {
+
+	/**
+	 * The questions of the obs which make up a TB treatment episode
+	 */
+	public static final List<String> QUESTIONS = Arrays.asList(
+			Dictionary.TUBERCULOSIS_DRUG_TREATMENT_START_DATE,
+			Dictionary.TUBERCULOSIS_TREATMENT_NUMBER,
+			Dictionary.TB_SITE,
+			Dictionary.TB_PATIENT,
+			Dictionary.TB_FORM_REGIMEN,
+			Dictionary.TB_DRUG_SENSITIVITY,
+			Dictionary.TUBERCULOSIS_TREATMENT_OUTCOME,
+			Dictionary.TB_OUTCOME_DATE
+	);
+
+	/**
+	 * @see org.openmrs.calculation.patient.PatientCalculation#evaluate(java.util.Collection, java.util.Map, org.openmrs.calculation.patient.PatientCalculationContext)
+	 */
+	@Override
+	public CalculationResultMap evaluate(Collection<Integer> cohort, Map<String, Object> parameterValues, PatientCalculationContext context) {
+		TbTreatmentEpisodeDataDefinition definition = new TbTreatmentEpisodeDataDefinition("TB treatment episode", getQuestions(), context.getNow());
+		return CalculationUtils.evaluateWithReporting(definition, cohort, parameterValues, null, context);
+	}
+
+	/**
+	 * Gets the question concepts of the obs which make up a TB treatment episode
+	 * @return the question concepts
+	 */
+	public static List<Concept> getQuestions() {
+		List<Concept> questions = new ArrayList<Concept>();
+		for (String identifier : QUESTIONS) {
+			try {
+				questions.add(Dictionary.getConcept(identifier));
+			}
+			catch (MissingMetadataException ex) {
+				// Only the calculation which projects this question requires its concept
+			}
+		}
+		return questions;
+	}
+
+	/**
+	 * Projects the last obs of one question from the TB treatment episodes of a cohort
+	 * @param question the question concept (must be one of {@link #QUESTIONS})
+	 * @param cohort the patient ids
+	 * @param context the calculation context
+	 * @param calculation the projecting calculation
+	 * @return the obs results
+	 */
+	public static CalculationResultMap lastObs(Concept question, Collection<Integer> cohort, PatientCalculationContext context, PatientCalculation calculation) {
+		CalculationResultMap episodes = calculate(new TbTreatmentEpisodeCalculation(), cohort, context);
+
+		CalculationResultMap ret = EmrCalculationUtils.newResultMap(cohort.size());
+		for (Integer ptId : cohort) {
+			TbTreatmentEpisode episode = EmrCalculationUtils.resultForPatient(episodes, ptId);
+			Obs obs = episode != null ? episode.getLastObs(question) : null;
+			ret.put(ptId, obs != null ? new ObsResult(obs, calculation, context) : null);
+		}
+		return ret;
+	}
+}
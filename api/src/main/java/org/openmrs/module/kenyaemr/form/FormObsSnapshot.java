@@ -0,0 +1,209 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.form;
+
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.Person;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.htmlformentry.FormEntrySession;
+import org.openmrs.module.htmlformentry.HtmlForm;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.metadatadeploy.MissingMetadataException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Snapshot of a patient's obs for the concepts referenced by a form's obs velocity functions and recentObs tags. This
+ * is loaded with a single query the first time it's needed in a form session, and then used instead of querying
+ * separately for each function call or tag.
+ */
+public class FormObsSnapshot {
+
+	private static final Pattern VELOCITY_FUNCTION_PATTERN = Pattern.compile("kenyaemr\\.(?:latestObs|earliestObs|allObs|obsToday)\\(\\s*[\"']([^\"']+)[\"']\\s*\\)");
+
+	private static final Pattern RECENT_OBS_TAG_PATTERN = Pattern.compile("<recentObs\\s[^>]*conceptId\\s*=\\s*[\"']([^\"']+)[\"']");
+
+	/**
+	 * Referenced concept identifiers of saved forms by HTML form id, so that each revision of a form is only scanned once.
+	 * A new revision replaces the previous one's entry, so there is at most one entry per form.
+	 */
+	private static final Map<Integer, FormConcepts> formConceptIdentifiers = new ConcurrentHashMap<Integer, FormConcepts>();
+
+	private static final Map<FormEntrySession, FormObsSnapshot> sessionSnapshots = Collections.synchronizedMap(new WeakHashMap<FormEntrySession, FormObsSnapshot>());
+
+	private Map<Integer, List<Obs>> obsByConcept = new HashMap<Integer, List<Obs>>();
+
+	/**
+	 * Gets the snapshot for a form session, loading it if necessary
+	 * @param session the form entry session
+	 * @return the snapshot or null if form has no existing patient
+	 */
+	public static FormObsSnapshot forSession(FormEntrySession session) {
+		Patient patient = session.getPatient();
+		if (patient == null || patient.getPatientId() == null || session.getHtmlForm() == null) {
+			return null;
+		}
+
+		FormObsSnapshot snapshot = sessionSnapshots.get(session);
+		if (snapshot != null) {
+			return snapshot;
+		}
+
+		// Loaded outside the lock so that form loads for other sessions don't wait on this patient's obs
+		Set<Concept> concepts = new LinkedHashSet<Concept>();
+		for (String identifier : getReferencedConceptIdentifiers(session.getHtmlForm())) {
+			try {
+				concepts.add(Dictionary.getConcept(identifier));
+			}
+			catch (MissingMetadataException ex) {
+				// Function or tag will fail itself when it looks up the concept
+			}
+		}
+
+		snapshot = new FormObsSnapshot(patient, concepts);
+
+		synchronized (sessionSnapshots) {
+			FormObsSnapshot existing = sessionSnapshots.get(session);
+			if (existing != null) {
+				return existing;
+			}
+			sessionSnapshots.put(session, snapshot);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Gets the concept identifiers referenced by obs velocity functions and recentObs tags in an HTML form. These are
+	 * cached for saved forms until the form is changed.
+	 * @param form the HTML form
+	 * @return the concept identifiers
+	 */
+	protected static Set<String> getReferencedConceptIdentifiers(HtmlForm form) {
+		String xml = form.getXmlData();
+		if (form.getId() == null || xml == null) {
+			return getReferencedConceptIdentifiers(xml);
+		}
+
+		// XML hash catches changes to forms which haven't been saved since
+		String revision = (form.getDateChanged() != null ? form.getDateChanged().getTime() : 0) + ":" + xml.hashCode();
+
+		FormConcepts cached = formConceptIdentifiers.get(form.getId());
+		if (cached == null || !cached.revision.equals(revision)) {
+			cached = new FormConcepts(revision, getReferencedConceptIdentifiers(xml));
+			formConceptIdentifiers.put(form.getId(), cached);
+		}
+		return cached.identifiers;
+	}
+
+	/**
+	 * Gets the concept identifiers referenced by obs velocity functions and recentObs tags in form XML
+	 * @param xml the form XML
+	 * @return the concept identifiers
+	 */
+	protected static Set<String> getReferencedConceptIdentifiers(String xml) {
+		if (xml == null) {
+			return Collections.emptySet();
+		}
+
+		Set<String> identifiers = new LinkedHashSet<String>();
+		for (Pattern pattern : new Pattern[] { VELOCITY_FUNCTION_PATTERN, RECENT_OBS_TAG_PATTERN }) {
+			Matcher matcher = pattern.matcher(xml);
+			while (matcher.find()) {
+				identifiers.add(matcher.group(1).trim());
+			}
+		}
+		return Collections.unmodifiableSet(identifiers);
+	}
+
+	/**
+	 * Loads a snapshot of all obs with the given concepts for a patient
+	 * @param patient the patient
+	 * @param concepts the concepts
+	 */
+	public FormObsSnapshot(Patient patient, Collection<Concept> concepts) {
+		for (Concept concept : concepts) {
+			obsByConcept.put(concept.getConceptId(), new ArrayList<Obs>());
+		}
+
+		if (concepts.isEmpty()) {
+			return;
+		}
+
+		List<Person> whom = Collections.singletonList((Person) patient);
+		List<Concept> questions = new ArrayList<Concept>(concepts);
+		List<Obs> allObs = Context.getObsService().getObservations(whom, null, questions, null, null, null, Collections.singletonList("obsDatetime"), null, null, null, null, false);
+
+		// Obs are ordered most recent first, as they would be if fetched separately
+		for (Obs o : allObs) {
+			obsByConcept.get(o.getConcept().getConceptId()).add(o);
+		}
+	}
+
+	/**
+	 * Gets the number of forms whose referenced concept identifiers are cached
+	 * @return the number of forms
+	 */
+	protected static int getCachedFormCount() {
+		return formConceptIdentifiers.size();
+	}
+
+	/**
+	 * Checks whether this snapshot contains the obs for a concept
+	 * @param concept the concept
+	 * @return true if snapshot contains the obs
+	 */
+	public boolean contains(Concept concept) {
+		return obsByConcept.containsKey(concept.getConceptId());
+	}
+
+	/**
+	 * Gets the obs for a concept, most recent first
+	 * @param concept the concept
+	 * @return the obs or null if snapshot doesn't contain that concept
+	 */
+	public List<Obs> getObs(Concept concept) {
+		List<Obs> obs = obsByConcept.get(concept.getConceptId());
+		return obs != null ? new ArrayList<Obs>(obs) : null;
+	}
+
+	/**
+	 * The referenced concept identifiers of one revision of a form
+	 */
+	private static class FormConcepts {
+
+		private final String revision;
+
+		private final Set<String> identifiers;
+
+		private FormConcepts(String revision, Set<String> identifiers) {
+			this.revision = revision;
+			this.identifiers = identifiers;
+		}
+	}
+}
@@ -20,11 +20,13 @@ import org.openmrs.Obs;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.htmlformentry.FormEntryContext;
 import org.openmrs.module.htmlformentry.element.HtmlGeneratorElement;
+import org.openmrs.module.kenyaemr.form.FormObsSnapshot;
 import org.openmrs.module.kenyaemr.util.EmrUtils;
 import org.openmrs.module.kenyaemr.wrapper.PatientWrapper;
 import org.openmrs.module.kenyaui.KenyaUiUtils;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -35,6 +37,7 @@ public class RecentObsElement implements HtmlGeneratorElement {
 	private String conceptId;
 	private boolean showDate = true;
 	private String noneMessage;
+	private FormObsSnapshot snapshot;
 
 	/**
 	 * Creates a new element
@@ -42,6 +45,18 @@ public class RecentObsElement implements HtmlGeneratorElement {
 	 * @param parameters the tag parameters
 	 */
 	public RecentObsElement(FormEntryContext context, Map<String, String> parameters) {
+		this(context, parameters, null);
+	}
+
+	/**
+	 * Creates a new element which reads from an obs snapshot if it contains the concept
+	 * @param context the form entry context
+	 * @param parameters the tag parameters
+	 * @param snapshot the form obs snapshot (may be null)
+	 */
+	public RecentObsElement(FormEntryContext context, Map<String, String> parameters, FormObsSnapshot snapshot) {
+		this.snapshot = snapshot;
+
 		conceptId = parameters.get("conceptId");
 
 		if (StringUtils.isEmpty(conceptId)) {
@@ -68,7 +83,16 @@ public class RecentObsElement implements HtmlGeneratorElement {
 
 		PatientWrapper patient = new PatientWrapper(context.getExistingPatient());
 
-		Obs obs = patient.lastObs(MetadataUtils.existing(Concept.class, conceptId));
+		Concept concept = MetadataUtils.existing(Concept.class, conceptId);
+		Obs obs;
+
+		if (snapshot != null && snapshot.contains(concept)) {
+			List<Obs> allObs = snapshot.getObs(concept);
+			obs = allObs.size() > 0 ? allObs.get(0) : null;
+		}
+		else {
+			obs = patient.lastObs(concept);
+		}
 
 		StringBuilder sb = new StringBuilder("<span>");
 
@@ -18,6 +18,7 @@ import org.openmrs.module.htmlformentry.BadFormDesignException;
 import org.openmrs.module.htmlformentry.FormEntrySession;
 import org.openmrs.module.htmlformentry.FormSubmissionController;
 import org.openmrs.module.htmlformentry.handler.SubstitutionTagHandler;
+import org.openmrs.module.kenyaemr.form.FormObsSnapshot;
 import org.openmrs.module.kenyaemr.form.element.RecentObsElement;
 import org.springframework.stereotype.Component;
 
@@ -31,7 +32,7 @@ public class RecentObsTagHandler extends SubstitutionTagHandler {
 
 	@Override
 	protected String getSubstitution(FormEntrySession session, FormSubmissionController submissionController, Map<String, String> parameters) throws BadFormDesignException {
-		RecentObsElement element = new RecentObsElement(session.getContext(), parameters);
+		RecentObsElement element = new RecentObsElement(session.getContext(), parameters, FormObsSnapshot.forSession(session));
 		return element.generateHtml(session.getContext());
 	}
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ import org.openmrs.api.context.Context;
 import org.openmrs.module.htmlformentry.FormEntrySession;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.form.FormObsSnapshot;
 import org.openmrs.module.kenyaemr.metadata.HivMetadata;
 import org.openmrs.module.reporting.common.DateUtil;
 
@@ -86,8 +87,13 @@ public class EmrVelocityFunctions {
 		Patient p = session.getPatient();
 		if (p == null)
 			return new ArrayList<Obs>();
+
+		Concept concept = getConcept(conceptIdentifier);
+		FormObsSnapshot snapshot = FormObsSnapshot.forSession(session);
+		if (snapshot != null && snapshot.contains(concept))
+			return snapshot.getObs(concept);
 		else
-			return Context.getObsService().getObservationsByPersonAndConcept(p, getConcept(conceptIdentifier));
+			return Context.getObsService().getObservationsByPersonAndConcept(p, concept);
 	}
 
 	/**
@@ -126,8 +132,18 @@ public class EmrVelocityFunctions {
 		List<Person> p = Collections.singletonList((Person) session.getPatient());
 		Concept concept = Dictionary.getConcept(conceptIdentifier);
 		Date startOfDay = DateUtil.getStartOfDay(new Date());
-		List<Obs> candidates = Context.getObsService().getObservations(p, null, Collections.singletonList(concept), null, null, null, null, null, null, startOfDay, null, false);
+
+		List<Obs> candidates;
+		FormObsSnapshot snapshot = FormObsSnapshot.forSession(session);
+		if (snapshot != null && snapshot.contains(concept))
+			candidates = snapshot.getObs(concept);
+		else
+			candidates = Context.getObsService().getObservations(p, null, Collections.singletonList(concept), null, null, null, null, null, null, startOfDay, null, false);
+
 		for (Obs candidate : candidates) {
+			if (candidate.getObsDatetime().before(startOfDay)) {
+				continue;
+			}
 			if (toSkip == null || candidate.getEncounter() == null || !candidate.getEncounter().equals(toSkip)) {
 				return candidate;
 			}
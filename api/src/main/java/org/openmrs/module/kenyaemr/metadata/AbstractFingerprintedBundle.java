@@ -0,0 +1,156 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.metadata;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.module.kenyaemr.EmrConstants;
+import org.openmrs.module.kenyaemr.StartupReport;
+import org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle;
+import org.openmrs.util.OpenmrsClassLoader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Metadata bundle which is only installed if its content has changed since it was last installed. The content is
+ * fingerprinted from the bundle's compiled class, which contains all of the definitions in its install method, and
+ * from any resources and other content it depends on. The fingerprint of the last install is stored in a global
+ * property, so deleting that property forces the bundle to be installed again.
+ */
+public abstract class AbstractFingerprintedBundle extends AbstractMetadataBundle {
+
+	protected static final Log log = LogFactory.getLog(AbstractFingerprintedBundle.class);
+
+	@Autowired
+	@Qualifier("adminService")
+	private AdministrationService adminService;
+
+	/**
+	 * @see org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle#install()
+	 */
+	@Override
+	public final void install() {
+		try {
+			installIfChanged();
+		}
+		catch (RuntimeException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			throw new RuntimeException("Unable to install " + getClass().getSimpleName(), ex);
+		}
+	}
+
+	/**
+	 * Installs the metadata of this bundle if its fingerprint differs from the one of its last install
+	 * @throws Exception if an error occurs
+	 */
+	protected void installIfChanged() throws Exception {
+		long start = System.currentTimeMillis();
+		String name = getClass().getSimpleName();
+		String fingerprint = getFingerprint();
+		String propertyName = EmrConstants.GP_BUNDLE_FINGERPRINT_PREFIX + name;
+
+		if (fingerprint.equals(adminService.getGlobalProperty(propertyName))) {
+			log.info("Skipping install of " + name + " as it hasn't changed since last install");
+			StartupReport.record("Bundle " + name, start, "unchanged");
+			return;
+		}
+
+		installDefinitions();
+
+		// Recalculated as the install may have changed content which the fingerprint depends on
+		fingerprint = getFingerprint();
+
+		GlobalProperty property = adminService.getGlobalPropertyObject(propertyName);
+		if (property == null) {
+			property = new GlobalProperty(propertyName, null, "Content fingerprint of the " + name + " bundle at its last install");
+		}
+		property.setPropertyValue(fingerprint);
+		adminService.saveGlobalProperty(property);
+
+		StartupReport.record("Bundle " + name, start, "installed");
+	}
+
+	/**
+	 * Installs the metadata of this bundle
+	 * @throws Exception if an error occurs
+	 */
+	protected abstract void installDefinitions() throws Exception;
+
+	/**
+	 * Gets the paths of resources which are installed by this bundle
+	 * @return the resource paths
+	 */
+	protected List<String> getFingerprintResources() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Gets other content which this bundle's definitions depend on, e.g. existing metadata
+	 * @return the content
+	 */
+	protected String getFingerprintContent() {
+		return "";
+	}
+
+	/**
+	 * Calculates the content fingerprint of this bundle
+	 * @return the fingerprint
+	 * @throws IOException if a resource can't be read
+	 */
+	public String getFingerprint() throws IOException {
+		StringBuilder content = new StringBuilder();
+		content.append(hashResource(getClass().getClassLoader(), getClass().getName().replace('.', '/') + ".class"));
+
+		for (String resource : getFingerprintResources()) {
+			content.append(hashResource(OpenmrsClassLoader.getInstance(), resource));
+		}
+
+		content.append(getFingerprintContent());
+
+		return DigestUtils.md5Hex(content.toString());
+	}
+
+	/**
+	 * Calculates a hash of the content of a resource
+	 * @param classLoader the class loader to load the resource from
+	 * @param path the resource path
+	 * @return the hash
+	 * @throws IOException if resource can't be read
+	 */
+	protected static String hashResource(ClassLoader classLoader, String path) throws IOException {
+		InputStream stream = classLoader.getResourceAsStream(path);
+		if (stream == null) {
+			throw new IOException("Unable to find resource " + path);
+		}
+
+		try {
+			return DigestUtils.md5Hex(stream);
+		}
+		finally {
+			stream.close();
+		}
+	}
+}
@@ -17,7 +17,6 @@ package org.openmrs.module.kenyaemr.metadata;
 import org.openmrs.PatientIdentifierType.LocationBehavior;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.Metadata;
-import org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle;
 import org.openmrs.module.metadatadeploy.bundle.Requires;
 import org.springframework.stereotype.Component;
 
@@ -28,7 +27,7 @@ import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.*;
  */
 @Component
 @Requires({ CommonMetadata.class })
-public class ArtMetadata extends AbstractMetadataBundle {
+public class ArtMetadata extends AbstractFingerprintedBundle {
 
 	public static final class _EncounterType {
 		public static final String INITIATE_ART = "0cb4417d-b98d-4265-92aa-c6ee3d3bb317";
@@ -49,10 +48,10 @@ public class ArtMetadata extends AbstractMetadataBundle {
 	}
 
 	/**
-	 * @see org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle#install()
+	 * @see AbstractFingerprintedBundle#installDefinitions()
 	 */
 	@Override
-	public void install() {
+	protected void installDefinitions() {
 		install(encounterType("ART", "Initiate ART FOR Patient", _EncounterType.INITIATE_ART));
 		install(encounterType("Stop ART", "Stop ART for Patient", _EncounterType.STOP_ART));
 
@@ -25,7 +25,6 @@ import org.openmrs.module.kenyaemr.datatype.FormDatatype;
 import org.openmrs.module.kenyaemr.datatype.LocationDatatype;
 import org.openmrs.module.kenyaemr.metadata.HivMetadata._EncounterType;
 import org.openmrs.module.kenyaemr.metadata.HivMetadata._Form;
-import org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle;
 import org.springframework.stereotype.Component;
 
 import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.*;
@@ -34,7 +33,7 @@ import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.*;
  * Common metadata bundle
  */
 @Component
-public class CommonMetadata extends AbstractMetadataBundle {
+public class CommonMetadata extends AbstractFingerprintedBundle {
 
 	public static final class _EncounterType {
 		public static final String CONSULTATION = "465a92f2-baf8-42e9-9612-53064be868e8";
@@ -114,10 +113,10 @@ public class CommonMetadata extends AbstractMetadataBundle {
 	}
 
 	/**
-	 * @see org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle#install()
+	 * @see AbstractFingerprintedBundle#installDefinitions()
 	 */
 	@Override
-	public void install() {
+	protected void installDefinitions() {
 		install(encounterType("Consultation", "Collection of clinical data during the main consultation", _EncounterType.CONSULTATION));
 		install(encounterType("TB Screening", "Screening of patient for TB", _EncounterType.TB_SCREENING));
 		install(encounterType("Lab Results", "Collection of laboratory results", _EncounterType.LAB_RESULTS));
@@ -14,17 +14,16 @@
 
 package org.openmrs.module.kenyaemr.metadata;
 
-import org.openmrs.Location;
 import org.openmrs.customdatatype.datatype.FreeTextDatatype;
 import org.openmrs.customdatatype.datatype.RegexValidatedTextDatatype;
-import org.openmrs.module.kenyaemr.metadata.sync.LocationMflCsvSource;
 import org.openmrs.module.kenyaemr.metadata.sync.LocationMflSynchronization;
-import org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle;
 import org.openmrs.module.metadatadeploy.bundle.Requires;
-import org.openmrs.module.metadatadeploy.source.ObjectSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.List;
+
 import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.locationAttributeType;
 
 /**
@@ -32,7 +31,7 @@ import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.location
  */
 @Component
 @Requires({ CommonMetadata.class })
-public class FacilityMetadata extends AbstractMetadataBundle {
+public class FacilityMetadata extends AbstractFingerprintedBundle {
 
 	@Autowired
 	private LocationMflSynchronization mflSynchronization;
@@ -48,11 +47,13 @@ public class FacilityMetadata extends AbstractMetadataBundle {
 		public static final String TELEPHONE_FAX = "29e1e758-d03e-4e84-a55e-288fa63d533a";
 	}
 
+	private static final String MFL_CSV_FILE = "metadata/mfl_2014-05-12.csv";
+
 	/**
-	 * @see org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle#install()
+	 * @see AbstractFingerprintedBundle#installDefinitions()
 	 */
 	@Override
-	public void install() throws Exception {
+	protected void installDefinitions() throws Exception {
 		install(true);
 	}
 
@@ -87,8 +88,15 @@ public class FacilityMetadata extends AbstractMetadataBundle {
 		));
 
 		if (full) {
-			ObjectSource<Location> source = new LocationMflCsvSource("metadata/mfl_2014-05-12.csv");
-			sync(source, mflSynchronization);
+			mflSynchronization.syncIfChanged(MFL_CSV_FILE);
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @see AbstractFingerprintedBundle#getFingerprintResources()
+	 */
+	@Override
+	protected List<String> getFingerprintResources() {
+		return Collections.singletonList(MFL_CSV_FILE);
+	}
+}
@@ -17,7 +17,6 @@ package org.openmrs.module.kenyaemr.metadata;
 import org.openmrs.PatientIdentifierType.LocationBehavior;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.Metadata;
-import org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle;
 import org.openmrs.module.metadatadeploy.bundle.Requires;
 import org.springframework.stereotype.Component;
 
@@ -28,7 +27,7 @@ import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.*;
  */
 @Component
 @Requires({ CommonMetadata.class })
-public class HivMetadata extends AbstractMetadataBundle {
+public class HivMetadata extends AbstractFingerprintedBundle {
 
 	public static final class _EncounterType {
 		public static final String HIV_CONSULTATION = "a0034eee-1940-4e35-847f-97537a35d05e";
@@ -61,10 +60,10 @@ public class HivMetadata extends AbstractMetadataBundle {
 	}
 	
 	/**
-	 * @see org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle#install()
+	 * @see AbstractFingerprintedBundle#installDefinitions()
 	 */
 	@Override
-	public void install() {
+	protected void installDefinitions() {
 		install(encounterType("HIV Enrollment", "Enrollment onto HIV program", _EncounterType.HIV_ENROLLMENT));
 		install(encounterType("HIV Consultation", "Collection of HIV-specific data during the main consultation", _EncounterType.HIV_CONSULTATION));
 		install(encounterType("HIV Discontinuation", "Discontinuation from HIV program", _EncounterType.HIV_DISCONTINUATION));
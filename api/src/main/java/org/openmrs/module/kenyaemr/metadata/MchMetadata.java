@@ -17,7 +17,6 @@ package org.openmrs.module.kenyaemr.metadata;
 import org.openmrs.PatientIdentifierType.LocationBehavior;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.Metadata;
-import org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle;
 import org.openmrs.module.metadatadeploy.bundle.Requires;
 import org.springframework.stereotype.Component;
 
@@ -28,7 +27,7 @@ import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.*;
  */
 @Component
 @Requires({CommonMetadata.class})
-public class MchMetadata extends AbstractMetadataBundle {
+public class MchMetadata extends AbstractFingerprintedBundle {
 
 	public static final class _EncounterType {
 		public static final String MCHCS_CONSULTATION = "bcc6da85-72f2-4291-b206-789b8186a021";
@@ -66,10 +65,10 @@ public class MchMetadata extends AbstractMetadataBundle {
 	}
 
 	/**
-	 * @see org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle#install()
+	 * @see AbstractFingerprintedBundle#installDefinitions()
 	 */
 	@Override
-	public void install() {
+	protected void installDefinitions() {
 		///////////////////////////// MCH child services ////////////////////////////////
 
 		install(encounterType("MCH Child Enrollment", "Enrollment of child onto MCH program", _EncounterType.MCHCS_ENROLLMENT));
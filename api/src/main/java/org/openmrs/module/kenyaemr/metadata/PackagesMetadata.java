@@ -14,28 +14,41 @@
 
 package org.openmrs.module.kenyaemr.metadata;
 
-import org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.*;
 
 /**
  * Packages metadata bundle. Kept separate to keep out of unit tests
  */
 @Component
-public class PackagesMetadata extends AbstractMetadataBundle {
+public class PackagesMetadata extends AbstractFingerprintedBundle {
 
 	public static final class _Package {
 		public static final String DRUGS = "550a5db0-13be-486d-aec7-de05adac71e7";
 		public static final String MISC = "29177ba6-a634-42d5-9314-e12689856ff1";
 	}
 
+	private static final String DRUGS_PACKAGE_FILE = "metadata/KenyaEMR_Drugs-2.zip";
+	private static final String MISC_PACKAGE_FILE = "metadata/KenyaEMR_Misc-41.zip";
+
+	/**
+	 * @see AbstractFingerprintedBundle#installDefinitions()
+	 */
+	@Override
+	protected void installDefinitions() {
+		install(packageFile(DRUGS_PACKAGE_FILE, null, _Package.DRUGS));
+		install(packageFile(MISC_PACKAGE_FILE, null, _Package.MISC));
+	}
+
 	/**
-	 * @see org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle#install()
+	 * @see AbstractFingerprintedBundle#getFingerprintResources()
 	 */
 	@Override
-	public void install() {
-		install(packageFile("metadata/KenyaEMR_Drugs-2.zip", null, _Package.DRUGS));
-		install(packageFile("metadata/KenyaEMR_Misc-41.zip", null, _Package.MISC));
+	protected List<String> getFingerprintResources() {
+		return Arrays.asList(DRUGS_PACKAGE_FILE, MISC_PACKAGE_FILE);
 	}
 }
\ No newline at end of file
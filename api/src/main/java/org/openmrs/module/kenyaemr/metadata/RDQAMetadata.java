@@ -14,7 +14,6 @@
 
 package org.openmrs.module.kenyaemr.metadata;
 
-import org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle;
 import org.springframework.stereotype.Component;
 
 import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.globalProperty;
@@ -23,7 +22,7 @@ import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.globalPr
  * Metadata constants
  */
 @Component
-public class RDQAMetadata extends AbstractMetadataBundle {
+public class RDQAMetadata extends AbstractFingerprintedBundle {
 
 	public static final String MODULE_ID = "kenyaemr";
 	public static final String RDQA_DEFAULT_SAMPLE_CONFIGURATION = MODULE_ID + ".sampleSizeConfiguration";
@@ -31,7 +30,7 @@ public class RDQAMetadata extends AbstractMetadataBundle {
 
 
 	@Override
-	public void install() throws Exception {
+	protected void installDefinitions() throws Exception {
 		install(globalProperty(RDQA_DEFAULT_SAMPLE_CONFIGURATION, "RDQA Sample size calculation configuration", defaultConfig));
 
 	}
@@ -18,7 +18,6 @@ import org.openmrs.Privilege;
 import org.openmrs.api.UserService;
 import org.openmrs.module.kenyadq.DqConstants;
 import org.openmrs.module.kenyaemr.EmrConstants;
-import org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle;
 import org.openmrs.util.PrivilegeConstants;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -26,6 +25,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.*;
 
@@ -33,7 +33,7 @@ import static org.openmrs.module.metadatadeploy.bundle.CoreConstructors.*;
  * Security metadata bundle
  */
 @Component
-public class SecurityMetadata extends AbstractMetadataBundle {
+public class SecurityMetadata extends AbstractFingerprintedBundle {
 
 	@Autowired
 	@Qualifier("userService")
@@ -57,10 +57,10 @@ public class SecurityMetadata extends AbstractMetadataBundle {
 	}
 
 	/**
-	 * @see org.openmrs.module.metadatadeploy.bundle.AbstractMetadataBundle#install()
+	 * @see AbstractFingerprintedBundle#installDefinitions()
 	 */
 	@Override
-	public void install() {
+	protected void installDefinitions() {
 		String[] appIds = {
 				EmrConstants.APP_REGISTRATION,
 				EmrConstants.APP_INTAKE,
@@ -174,6 +174,15 @@ public class SecurityMetadata extends AbstractMetadataBundle {
 		));
 	}
 
+	/**
+	 * The API privileges are added to roles, so the bundle must be installed again if other modules add privileges
+	 * @see AbstractFingerprintedBundle#getFingerprintContent()
+	 */
+	@Override
+	protected String getFingerprintContent() {
+		return new TreeSet<String>(getApiPrivileges(true)).toString();
+	}
+
 	/**
 	 * Fetches sets of API privileges
 	 * @param incDestructive include destructive (delete, purge) privileges
@@ -14,16 +14,36 @@
 
 package org.openmrs.module.kenyaemr.metadata.sync;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.GlobalProperty;
 import org.openmrs.Location;
 
+import org.openmrs.LocationAttribute;
+import org.openmrs.LocationAttributeType;
+import org.openmrs.api.AdministrationService;
 import org.openmrs.api.LocationService;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.EmrConstants;
+import org.openmrs.module.kenyaemr.metadata.FacilityMetadata;
 import org.openmrs.module.kenyaemr.wrapper.Facility;
+import org.openmrs.module.metadatadeploy.MetadataUtils;
+import org.openmrs.module.metadatadeploy.source.ObjectSource;
 import org.openmrs.module.metadatadeploy.sync.ObjectSynchronization;
+import org.openmrs.util.OpenmrsClassLoader;
 import org.openmrs.util.OpenmrsUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Synchronization operation to sync locations with a CSV copy of the Kenya Master Facility List
@@ -31,9 +51,108 @@ import java.util.List;
 @Component
 public class LocationMflSynchronization implements ObjectSynchronization<Location> {
 
+	protected static final Log log = LogFactory.getLog(LocationMflSynchronization.class);
+
+	/**
+	 * Number of saved locations after which the session is flushed
+	 */
+	protected static final int BATCH_SIZE = 500;
+
 	@Autowired
 	private LocationService locationService;
 
+	@Autowired
+	@Qualifier("adminService")
+	private AdministrationService adminService;
+
+	/**
+	 * Syncs locations with the given CSV resource, unless it's content is the same as at the last sync
+	 * @param csvFile the csv resource path
+	 * @return the changes made, or null if the sync was skipped
+	 * @throws Exception if an error occurs
+	 */
+	public Changes syncIfChanged(String csvFile) throws Exception {
+		String hash = hashResource(csvFile);
+
+		if (hash.equals(adminService.getGlobalProperty(EmrConstants.GP_MFL_SYNC_HASH))) {
+			log.info("Skipping sync with " + csvFile + " as it hasn't changed since last sync");
+			return null;
+		}
+
+		Changes changes = sync(new LocationMflCsvSource(csvFile));
+
+		GlobalProperty property = adminService.getGlobalPropertyObject(EmrConstants.GP_MFL_SYNC_HASH);
+		if (property == null) {
+			property = new GlobalProperty(EmrConstants.GP_MFL_SYNC_HASH, null, "Content hash of the MFL resource at the last location sync");
+		}
+		property.setPropertyValue(hash);
+		adminService.saveGlobalProperty(property);
+
+		log.info("Synced locations with " + csvFile + " (" + changes + ")");
+
+		return changes;
+	}
+
+	/**
+	 * Syncs locations with the given source by comparing them by MFL code. Only new, changed and removed facilities are
+	 * saved and the session is flushed in batches.
+	 * @param source the location source
+	 * @return the changes made
+	 * @throws Exception if an error occurs
+	 */
+	public Changes sync(ObjectSource<Location> source) throws Exception {
+		Map<String, Location> existingByCode = new HashMap<String, Location>();
+		for (Location existing : fetchAllExisting()) {
+			String code = (String) getObjectSyncKey(existing);
+			if (code != null) {
+				// Prefer the unretired location if a code is shared with retired ones
+				Location other = existingByCode.get(code);
+				if (other == null || other.isRetired()) {
+					existingByCode.put(code, existing);
+				}
+			}
+		}
+
+		Changes changes = new Changes();
+		Set<String> incomingCodes = new HashSet<String>();
+		Location incoming;
+
+		while ((incoming = source.fetchNext()) != null) {
+			String code = (String) getObjectSyncKey(incoming);
+			incomingCodes.add(code);
+
+			Location existing = existingByCode.get(code);
+			if (existing == null) {
+				locationService.saveLocation(incoming);
+				changes.created++;
+			}
+			else if (existing.isRetired() || updateRequired(incoming, existing)) {
+				copy(incoming, existing);
+				locationService.saveLocation(existing);
+				changes.updated++;
+			}
+			else {
+				continue;
+			}
+
+			flushBatch(changes);
+		}
+
+		for (Map.Entry<String, Location> entry : existingByCode.entrySet()) {
+			Location existing = entry.getValue();
+			if (!existing.isRetired() && !incomingCodes.contains(entry.getKey())) {
+				locationService.retireLocation(existing, "No longer in the Master Facility List");
+				changes.retired++;
+
+				flushBatch(changes);
+			}
+		}
+
+		Context.flushSession();
+
+		return changes;
+	}
+
 	/**
 	 * @see org.openmrs.module.metadatadeploy.sync.ObjectSynchronization#fetchAllExisting()
 	 */
@@ -71,4 +190,116 @@ public class LocationMflSynchronization implements ObjectSynchronization<Locatio
 
 		return !objectsMatch;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Copies the synced fields of an incoming location onto an existing location
+	 * @param incoming the incoming location
+	 * @param existing the existing location
+	 */
+	protected void copy(Location incoming, Location existing) {
+		existing.setName(incoming.getName());
+		existing.setDescription(incoming.getDescription());
+		existing.setAddress5(incoming.getAddress5());
+		existing.setAddress6(incoming.getAddress6());
+		existing.setCountyDistrict(incoming.getCountyDistrict());
+		existing.setStateProvince(incoming.getStateProvince());
+		existing.setCountry(incoming.getCountry());
+		existing.setPostalCode(incoming.getPostalCode());
+
+		if (existing.isRetired()) {
+			existing.setRetired(false);
+			existing.setRetiredBy(null);
+			existing.setDateRetired(null);
+			existing.setRetireReason(null);
+		}
+
+		for (String attrTypeUuid : new String[] {
+				FacilityMetadata._LocationAttributeType.TELEPHONE_LANDLINE,
+				FacilityMetadata._LocationAttributeType.TELEPHONE_FAX,
+				FacilityMetadata._LocationAttributeType.TELEPHONE_MOBILE }) {
+
+			LocationAttributeType attrType = MetadataUtils.existing(LocationAttributeType.class, attrTypeUuid);
+			List<LocationAttribute> incomingAttrs = incoming.getActiveAttributes(attrType);
+			List<LocationAttribute> existingAttrs = existing.getActiveAttributes(attrType);
+
+			Object incomingValue = incomingAttrs.size() > 0 ? incomingAttrs.get(0).getValue() : null;
+			Object existingValue = existingAttrs.size() > 0 ? existingAttrs.get(0).getValue() : null;
+
+			if (OpenmrsUtil.nullSafeEquals(incomingValue, existingValue)) {
+				continue;
+			}
+
+			if (incomingValue != null) {
+				LocationAttribute attr = new LocationAttribute();
+				attr.setAttributeType(attrType);
+				attr.setValue(incomingValue);
+				existing.setAttribute(attr);
+			}
+			else {
+				for (LocationAttribute attr : existingAttrs) {
+					attr.setVoided(true);
+					attr.setVoidReason("No longer in the Master Facility List");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Flushes the session if a batch of changes has been saved
+	 * @param changes the changes so far
+	 */
+	protected void flushBatch(Changes changes) {
+		if (changes.getTotal() % BATCH_SIZE == 0) {
+			Context.flushSession();
+		}
+	}
+
+	/**
+	 * Calculates a hash of the content of a resource
+	 * @param path the resource path
+	 * @return the hash
+	 * @throws IOException if resource can't be read
+	 */
+	protected static String hashResource(String path) throws IOException {
+		InputStream stream = OpenmrsClassLoader.getInstance().getResourceAsStream(path);
+		if (stream == null) {
+			throw new IOException("Unable to find resource " + path);
+		}
+
+		try {
+			return DigestUtils.md5Hex(stream);
+		}
+		finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Summary of the changes made by a sync
+	 */
+	public static class Changes {
+
+		private int created, updated, retired;
+
+		public int getCreated() {
+			return created;
+		}
+
+		public int getUpdated() {
+			return updated;
+		}
+
+		public int getRetired() {
+			return retired;
+		}
+
+		public int getTotal() {
+			return created + updated + retired;
+		}
+
+		@Override
+		public String toString() {
+			return created + " created, " + updated + " updated, " + retired + " retired";
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.model;
+
+import org.openmrs.Encounter;
+
+/**
+ * A lab order encounter paired with the latest lab results encounter of the same visit
+ */
+public class LabWorklistEntry {
+
+	private Encounter orderEncounter;
+
+	private Encounter resultEncounter;
+
+	/**
+	 * Creates a new worklist entry
+	 * @param orderEncounter the lab order encounter
+	 * @param resultEncounter the lab results encounter (may be null)
+	 */
+	public LabWorklistEntry(Encounter orderEncounter, Encounter resultEncounter) {
+		this.orderEncounter = orderEncounter;
+		this.resultEncounter = resultEncounter;
+	}
+
+	public Encounter getOrderEncounter() {
+		return orderEncounter;
+	}
+
+	public Encounter getResultEncounter() {
+		return resultEncounter;
+	}
+
+	public void setResultEncounter(Encounter resultEncounter) {
+		this.resultEncounter = resultEncounter;
+	}
+
+	/**
+	 * Checks whether results have not yet been entered for the order
+	 * @return true if pending
+	 */
+	public boolean isPending() {
+		return resultEncounter == null;
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.model;
+
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A patient's TB treatment episode, i.e. the latest TB enrollment, treatment and outcome obs keyed by question
+ */
+public class TbTreatmentEpisode {
+
+	private Integer patientId;
+
+	private Map<Integer, Obs> lastObs = new HashMap<Integer, Obs>();
+
+	/**
+	 * Creates a new empty episode
+	 * @param patientId the patient id
+	 */
+	public TbTreatmentEpisode(Integer patientId) {
+		this.patientId = patientId;
+	}
+
+	public Integer getPatientId() {
+		return patientId;
+	}
+
+	/**
+	 * Adds an obs to this episode. Obs should be added in date order as each replaces any earlier obs of its question
+	 * @param obs the obs
+	 */
+	public void addObs(Obs obs) {
+		lastObs.put(obs.getConcept().getConceptId(), obs);
+	}
+
+	/**
+	 * Gets the latest obs of the given question
+	 * @param question the question concept
+	 * @return the obs (may be null)
+	 */
+	public Obs getLastObs(Concept question) {
+		return lastObs.get(question.getConceptId());
+	}
+
+	/**
+	 * Checks whether this episode has no obs
+	 * @return true if empty
+	 */
+	public boolean isEmpty() {
+		return lastObs.isEmpty();
+	}
+}
@@ -0,0 +1,221 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.regimen;
+
+import org.openmrs.Concept;
+import org.openmrs.ConceptAnswer;
+import org.openmrs.ConceptName;
+import org.openmrs.api.ConceptService;
+import org.openmrs.api.context.Context;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Index of ARV drug concepts by name and by the regimen classes (fixed dose combinations, first line etc) whose
+ * answer sets contain them. The index is built once from the class concepts and is rebuilt after it is invalidated,
+ * which happens whenever a concept is saved.
+ */
+@Component
+public class DrugClassificationIndex {
+
+	public static final String FIXED_DOSE_COMBINATIONS = "b8d460f8-0563-4416-9e0a-d77aafa7e5c3";
+
+	public static final String ARV_DRUGS_FOR_CHILD = "4c132bde-0e0f-4586-a874-fe6335945144";
+
+	public static final String FIRST_LINE_ARVS = "363c2193-f3d1-4e97-9dd3-09361bbcc233";
+
+	public static final String SECOND_LINE_ART = "f7693b07-789f-46d6-892a-fcf499b97228";
+
+	public static final String HIV_HBV_COINFECTION = "ab9b1c9a-9acb-4e7f-b696-ac6870083117";
+
+	/**
+	 * The maximum age of patients who can be given the child ARV class
+	 */
+	public static final int MAX_CHILD_AGE = 14;
+
+	/**
+	 * The regimen classes in order of precedence when a drug belongs to more than one
+	 */
+	private static final List<String> CLASS_UUIDS = Arrays.asList(FIXED_DOSE_COMBINATIONS, ARV_DRUGS_FOR_CHILD, FIRST_LINE_ARVS, SECOND_LINE_ART, HIV_HBV_COINFECTION);
+
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Incremented by each invalidation
+	 */
+	private final AtomicInteger generation = new AtomicInteger();
+
+	/**
+	 * Gets a drug concept by name. Drugs which are not in any regimen class are looked up by the concept service.
+	 * @param name the drug concept name
+	 * @return the concept or null if there is no such concept
+	 */
+	public Concept getDrug(String name) {
+		if (name == null) {
+			return null;
+		}
+		ConceptService conceptService = Context.getConceptService();
+		Integer conceptId = getSnapshot().drugIdsByName.get(name.toLowerCase());
+		return conceptId != null ? conceptService.getConcept(conceptId) : conceptService.getConceptByName(name);
+	}
+
+	/**
+	 * Gets the UUIDs of the regimen classes which contain the given drug
+	 * @param drug the drug concept
+	 * @return the class concept UUIDs in order of precedence
+	 */
+	public Set<String> getClasses(Concept drug) {
+		Set<String> classes = drug != null ? getSnapshot().classesByDrugId.get(drug.getConceptId()) : null;
+		return classes != null ? classes : Collections.<String>emptySet();
+	}
+
+	/**
+	 * Checks whether the given drug is a fixed dose combination
+	 * @param drug the drug concept
+	 * @return true if drug is a fixed dose combination
+	 */
+	public boolean isFixedDoseCombination(Concept drug) {
+		return getClasses(drug).contains(FIXED_DOSE_COMBINATIONS);
+	}
+
+	/**
+	 * Gets the regimen class of a drug for a patient of the given age. Fixed dose combinations take precedence over
+	 * the other classes, and the child class is only used for patients aged 14 or less.
+	 * @param drug the drug concept
+	 * @param age the patient age (may be null)
+	 * @return the class concept UUID or null if drug is not in any class
+	 */
+	public String getRegimenClass(Concept drug, Integer age) {
+		for (String classUuid : getClasses(drug)) {
+			if (ARV_DRUGS_FOR_CHILD.equals(classUuid) && (age == null || age > MAX_CHILD_AGE)) {
+				continue;
+			}
+			return classUuid;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the name of a regimen class
+	 * @param classUuid the class concept UUID
+	 * @return the class name or empty string if class is null or doesn't exist
+	 */
+	public String getClassName(String classUuid) {
+		String name = classUuid != null ? getSnapshot().classNames.get(classUuid) : null;
+		return name != null ? name : "";
+	}
+
+	/**
+	 * Discards the index so that it is rebuilt when next used
+	 */
+	public void invalidate() {
+		generation.incrementAndGet();
+		snapshot = null;
+	}
+
+	/**
+	 * Gets the current snapshot, building it if necessary. A snapshot is only used if no invalidation has happened
+	 * since its build started, so one built from concepts which changed during the build is never used.
+	 * @return the snapshot
+	 */
+	protected Snapshot getSnapshot() {
+		Snapshot current = snapshot;
+		if (current == null || current.generation != generation.get()) {
+			synchronized (this) {
+				current = snapshot;
+				int buildGeneration = generation.get();
+				if (current == null || current.generation != buildGeneration) {
+					current = build(buildGeneration);
+					snapshot = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Builds a snapshot from the answers of the regimen class concepts
+	 * @param generation the generation at the start of the build
+	 * @return the snapshot
+	 */
+	protected Snapshot build(int generation) {
+		ConceptService conceptService = Context.getConceptService();
+		Map<String, Integer> drugIdsByName = new HashMap<String, Integer>();
+		Map<Integer, Set<String>> classesByDrugId = new HashMap<Integer, Set<String>>();
+		Map<String, String> classNames = new HashMap<String, String>();
+
+		for (String classUuid : CLASS_UUIDS) {
+			Concept classConcept = conceptService.getConceptByUuid(classUuid);
+			if (classConcept == null) {
+				continue;
+			}
+
+			classNames.put(classUuid, classConcept.getName().getName());
+
+			for (ConceptAnswer answer : classConcept.getAnswers()) {
+				Concept drug = answer.getAnswerConcept();
+
+				Set<String> classes = classesByDrugId.get(drug.getConceptId());
+				if (classes == null) {
+					classes = new LinkedHashSet<String>();
+					classesByDrugId.put(drug.getConceptId(), classes);
+
+					for (ConceptName name : drug.getNames()) {
+						if (!name.isVoided()) {
+							drugIdsByName.put(name.getName().toLowerCase(), drug.getConceptId());
+						}
+					}
+				}
+				classes.add(classUuid);
+			}
+		}
+
+		for (Map.Entry<Integer, Set<String>> entry : classesByDrugId.entrySet()) {
+			entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+		}
+
+		return new Snapshot(generation, drugIdsByName, classesByDrugId, classNames);
+	}
+
+	/**
+	 * Unmodifiable, so can be shared between threads
+	 */
+	protected static class Snapshot {
+
+		private final int generation;
+
+		private final Map<String, Integer> drugIdsByName;
+
+		private final Map<Integer, Set<String>> classesByDrugId;
+
+		private final Map<String, String> classNames;
+
+		private Snapshot(int generation, Map<String, Integer> drugIdsByName, Map<Integer, Set<String>> classesByDrugId, Map<String, String> classNames) {
+			this.generation = generation;
+			this.drugIdsByName = Collections.unmodifiableMap(drugIdsByName);
+			this.classesByDrugId = Collections.unmodifiableMap(classesByDrugId);
+			this.classNames = Collections.unmodifiableMap(classNames);
+		}
+	}
+}
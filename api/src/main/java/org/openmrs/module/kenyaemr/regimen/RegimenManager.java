@@ -20,6 +20,7 @@ import org.openmrs.Concept;
 import org.openmrs.DrugOrder;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.kenyacore.ContentManager;
+import org.openmrs.module.kenyaemr.StartupReport;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
@@ -66,6 +67,8 @@ public class RegimenManager implements ContentManager {
 	 */
 	@Override
 	public synchronized void refresh() {
+		long start = System.currentTimeMillis();
+
 		masterSetConcepts.clear();
 		drugs.clear();
 		regimenGroups.clear();
@@ -81,6 +84,8 @@ public class RegimenManager implements ContentManager {
 				throw new RuntimeException("Unable to load " + configuration.getModuleId() + ":" + configuration.getDefinitionsPath(), ex);
 			}
 		}
+
+		StartupReport.record("Manager RegimenManager", start);
 	}
 
 	/**
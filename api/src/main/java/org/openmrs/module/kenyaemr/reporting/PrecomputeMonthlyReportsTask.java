@@ -0,0 +1,96 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.reporting;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.EmrConstants;
+import org.openmrs.module.reporting.common.DateUtil;
+import org.openmrs.module.reporting.report.definition.ReportDefinition;
+import org.openmrs.module.reporting.report.definition.service.ReportDefinitionService;
+import org.openmrs.module.reporting.report.renderer.RenderingMode;
+import org.openmrs.module.reporting.report.service.ReportService;
+import org.openmrs.module.reporting.web.renderers.DefaultWebRenderer;
+import org.openmrs.scheduler.tasks.AbstractTask;
+import org.openmrs.util.OpenmrsUtil;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Nightly task which, on the first day of each month, evaluates the previous month's period reports so that they are
+ * already in the {@link ReportResultCache} when users request them
+ */
+public class PrecomputeMonthlyReportsTask extends AbstractTask {
+
+	protected static final Log log = LogFactory.getLog(PrecomputeMonthlyReportsTask.class);
+
+	public static final String TASK_NAME = "KenyaEMR Precompute Monthly Reports";
+
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		Date today = new Date();
+
+		if (!isFirstDayOfMonth(today)) {
+			return;
+		}
+
+		Date startDate = DateUtil.getStartOfMonth(today, -1);
+		Date endDate = OpenmrsUtil.firstSecondOfDay(DateUtil.getEndOfMonth(startDate));
+
+		Map<String, Object> parameterValues = new HashMap<String, Object>();
+		parameterValues.put(ReportResultCache.PARAM_START_DATE, startDate);
+		parameterValues.put(ReportResultCache.PARAM_END_DATE, endDate);
+
+		ReportDefinitionService definitionService = Context.getService(ReportDefinitionService.class);
+		ReportService reportService = Context.getService(ReportService.class);
+		ReportResultCache cache = Context.getRegisteredComponents(ReportResultCache.class).get(0);
+
+		String reportUuids = Context.getAdministrationService().getGlobalProperty(EmrConstants.GP_PRECOMPUTED_REPORTS, EmrConstants.DEFAULT_PRECOMPUTED_REPORTS);
+
+		for (String reportUuid : StringUtils.split(reportUuids, ",")) {
+			ReportDefinition definition = definitionService.getDefinitionByUuid(reportUuid.trim());
+			if (definition == null) {
+				log.warn("Unable to find report definition " + reportUuid + " to precompute");
+				continue;
+			}
+
+			RenderingMode mode = new DefaultWebRenderer().getRenderingModes(definition).iterator().next();
+			cache.requestReport(definition, parameterValues, mode);
+
+			log.info("Precomputing report '" + definition.getName() + "' for " + parameterValues);
+		}
+
+		reportService.processNextQueuedReports();
+	}
+
+	/**
+	 * Checks if the given date is the first day of a month
+	 * @param date the date
+	 * @return true if first day
+	 */
+	protected static boolean isFirstDayOfMonth(Date date) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(date);
+		return calendar.get(Calendar.DAY_OF_MONTH) == 1;
+	}
+}
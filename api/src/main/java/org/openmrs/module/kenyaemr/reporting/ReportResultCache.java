@@ -0,0 +1,194 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.reporting;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.openmrs.module.reporting.evaluation.parameter.Mapped;
+import org.openmrs.module.reporting.report.ReportRequest;
+import org.openmrs.module.reporting.report.definition.ReportDefinition;
+import org.openmrs.module.reporting.report.renderer.RenderingMode;
+import org.openmrs.module.reporting.report.service.ReportService;
+import org.openmrs.util.OpenmrsUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of evaluated period reports. Completed report requests (whose data the reporting module already persists to
+ * disk) are re-used for new requests with the same report definition and parameter values, as long as no encounter or
+ * obs dated inside the report period has been saved since the cached evaluation started.
+ */
+@Component
+public class ReportResultCache {
+
+	protected static final Log log = LogFactory.getLog(ReportResultCache.class);
+
+	public static final String PARAM_START_DATE = "startDate";
+	public static final String PARAM_END_DATE = "endDate";
+
+	@Autowired
+	private ReportService reportService;
+
+	/**
+	 * Gets a report request for the given definition and parameter values, re-using a cached result if one is still
+	 * valid, otherwise queueing a new evaluation
+	 * @param definition the report definition
+	 * @param parameterValues the parameter values
+	 * @param renderingMode the rendering mode for a new request
+	 * @return the cached or newly queued report request
+	 */
+	public synchronized ReportRequest requestReport(ReportDefinition definition, Map<String, Object> parameterValues, RenderingMode renderingMode) {
+		ReportRequest cached = getCachedRequest(definition, parameterValues);
+		if (cached != null) {
+			log.info("Re-using cached result of request #" + cached.getId() + " for report '" + definition.getName() + "' with params " + parameterValues);
+			return cached;
+		}
+
+		// A request for the same report and period may already be waiting or running
+		ReportRequest pending = getPendingRequest(definition, parameterValues);
+		if (pending != null) {
+			return pending;
+		}
+
+		ReportRequest request = new ReportRequest();
+		request.setReportDefinition(new Mapped<ReportDefinition>(definition, parameterValues));
+		request.setRenderingMode(renderingMode);
+
+		return reportService.queueReport(request);
+	}
+
+	/**
+	 * Gets the most recent completed request for the given definition and parameter values whose result is not stale
+	 * @param definition the report definition
+	 * @param parameterValues the parameter values
+	 * @return the request or null if there is no valid cached result
+	 */
+	public ReportRequest getCachedRequest(ReportDefinition definition, Map<String, Object> parameterValues) {
+		if (!isCacheable(parameterValues)) {
+			return null;
+		}
+
+		List<ReportRequest> completed = reportService.getReportRequests(definitionRef(definition), null, null, ReportRequest.Status.COMPLETED);
+
+		ReportRequest latest = null;
+		for (ReportRequest request : completed) {
+			if (parametersMatch(request, parameterValues)) {
+				if (latest == null || OpenmrsUtil.compareWithNullAsEarliest(request.getEvaluateStartDatetime(), latest.getEvaluateStartDatetime()) > 0) {
+					latest = request;
+				}
+			}
+		}
+
+		return (latest != null && !isStale(latest)) ? latest : null;
+	}
+
+	/**
+	 * Checks whether the result of the given completed request is stale, i.e. an encounter or obs dated inside its
+	 * period has been created, changed or voided since evaluation started
+	 * @param request the report request
+	 * @return true if result is stale
+	 */
+	public boolean isStale(ReportRequest request) {
+		Map<String, Object> parameterValues = request.getReportDefinition().getParameterMappings();
+		Date builtOn = request.getEvaluateStartDatetime();
+
+		if (builtOn == null || !isCacheable(parameterValues)) {
+			return true;
+		}
+
+		Date startDate = (Date) parameterValues.get(PARAM_START_DATE);
+		Date endDate = OpenmrsUtil.getLastMomentOfDay((Date) parameterValues.get(PARAM_END_DATE));
+
+		Date lastChange = Context.getService(KenyaEmrService.class).getLastDataChangeForPeriod(startDate, endDate);
+
+		return lastChange != null && !lastChange.before(builtOn);
+	}
+
+	/**
+	 * Gets a request for the given definition and parameter values which is still queued or processing
+	 * @param definition the report definition
+	 * @param parameterValues the parameter values
+	 * @return the request or null
+	 */
+	protected ReportRequest getPendingRequest(ReportDefinition definition, Map<String, Object> parameterValues) {
+		if (!isCacheable(parameterValues)) {
+			return null;
+		}
+
+		List<ReportRequest> pending = reportService.getReportRequests(definitionRef(definition), null, null, ReportRequest.Status.REQUESTED, ReportRequest.Status.PROCESSING);
+		for (ReportRequest request : pending) {
+			if (parametersMatch(request, parameterValues)) {
+				return request;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Only reports over a date period can be cached as the period is what defines the data-version check
+	 * @param parameterValues the parameter values
+	 * @return true if cacheable
+	 */
+	protected static boolean isCacheable(Map<String, Object> parameterValues) {
+		return parameterValues != null
+				&& parameterValues.get(PARAM_START_DATE) instanceof Date
+				&& parameterValues.get(PARAM_END_DATE) instanceof Date;
+	}
+
+	/**
+	 * Checks whether the parameter values of a request match the given values
+	 * @param request the report request
+	 * @param parameterValues the parameter values
+	 * @return true if values match
+	 */
+	protected static boolean parametersMatch(ReportRequest request, Map<String, Object> parameterValues) {
+		Map<String, Object> requested = request.getReportDefinition().getParameterMappings();
+		if (requested == null || requested.size() != parameterValues.size()) {
+			return false;
+		}
+
+		for (Map.Entry<String, Object> entry : parameterValues.entrySet()) {
+			Object value = requested.get(entry.getKey());
+
+			if (value instanceof Date && entry.getValue() instanceof Date) {
+				// Avoids Date vs Timestamp equality issues after de-serialization
+				if (((Date) value).getTime() != ((Date) entry.getValue()).getTime()) {
+					return false;
+				}
+			}
+			else if (!OpenmrsUtil.nullSafeEquals(value, entry.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Avoids loading (and thus de-serialising) the entire report definition to query its requests
+	 * @param definition the report definition
+	 * @return the definition reference
+	 */
+	protected static ReportDefinition definitionRef(ReportDefinition definition) {
+		ReportDefinition ref = new ReportDefinition();
+		ref.setUuid(definition.getUuid());
+		return ref;
+	}
+}
@@ -22,7 +22,6 @@ import org.openmrs.module.kenyacore.report.ReportDescriptor;
 import org.openmrs.module.kenyacore.report.ReportUtils;
 import org.openmrs.module.kenyacore.report.builder.AbstractHybridReportBuilder;
 import org.openmrs.module.kenyacore.report.builder.Builds;
-import org.openmrs.module.kenyacore.report.data.patient.definition.CalculationDataDefinition;
 import org.openmrs.module.kenyaemr.calculation.library.hiv.art.AgeAtARTInitiationCalculation;
 import org.openmrs.module.kenyaemr.calculation.library.hiv.art.CD4AtARTInitiationCalculation;
 import org.openmrs.module.kenyaemr.calculation.library.hiv.art.CohortReportTypeCalculation;
@@ -41,13 +40,16 @@ import org.openmrs.module.kenyaemr.calculation.library.hiv.art.LastCd4Calculatio
 import org.openmrs.module.kenyaemr.calculation.library.hiv.art.LastCd4CountDateCalculation;
 import org.openmrs.module.kenyaemr.calculation.library.hiv.art.MflCodeCalculation;
 import org.openmrs.module.kenyaemr.calculation.library.hiv.art.OriginalCohortCalculation;
-import org.openmrs.module.kenyaemr.calculation.library.hiv.art.PatientOutComeCalculation;
 import org.openmrs.module.kenyaemr.calculation.library.hiv.art.TransferInDateCalculation;
 import org.openmrs.module.kenyaemr.calculation.library.hiv.art.TransferOutDateCalculation;
 import org.openmrs.module.kenyaemr.metadata.HivMetadata;
 import org.openmrs.module.kenyaemr.reporting.calculation.converter.RegimenConverter;
 import org.openmrs.module.kenyaemr.reporting.data.converter.BirthdateConverter;
 import org.openmrs.module.kenyaemr.reporting.data.converter.CalculationResultConverter;
+import org.openmrs.module.kenyaemr.reporting.data.converter.PatientOutcomeConverter;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.ConstantCalculationDataDefinition;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.PatientOutcomeDataDefinition;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.SharedCalculationDataDefinition;
 import org.openmrs.module.kenyaemr.reporting.library.shared.hiv.art.ArtCohortLibrary;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 import org.openmrs.module.reporting.cohort.definition.CohortDefinition;
@@ -108,9 +110,9 @@ public class ArtCohortAnalysisReportBuilder extends AbstractHybridReportBuilder
 		dsd.setName("artCohortAnalysis");
 		dsd.addColumn("id", new PatientIdDataDefinition(), "");
 		dsd.addColumn("Name", nameDef, "");
-		dsd.addColumn("Facility name", new CalculationDataDefinition("Facility Name", new FacilityNameCalculation()), "", new CalculationResultConverter());
-		dsd.addColumn("MFL code", new CalculationDataDefinition("MFL Code", new MflCodeCalculation()), "", new CalculationResultConverter());
-		dsd.addColumn("Cohort Month", new CalculationDataDefinition("Original Cohort", new OriginalCohortCalculation()), "", new DataConverter(){
+		dsd.addColumn("Facility name", new ConstantCalculationDataDefinition("Facility Name", new FacilityNameCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("MFL code", new ConstantCalculationDataDefinition("MFL Code", new MflCodeCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("Cohort Month", new SharedCalculationDataDefinition("Original Cohort", new OriginalCohortCalculation()), "", new DataConverter(){
 			@Override
 			public Class<?> getInputDataType() {
 				return Date.class;
@@ -132,27 +134,27 @@ public class ArtCohortAnalysisReportBuilder extends AbstractHybridReportBuilder
 		dsd.addColumn("Cohort Report Type", cohortReportType(report), "", new CalculationResultConverter());
 		dsd.addColumn("UPN", identifierDef, "");
 		dsd.addColumn("DOB", new BirthdateDataDefinition(), "", new BirthdateConverter());
-		dsd.addColumn("DOB approx", new CalculationDataDefinition("DOB approx", new IsBirthDateApproximatedCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("DOB approx", new SharedCalculationDataDefinition("DOB approx", new IsBirthDateApproximatedCalculation()), "", new CalculationResultConverter());
 		dsd.addColumn("Sex", new GenderDataDefinition(), "");
 
-		dsd.addColumn("TI", new CalculationDataDefinition("TI", new IsTransferInCalculation()), "", new CalculationResultConverter());
-		dsd.addColumn("Date TI", new CalculationDataDefinition("Date TI", new TransferInDateCalculation()), "", new CalculationResultConverter());
-		dsd.addColumn("TO", new CalculationDataDefinition("TO", new IsTransferOutCalculation()), "", new CalculationResultConverter());
-		dsd.addColumn("Date TO", new CalculationDataDefinition("Date TO", new TransferOutDateCalculation()), "", new CalculationResultConverter());
-		dsd.addColumn("DOE", new CalculationDataDefinition("DOE", new DateOfEnrollmentCalculation()), "", new CalculationResultConverter());
-		dsd.addColumn("First ART regimen", new CalculationDataDefinition("First ART regimen", new InitialArtRegimenCalculation()), "", new RegimenConverter());
-		dsd.addColumn("ARV Start Date", new CalculationDataDefinition("ARV Start Date", new DateARV1Calculation()), "", new CalculationResultConverter());
-		dsd.addColumn("Current ART regimen", new CalculationDataDefinition("Current ART regimen", new CurrentArtRegimenCalculation()), "", new RegimenConverter());
-		dsd.addColumn("Current ART regimen Date", new CalculationDataDefinition("Current ART regimen Date", new CurrentARTStartDateCalculation()), "", new CalculationResultConverter());
-		dsd.addColumn("Age at ART initiation", new CalculationDataDefinition("Age at ART initiation", new AgeAtARTInitiationCalculation()), "", new CalculationResultConverter());
-		dsd.addColumn("CD4 at ART initiation", new CalculationDataDefinition("CD4 at ART initiation", new CD4AtARTInitiationCalculation()), "", new CalculationResultConverter());
-		dsd.addColumn("ARV 2nd Line Start", new CalculationDataDefinition("ARV 2nd Line Start", new DateARV2Calculation()), "", new CalculationResultConverter());
-		dsd.addColumn("Last Seen", new CalculationDataDefinition("Date Last Seen", new DateLastSeenCalculation()), "", new CalculationResultConverter());
-
-		dsd.addColumn("OutCome", outComes(report), "onDate=${startDate}", new CalculationResultConverter());
-
-		dsd.addColumn("Last CD4", new CalculationDataDefinition("Last CD4", new LastCd4Calculation()), "", new CalculationResultConverter());
-		dsd.addColumn("Last CD4 Date", new CalculationDataDefinition("Last CD4 Date", new LastCd4CountDateCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("TI", new SharedCalculationDataDefinition("TI", new IsTransferInCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("Date TI", new SharedCalculationDataDefinition("Date TI", new TransferInDateCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("TO", new SharedCalculationDataDefinition("TO", new IsTransferOutCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("Date TO", new SharedCalculationDataDefinition("Date TO", new TransferOutDateCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("DOE", new SharedCalculationDataDefinition("DOE", new DateOfEnrollmentCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("First ART regimen", new SharedCalculationDataDefinition("First ART regimen", new InitialArtRegimenCalculation()), "", new RegimenConverter());
+		dsd.addColumn("ARV Start Date", new SharedCalculationDataDefinition("ARV Start Date", new DateARV1Calculation()), "", new CalculationResultConverter());
+		dsd.addColumn("Current ART regimen", new SharedCalculationDataDefinition("Current ART regimen", new CurrentArtRegimenCalculation()), "", new RegimenConverter());
+		dsd.addColumn("Current ART regimen Date", new SharedCalculationDataDefinition("Current ART regimen Date", new CurrentARTStartDateCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("Age at ART initiation", new SharedCalculationDataDefinition("Age at ART initiation", new AgeAtARTInitiationCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("CD4 at ART initiation", new SharedCalculationDataDefinition("CD4 at ART initiation", new CD4AtARTInitiationCalculation()), "", new CalculationResultConverter());
+		dsd.addColumn("ARV 2nd Line Start", new SharedCalculationDataDefinition("ARV 2nd Line Start", new DateARV2Calculation()), "", new CalculationResultConverter());
+		dsd.addColumn("Last Seen", new SharedCalculationDataDefinition("Date Last Seen", new DateLastSeenCalculation()), "", new CalculationResultConverter());
+
+		dsd.addColumn("OutCome", outComes(report), "onDate=${startDate}", new PatientOutcomeConverter(cohortMonths(report)));
+
+		dsd.addColumn("Last CD4", new SharedCalculationDataDefinition("Last CD4", new LastCd4Calculation()), "", new CalculationResultConverter());
+		dsd.addColumn("Last CD4 Date", new SharedCalculationDataDefinition("Last CD4 Date", new LastCd4CountDateCalculation()), "", new CalculationResultConverter());
 	}
 
 	@Override
@@ -163,17 +165,18 @@ public class ArtCohortAnalysisReportBuilder extends AbstractHybridReportBuilder
 	}
 
 	private DataDefinition outComes(HybridReportDescriptor descriptor) {
-		int months = Integer.parseInt(descriptor.getId().split("\\.")[4]);
-		CalculationDataDefinition cd = new CalculationDataDefinition("OutCome", new PatientOutComeCalculation());
-		cd.setName("Patients Outcomes");
-		cd.addCalculationParameter("months", months);
+		PatientOutcomeDataDefinition cd = new PatientOutcomeDataDefinition("Patients Outcomes", cohortMonths(descriptor));
 		cd.addParameter(new Parameter("onDate", "On Date", Date.class));
 		return  cd;
 	}
 
+	private int cohortMonths(HybridReportDescriptor descriptor) {
+		return Integer.parseInt(descriptor.getId().split("\\.")[4]);
+	}
+
 	private DataDefinition cohortReportType(HybridReportDescriptor descriptor) {
 		int months = Integer.parseInt(descriptor.getId().split("\\.")[4]);
-		CalculationDataDefinition cd = new CalculationDataDefinition("Cohort Report Type", new CohortReportTypeCalculation());
+		SharedCalculationDataDefinition cd = new SharedCalculationDataDefinition("Cohort Report Type", new CohortReportTypeCalculation());
 		cd.setName("Cohort Report Type");
 		cd.addCalculationParameter("months", months);
 		return  cd;
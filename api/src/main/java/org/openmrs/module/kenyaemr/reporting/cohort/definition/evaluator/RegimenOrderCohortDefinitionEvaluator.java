@@ -16,27 +16,26 @@ package org.openmrs.module.kenyaemr.reporting.cohort.definition.evaluator;
 
 import org.openmrs.Cohort;
 import org.openmrs.Concept;
-import org.openmrs.DrugOrder;
 import org.openmrs.annotation.Handler;
 import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import org.openmrs.module.kenyaemr.reporting.cohort.definition.RegimenOrderCohortDefinition;
 import org.openmrs.module.reporting.cohort.EvaluatedCohort;
 import org.openmrs.module.reporting.cohort.definition.CohortDefinition;
 import org.openmrs.module.reporting.cohort.definition.evaluator.CohortDefinitionEvaluator;
-import org.openmrs.module.reporting.data.patient.PatientData;
-import org.openmrs.module.reporting.data.patient.definition.DrugOrdersForPatientDataDefinition;
-import org.openmrs.module.reporting.data.patient.service.PatientDataService;
 import org.openmrs.module.reporting.evaluation.EvaluationContext;
 import org.openmrs.module.reporting.evaluation.EvaluationException;
 
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * Evaluator for regimen orders based cohorts
+ * Evaluator for regimen orders based cohorts. A patient matches if the distinct concepts of their drug orders from the
+ * master concept set, which are active on the given date, are exactly the concepts of the definition. This is done in
+ * a single grouped query, which scans the orders once and loads none of them.
  */
 @Handler(supports = RegimenOrderCohortDefinition.class)
 public class RegimenOrderCohortDefinitionEvaluator implements CohortDefinitionEvaluator {
@@ -49,26 +48,70 @@ public class RegimenOrderCohortDefinitionEvaluator implements CohortDefinitionEv
 
 		RegimenOrderCohortDefinition cd = (RegimenOrderCohortDefinition) cohortDefinition;
 
-		DrugOrdersForPatientDataDefinition drugOrdersForPatientDataDefinition = new DrugOrdersForPatientDataDefinition();
-		drugOrdersForPatientDataDefinition.setDrugConceptSetsToInclude(Arrays.asList(cd.getMasterConceptSet()));
-		drugOrdersForPatientDataDefinition.setActiveOnDate(cd.getOnDate());
+		Set<Integer> masterConceptIds = new HashSet<Integer>();
+		for (Concept concept : Context.getConceptService().getConceptsByConceptSet(cd.getMasterConceptSet())) {
+			masterConceptIds.add(concept.getConceptId());
+		}
+
+		Set<Integer> regimenConceptIds = new HashSet<Integer>();
+		if (cd.getConceptSet() != null) {
+			for (Concept concept : cd.getConceptSet()) {
+				regimenConceptIds.add(concept.getConceptId());
+			}
+		}
 
-		Set<Integer> patientIds = new HashSet<Integer>();
-		PatientData patientData = Context.getService(PatientDataService.class).evaluate(drugOrdersForPatientDataDefinition, context);
+		// A regimen with drugs outside of the master set can never match
+		if (regimenConceptIds.isEmpty() || !masterConceptIds.containsAll(regimenConceptIds) || (context.getBaseCohort() != null && context.getBaseCohort().isEmpty())) {
+			return new EvaluatedCohort(new Cohort(), cd, context);
+		}
 
-		for (Map.Entry<Integer, Object> d :patientData.getData().entrySet()) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("masterConceptIds", masterConceptIds);
+		params.put("regimenConceptIds", regimenConceptIds);
+		params.put("regimenSize", (long) regimenConceptIds.size());
 
-			Set<DrugOrder> drugOrderSet = new HashSet<DrugOrder>((Collection<? extends DrugOrder>) d.getValue());
+		// Patients with exactly as many active master set drugs as the regimen, none of which are outside of the regimen.
+		// Both are checked by the one grouping as a subquery would be re-evaluated for every order by MySQL.
+		StringBuilder hql = new StringBuilder("select o.patient.patientId from DrugOrder o where ");
+		hql.append(activeOrderCriteria("o", cd, context, params));
+		hql.append(" and o.concept.conceptId in (:masterConceptIds)");
+		hql.append(" group by o.patient.patientId having count(distinct o.concept.conceptId) = :regimenSize");
+		hql.append(" and sum(case when o.concept.conceptId in (:regimenConceptIds) then 0 else 1 end) = 0");
 
-			Set<Concept> conceptSet = new HashSet<Concept>();
+		List<Object> patientIds = Context.getService(KenyaEmrService.class).executeHqlQuery(hql.toString(), params);
 
-			for (DrugOrder drugOrder: drugOrderSet) {
-				conceptSet.add(drugOrder.getConcept());
-				if ((cd.getConceptSet().size() == conceptSet.size()) && (conceptSet.containsAll(cd.getConceptSet()))) {
-					patientIds.add(d.getKey());
-				}
-			}
+		Cohort cohort = new Cohort();
+		for (Object patientId : patientIds) {
+			cohort.addMember((Integer) patientId);
 		}
-		return new EvaluatedCohort(new Cohort(patientIds), cd, context);
+		return new EvaluatedCohort(cohort, cd, context);
+	}
+
+	/**
+	 * Creates the HQL criteria for non-voided orders of patients in the base cohort, which are active on the date of
+	 * the definition
+	 * @param alias the order alias
+	 * @param cd the cohort definition
+	 * @param context the evaluation context
+	 * @param params the query parameters to add to
+	 * @return the HQL criteria
+	 */
+	protected static String activeOrderCriteria(String alias, RegimenOrderCohortDefinition cd, EvaluationContext context, Map<String, Object> params) {
+		StringBuilder criteria = new StringBuilder();
+		criteria.append(alias).append(".voided = false and ").append(alias).append(".patient.voided = false");
+
+		if (cd.getOnDate() != null) {
+			criteria.append(" and ").append(alias).append(".startDate <= :onDate");
+			criteria.append(" and (").append(alias).append(".autoExpireDate is null or ").append(alias).append(".autoExpireDate > :onDate)");
+			criteria.append(" and (").append(alias).append(".discontinuedDate is null or ").append(alias).append(".discontinuedDate > :onDate)");
+			params.put("onDate", cd.getOnDate());
+		}
+
+		if (context.getBaseCohort() != null) {
+			criteria.append(" and ").append(alias).append(".patient.patientId in (:patientIds)");
+			params.put("patientIds", context.getBaseCohort().getMemberIds());
+		}
+
+		return criteria.toString();
 	}
-}
\ No newline at end of file
+}
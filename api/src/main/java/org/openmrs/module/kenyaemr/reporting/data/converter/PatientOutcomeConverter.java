@@ -0,0 +1,57 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.converter;
+
+import org.openmrs.module.reporting.data.converter.DataConverter;
+
+import java.util.Map;
+
+/**
+ * Converts the outcomes of a {@link org.openmrs.module.kenyaemr.reporting.data.patient.definition.PatientOutcomeDataDefinition}
+ * to the outcome for one number of months
+ */
+public class PatientOutcomeConverter implements DataConverter {
+
+	private Integer months;
+
+	/**
+	 * Creates a new converter
+	 * @param months the number of months
+	 */
+	public PatientOutcomeConverter(Integer months) {
+		this.months = months;
+	}
+
+	@Override
+	public Object convert(Object obj) {
+		if (obj == null) {
+			return "";
+		}
+
+		Object outcome = ((Map<?, ?>) obj).get(months);
+		return outcome != null ? outcome : "";
+	}
+
+	@Override
+	public Class<?> getInputDataType() {
+		return Map.class;
+	}
+
+	@Override
+	public Class<?> getDataType() {
+		return String.class;
+	}
+}
@@ -0,0 +1,44 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.definition;
+
+import org.openmrs.module.kenyacore.report.data.patient.definition.CalculationDataDefinition;
+import org.openmrs.module.kenyaemr.calculation.ConstantCalculation;
+
+/**
+ * Calculation data definition for a calculation whose result is the same for every patient. The result is evaluated
+ * once per report evaluation and date, and that one result is given to every row.
+ */
+public class ConstantCalculationDataDefinition extends CalculationDataDefinition {
+
+	public static final long serialVersionUID = 1L;
+
+	/**
+	 * Default constructor
+	 */
+	public ConstantCalculationDataDefinition() {
+		super();
+	}
+
+	/**
+	 * Constructor to populate name and calculation
+	 * @param name the name
+	 * @param calculation the calculation
+	 */
+	public ConstantCalculationDataDefinition(String name, ConstantCalculation calculation) {
+		super(name, calculation);
+	}
+}
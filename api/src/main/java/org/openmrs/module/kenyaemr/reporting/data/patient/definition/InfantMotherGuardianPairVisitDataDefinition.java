@@ -0,0 +1,73 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.definition;
+
+import org.openmrs.module.reporting.data.BaseDataDefinition;
+import org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition;
+import org.openmrs.module.reporting.definition.configuration.ConfigurationProperty;
+import org.openmrs.module.reporting.definition.configuration.ConfigurationPropertyCachingStrategy;
+import org.openmrs.module.reporting.evaluation.caching.Caching;
+
+/**
+ * Patient data definition which returns whether each infant had a visit on the same day as a visit of their mother
+ * or guardian, with both visits inside the review period which ends on the evaluation date
+ */
+@Caching(strategy = ConfigurationPropertyCachingStrategy.class)
+public class InfantMotherGuardianPairVisitDataDefinition extends BaseDataDefinition implements PatientDataDefinition {
+
+	public static final long serialVersionUID = 1L;
+
+	@ConfigurationProperty(required = true)
+	private Integer reviewPeriod;
+
+	/**
+	 * Default constructor
+	 */
+	public InfantMotherGuardianPairVisitDataDefinition() {
+		super();
+	}
+
+	/**
+	 * Constructor to populate name only
+	 */
+	public InfantMotherGuardianPairVisitDataDefinition(String name) {
+		super(name);
+	}
+
+	/**
+	 * @see org.openmrs.module.reporting.data.DataDefinition#getDataType()
+	 */
+	@Override
+	public Class<?> getDataType() {
+		return Boolean.class;
+	}
+
+	/**
+	 * Gets the review period in months
+	 * @return the review period
+	 */
+	public Integer getReviewPeriod() {
+		return reviewPeriod;
+	}
+
+	/**
+	 * Sets the review period in months
+	 * @param reviewPeriod the review period
+	 */
+	public void setReviewPeriod(Integer reviewPeriod) {
+		this.reviewPeriod = reviewPeriod;
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.definition;
+
+import org.openmrs.module.reporting.data.BaseDataDefinition;
+import org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition;
+import org.openmrs.module.reporting.definition.configuration.ConfigurationProperty;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Patient data definition which returns each patient's outcome (e.g. "Transferred Out") a number of months after the
+ * given date, as a map of months to outcome, for several numbers of months at once. Use
+ * {@link org.openmrs.module.kenyaemr.reporting.data.converter.PatientOutcomeConverter} to get the outcome for one of
+ * these.
+ */
+public class PatientOutcomeDataDefinition extends BaseDataDefinition implements PatientDataDefinition {
+
+	public static final long serialVersionUID = 1L;
+
+	@ConfigurationProperty(required = false)
+	private Date onDate;
+
+	@ConfigurationProperty
+	private List<Integer> months;
+
+	/**
+	 * Default constructor
+	 */
+	public PatientOutcomeDataDefinition() {
+		super();
+	}
+
+	/**
+	 * Constructor to populate name and numbers of months
+	 * @param name the name
+	 * @param months the numbers of months after the date
+	 */
+	public PatientOutcomeDataDefinition(String name, Integer... months) {
+		super(name);
+
+		for (Integer m : months) {
+			addMonths(m);
+		}
+	}
+
+	/**
+	 * @see org.openmrs.module.reporting.data.DataDefinition#getDataType()
+	 */
+	@Override
+	public Class<?> getDataType() {
+		return Map.class;
+	}
+
+	public Date getOnDate() {
+		return onDate;
+	}
+
+	public void setOnDate(Date onDate) {
+		this.onDate = onDate;
+	}
+
+	public List<Integer> getMonths() {
+		return months;
+	}
+
+	public void setMonths(List<Integer> months) {
+		this.months = months;
+	}
+
+	/**
+	 * Adds a number of months after the date at which to get outcomes
+	 * @param m the number of months
+	 */
+	public void addMonths(Integer m) {
+		if (months == null) {
+			months = new ArrayList<Integer>();
+		}
+		months.add(m);
+	}
+}
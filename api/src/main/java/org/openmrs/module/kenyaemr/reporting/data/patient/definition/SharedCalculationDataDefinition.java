@@ -0,0 +1,47 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.definition;
+
+import org.openmrs.calculation.patient.PatientCalculation;
+import org.openmrs.module.kenyacore.report.data.patient.definition.CalculationDataDefinition;
+
+/**
+ * Calculation data definition whose calculation shares a calculation context with the other shared calculation
+ * columns evaluated for the same report and date. Prerequisite calculations which are memoized (see
+ * {@link org.openmrs.module.kenyaemr.calculation.MemoizedCalculation}) are then evaluated once for the cohort, and
+ * their results are handed to every dependent column through the context, e.g. the ART start date used by many of
+ * the ART cohort analysis columns.
+ */
+public class SharedCalculationDataDefinition extends CalculationDataDefinition {
+
+	public static final long serialVersionUID = 1L;
+
+	/**
+	 * Default constructor
+	 */
+	public SharedCalculationDataDefinition() {
+		super();
+	}
+
+	/**
+	 * Constructor to populate name and calculation
+	 * @param name the name
+	 * @param calculation the calculation
+	 */
+	public SharedCalculationDataDefinition(String name, PatientCalculation calculation) {
+		super(name, calculation);
+	}
+}
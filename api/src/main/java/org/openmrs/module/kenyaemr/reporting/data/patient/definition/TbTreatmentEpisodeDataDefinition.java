@@ -0,0 +1,92 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.definition;
+
+import org.openmrs.Concept;
+import org.openmrs.module.kenyaemr.model.TbTreatmentEpisode;
+import org.openmrs.module.reporting.data.BaseDataDefinition;
+import org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition;
+import org.openmrs.module.reporting.definition.configuration.ConfigurationProperty;
+import org.openmrs.module.reporting.definition.configuration.ConfigurationPropertyCachingStrategy;
+import org.openmrs.module.reporting.evaluation.caching.Caching;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Patient data definition which returns each patient's {@link TbTreatmentEpisode}. The obs of all questions are loaded
+ * for the cohort by a single query. Patients without any of these obs have no value.
+ */
+@Caching(strategy = ConfigurationPropertyCachingStrategy.class)
+public class TbTreatmentEpisodeDataDefinition extends BaseDataDefinition implements PatientDataDefinition {
+
+	public static final long serialVersionUID = 1L;
+
+	@ConfigurationProperty(required = true)
+	private List<Concept> questions;
+
+	@ConfigurationProperty
+	private Date onOrBefore;
+
+	/**
+	 * Default constructor
+	 */
+	public TbTreatmentEpisodeDataDefinition() {
+		super();
+	}
+
+	/**
+	 * Constructor to populate name only
+	 */
+	public TbTreatmentEpisodeDataDefinition(String name) {
+		super(name);
+	}
+
+	/**
+	 * Constructor to populate all properties
+	 * @param name the name
+	 * @param questions the question concepts
+	 * @param onOrBefore the date which obs must be on or before (may be null)
+	 */
+	public TbTreatmentEpisodeDataDefinition(String name, List<Concept> questions, Date onOrBefore) {
+		super(name);
+		this.questions = questions;
+		this.onOrBefore = onOrBefore;
+	}
+
+	/**
+	 * @see org.openmrs.module.reporting.data.DataDefinition#getDataType()
+	 */
+	@Override
+	public Class<?> getDataType() {
+		return TbTreatmentEpisode.class;
+	}
+
+	public List<Concept> getQuestions() {
+		return questions;
+	}
+
+	public void setQuestions(List<Concept> questions) {
+		this.questions = questions;
+	}
+
+	public Date getOnOrBefore() {
+		return onOrBefore;
+	}
+
+	public void setOnOrBefore(Date onOrBefore) {
+		this.onOrBefore = onOrBefore;
+	}
+}
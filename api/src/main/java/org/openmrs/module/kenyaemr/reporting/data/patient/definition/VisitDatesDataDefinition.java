@@ -0,0 +1,54 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.definition;
+
+import org.openmrs.module.reporting.data.BaseDataDefinition;
+import org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition;
+import org.openmrs.module.reporting.definition.configuration.ConfigurationPropertyCachingStrategy;
+import org.openmrs.module.reporting.evaluation.caching.Caching;
+
+/**
+ * Patient data definition which returns the start dates of each patient's visits as a sorted int[] of day numbers
+ * (see {@link org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils#dayNumber(java.util.Date)}). Visits are
+ * loaded by a single projection query so no visit entities are created. Patients without visits have no value.
+ */
+@Caching(strategy = ConfigurationPropertyCachingStrategy.class)
+public class VisitDatesDataDefinition extends BaseDataDefinition implements PatientDataDefinition {
+
+	public static final long serialVersionUID = 1L;
+
+	/**
+	 * Default constructor
+	 */
+	public VisitDatesDataDefinition() {
+		super();
+	}
+
+	/**
+	 * Constructor to populate name only
+	 */
+	public VisitDatesDataDefinition(String name) {
+		super(name);
+	}
+
+	/**
+	 * @see org.openmrs.module.reporting.data.DataDefinition#getDataType()
+	 */
+	@Override
+	public Class<?> getDataType() {
+		return int[].class;
+	}
+}
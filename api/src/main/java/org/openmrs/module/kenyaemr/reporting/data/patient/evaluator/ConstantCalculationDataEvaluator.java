@@ -0,0 +1,88 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.openmrs.annotation.Handler;
+import org.openmrs.api.context.Context;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.patient.PatientCalculationService;
+import org.openmrs.calculation.result.CalculationResult;
+import org.openmrs.module.kenyaemr.calculation.ConstantCalculation;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.ConstantCalculationDataDefinition;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition;
+import org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.module.reporting.evaluation.EvaluationException;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Evaluator for constant calculation data. The calculation's single result is stored in the evaluation context's
+ * cache so that it's only evaluated once per report evaluation and date, no matter how many rows or columns use it.
+ */
+@Handler(supports = ConstantCalculationDataDefinition.class, order = 10)
+public class ConstantCalculationDataEvaluator implements PatientDataEvaluator {
+
+	protected static final String CACHE_KEY_PREFIX = "kenyaemr.constantCalculationResult.";
+
+	/**
+	 * @see org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Override
+	public EvaluatedPatientData evaluate(PatientDataDefinition definition, EvaluationContext context) throws EvaluationException {
+		ConstantCalculationDataDefinition def = (ConstantCalculationDataDefinition) definition;
+		EvaluatedPatientData ret = new EvaluatedPatientData(definition, context);
+
+		if (context.getBaseCohort() != null && context.getBaseCohort().isEmpty()) {
+			return ret;
+		}
+
+		Collection<Integer> cohort = context.getBaseCohort() != null
+				? context.getBaseCohort().getMemberIds()
+				: Context.getPatientSetService().getAllPatients().getMemberIds();
+
+		CalculationResult result = getResult(def, context);
+
+		for (Integer ptId : cohort) {
+			ret.getData().put(ptId, result);
+		}
+		return ret;
+	}
+
+	/**
+	 * Gets the result of the definition's calculation, evaluating it if it's not already in the evaluation context
+	 * @param def the definition
+	 * @param context the evaluation context
+	 * @return the result
+	 */
+	protected static CalculationResult getResult(ConstantCalculationDataDefinition def, EvaluationContext context) {
+		ConstantCalculation calculation = (ConstantCalculation) def.getCalculation();
+		Date onDate = SharedCalculationDataEvaluator.getOnDate(def.getOnDate(), context);
+		String key = CACHE_KEY_PREFIX + calculation.getClass().getName() + "." + def.getCalculationParameters() + "." + onDate.getTime();
+
+		CalculationResult result = (CalculationResult) context.getFromCache(key);
+		if (result == null) {
+			PatientCalculationService calculationService = Context.getService(PatientCalculationService.class);
+			PatientCalculationContext calcContext = SharedCalculationDataEvaluator.getCalculationContext(calculationService, onDate, context);
+
+			result = calculation.evaluateConstant(def.getCalculationParameters(), calcContext);
+			context.addToCache(key, result);
+		}
+		return result;
+	}
+}
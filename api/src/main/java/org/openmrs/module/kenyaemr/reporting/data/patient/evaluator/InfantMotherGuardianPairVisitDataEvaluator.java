@@ -0,0 +1,101 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.openmrs.annotation.Handler;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.openmrs.module.kenyaemr.calculation.library.mchcs.InfantMotherGuardianRelationsCalculation;
+import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.InfantMotherGuardianPairVisitDataDefinition;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition;
+import org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.module.reporting.evaluation.EvaluationException;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluator for infant and mother/guardian pair visit data. Relationships, persons and visits are joined in a single
+ * query. Visits are paired by calendar day, and a visit is in the review period if it started on or after the start
+ * of the period and wasn't stopped after the evaluation date.
+ */
+@Handler(supports = InfantMotherGuardianPairVisitDataDefinition.class)
+public class InfantMotherGuardianPairVisitDataEvaluator implements PatientDataEvaluator {
+
+	private static final String QUERY = "select distinct r.person_b from relationship r"
+			+ " inner join relationship_type rt on rt.relationship_type_id = r.relationship"
+			+ " inner join person m on m.person_id = r.person_a"
+			+ " inner join visit iv on iv.patient_id = r.person_b"
+			+ " inner join visit mv on mv.patient_id = r.person_a"
+			+ " where r.voided = 0 and m.voided = 0"
+			+ " and ((rt.a_is_to_b = :parent and m.gender = 'F') or rt.uuid = :guardian)"
+			+ " and iv.voided = 0 and iv.date_started >= :startDate and (iv.date_stopped is null or iv.date_stopped <= :endDate)"
+			+ " and mv.voided = 0 and mv.date_started >= :startDate and (mv.date_stopped is null or mv.date_stopped <= :endDate)"
+			+ " and cast(iv.date_started as date) = cast(mv.date_started as date)";
+
+	/**
+	 * @see org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Override
+	public EvaluatedPatientData evaluate(PatientDataDefinition definition, EvaluationContext context) throws EvaluationException {
+		InfantMotherGuardianPairVisitDataDefinition def = (InfantMotherGuardianPairVisitDataDefinition) definition;
+		EvaluatedPatientData ret = new EvaluatedPatientData(definition, context);
+
+		if (context.getBaseCohort() != null) {
+			if (context.getBaseCohort().isEmpty()) {
+				return ret;
+			}
+			for (Integer ptId : context.getBaseCohort().getMemberIds()) {
+				ret.getData().put(ptId, Boolean.FALSE);
+			}
+		}
+
+		Date endDate = context.getEvaluationDate();
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(endDate);
+		calendar.add(Calendar.MONTH, -def.getReviewPeriod());
+		Date startDate = calendar.getTime();
+
+		// Query substitutions of dates are truncated to the day so timestamps are passed as strings
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("parent", InfantMotherGuardianRelationsCalculation.PARENT_RELATIONSHIP);
+		params.put("guardian", CommonMetadata._RelationshipType.GUARDIAN_DEPENDANT);
+		params.put("startDate", format.format(startDate));
+		params.put("endDate", format.format(endDate));
+
+		String sql = QUERY;
+		if (context.getBaseCohort() != null) {
+			sql += " and r.person_b in (:infantIds)";
+			params.put("infantIds", context.getBaseCohort().getMemberIds());
+		}
+
+		List<Object> infantIds = Context.getService(KenyaEmrService.class).executeSqlQuery(sql, params);
+		for (Object infantId : infantIds) {
+			ret.getData().put(((Number) infantId).intValue(), Boolean.TRUE);
+		}
+
+		return ret;
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.openmrs.annotation.Handler;
+import org.openmrs.api.context.Context;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.patient.PatientCalculationService;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.PatientOutComeCalculation;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.PatientOutcomeDataDefinition;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition;
+import org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.module.reporting.evaluation.EvaluationException;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Evaluator for patient outcome data. Outcomes for all of the definition's numbers of months are evaluated in one
+ * pass, and the calculation context is shared with the other shared calculation columns on the same date.
+ */
+@Handler(supports = PatientOutcomeDataDefinition.class)
+public class PatientOutcomeDataEvaluator implements PatientDataEvaluator {
+
+	/**
+	 * @see org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Override
+	public EvaluatedPatientData evaluate(PatientDataDefinition definition, EvaluationContext context) throws EvaluationException {
+		PatientOutcomeDataDefinition def = (PatientOutcomeDataDefinition) definition;
+		EvaluatedPatientData ret = new EvaluatedPatientData(definition, context);
+
+		if ((context.getBaseCohort() != null && context.getBaseCohort().isEmpty()) || def.getMonths() == null || def.getMonths().isEmpty()) {
+			return ret;
+		}
+
+		Collection<Integer> cohort = context.getBaseCohort() != null
+				? context.getBaseCohort().getMemberIds()
+				: Context.getPatientSetService().getAllPatients().getMemberIds();
+
+		Date onDate = SharedCalculationDataEvaluator.getOnDate(def.getOnDate(), context);
+
+		PatientCalculationService calculationService = Context.getService(PatientCalculationService.class);
+		PatientCalculationContext calcContext = SharedCalculationDataEvaluator.getCalculationContext(calculationService, onDate, context);
+
+		ret.getData().putAll(new PatientOutComeCalculation().evaluateOutcomes(cohort, def.getMonths(), calcContext));
+		return ret;
+	}
+}
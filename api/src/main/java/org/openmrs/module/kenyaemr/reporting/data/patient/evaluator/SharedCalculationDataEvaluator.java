@@ -0,0 +1,94 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.openmrs.annotation.Handler;
+import org.openmrs.api.context.Context;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.patient.PatientCalculationService;
+import org.openmrs.calculation.result.CalculationResultMap;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.SharedCalculationDataDefinition;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition;
+import org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.module.reporting.evaluation.EvaluationException;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Evaluator for shared calculation data. Calculation contexts are stored in the evaluation context's cache, which is
+ * shared by all columns of a data set, so that columns evaluated on the same date use the same calculation context.
+ */
+@Handler(supports = SharedCalculationDataDefinition.class, order = 10)
+public class SharedCalculationDataEvaluator implements PatientDataEvaluator {
+
+	protected static final String CACHE_KEY_PREFIX = "kenyaemr.sharedCalculationContext.";
+
+	/**
+	 * @see org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Override
+	public EvaluatedPatientData evaluate(PatientDataDefinition definition, EvaluationContext context) throws EvaluationException {
+		SharedCalculationDataDefinition def = (SharedCalculationDataDefinition) definition;
+		EvaluatedPatientData ret = new EvaluatedPatientData(definition, context);
+
+		if (context.getBaseCohort() != null && context.getBaseCohort().isEmpty()) {
+			return ret;
+		}
+
+		Collection<Integer> cohort = context.getBaseCohort() != null
+				? context.getBaseCohort().getMemberIds()
+				: Context.getPatientSetService().getAllPatients().getMemberIds();
+
+		PatientCalculationService calculationService = Context.getService(PatientCalculationService.class);
+		PatientCalculationContext calcContext = getCalculationContext(calculationService, getOnDate(def.getOnDate(), context), context);
+
+		CalculationResultMap results = calculationService.evaluate(cohort, def.getCalculation(), def.getCalculationParameters(), calcContext);
+		ret.getData().putAll(results);
+		return ret;
+	}
+
+	/**
+	 * Gets the date on which to evaluate a calculation, i.e. the definition's date, else the evaluation date
+	 * @param definitionDate the definition's date (may be null)
+	 * @param context the evaluation context
+	 * @return the date
+	 */
+	protected static Date getOnDate(Date definitionDate, EvaluationContext context) {
+		return definitionDate != null ? definitionDate : context.getEvaluationDate();
+	}
+
+	/**
+	 * Gets the shared calculation context for the given date, creating it if necessary
+	 * @param calculationService the calculation service
+	 * @param onDate the date
+	 * @param context the evaluation context
+	 * @return the calculation context
+	 */
+	protected static PatientCalculationContext getCalculationContext(PatientCalculationService calculationService, Date onDate, EvaluationContext context) {
+		String key = CACHE_KEY_PREFIX + onDate.getTime();
+
+		PatientCalculationContext calcContext = (PatientCalculationContext) context.getFromCache(key);
+		if (calcContext == null) {
+			calcContext = calculationService.createCalculationContext();
+			calcContext.setNow(onDate);
+			context.addToCache(key, calcContext);
+		}
+		return calcContext;
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.annotation.Handler;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.openmrs.module.kenyaemr.model.TbTreatmentEpisode;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.TbTreatmentEpisodeDataDefinition;
+import org.openmrs.module.reporting.common.DateUtil;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition;
+import org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.module.reporting.evaluation.EvaluationException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluator for TB treatment episode data
+ */
+@Handler(supports = TbTreatmentEpisodeDataDefinition.class)
+public class TbTreatmentEpisodeDataEvaluator implements PatientDataEvaluator {
+
+	/**
+	 * @see org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Override
+	public EvaluatedPatientData evaluate(PatientDataDefinition definition, EvaluationContext context) throws EvaluationException {
+		TbTreatmentEpisodeDataDefinition def = (TbTreatmentEpisodeDataDefinition) definition;
+		EvaluatedPatientData ret = new EvaluatedPatientData(definition, context);
+
+		if ((context.getBaseCohort() != null && context.getBaseCohort().isEmpty()) || def.getQuestions() == null || def.getQuestions().isEmpty()) {
+			return ret;
+		}
+
+		List<Integer> questionIds = new ArrayList<Integer>();
+		for (Concept question : def.getQuestions()) {
+			questionIds.add(question.getConceptId());
+		}
+
+		StringBuilder hql = new StringBuilder("select o from Obs o where o.voided = false and o.concept.conceptId in (:questionIds)");
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("questionIds", questionIds);
+
+		// Date parameters are bound without their time so the query excludes whole days and the time is checked below
+		Date onOrBefore = null;
+		if (def.getOnOrBefore() != null) {
+			onOrBefore = DateUtil.getEndOfDayIfTimeExcluded(def.getOnOrBefore());
+			hql.append(" and o.obsDatetime < :beforeDay");
+			params.put("beforeDay", DateUtils.addDays(onOrBefore, 1));
+		}
+		if (context.getBaseCohort() != null) {
+			hql.append(" and o.person.personId in (:patientIds)");
+			params.put("patientIds", context.getBaseCohort().getMemberIds());
+		}
+		hql.append(" order by o.person.personId, o.obsDatetime, o.obsId");
+
+		List<Object> rows = Context.getService(KenyaEmrService.class).executeHqlQuery(hql.toString(), params);
+
+		// Rows are ordered by patient then date so each episode is assembled in a single pass
+		TbTreatmentEpisode episode = null;
+
+		for (Object row : rows) {
+			Obs obs = (Obs) row;
+			if (onOrBefore != null && obs.getObsDatetime().after(onOrBefore)) {
+				continue;
+			}
+
+			Integer patientId = obs.getPerson().getPersonId();
+			if (episode == null || !patientId.equals(episode.getPatientId())) {
+				episode = new TbTreatmentEpisode(patientId);
+				ret.getData().put(patientId, episode);
+			}
+			episode.addObs(obs);
+		}
+
+		return ret;
+	}
+}
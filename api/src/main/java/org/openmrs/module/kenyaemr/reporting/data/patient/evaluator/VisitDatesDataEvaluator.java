@@ -0,0 +1,91 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.openmrs.annotation.Handler;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.VisitDatesDataDefinition;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition;
+import org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.module.reporting.evaluation.EvaluationException;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluator for visit dates data
+ */
+@Handler(supports = VisitDatesDataDefinition.class)
+public class VisitDatesDataEvaluator implements PatientDataEvaluator {
+
+	/**
+	 * @see org.openmrs.module.reporting.data.patient.evaluator.PatientDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Override
+	public EvaluatedPatientData evaluate(PatientDataDefinition definition, EvaluationContext context) throws EvaluationException {
+		EvaluatedPatientData ret = new EvaluatedPatientData(definition, context);
+
+		if (context.getBaseCohort() != null && context.getBaseCohort().isEmpty()) {
+			return ret;
+		}
+
+		StringBuilder hql = new StringBuilder("select v.patient.patientId, v.startDatetime from Visit v where v.voided = false and v.patient.voided = false");
+		Map<String, Object> params = new HashMap<String, Object>();
+		if (context.getBaseCohort() != null) {
+			hql.append(" and v.patient.patientId in (:patientIds)");
+			params.put("patientIds", context.getBaseCohort().getMemberIds());
+		}
+		hql.append(" order by v.patient.patientId, v.startDatetime");
+
+		List<Object> rows = Context.getService(KenyaEmrService.class).executeHqlQuery(hql.toString(), params);
+
+		// Rows are ordered by patient then date so each patient's days are collected in a single pass
+		Integer currentPatientId = null;
+		int[] days = new int[8];
+		int count = 0;
+
+		for (Object row : rows) {
+			Object[] columns = (Object[]) row;
+			Integer patientId = (Integer) columns[0];
+
+			if (!patientId.equals(currentPatientId)) {
+				if (currentPatientId != null) {
+					ret.getData().put(currentPatientId, Arrays.copyOf(days, count));
+				}
+				currentPatientId = patientId;
+				count = 0;
+			}
+
+			if (count == days.length) {
+				days = Arrays.copyOf(days, count * 2);
+			}
+			days[count++] = EmrCalculationUtils.dayNumber((Date) columns[1]);
+		}
+
+		if (currentPatientId != null) {
+			ret.getData().put(currentPatientId, Arrays.copyOf(days, count));
+		}
+
+		return ret;
+	}
+}
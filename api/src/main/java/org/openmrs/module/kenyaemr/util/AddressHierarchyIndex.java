@@ -0,0 +1,241 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.Element;
+import org.dom4j.io.SAXReader;
+import org.openmrs.util.OpenmrsUtil;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the state, township and village names in the address hierarchy file of the application data directory.
+ * The file is parsed once into immutable lists, and is only parsed again when its modification time changes.
+ */
+@Component
+public class AddressHierarchyIndex {
+
+	protected static final Log log = LogFactory.getLog(AddressHierarchyIndex.class);
+
+	public static final String FILE_NAME = "myanmaraddresshierarchy.xml";
+
+	public static final String LEVEL_STATE = "state";
+
+	public static final String LEVEL_TOWNSHIP = "township";
+
+	public static final String LEVEL_VILLAGE = "village";
+
+	private static final List<String> LEVELS = Arrays.asList(LEVEL_STATE, LEVEL_TOWNSHIP, LEVEL_VILLAGE);
+
+	private final File file;
+
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Creates an index of the file in the application data directory
+	 */
+	public AddressHierarchyIndex() {
+		this(new File(OpenmrsUtil.getApplicationDataDirectory(), FILE_NAME));
+	}
+
+	/**
+	 * Creates an index of the given file
+	 * @param file the address hierarchy file
+	 */
+	public AddressHierarchyIndex(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Gets all state names
+	 * @return the state names
+	 */
+	public List<String> getStates() {
+		return getChildren();
+	}
+
+	/**
+	 * Gets the township names of a state
+	 * @param state the state name
+	 * @return the township names or null if state doesn't exist
+	 */
+	public List<String> getTownships(String state) {
+		return getChildren(state);
+	}
+
+	/**
+	 * Gets the village names of a township
+	 * @param state the state name
+	 * @param township the township name
+	 * @return the village names or null if township doesn't exist
+	 */
+	public List<String> getVillages(String state, String township) {
+		return getChildren(state, township);
+	}
+
+	/**
+	 * Gets the names of the children of the given path, e.g. the townships of a state
+	 * @param path the names of the parent, starting with the state
+	 * @return the child names or null if the path doesn't exist
+	 */
+	public List<String> getChildren(String... path) {
+		return getSnapshot().children.get(Arrays.asList(path));
+	}
+
+	/**
+	 * Gets the name of the level below the given path
+	 * @param path the names of the parent, starting with the state
+	 * @return the level name or null if path is below the lowest level
+	 */
+	public static String getChildLevel(String... path) {
+		return path.length < LEVELS.size() ? LEVELS.get(path.length) : null;
+	}
+
+	/**
+	 * Gets the current snapshot of the file, parsing it again if it has been modified
+	 * @return the snapshot
+	 */
+	protected Snapshot getSnapshot() {
+		Snapshot current = snapshot;
+		long lastModified = file.lastModified();
+
+		if (current == null || current.lastModified != lastModified) {
+			synchronized (this) {
+				current = snapshot;
+				if (current == null || current.lastModified != lastModified) {
+					current = parse(lastModified);
+					snapshot = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Parses the file
+	 * @param lastModified the modification time of the file
+	 * @return the snapshot
+	 */
+	protected Snapshot parse(long lastModified) {
+		Map<List<String>, List<String>> children = new HashMap<List<String>, List<String>>();
+		children.put(Collections.<String>emptyList(), Collections.<String>emptyList());
+
+		if (!file.exists()) {
+			log.error("Address hierarchy file " + file.getAbsolutePath() + " does not exist");
+		}
+		else {
+			try {
+				Document document = new SAXReader().read(file);
+				Set<String> states = new LinkedHashSet<String>();
+
+				for (Element country : findElements(document.getRootElement(), "country")) {
+					for (Element state : elements(country, "state")) {
+						String stateName = state.attributeValue("name");
+						states.add(stateName);
+
+						Set<String> townships = new LinkedHashSet<String>();
+						for (Element township : elements(state, "township")) {
+							String townshipName = township.attributeValue("name");
+							townships.add(townshipName);
+
+							Set<String> villages = new LinkedHashSet<String>();
+							for (Element village : elements(township, "village")) {
+								villages.add(village.attributeValue("name"));
+							}
+							children.put(Arrays.asList(stateName, townshipName), immutableList(villages));
+						}
+						children.put(Collections.singletonList(stateName), immutableList(townships));
+					}
+				}
+				children.put(Collections.<String>emptyList(), immutableList(states));
+
+				log.info("Loaded address hierarchy file " + file.getAbsolutePath());
+			}
+			catch (DocumentException ex) {
+				log.error("Unable to parse address hierarchy file " + file.getAbsolutePath(), ex);
+			}
+		}
+
+		return new Snapshot(lastModified, Collections.unmodifiableMap(children));
+	}
+
+	/**
+	 * Finds all elements with the given name at any depth, including the element itself
+	 * @param element the element
+	 * @param name the element name
+	 * @return the elements
+	 */
+	private static List<Element> findElements(Element element, String name) {
+		List<Element> found = new ArrayList<Element>();
+		if (name.equals(element.getName())) {
+			found.add(element);
+		}
+		else {
+			for (Element child : elements(element, null)) {
+				found.addAll(findElements(child, name));
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Gets the child elements with the given name
+	 * @param element the element
+	 * @param name the element name, or null for all child elements
+	 * @return the elements
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<Element> elements(Element element, String name) {
+		return name != null ? element.elements(name) : element.elements();
+	}
+
+	/**
+	 * Copies a set of names to an immutable list
+	 * @param names the names
+	 * @return the list
+	 */
+	private static List<String> immutableList(Set<String> names) {
+		return Collections.unmodifiableList(new ArrayList<String>(names));
+	}
+
+	/**
+	 * The parsed contents of the file at a given modification time
+	 */
+	protected static class Snapshot {
+
+		private final long lastModified;
+
+		private final Map<List<String>, List<String>> children;
+
+		public Snapshot(long lastModified, Map<List<String>, List<String>> children) {
+			this.lastModified = lastModified;
+			this.children = children;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory timing statistics for calculations, cohort definitions and report queries. Recording is lock-free so this
+ * is always enabled.
+ */
+public class PerformanceMonitor {
+
+	public static final String CATEGORY_CALCULATIONS = "calculations";
+	public static final String CATEGORY_COHORTS = "cohorts";
+	public static final String CATEGORY_QUERIES = "queries";
+
+	private static final ConcurrentMap<String, ConcurrentMap<String, TimingHistogram>> categories = new ConcurrentHashMap<String, ConcurrentMap<String, TimingHistogram>>();
+
+	/**
+	 * Records an operation
+	 * @param category the category, e.g. "calculations"
+	 * @param name the operation name, e.g. the calculation class name
+	 * @param startNanos the value of System.nanoTime() when the operation started
+	 * @param size the number of patients processed or returned
+	 */
+	public static void record(String category, String name, long startNanos, int size) {
+		getHistogram(category, name).record(System.nanoTime() - startNanos, size);
+	}
+
+	/**
+	 * Gets the statistics of all recorded operations, by category, with the operations of each category ordered by
+	 * total time, most expensive first
+	 * @return the statistics
+	 */
+	public static Map<String, Object> getAllStatistics() {
+		Map<String, Object> all = new LinkedHashMap<String, Object>();
+		for (String category : new String[] { CATEGORY_CALCULATIONS, CATEGORY_COHORTS, CATEGORY_QUERIES }) {
+			all.put(category, getStatistics(category));
+		}
+		return all;
+	}
+
+	/**
+	 * Gets the statistics of the recorded operations in a category, ordered by total time, most expensive first
+	 * @param category the category
+	 * @return the statistics
+	 */
+	public static Map<String, Object> getStatistics(String category) {
+		ConcurrentMap<String, TimingHistogram> histograms = categories.get(category);
+		Map<String, Object> stats = new LinkedHashMap<String, Object>();
+		if (histograms == null) {
+			return stats;
+		}
+
+		List<Map.Entry<String, TimingHistogram>> entries = new ArrayList<Map.Entry<String, TimingHistogram>>(histograms.entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<String, TimingHistogram>>() {
+			@Override
+			public int compare(Map.Entry<String, TimingHistogram> entry1, Map.Entry<String, TimingHistogram> entry2) {
+				long total1 = entry1.getValue().getTotalNanos(), total2 = entry2.getValue().getTotalNanos();
+				return total1 < total2 ? 1 : (total1 > total2 ? -1 : 0);
+			}
+		});
+
+		for (Map.Entry<String, TimingHistogram> entry : entries) {
+			TimingHistogram histogram = entry.getValue();
+			long count = histogram.getCount();
+
+			Map<String, Object> operation = new LinkedHashMap<String, Object>();
+			operation.put("count", count);
+			operation.put("totalMs", toMillis(histogram.getTotalNanos()));
+			operation.put("meanMs", count > 0 ? toMillis(histogram.getTotalNanos() / count) : 0);
+			operation.put("p95Ms", toMillis(histogram.getPercentileNanos(95)));
+			operation.put("maxMs", toMillis(histogram.getMaxNanos()));
+			operation.put("meanSize", count > 0 ? histogram.getTotalSize() / count : 0);
+			operation.put("maxSize", histogram.getMaxSize());
+			stats.put(entry.getKey(), operation);
+		}
+		return stats;
+	}
+
+	/**
+	 * Clears all recorded statistics
+	 */
+	public static void reset() {
+		categories.clear();
+	}
+
+	/**
+	 * Gets or creates the histogram for an operation
+	 * @param category the category
+	 * @param name the operation name
+	 * @return the histogram
+	 */
+	protected static TimingHistogram getHistogram(String category, String name) {
+		ConcurrentMap<String, TimingHistogram> histograms = categories.get(category);
+		if (histograms == null) {
+			ConcurrentMap<String, TimingHistogram> created = new ConcurrentHashMap<String, TimingHistogram>();
+			histograms = categories.putIfAbsent(category, created);
+			if (histograms == null) {
+				histograms = created;
+			}
+		}
+
+		TimingHistogram histogram = histograms.get(name);
+		if (histogram == null) {
+			TimingHistogram created = new TimingHistogram();
+			histogram = histograms.putIfAbsent(name, created);
+			if (histogram == null) {
+				histogram = created;
+			}
+		}
+		return histogram;
+	}
+
+	/**
+	 * Converts nanoseconds to milliseconds, keeping one decimal place
+	 * @param nanos the nanoseconds
+	 * @return the milliseconds
+	 */
+	protected static double toMillis(long nanos) {
+		return Math.round(nanos / 100000.0) / 10.0;
+	}
+}
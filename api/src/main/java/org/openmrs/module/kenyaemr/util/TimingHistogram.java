@@ -0,0 +1,223 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free timing statistics for a single instrumented operation. Counts and totals cover everything since the last
+ * reset, whereas percentiles are taken from a rolling histogram of the last hour. Histogram buckets grow by a factor
+ * of sqrt(2) from 0.1ms so percentiles are accurate to within ~40%, which is enough to find the slow operation.
+ */
+public class TimingHistogram {
+
+	/**
+	 * Rolling window is made up of slots, of which the oldest is cleared and re-used as time moves on
+	 */
+	protected static final int SLOTS = 6;
+
+	protected static final long SLOT_MILLIS = 10 * 60 * 1000;
+
+	/**
+	 * Upper bounds (in nanoseconds) of the histogram buckets. The final bucket is unbounded.
+	 */
+	protected static final long[] BUCKET_BOUNDS = new long[40];
+
+	static {
+		for (int b = 0; b < BUCKET_BOUNDS.length; ++b) {
+			BUCKET_BOUNDS[b] = (long) (100000 * Math.pow(2, b / 2.0));
+		}
+	}
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final AtomicLong totalNanos = new AtomicLong();
+
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	private final AtomicLong totalSize = new AtomicLong();
+
+	private final AtomicLong maxSize = new AtomicLong();
+
+	private final AtomicLongArray slotEpochs = new AtomicLongArray(SLOTS);
+
+	private final AtomicLongArray[] slots = new AtomicLongArray[SLOTS];
+
+	public TimingHistogram() {
+		for (int s = 0; s < SLOTS; ++s) {
+			slots[s] = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+			slotEpochs.set(s, -1);
+		}
+	}
+
+	/**
+	 * Records an operation
+	 * @param nanos the duration in nanoseconds
+	 * @param size the number of patients processed or returned
+	 */
+	public void record(long nanos, int size) {
+		record(nanos, size, System.currentTimeMillis());
+	}
+
+	/**
+	 * Records an operation at the given time
+	 * @param nanos the duration in nanoseconds
+	 * @param size the number of patients processed or returned
+	 * @param now the current time in milliseconds
+	 */
+	protected void record(long nanos, int size, long now) {
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		totalSize.addAndGet(size);
+		updateMax(maxNanos, nanos);
+		updateMax(maxSize, size);
+
+		currentSlot(now).incrementAndGet(bucketOf(nanos));
+	}
+
+	/**
+	 * Gets the number of recorded operations
+	 * @return the count
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Gets the total duration of all recorded operations
+	 * @return the total in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return totalNanos.get();
+	}
+
+	/**
+	 * Gets the longest duration of a recorded operation
+	 * @return the maximum in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * Gets the total size of all recorded operations
+	 * @return the total size
+	 */
+	public long getTotalSize() {
+		return totalSize.get();
+	}
+
+	/**
+	 * Gets the largest size of a recorded operation
+	 * @return the maximum size
+	 */
+	public long getMaxSize() {
+		return maxSize.get();
+	}
+
+	/**
+	 * Gets a percentile of operations recorded in the rolling window
+	 * @param percentile the percentile, e.g. 95
+	 * @return the upper bound of the bucket containing the percentile in nanoseconds, or zero if there are none
+	 */
+	public long getPercentileNanos(double percentile) {
+		return getPercentileNanos(percentile, System.currentTimeMillis());
+	}
+
+	/**
+	 * Gets a percentile of operations recorded in the rolling window at the given time
+	 * @param percentile the percentile, e.g. 95
+	 * @param now the current time in milliseconds
+	 * @return the upper bound of the bucket containing the percentile in nanoseconds, or zero if there are none
+	 */
+	protected long getPercentileNanos(double percentile, long now) {
+		long[] merged = new long[BUCKET_BOUNDS.length + 1];
+		long total = 0;
+		long epoch = now / SLOT_MILLIS;
+
+		for (int s = 0; s < SLOTS; ++s) {
+			if (slotEpochs.get(s) > epoch - SLOTS) {
+				for (int b = 0; b < merged.length; ++b) {
+					long bucketCount = slots[s].get(b);
+					merged[b] += bucketCount;
+					total += bucketCount;
+				}
+			}
+		}
+
+		if (total == 0) {
+			return 0;
+		}
+
+		long rank = (long) Math.ceil(total * percentile / 100.0);
+		long seen = 0;
+		for (int b = 0; b < BUCKET_BOUNDS.length; ++b) {
+			seen += merged[b];
+			if (seen >= rank) {
+				return BUCKET_BOUNDS[b];
+			}
+		}
+		return maxNanos.get();
+	}
+
+	/**
+	 * Gets the histogram slot for the current time, clearing it first if it was last used for an earlier window
+	 * @param now the current time in milliseconds
+	 * @return the slot buckets
+	 */
+	protected AtomicLongArray currentSlot(long now) {
+		long epoch = now / SLOT_MILLIS;
+		int index = (int) (epoch % SLOTS);
+
+		if (slotEpochs.get(index) != epoch) {
+			synchronized (slots[index]) {
+				if (slotEpochs.get(index) != epoch) {
+					for (int b = 0; b < slots[index].length(); ++b) {
+						slots[index].set(b, 0);
+					}
+					slotEpochs.set(index, epoch);
+				}
+			}
+		}
+		return slots[index];
+	}
+
+	/**
+	 * Gets the bucket index for a duration
+	 * @param nanos the duration in nanoseconds
+	 * @return the bucket index
+	 */
+	protected static int bucketOf(long nanos) {
+		int index = Arrays.binarySearch(BUCKET_BOUNDS, nanos);
+		return index >= 0 ? index : -(index + 1);
+	}
+
+	/**
+	 * Updates a maximum value without locking
+	 * @param max the maximum
+	 * @param value the new value
+	 */
+	private static void updateMax(AtomicLong max, long value) {
+		long current;
+		while (value > (current = max.get())) {
+			if (max.compareAndSet(current, value)) {
+				break;
+			}
+		}
+	}
+}
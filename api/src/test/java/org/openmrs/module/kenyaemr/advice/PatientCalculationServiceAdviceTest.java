@@ -0,0 +1,114 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.advice;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Program;
+import org.openmrs.api.context.Context;
+import org.openmrs.calculation.patient.PatientCalculation;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.patient.PatientCalculationService;
+import org.openmrs.calculation.result.CalculationResultMap;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.module.kenyaemr.calculation.library.MissedLastAppointmentCalculation;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.DecliningCd4Calculation;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.LostToFollowUpCalculation;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.NeedsCd4TestCalculation;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.NeverTakenCtxOrDapsoneCalculation;
+import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
+import org.openmrs.module.kenyaemr.metadata.HivMetadata;
+import org.openmrs.module.kenyaemr.test.EmrTestUtils;
+import org.openmrs.module.metadatadeploy.MetadataUtils;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link PatientCalculationServiceAdvice}
+ */
+public class PatientCalculationServiceAdviceTest extends BaseModuleContextSensitiveTest {
+
+	@Autowired
+	private CommonMetadata commonMetadata;
+
+	@Autowired
+	private HivMetadata hivMetadata;
+
+	private PatientCalculationServiceAdvice advice;
+
+	/**
+	 * Setup each test
+	 */
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("dataset/test-concepts.xml");
+
+		commonMetadata.install();
+		hivMetadata.install();
+
+		advice = EmrTestUtils.addCalculationAdvice();
+	}
+
+	@After
+	public void cleanup() {
+		EmrTestUtils.removeCalculationAdvice(advice);
+	}
+
+	/**
+	 * @see PatientCalculationServiceAdvice#invoke(org.aopalliance.intercept.MethodInvocation)
+	 */
+	@Test
+	public void invoke_shouldEvaluateMemoizedCalculationOncePerContext() {
+		Program hivProgram = MetadataUtils.existing(Program.class, HivMetadata._Program.HIV);
+		TestUtils.enrollInProgram(TestUtils.getPatient(6), hivProgram, TestUtils.date(2012, 1, 1));
+		TestUtils.enrollInProgram(TestUtils.getPatient(7), hivProgram, TestUtils.date(2012, 1, 1));
+
+		List<Integer> cohort = Arrays.asList(6, 7, 8);
+		PatientCalculationService service = Context.getService(PatientCalculationService.class);
+		PatientCalculationContext context = service.createCalculationContext();
+
+		// Each of these uses LostToFollowUpCalculation for the same cohort
+		PatientCalculation[] dependents = {
+				new DecliningCd4Calculation(),
+				new MissedLastAppointmentCalculation(),
+				new NeedsCd4TestCalculation(),
+				new NeverTakenCtxOrDapsoneCalculation()
+		};
+
+		for (PatientCalculation calculation : dependents) {
+			service.evaluate(cohort, calculation, context);
+		}
+
+		Assert.assertThat(EmrTestUtils.calculationEvaluationCount(LostToFollowUpCalculation.class), is(1l));
+		Assert.assertThat(EmrTestUtils.calculationEvaluationCount(DecliningCd4Calculation.class), is(1l));
+
+		// Memoized result should match a fresh evaluation
+		CalculationResultMap memoized = service.evaluate(cohort, new LostToFollowUpCalculation(), context);
+		CalculationResultMap fresh = service.evaluate(cohort, new LostToFollowUpCalculation(), service.createCalculationContext());
+
+		Assert.assertThat(EmrTestUtils.calculationEvaluationCount(LostToFollowUpCalculation.class), is(2l));
+		for (Integer ptId : cohort) {
+			Assert.assertThat(memoized.get(ptId).getValue(), is(fresh.get(ptId).getValue()));
+		}
+	}
+}
@@ -17,22 +17,32 @@ package org.openmrs.module.kenyaemr.api.impl;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterType;
 import org.openmrs.Location;
 import org.openmrs.LocationAttributeType;
 import org.openmrs.Patient;
 import org.openmrs.Visit;
 import org.openmrs.VisitType;
 import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.metadata.FacilityMetadata;
 import org.openmrs.module.metadatadeploy.MetadataUtils;
 import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import org.openmrs.module.kenyacore.test.TestUtils;
 import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
 import org.openmrs.module.kenyaemr.metadata.HivMetadata;
+import org.openmrs.module.kenyaemr.model.LabWorklistEntry;
 import org.openmrs.test.BaseModuleContextSensitiveTest;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
 
@@ -203,4 +213,123 @@ public class KenyaEmrServiceImplTest extends BaseModuleContextSensitiveTest {
 		Assert.assertEquals(1, visits.size());
 		Assert.assertEquals(visit2, visits.get(0));
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.impl.KenyaEmrServiceImpl#getLabWorklist(org.openmrs.Patient)
+	 */
+	@Test
+	public void getLabWorklist_shouldPairOrdersWithLatestResultOfSameVisit() {
+		LabOrders orders = saveLabOrders();
+
+		List<LabWorklistEntry> worklist = service.getLabWorklist(TestUtils.getPatient(6));
+		Assert.assertThat(worklist, hasSize(2));
+		Assert.assertThat(worklist.get(0).getOrderEncounter(), is(orders.withResults));
+		Assert.assertThat(worklist.get(0).getResultEncounter(), is(orders.latestResult));
+		Assert.assertThat(worklist.get(1).getOrderEncounter(), is(orders.pending1));
+		Assert.assertThat(worklist.get(1).isPending(), is(true));
+
+		Assert.assertThat(service.getLabWorklist(TestUtils.getPatient(8)), hasSize(0));
+	}
+
+	/**
+	 * @see org.openmrs.module.kenyaemr.api.impl.KenyaEmrServiceImpl#getPendingLabWorklist(Integer, Integer)
+	 * @see org.openmrs.module.kenyaemr.api.impl.KenyaEmrServiceImpl#getNoOfPendingLabOrders()
+	 */
+	@Test
+	public void getPendingLabWorklist_shouldGetPagesOfOrdersWithoutResults() {
+		LabOrders orders = saveLabOrders();
+
+		Assert.assertThat(service.getNoOfPendingLabOrders(), is(2));
+
+		List<LabWorklistEntry> pending = service.getPendingLabWorklist(0, null);
+		Assert.assertThat(pending, hasSize(2));
+		Assert.assertThat(pending.get(0).getOrderEncounter(), is(orders.pending1));
+		Assert.assertThat(pending.get(1).getOrderEncounter(), is(orders.pending2));
+
+		pending = service.getPendingLabWorklist(1, 1);
+		Assert.assertThat(pending, hasSize(1));
+		Assert.assertThat(pending.get(0).getOrderEncounter(), is(orders.pending2));
+	}
+
+	/**
+	 * @see KenyaEmrServiceImpl#getScheduledPatientIds(java.util.Date, java.util.Date)
+	 */
+	@Test
+	public void getScheduledPatientIds_shouldOnlyIncludeDaysWithScheduledPatients() {
+		Concept returnVisitDate = Dictionary.getConcept(Dictionary.RETURN_VISIT_DATE);
+		TestUtils.saveObs(TestUtils.getPatient(7), returnVisitDate, TestUtils.date(2012, 1, 1), TestUtils.date(2011, 12, 20));
+		TestUtils.saveObs(TestUtils.getPatient(8), returnVisitDate, TestUtils.date(2012, 1, 1, 10, 0, 0), TestUtils.date(2011, 12, 20));
+		TestUtils.saveObs(TestUtils.getPatient(6), returnVisitDate, TestUtils.date(2012, 1, 3), TestUtils.date(2011, 12, 20));
+		TestUtils.saveObs(TestUtils.getPatient(6), returnVisitDate, TestUtils.date(2012, 1, 8), TestUtils.date(2011, 12, 20));
+
+		Map<Date, Set<Integer>> scheduled = service.getScheduledPatientIds(TestUtils.date(2012, 1, 1), TestUtils.date(2012, 1, 7, 23, 59, 59));
+
+		Assert.assertThat(scheduled.keySet(), contains(TestUtils.date(2012, 1, 1), TestUtils.date(2012, 1, 3)));
+		Assert.assertThat(scheduled.get(TestUtils.date(2012, 1, 1)), contains(7, 8));
+		Assert.assertThat(scheduled.get(TestUtils.date(2012, 1, 3)), contains(6));
+
+		Assert.assertThat(service.getScheduledPatientIds(TestUtils.date(2012, 1, 2), TestUtils.date(2012, 1, 2, 23, 59, 59)).size(), is(0));
+	}
+
+	/**
+	 * @see KenyaEmrServiceImpl#getVisitsByPatient(java.util.Collection, java.util.Date, java.util.Date)
+	 */
+	@Test
+	public void getVisitsByPatient_shouldGetVisitsWhichOverlapPeriod() {
+		VisitType outpatient = MetadataUtils.existing(VisitType.class, CommonMetadata._VisitType.OUTPATIENT);
+		Visit visit1 = TestUtils.saveVisit(TestUtils.getPatient(7), outpatient, TestUtils.date(2012, 1, 1, 9, 0, 0), TestUtils.date(2012, 1, 1, 10, 0, 0));
+		Visit visit2 = TestUtils.saveVisit(TestUtils.getPatient(7), outpatient, TestUtils.date(2011, 12, 31, 9, 0, 0), null);
+		TestUtils.saveVisit(TestUtils.getPatient(7), outpatient, TestUtils.date(2012, 1, 2, 9, 0, 0), TestUtils.date(2012, 1, 2, 10, 0, 0));
+		TestUtils.saveVisit(TestUtils.getPatient(8), outpatient, TestUtils.date(2012, 1, 1, 9, 0, 0), TestUtils.date(2012, 1, 1, 10, 0, 0));
+
+		Map<Integer, List<Visit>> visits = service.getVisitsByPatient(Arrays.asList(6, 7), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 1, 1, 23, 59, 59));
+
+		Assert.assertThat(visits.keySet(), contains(7));
+		Assert.assertThat(visits.get(7), contains(visit2, visit1));
+
+		Assert.assertThat(service.getVisitsByPatient(new ArrayList<Integer>(), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 1, 2)).size(), is(0));
+	}
+
+	/**
+	 * Saves lab orders and results for patients #6 and #7
+	 * @return the saved lab order encounters
+	 */
+	private LabOrders saveLabOrders() {
+		Patient patient6 = TestUtils.getPatient(6);
+		Patient patient7 = TestUtils.getPatient(7);
+		VisitType outpatientType = MetadataUtils.existing(VisitType.class, CommonMetadata._VisitType.OUTPATIENT);
+		EncounterType labOrder = MetadataUtils.existing(EncounterType.class, CommonMetadata._EncounterType.LAB_ORDERS);
+		EncounterType labResults = MetadataUtils.existing(EncounterType.class, CommonMetadata._EncounterType.LAB_RESULTS);
+
+		LabOrders orders = new LabOrders();
+
+		// Order with two results, of which the later one is the latest
+		orders.withResults = TestUtils.saveEncounter(patient6, labOrder, TestUtils.date(2012, 1, 1, 9, 0, 0));
+		Encounter result1 = TestUtils.saveEncounter(patient6, labResults, TestUtils.date(2012, 1, 1, 10, 0, 0));
+		orders.latestResult = TestUtils.saveEncounter(patient6, labResults, TestUtils.date(2012, 1, 1, 11, 0, 0));
+		TestUtils.saveVisit(patient6, outpatientType, TestUtils.date(2012, 1, 1, 8, 0, 0), TestUtils.date(2012, 1, 1, 12, 0, 0), orders.withResults, result1, orders.latestResult);
+
+		// Pending orders for both patients
+		orders.pending1 = TestUtils.saveEncounter(patient6, labOrder, TestUtils.date(2012, 2, 1, 9, 0, 0));
+		TestUtils.saveVisit(patient6, outpatientType, TestUtils.date(2012, 2, 1, 8, 0, 0), TestUtils.date(2012, 2, 1, 12, 0, 0), orders.pending1);
+		orders.pending2 = TestUtils.saveEncounter(patient7, labOrder, TestUtils.date(2012, 2, 1, 9, 0, 0));
+		TestUtils.saveVisit(patient7, outpatientType, TestUtils.date(2012, 2, 1, 8, 0, 0), TestUtils.date(2012, 2, 1, 12, 0, 0), orders.pending2);
+
+		// Voided order which shouldn't be included
+		Encounter voided = TestUtils.saveEncounter(patient6, labOrder, TestUtils.date(2012, 3, 1, 9, 0, 0));
+		TestUtils.saveVisit(patient6, outpatientType, TestUtils.date(2012, 3, 1, 8, 0, 0), TestUtils.date(2012, 3, 1, 12, 0, 0), voided);
+		Context.getEncounterService().voidEncounter(voided, "Testing");
+
+		return orders;
+	}
+
+	/**
+	 * Lab order encounters saved for tests
+	 */
+	private static class LabOrders {
+		Encounter withResults;
+		Encounter latestResult;
+		Encounter pending1;
+		Encounter pending2;
+	}
+}
@@ -15,20 +15,210 @@
 package org.openmrs.module.kenyaemr.calculation;
 
 import org.junit.Assert;
-import org.junit.Ignore;
 import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterType;
+import org.openmrs.Obs;
+import org.openmrs.api.context.Context;
 import org.openmrs.calculation.result.CalculationResultMap;
-import org.openmrs.calculation.result.ListResult;
+import org.openmrs.calculation.result.ResultUtil;
 import org.openmrs.calculation.result.SimpleResult;
 import org.openmrs.module.kenyacore.calculation.BooleanResult;
-import org.openmrs.module.kenyacore.calculation.CalculationUtils;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
 
+import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
 
 /**
  * Tests for {@link EmrCalculationUtils}
  */
-@Ignore
-public class EmrCalculationUtilsTest {
-}
\ No newline at end of file
+public class EmrCalculationUtilsTest extends BaseModuleContextSensitiveTest {
+
+	/**
+	 * @see EmrCalculationUtils#dayNumber(java.util.Date)
+	 */
+	@Test
+	public void dayNumber_shouldCountCalendarDays() {
+		int day = EmrCalculationUtils.dayNumber(TestUtils.date(2014, 3, 1));
+
+		Assert.assertThat(EmrCalculationUtils.dayNumber(new Date(TestUtils.date(2014, 3, 2).getTime() - 1000)), is(day));
+		Assert.assertThat(EmrCalculationUtils.dayNumber(TestUtils.date(2014, 3, 2)), is(day + 1));
+		Assert.assertThat(EmrCalculationUtils.dayNumber(TestUtils.date(2014, 2, 1)), is(day - 28));
+		Assert.assertThat(EmrCalculationUtils.dayNumber(TestUtils.date(1969, 12, 31)), is(-1));
+	}
+
+	/**
+	 * @see EmrCalculationUtils#countInRange(int[], int, int)
+	 */
+	@Test
+	public void countInRange_shouldCountDaysInInclusiveRange() {
+		int[] days = { 10, 20, 20, 30, 40 };
+
+		Assert.assertThat(EmrCalculationUtils.countInRange(days, 20, 30), is(3));
+		Assert.assertThat(EmrCalculationUtils.countInRange(days, 0, 100), is(5));
+		Assert.assertThat(EmrCalculationUtils.countInRange(days, 41, 100), is(0));
+		Assert.assertThat(EmrCalculationUtils.countInRange(days, 30, 20), is(0));
+		Assert.assertThat(EmrCalculationUtils.countInRange(new int[0], 0, 100), is(0));
+		Assert.assertThat(EmrCalculationUtils.countInRange(null, 0, 100), is(0));
+	}
+
+	/**
+	 * @see EmrCalculationUtils#anyTwoApart(int[], int, int, int)
+	 */
+	@Test
+	public void anyTwoApart_shouldOnlyConsiderDaysInRange() {
+		int[] days = { 0, 50, 100, 135, 300 };
+
+		Assert.assertThat(EmrCalculationUtils.anyTwoApart(days, 0, 200, 135), is(true));
+		Assert.assertThat(EmrCalculationUtils.anyTwoApart(days, 0, 200, 136), is(false));
+		Assert.assertThat(EmrCalculationUtils.anyTwoApart(days, 50, 135, 85), is(true));
+		Assert.assertThat(EmrCalculationUtils.anyTwoApart(days, 51, 299, 1), is(true));
+		Assert.assertThat(EmrCalculationUtils.anyTwoApart(days, 136, 400, 1), is(false));
+		Assert.assertThat(EmrCalculationUtils.anyTwoApart(null, 0, 400, 1), is(false));
+	}
+
+	/**
+	 * @see EmrCalculationUtils#newResultMap(int)
+	 */
+	@Test
+	public void newResultMap_shouldCreateEmptyMap() {
+		Assert.assertThat(EmrCalculationUtils.newResultMap(0).size(), is(0));
+
+		CalculationResultMap results = EmrCalculationUtils.newResultMap(1000);
+		Assert.assertThat(results.size(), is(0));
+
+		results.put(1, new BooleanResult(true, null, null));
+		Assert.assertThat(results.size(), is(1));
+		Assert.assertThat(results.get(1).getValue(), is((Object) Boolean.TRUE));
+	}
+
+	/**
+	 * @see EmrCalculationUtils#newResultMap(int)
+	 */
+	@Test
+	public void newResultMap_shouldPreSizeMapForExpectedSize() throws Exception {
+		CalculationResultMap results = EmrCalculationUtils.newResultMap(1000);
+		results.put(1, new BooleanResult(true, null, null));
+
+		// Table must hold 1000 entries without exceeding the default 0.75 load factor
+		Assert.assertThat(tableCapacity(results), greaterThanOrEqualTo(1334));
+
+		CalculationResultMap defaultResults = new CalculationResultMap();
+		defaultResults.put(1, new BooleanResult(true, null, null));
+		Assert.assertThat(tableCapacity(defaultResults), lessThan(1334));
+	}
+
+	/**
+	 * @see EmrCalculationUtils#booleanResults(java.util.Collection, org.openmrs.calculation.patient.PatientCalculation, org.openmrs.calculation.patient.PatientCalculationContext)
+	 */
+	@Test
+	public void booleanResults_shouldShareResultObjects() {
+		CalculationResultMap results = EmrCalculationUtils.booleanResults(Arrays.asList(1, 2, 3, 4), null, null)
+				.put(1, true).put(2, false).put(3, true).put(4, false).build();
+
+		Assert.assertThat(results.keySet(), containsInAnyOrder(1, 2, 3, 4));
+		Assert.assertThat(ResultUtil.isTrue(results.get(1)), is(true));
+		Assert.assertThat(ResultUtil.isTrue(results.get(2)), is(false));
+		Assert.assertThat(results.get(3), sameInstance(results.get(1)));
+		Assert.assertThat(results.get(4), sameInstance(results.get(2)));
+	}
+
+	/**
+	 * @see BooleanResultMapBuilder#putNull(Integer)
+	 */
+	@Test
+	public void booleanResults_shouldShareEmptyResultObject() {
+		CalculationResultMap results = EmrCalculationUtils.booleanResults(Arrays.asList(1, 2, 3), null, null)
+				.put(1, true).putNull(2).putNull(3).build();
+
+		Assert.assertThat(results.keySet(), containsInAnyOrder(1, 2, 3));
+		Assert.assertThat(results.get(2).isEmpty(), is(true));
+		Assert.assertThat(ResultUtil.isTrue(results.get(2)), is(false));
+		Assert.assertThat(results.get(3), sameInstance(results.get(2)));
+
+		CalculationResultMap sparseResults = EmrCalculationUtils.sparseBooleanResults(null, null).put(1, true).putNull(2).build();
+		Assert.assertThat(sparseResults.keySet(), contains(1));
+	}
+
+	/**
+	 * @see EmrCalculationUtils#obsForEncounterResults(org.openmrs.calculation.result.CalculationResultMap, java.util.Collection)
+	 * @see EmrCalculationUtils#firstObs(java.util.List, org.openmrs.Concept)
+	 */
+	@Test
+	public void obsForEncounterResults_shouldFetchUnvoidedObsWithConceptsForEachPatientsEncounter() {
+		EncounterType encounterType = Context.getEncounterService().getEncounterType(1);
+		Concept weight = Context.getConceptService().getConcept(5089);
+		Concept cd4 = Context.getConceptService().getConcept(5497);
+		Date date = TestUtils.date(2012, 1, 1);
+
+		Obs weight6 = TestUtils.saveObs(TestUtils.getPatient(6), weight, 60.0, date);
+		Obs cd46 = TestUtils.saveObs(TestUtils.getPatient(6), cd4, 300.0, date);
+		Obs voided6 = TestUtils.saveObs(TestUtils.getPatient(6), weight, 61.0, date);
+		Encounter encounter6 = TestUtils.saveEncounter(TestUtils.getPatient(6), encounterType, date, weight6, cd46, voided6);
+		Context.getObsService().voidObs(voided6, "Testing");
+
+		Obs weight7 = TestUtils.saveObs(TestUtils.getPatient(7), weight, 70.0, date);
+		Encounter encounter7 = TestUtils.saveEncounter(TestUtils.getPatient(7), encounterType, date, weight7);
+
+		Obs cd48 = TestUtils.saveObs(TestUtils.getPatient(8), cd4, 200.0, date);
+		Encounter encounter8 = TestUtils.saveEncounter(TestUtils.getPatient(8), encounterType, date, cd48);
+
+		// Patient #2 has no encounter
+		CalculationResultMap encounters = new CalculationResultMap();
+		encounters.put(6, new SimpleResult(encounter6, null));
+		encounters.put(7, new SimpleResult(encounter7, null));
+		encounters.put(8, new SimpleResult(encounter8, null));
+		encounters.put(2, null);
+
+		Map<Integer, List<Obs>> weightObss = EmrCalculationUtils.obsForEncounterResults(encounters, Collections.singleton(weight));
+
+		Assert.assertThat(weightObss.keySet(), containsInAnyOrder(6, 7));
+		Assert.assertThat(weightObss.get(6), contains(weight6));
+		Assert.assertThat(weightObss.get(7), contains(weight7));
+
+		Map<Integer, List<Obs>> allObss = EmrCalculationUtils.obsForEncounterResults(encounters, Arrays.asList(weight, cd4));
+
+		Assert.assertThat(allObss.keySet(), containsInAnyOrder(6, 7, 8));
+		Assert.assertThat(allObss.get(6), contains(weight6, cd46));
+		Assert.assertThat(allObss.get(8), contains(cd48));
+
+		Assert.assertThat(EmrCalculationUtils.firstObs(allObss.get(6), cd4), is(cd46));
+		Assert.assertThat(EmrCalculationUtils.firstObs(allObss.get(7), cd4), nullValue());
+		Assert.assertThat(EmrCalculationUtils.firstObs(allObss.get(2), cd4), nullValue());
+
+		Assert.assertThat(EmrCalculationUtils.obsForEncounterResults(encounters, Collections.<Concept>emptySet()).size(), is(0));
+	}
+
+	/**
+	 * @see EmrCalculationUtils#sparseBooleanResults(org.openmrs.calculation.patient.PatientCalculation, org.openmrs.calculation.patient.PatientCalculationContext)
+	 */
+	@Test
+	public void sparseBooleanResults_shouldOnlyStoreTrueResults() {
+		CalculationResultMap results = EmrCalculationUtils.sparseBooleanResults(null, null)
+				.put(1, true).put(2, false).put(3, true).build();
+
+		Assert.assertThat(results.keySet(), containsInAnyOrder(1, 3));
+		Assert.assertThat(ResultUtil.isTrue(results.get(2)), is(false));
+	}
+
+	/**
+	 * Gets the capacity of a hash map's table
+	 * @param map the map
+	 * @return the capacity
+	 */
+	private static int tableCapacity(HashMap<?, ?> map) throws Exception {
+		Field table = HashMap.class.getDeclaredField("table");
+		table.setAccessible(true);
+		Object[] entries = (Object[]) table.get(map);
+		return entries != null ? entries.length : 0;
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.calculation.library.hiv;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.Program;
+import org.openmrs.api.context.Context;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.patient.PatientCalculationService;
+import org.openmrs.calculation.result.CalculationResultMap;
+import org.openmrs.module.kenyacore.calculation.CalculationUtils;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.HivConstants;
+import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
+import org.openmrs.module.kenyaemr.metadata.HivMetadata;
+import org.openmrs.module.metadatadeploy.MetadataUtils;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.*;
+import static org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils.daysSince;
+
+/**
+ * Tests for {@link PatientsDueForViralLoadCalculation}
+ */
+public class PatientsDueForViralLoadCalculationTest extends BaseModuleContextSensitiveTest {
+
+	@Autowired
+	private CommonMetadata commonMetadata;
+
+	@Autowired
+	private HivMetadata hivMetadata;
+
+	/**
+	 * Setup each test
+	 */
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("dataset/test-concepts.xml");
+
+		commonMetadata.install();
+		hivMetadata.install();
+	}
+
+	/**
+	 * @see PatientsDueForViralLoadCalculation#getFlagMessage()
+	 */
+	@Test
+	public void getFlagMessage() {
+		Assert.assertThat(new PatientsDueForViralLoadCalculation().getFlagMessage(), notNullValue());
+	}
+
+	/**
+	 * @see PatientsDueForViralLoadCalculation#evaluate(java.util.Collection, java.util.Map, org.openmrs.calculation.patient.PatientCalculationContext)
+	 */
+	@Test
+	public void evaluate_shouldMatchPerPatientObsHistoryLogic() throws Exception {
+		Program hivProgram = MetadataUtils.existing(Program.class, HivMetadata._Program.HIV);
+		Concept testsOrdered = Dictionary.getConcept("1271AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA");
+		Concept viralLoad = Dictionary.getConcept(Dictionary.HIV_VIRAL_LOAD);
+		Concept cd4 = Dictionary.getConcept(Dictionary.CD4_COUNT);
+
+		// Patients #2, #6, #7 and #8 are in HIV care, #999 isn't
+		for (int ptId : new int[] { 2, 6, 7, 8 }) {
+			TestUtils.enrollInProgram(TestUtils.getPatient(ptId), hivProgram, TestUtils.date(2012, 1, 1));
+		}
+
+		// Patient #6 had a viral load ordered long ago, and again recently
+		TestUtils.saveObs(TestUtils.getPatient(6), testsOrdered, viralLoad, TestUtils.date(2012, 2, 1));
+		TestUtils.saveObs(TestUtils.getPatient(6), testsOrdered, viralLoad, new Date());
+
+		// Patient #7 had a viral load ordered recently
+		TestUtils.saveObs(TestUtils.getPatient(7), testsOrdered, viralLoad, new Date());
+
+		// Patient #8 had a different test ordered long ago, and an old viral load order which was voided
+		TestUtils.saveObs(TestUtils.getPatient(8), testsOrdered, cd4, TestUtils.date(2012, 2, 1));
+		Obs voided = TestUtils.saveObs(TestUtils.getPatient(8), testsOrdered, viralLoad, TestUtils.date(2012, 2, 1));
+		Context.getObsService().voidObs(voided, "Testing");
+
+		// Patient #999 had a viral load ordered long ago but isn't in HIV care
+		TestUtils.saveObs(TestUtils.getPatient(999), testsOrdered, viralLoad, TestUtils.date(2012, 2, 1));
+
+		List<Integer> cohort = Arrays.asList(2, 6, 7, 8, 999);
+		PatientCalculationContext context = Context.getService(PatientCalculationService.class).createCalculationContext();
+		CalculationResultMap resultMap = new PatientsDueForViralLoadCalculation().evaluate(cohort, null, context);
+
+		Assert.assertThat(resultMap.get(2).getValue(), is((Object) Boolean.FALSE));
+		Assert.assertThat(resultMap.get(6).getValue(), is((Object) Boolean.TRUE));
+		Assert.assertThat(resultMap.get(7).getValue(), is((Object) Boolean.FALSE));
+		Assert.assertThat(resultMap.get(8).getValue(), is((Object) Boolean.FALSE));
+		Assert.assertThat(resultMap.get(999), nullValue());
+
+		// Check against the previous per-patient logic, with concepts compared by equality
+		Set<Integer> ltfu = CalculationUtils.patientsThatPass(new LostToFollowUpCalculation().evaluate(cohort, null, context));
+		for (Integer ptId : resultMap.keySet()) {
+			boolean expected = false;
+			for (Obs obs : Context.getObsService().getObservationsByPerson(new Patient(ptId))) {
+				if (viralLoad.equals(obs.getValueCoded()) && daysSince(obs.getObsDatetime(), context) > HivConstants.DUE_DATE_FOR_VIRAL_LOAD) {
+					expected = true;
+				}
+			}
+			if (ltfu.contains(ptId)) {
+				expected = false;
+			}
+
+			Assert.assertThat("Patient #" + ptId, resultMap.get(ptId).getValue(), is((Object) expected));
+		}
+	}
+}
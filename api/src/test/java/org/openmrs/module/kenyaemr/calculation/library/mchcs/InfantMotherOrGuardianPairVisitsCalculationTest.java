@@ -85,4 +85,44 @@ public class InfantMotherOrGuardianPairVisitsCalculationTest extends BaseModuleC
 		Assert.assertFalse((Boolean) resultMap.get(999).getValue());
 	}
 
-}
\ No newline at end of file
+	/**
+	 * @verifies pair visits by calendar day within the review period
+	 * @see org.openmrs.module.kenyaemr.calculation.library.mchcs.InfantMotherOrGuardianPairVisitsCalculation#evaluate (
+	 *      java.util.Collection, java.util.Map, org.openmrs.calculation.patient.PatientCalculationContext)
+	 */
+	@Test
+	public void evaluate_shouldPairVisitsByCalendarDayWithinReviewPeriod() throws Exception {
+		VisitType visitType = Context.getVisitService().getVisitType(1);
+
+		{
+			// Same day visits at different times of day
+			Patient infant = TestUtils.getPatient(2);
+			Patient guardian = TestUtils.getPatient(8);
+			TestUtils.saveRelationship(guardian, guardian_relation, infant);
+			TestUtils.saveVisit(guardian, visitType, TestUtils.date(2014, 9, 1, 8, 0, 0), TestUtils.date(2014, 9, 1, 9, 0, 0));
+			TestUtils.saveVisit(infant, visitType, TestUtils.date(2014, 9, 1, 20, 30, 0), TestUtils.date(2014, 9, 1, 21, 0, 0));
+		}
+
+		{
+			// Same day visits before the review period and visits on consecutive days inside it
+			Patient infant = TestUtils.getPatient(6);
+			Patient guardian = TestUtils.getPatient(8);
+			TestUtils.saveRelationship(guardian, guardian_relation, infant);
+			TestUtils.saveVisit(guardian, visitType, TestUtils.date(2014, 5, 1, 10, 0, 0), TestUtils.date(2014, 5, 1, 11, 0, 0));
+			TestUtils.saveVisit(infant, visitType, TestUtils.date(2014, 5, 1, 10, 0, 0), TestUtils.date(2014, 5, 1, 11, 0, 0));
+			TestUtils.saveVisit(guardian, visitType, TestUtils.date(2014, 9, 2, 23, 0, 0), TestUtils.date(2014, 9, 2, 23, 30, 0));
+			TestUtils.saveVisit(infant, visitType, TestUtils.date(2014, 9, 3, 1, 0, 0), TestUtils.date(2014, 9, 3, 2, 0, 0));
+		}
+
+		List<Integer> ptIds = Arrays.asList(2, 6, 999);
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("reviewPeriod", 4);
+		PatientCalculationContext p = Context.getService(PatientCalculationService.class).createCalculationContext();
+		p.setNow(TestUtils.date(2014, 10, 13));
+		CalculationResultMap resultMap = new InfantMotherOrGuardianPairVisitsCalculation().evaluate(ptIds, params, p);
+
+		Assert.assertTrue((Boolean) resultMap.get(2).getValue());
+		Assert.assertFalse((Boolean) resultMap.get(6).getValue());
+		Assert.assertFalse((Boolean) resultMap.get(999).getValue());
+	}
+}
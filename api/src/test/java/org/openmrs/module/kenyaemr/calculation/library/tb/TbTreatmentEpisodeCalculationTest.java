@@ -0,0 +1,143 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.calculation.library.tb;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.api.context.Context;
+import org.openmrs.calculation.patient.PatientCalculation;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.patient.PatientCalculationService;
+import org.openmrs.calculation.result.CalculationResultMap;
+import org.openmrs.module.kenyacore.calculation.Calculations;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.advice.PatientCalculationServiceAdvice;
+import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
+import org.openmrs.module.kenyaemr.metadata.TbMetadata;
+import org.openmrs.module.kenyaemr.test.EmrTestUtils;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link TbTreatmentEpisodeCalculation} and the TB calculations which are projections of it
+ */
+public class TbTreatmentEpisodeCalculationTest extends BaseModuleContextSensitiveTest {
+
+	@Autowired
+	private CommonMetadata commonMetadata;
+
+	@Autowired
+	private TbMetadata tbMetadata;
+
+	private PatientCalculationServiceAdvice advice;
+
+	private Concept tbStartDate;
+
+	private Concept tbTreatmentOutcome;
+
+	/**
+	 * Setup each test
+	 */
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("dataset/test-concepts.xml");
+
+		commonMetadata.install();
+		tbMetadata.install();
+
+		tbStartDate = Dictionary.getConcept(Dictionary.TUBERCULOSIS_DRUG_TREATMENT_START_DATE);
+		tbTreatmentOutcome = Dictionary.getConcept(Dictionary.TUBERCULOSIS_TREATMENT_OUTCOME);
+
+		// Patient #6 started treatment twice and died
+		TestUtils.saveObs(TestUtils.getPatient(6), tbStartDate, TestUtils.date(2012, 1, 1), TestUtils.date(2012, 1, 1));
+		TestUtils.saveObs(TestUtils.getPatient(6), tbStartDate, TestUtils.date(2012, 6, 1), TestUtils.date(2012, 6, 1));
+		TestUtils.saveObs(TestUtils.getPatient(6), tbTreatmentOutcome, Dictionary.getConcept(Dictionary.DIED), TestUtils.date(2012, 12, 1));
+
+		// Patient #7 started treatment and has a voided outcome
+		TestUtils.saveObs(TestUtils.getPatient(7), tbStartDate, TestUtils.date(2012, 3, 1), TestUtils.date(2012, 3, 1));
+		Obs voided = TestUtils.saveObs(TestUtils.getPatient(7), tbTreatmentOutcome, Dictionary.getConcept(Dictionary.DIED), TestUtils.date(2012, 9, 1));
+		Context.getObsService().voidObs(voided, "Testing");
+
+		advice = EmrTestUtils.addCalculationAdvice();
+	}
+
+	@After
+	public void cleanup() {
+		EmrTestUtils.removeCalculationAdvice(advice);
+	}
+
+	/**
+	 * @see TbTreatmentStartDateCalculation#evaluate(java.util.Collection, java.util.Map, org.openmrs.calculation.patient.PatientCalculationContext)
+	 * @see TbTreatmentOutcomeCalculation#evaluate(java.util.Collection, java.util.Map, org.openmrs.calculation.patient.PatientCalculationContext)
+	 */
+	@Test
+	public void evaluate_shouldCalculateSameLastObsAsSeparateQueries() throws Exception {
+		List<Integer> cohort = Arrays.asList(6, 7, 8, 999);
+		PatientCalculationService service = Context.getService(PatientCalculationService.class);
+
+		CalculationResultMap startDates = service.evaluate(cohort, new TbTreatmentStartDateCalculation(), service.createCalculationContext());
+		CalculationResultMap outcomes = service.evaluate(cohort, new TbTreatmentOutcomeCalculation(), service.createCalculationContext());
+
+		CalculationResultMap expectedStartDates = Calculations.lastObs(tbStartDate, cohort, service.createCalculationContext());
+		CalculationResultMap expectedOutcomes = Calculations.lastObs(tbTreatmentOutcome, cohort, service.createCalculationContext());
+
+		for (Integer ptId : cohort) {
+			Assert.assertThat(EmrCalculationUtils.obsResultForPatient(startDates, ptId), is(EmrCalculationUtils.obsResultForPatient(expectedStartDates, ptId)));
+			Assert.assertThat(EmrCalculationUtils.obsResultForPatient(outcomes, ptId), is(EmrCalculationUtils.obsResultForPatient(expectedOutcomes, ptId)));
+		}
+
+		Assert.assertThat(EmrCalculationUtils.datetimeObsResultForPatient(startDates, 6), is(TestUtils.date(2012, 6, 1)));
+		Assert.assertThat(EmrCalculationUtils.codedObsResultForPatient(outcomes, 6), is(Dictionary.getConcept(Dictionary.DIED)));
+		Assert.assertThat(EmrCalculationUtils.datetimeObsResultForPatient(startDates, 7), is(TestUtils.date(2012, 3, 1)));
+		Assert.assertThat(EmrCalculationUtils.obsResultForPatient(outcomes, 7), nullValue());
+		Assert.assertThat(EmrCalculationUtils.obsResultForPatient(startDates, 8), nullValue());
+	}
+
+	/**
+	 * @see TbTreatmentEpisodeCalculation#evaluate(java.util.Collection, java.util.Map, org.openmrs.calculation.patient.PatientCalculationContext)
+	 */
+	@Test
+	public void evaluate_shouldBeEvaluatedOncePerContextForAllProjections() throws Exception {
+		List<Integer> cohort = Arrays.asList(6, 7, 8, 999);
+		PatientCalculationService service = Context.getService(PatientCalculationService.class);
+		PatientCalculationContext context = service.createCalculationContext();
+
+		PatientCalculation[] projections = {
+				new TbTreatmentStartDateCalculation(),
+				new TbTreatmentOutcomeCalculation()
+		};
+
+		for (PatientCalculation calculation : projections) {
+			service.evaluate(cohort, calculation, context);
+		}
+
+		Assert.assertThat(EmrTestUtils.calculationEvaluationCount(TbTreatmentEpisodeCalculation.class), is(1l));
+
+		// A different context evaluates it again
+		service.evaluate(cohort, new TbTreatmentStartDateCalculation(), service.createCalculationContext());
+		Assert.assertThat(EmrTestUtils.calculationEvaluationCount(TbTreatmentEpisodeCalculation.class), is(2l));
+	}
+}
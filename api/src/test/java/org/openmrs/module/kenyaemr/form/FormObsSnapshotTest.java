@@ -0,0 +1,102 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.form;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.htmlformentry.FormEntrySession;
+import org.openmrs.module.htmlformentry.HtmlForm;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link FormObsSnapshot}
+ */
+public class FormObsSnapshotTest extends BaseModuleContextSensitiveTest {
+
+	private static final String CD4_UUID = "a09ab2c5-878e-4905-b25d-5784167d0216";
+
+	/**
+	 * @see FormObsSnapshot#getReferencedConceptIdentifiers(String)
+	 */
+	@Test
+	public void getReferencedConceptIdentifiers_shouldFindVelocityFunctionsAndRecentObsTags() {
+		String xml = "<htmlform>"
+				+ "<includeIf velocityTest=\"$kenyaemr.latestObs('1234AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA')\">x</includeIf>"
+				+ "<includeIf velocityTest=\"$kenyaemr.obsToday( 'CIEL:5089' )\">y</includeIf>"
+				+ "<recentObs conceptId=\"" + CD4_UUID + "\" showDate=\"false\" />"
+				+ "<obs conceptId=\"5678AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA\" />"
+				+ "</htmlform>";
+
+		Assert.assertThat(FormObsSnapshot.getReferencedConceptIdentifiers(xml), contains("1234AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA", "CIEL:5089", CD4_UUID));
+		Assert.assertThat(FormObsSnapshot.getReferencedConceptIdentifiers(null), hasSize(0));
+	}
+
+	/**
+	 * @see FormObsSnapshot#getReferencedConceptIdentifiers(org.openmrs.module.htmlformentry.HtmlForm)
+	 */
+	@Test
+	public void getReferencedConceptIdentifiers_shouldCacheOneRevisionPerSavedForm() {
+		HtmlForm form = new HtmlForm();
+		form.setId(12345);
+		form.setXmlData("<htmlform><recentObs conceptId=\"" + CD4_UUID + "\" /></htmlform>");
+		int cachedForms = FormObsSnapshot.getCachedFormCount();
+
+		Set<String> identifiers = FormObsSnapshot.getReferencedConceptIdentifiers(form);
+		Assert.assertThat(identifiers, contains(CD4_UUID));
+		Assert.assertThat(FormObsSnapshot.getReferencedConceptIdentifiers(form), sameInstance(identifiers));
+
+		// A new revision replaces the cached identifiers of the previous one
+		form.setXmlData("<htmlform><recentObs conceptId=\"CIEL:5089\" /></htmlform>");
+		form.setDateChanged(TestUtils.date(2014, 1, 1));
+
+		Assert.assertThat(FormObsSnapshot.getReferencedConceptIdentifiers(form), contains("CIEL:5089"));
+		Assert.assertThat(FormObsSnapshot.getCachedFormCount(), is(cachedForms + 1));
+	}
+
+	/**
+	 * @see FormObsSnapshot#forSession(org.openmrs.module.htmlformentry.FormEntrySession)
+	 */
+	@Test
+	public void forSession_shouldLoadObsForReferencedConcepts() throws Exception {
+		String xml = "<htmlform><recentObs conceptId=\"" + CD4_UUID + "\" /></htmlform>";
+		FormEntrySession session = new FormEntrySession(TestUtils.getPatient(7), xml, new MockHttpSession());
+
+		FormObsSnapshot snapshot = FormObsSnapshot.forSession(session);
+		Concept cd4 = Context.getConceptService().getConceptByUuid(CD4_UUID);
+		Concept weight = Context.getConceptService().getConcept(5089);
+
+		Assert.assertThat(snapshot.contains(cd4), is(true));
+		Assert.assertThat(snapshot.contains(weight), is(false));
+		Assert.assertThat(snapshot.getObs(weight), nullValue());
+
+		// Should be same obs in same order as if fetched separately
+		List<Obs> expected = Context.getObsService().getObservationsByPersonAndConcept(TestUtils.getPatient(7), cd4);
+		Assert.assertThat(snapshot.getObs(cd4), is(expected));
+
+		// Should be loaded once per session
+		Assert.assertThat(FormObsSnapshot.forSession(session), sameInstance(snapshot));
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.metadata;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.EncounterType;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.EmrConstants;
+import org.openmrs.module.kenyaemr.StartupReport;
+import org.openmrs.module.metadatadeploy.MetadataUtils;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link AbstractFingerprintedBundle}
+ */
+public class AbstractFingerprintedBundleTest extends BaseModuleContextSensitiveTest {
+
+	@Autowired
+	private CommonMetadata commonMetadata;
+
+	@Autowired
+	private TbMetadata tbMetadata;
+
+	@Autowired
+	@Qualifier("adminService")
+	private AdministrationService adminService;
+
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("dataset/test-concepts.xml");
+
+		commonMetadata.install();
+	}
+
+	/**
+	 * @see AbstractFingerprintedBundle#install()
+	 */
+	@Test
+	public void install_shouldSkipInstallIfFingerprintUnchanged() throws Exception {
+		String propertyName = EmrConstants.GP_BUNDLE_FINGERPRINT_PREFIX + "TbMetadata";
+
+		StartupReport.begin();
+		String report;
+		try {
+			tbMetadata.install();
+
+			Assert.assertThat(adminService.getGlobalProperty(propertyName), is(tbMetadata.getFingerprint()));
+
+			// Modify some installed metadata which the next install would normally restore
+			EncounterType tbEnrollment = MetadataUtils.existing(EncounterType.class, TbMetadata._EncounterType.TB_ENROLLMENT);
+			tbEnrollment.setName("Modified");
+			Context.getEncounterService().saveEncounterType(tbEnrollment);
+
+			tbMetadata.install();
+
+			Assert.assertThat(MetadataUtils.existing(EncounterType.class, TbMetadata._EncounterType.TB_ENROLLMENT).getName(), is("Modified"));
+
+			// Removing the fingerprint forces a full install
+			adminService.purgeGlobalProperty(adminService.getGlobalPropertyObject(propertyName));
+			tbMetadata.install();
+
+			Assert.assertThat(MetadataUtils.existing(EncounterType.class, TbMetadata._EncounterType.TB_ENROLLMENT).getName(), is("TB Enrollment"));
+		}
+		finally {
+			report = StartupReport.end();
+		}
+
+		Assert.assertThat(report, containsString("Bundle TbMetadata"));
+		Assert.assertThat(report, containsString("unchanged"));
+	}
+
+	/**
+	 * @see AbstractFingerprintedBundle#getFingerprint()
+	 */
+	@Test
+	public void getFingerprint_shouldDifferBetweenBundles() throws Exception {
+		Assert.assertThat(tbMetadata.getFingerprint(), is(tbMetadata.getFingerprint()));
+		Assert.assertThat(tbMetadata.getFingerprint(), not(commonMetadata.getFingerprint()));
+	}
+}
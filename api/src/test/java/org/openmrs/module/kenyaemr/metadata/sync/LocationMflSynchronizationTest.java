@@ -22,6 +22,7 @@ import org.openmrs.LocationAttribute;
 import org.openmrs.LocationAttributeType;
 import org.openmrs.api.LocationService;
 import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.EmrConstants;
 import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
 import org.openmrs.module.kenyaemr.metadata.FacilityMetadata;
 import org.openmrs.module.kenyaemr.wrapper.Facility;
@@ -120,6 +121,65 @@ public class LocationMflSynchronizationTest extends BaseModuleContextSensitiveTe
 		}
 	}
 
+	/**
+	 * @see LocationMflSynchronization#sync(org.openmrs.module.metadatadeploy.source.ObjectSource)
+	 */
+	@Test
+	public void sync_shouldOnlyApplyChanges() throws Exception {
+		LocationAttributeType codeAttrType = MetadataUtils.existing(LocationAttributeType.class, FacilityMetadata._LocationAttributeType.MASTER_FACILITY_CODE);
+
+		LocationMflSynchronization.Changes changes = mflSynchronization.sync(new LocationMflCsvSource("test-locations.csv"));
+
+		Assert.assertThat(changes.getCreated(), is(3));
+		Assert.assertThat(changes.getUpdated(), is(0));
+		Assert.assertThat(changes.getRetired(), is(0));
+
+		// Modify a location's name and invalidate another's MFL code
+		Location modified = locationService.getLocation("Abdisamad Dispensary");
+		modified.setName("Modified");
+		locationService.saveLocation(modified);
+
+		Location invalid = locationService.getLocation("Aberdare Health Services");
+		invalid.getActiveAttributes(codeAttrType).get(0).setValue("66666");
+		locationService.saveLocation(invalid);
+
+		// Should reset the name, retire Aberdare Health Services (66666) and re-create Aberdare Health Services (10003)
+		changes = mflSynchronization.sync(new LocationMflCsvSource("test-locations.csv"));
+
+		Assert.assertThat(changes.getCreated(), is(1));
+		Assert.assertThat(changes.getUpdated(), is(1));
+		Assert.assertThat(changes.getRetired(), is(1));
+		Assert.assertThat(locationService.getLocation("Abdisamad Dispensary"), notNullValue());
+		Assert.assertThat(invalid.isRetired(), is(true));
+
+		Location repaired = null;
+		for (Location loc : locationService.getAllLocations(false)) {
+			if ("10003".equals(new Facility(loc).getMflCode())) {
+				Assert.assertThat(repaired, nullValue());
+				repaired = loc;
+			}
+		}
+		Assert.assertThat(repaired, notNullValue());
+		Assert.assertThat(repaired.getName(), is("Aberdare Health Services"));
+
+		changes = mflSynchronization.sync(new LocationMflCsvSource("test-locations.csv"));
+
+		Assert.assertThat(changes.getTotal(), is(0));
+	}
+
+	/**
+	 * @see LocationMflSynchronization#syncIfChanged(String)
+	 */
+	@Test
+	public void syncIfChanged_shouldSkipSyncIfSourceUnchanged() throws Exception {
+		LocationMflSynchronization.Changes changes = mflSynchronization.syncIfChanged("test-locations.csv");
+
+		Assert.assertThat(changes.getCreated(), is(3));
+		Assert.assertThat(Context.getAdministrationService().getGlobalProperty(EmrConstants.GP_MFL_SYNC_HASH), notNullValue());
+
+		Assert.assertThat(mflSynchronization.syncIfChanged("test-locations.csv"), nullValue());
+	}
+
 	private SyncResult<Location> runSync() throws Exception {
 		ObjectSource<Location> source = new LocationMflCsvSource("test-locations.csv");
 		SyncResult<Location> result = new MetadataSynchronizationRunner<Location>(source, mflSynchronization).run();
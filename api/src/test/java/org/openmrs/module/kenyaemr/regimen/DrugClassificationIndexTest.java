@@ -0,0 +1,166 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.regimen;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.ConceptAnswer;
+import org.openmrs.ConceptDatatype;
+import org.openmrs.ConceptName;
+import org.openmrs.api.ConceptService;
+import org.openmrs.api.context.Context;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+
+import java.util.Locale;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link DrugClassificationIndex}
+ */
+public class DrugClassificationIndexTest extends BaseModuleContextSensitiveTest {
+
+	private DrugClassificationIndex index = new DrugClassificationIndex();
+
+	private Concept fdc, nvp;
+
+	@Before
+	public void setup() throws Exception {
+		fdc = saveConcept("Test FDC", ConceptDatatype.N_A_UUID, null);
+		nvp = saveConcept("Test NVP", ConceptDatatype.N_A_UUID, null);
+
+		saveConcept("Fixed dose combinations", ConceptDatatype.CODED_UUID, DrugClassificationIndex.FIXED_DOSE_COMBINATIONS, fdc);
+		saveConcept("ARV drugs for child", ConceptDatatype.CODED_UUID, DrugClassificationIndex.ARV_DRUGS_FOR_CHILD, nvp);
+		saveConcept("First line ARVs", ConceptDatatype.CODED_UUID, DrugClassificationIndex.FIRST_LINE_ARVS, fdc, nvp);
+	}
+
+	/**
+	 * @see DrugClassificationIndex#getDrug(String)
+	 */
+	@Test
+	public void getDrug_shouldFindDrugsByName() {
+		Assert.assertThat(index.getDrug("Test FDC"), is(fdc));
+		Assert.assertThat(index.getDrug("test nvp"), is(nvp));
+		Assert.assertThat(index.getDrug(null), nullValue());
+
+		// Not in a regimen class so looked up by the concept service
+		Assert.assertThat(index.getDrug("YES"), is(Context.getConceptService().getConceptByName("YES")));
+	}
+
+	/**
+	 * @see DrugClassificationIndex#getRegimenClass(org.openmrs.Concept, Integer)
+	 */
+	@Test
+	public void getRegimenClass_shouldGiveFixedDoseCombinationsPrecedence() {
+		Assert.assertThat(index.isFixedDoseCombination(fdc), is(true));
+		Assert.assertThat(index.isFixedDoseCombination(nvp), is(false));
+		Assert.assertThat(index.getRegimenClass(fdc, 30), is(DrugClassificationIndex.FIXED_DOSE_COMBINATIONS));
+		Assert.assertThat(index.getClassName(DrugClassificationIndex.FIXED_DOSE_COMBINATIONS), is("Fixed dose combinations"));
+	}
+
+	/**
+	 * @see DrugClassificationIndex#getRegimenClass(org.openmrs.Concept, Integer)
+	 */
+	@Test
+	public void getRegimenClass_shouldOnlyUseChildClassForChildren() {
+		Assert.assertThat(index.getRegimenClass(nvp, 10), is(DrugClassificationIndex.ARV_DRUGS_FOR_CHILD));
+		Assert.assertThat(index.getRegimenClass(nvp, 30), is(DrugClassificationIndex.FIRST_LINE_ARVS));
+		Assert.assertThat(index.getRegimenClass(nvp, null), is(DrugClassificationIndex.FIRST_LINE_ARVS));
+		Assert.assertThat(index.getRegimenClass(null, 30), nullValue());
+		Assert.assertThat(index.getClassName(null), is(""));
+	}
+
+	/**
+	 * @see DrugClassificationIndex#invalidate()
+	 */
+	@Test
+	public void invalidate_shouldRebuildIndexWhenNextUsed() throws Exception {
+		Concept efv = saveConcept("Test EFV", ConceptDatatype.N_A_UUID, null);
+
+		Assert.assertThat(index.getRegimenClass(efv, 30), nullValue());
+
+		saveConcept("Second line ART", ConceptDatatype.CODED_UUID, DrugClassificationIndex.SECOND_LINE_ART, efv);
+
+		// Still using the old snapshot
+		Assert.assertThat(index.getRegimenClass(efv, 30), nullValue());
+
+		index.invalidate();
+
+		Assert.assertThat(index.getRegimenClass(efv, 30), is(DrugClassificationIndex.SECOND_LINE_ART));
+	}
+
+	/**
+	 * @see DrugClassificationIndex#invalidate()
+	 */
+	@Test
+	public void invalidate_shouldDiscardSnapshotWhoseBuildWasInProgress() throws Exception {
+		final Concept efv = saveConcept("Test EFV", ConceptDatatype.N_A_UUID, null);
+
+		// Simulates a concept being saved while the first snapshot is being built
+		DrugClassificationIndex racingIndex = new DrugClassificationIndex() {
+			private boolean saved = false;
+
+			@Override
+			protected Snapshot build(int generation) {
+				Snapshot built = super.build(generation);
+				if (!saved) {
+					saved = true;
+					saveConcept("Second line ART", ConceptDatatype.CODED_UUID, DrugClassificationIndex.SECOND_LINE_ART, efv);
+					invalidate();
+				}
+				return built;
+			}
+		};
+
+		racingIndex.getRegimenClass(efv, 30);
+
+		Assert.assertThat(racingIndex.getRegimenClass(efv, 30), is(DrugClassificationIndex.SECOND_LINE_ART));
+	}
+
+	/**
+	 * @see DrugClassificationIndex#getClasses(org.openmrs.Concept)
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void getClasses_shouldReturnUnmodifiableSet() {
+		index.getClasses(fdc).clear();
+	}
+
+	/**
+	 * Saves a new concept
+	 * @param name the name
+	 * @param datatypeUuid the datatype UUID
+	 * @param uuid the concept UUID (may be null)
+	 * @param answers the answer concepts
+	 * @return the concept
+	 */
+	protected Concept saveConcept(String name, String datatypeUuid, String uuid, Concept... answers) {
+		ConceptService conceptService = Context.getConceptService();
+
+		Concept concept = new Concept();
+		concept.addName(new ConceptName(name, Locale.ENGLISH));
+		concept.setDatatype(conceptService.getConceptDatatypeByUuid(datatypeUuid));
+		concept.setConceptClass(conceptService.getConceptClass(3));
+		if (uuid != null) {
+			concept.setUuid(uuid);
+		}
+		for (Concept answer : answers) {
+			concept.addAnswer(new ConceptAnswer(answer));
+		}
+		return conceptService.saveConcept(concept);
+	}
+}
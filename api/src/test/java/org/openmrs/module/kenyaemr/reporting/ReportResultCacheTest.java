@@ -0,0 +1,156 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.reporting;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.Obs;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.module.reporting.evaluation.parameter.Mapped;
+import org.openmrs.module.reporting.report.ReportRequest;
+import org.openmrs.module.reporting.report.definition.ReportDefinition;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link ReportResultCache}
+ */
+public class ReportResultCacheTest extends BaseModuleContextSensitiveTest {
+
+	/**
+	 * @see ReportResultCache#isCacheable(java.util.Map)
+	 */
+	@Test
+	public void isCacheable_shouldOnlyAcceptReportsWithPeriod() {
+		Assert.assertFalse(ReportResultCache.isCacheable(null));
+		Assert.assertFalse(ReportResultCache.isCacheable(new HashMap<String, Object>()));
+		Assert.assertTrue(ReportResultCache.isCacheable(period(2014, 1)));
+	}
+
+	/**
+	 * @see ReportResultCache#parametersMatch(org.openmrs.module.reporting.report.ReportRequest, java.util.Map)
+	 */
+	@Test
+	public void parametersMatch_shouldCompareDatesByTime() {
+		Map<String, Object> requested = period(2014, 1);
+
+		// Simulate a de-serialized request with timestamp values
+		Map<String, Object> stored = new HashMap<String, Object>();
+		for (Map.Entry<String, Object> entry : requested.entrySet()) {
+			stored.put(entry.getKey(), new Timestamp(((java.util.Date) entry.getValue()).getTime()));
+		}
+
+		ReportRequest request = new ReportRequest();
+		request.setReportDefinition(new Mapped<ReportDefinition>(new ReportDefinition(), stored));
+
+		Assert.assertTrue(ReportResultCache.parametersMatch(request, requested));
+		Assert.assertFalse(ReportResultCache.parametersMatch(request, period(2014, 2)));
+	}
+
+	/**
+	 * @see ReportResultCache#isStale(org.openmrs.module.reporting.report.ReportRequest)
+	 */
+	@Test
+	public void isStale_shouldReturnTrueIfNeverEvaluated() {
+		ReportRequest request = new ReportRequest();
+		request.setReportDefinition(new Mapped<ReportDefinition>(new ReportDefinition(), period(2014, 1)));
+
+		Assert.assertTrue(new ReportResultCache().isStale(request));
+	}
+
+	/**
+	 * @see ReportResultCache#isStale(org.openmrs.module.reporting.report.ReportRequest)
+	 */
+	@Test
+	public void isStale_shouldReturnTrueIfDataInsidePeriodSavedSinceEvaluation() {
+		ReportRequest obsRequest = evaluatedRequest(period(2014, 1), new Date());
+		Assert.assertFalse(new ReportResultCache().isStale(obsRequest));
+
+		TestUtils.saveObs(TestUtils.getPatient(7), Context.getConceptService().getConcept(5089), 70.0, TestUtils.date(2014, 1, 15));
+
+		Assert.assertTrue(new ReportResultCache().isStale(obsRequest));
+
+		ReportRequest encounterRequest = evaluatedRequest(period(2014, 2), new Date());
+		Assert.assertFalse(new ReportResultCache().isStale(encounterRequest));
+
+		TestUtils.saveEncounter(TestUtils.getPatient(7), Context.getEncounterService().getEncounterType(1), TestUtils.date(2014, 2, 15));
+
+		Assert.assertTrue(new ReportResultCache().isStale(encounterRequest));
+	}
+
+	/**
+	 * @see ReportResultCache#isStale(org.openmrs.module.reporting.report.ReportRequest)
+	 */
+	@Test
+	public void isStale_shouldReturnFalseIfDataOutsidePeriodSavedSinceEvaluation() {
+		ReportRequest request = evaluatedRequest(period(2014, 1), new Date());
+
+		TestUtils.saveObs(TestUtils.getPatient(7), Context.getConceptService().getConcept(5089), 70.0, TestUtils.date(2013, 12, 31));
+		TestUtils.saveObs(TestUtils.getPatient(7), Context.getConceptService().getConcept(5089), 71.0, TestUtils.date(2014, 2, 1));
+		TestUtils.saveEncounter(TestUtils.getPatient(7), Context.getEncounterService().getEncounterType(1), TestUtils.date(2014, 2, 1));
+
+		Assert.assertFalse(new ReportResultCache().isStale(request));
+	}
+
+	/**
+	 * @see ReportResultCache#isStale(org.openmrs.module.reporting.report.ReportRequest)
+	 */
+	@Test
+	public void isStale_shouldReturnTrueIfObsInsidePeriodVoidedSinceEvaluation() {
+		// Obs created before the evaluation
+		Obs obs = new Obs(TestUtils.getPatient(7), Context.getConceptService().getConcept(5089), TestUtils.date(2014, 1, 15), null);
+		obs.setValueNumeric(70.0);
+		obs.setDateCreated(TestUtils.date(2014, 1, 15));
+		Context.getObsService().saveObs(obs, null);
+
+		ReportRequest request = evaluatedRequest(period(2014, 1), new Date());
+		Assert.assertFalse(new ReportResultCache().isStale(request));
+
+		Context.getObsService().voidObs(obs, "Testing");
+
+		Assert.assertTrue(new ReportResultCache().isStale(request));
+	}
+
+	/**
+	 * Creates a report request which was evaluated for the given parameter values
+	 * @param parameterValues the parameter values
+	 * @param evaluateStartDatetime when evaluation started
+	 * @return the request
+	 */
+	private static ReportRequest evaluatedRequest(Map<String, Object> parameterValues, Date evaluateStartDatetime) {
+		ReportRequest request = new ReportRequest();
+		request.setReportDefinition(new Mapped<ReportDefinition>(new ReportDefinition(), parameterValues));
+		request.setEvaluateStartDatetime(evaluateStartDatetime);
+		return request;
+	}
+
+	/**
+	 * Creates parameter values for a calendar month
+	 * @param year the year
+	 * @param month the month
+	 * @return the parameter values
+	 */
+	private static Map<String, Object> period(int year, int month) {
+		Map<String, Object> values = new HashMap<String, Object>();
+		values.put(ReportResultCache.PARAM_START_DATE, TestUtils.date(year, month, 1));
+		values.put(ReportResultCache.PARAM_END_DATE, TestUtils.date(year, month, 28));
+		return values;
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.cohort.definition.evaluator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyacore.test.ReportingTestUtils;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.regimen.RegimenManager;
+import org.openmrs.module.kenyaemr.reporting.cohort.definition.RegimenOrderCohortDefinition;
+import org.openmrs.module.kenyaemr.test.EmrTestUtils;
+import org.openmrs.module.reporting.cohort.EvaluatedCohort;
+import org.openmrs.module.reporting.cohort.definition.service.CohortDefinitionService;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Tests for {@link RegimenOrderCohortDefinitionEvaluator}
+ */
+public class RegimenOrderCohortDefinitionEvaluatorTest extends BaseModuleContextSensitiveTest {
+
+	@Autowired
+	private RegimenManager regimenManager;
+
+	private Concept azt, _3tc, efv, d4t;
+
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("dataset/test-concepts.xml");
+		executeDataSet("dataset/test-drugs.xml");
+
+		regimenManager.refresh();
+
+		azt = Dictionary.getConcept(Dictionary.ZIDOVUDINE);
+		_3tc = Dictionary.getConcept(Dictionary.LAMIVUDINE);
+		efv = Dictionary.getConcept(Dictionary.EFAVIRENZ);
+		d4t = Dictionary.getConcept(Dictionary.STAVUDINE);
+	}
+
+	/**
+	 * @see RegimenOrderCohortDefinitionEvaluator#evaluate(org.openmrs.module.reporting.cohort.definition.CohortDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldReturnPatientsWithExactlyTheRegimenDrugsOnDate() throws Exception {
+		// Patient #6 started AZT + 3TC + EFV on June 1st
+		EmrTestUtils.saveRegimenOrder(TestUtils.getPatient(6), Arrays.asList(azt, _3tc, efv), TestUtils.date(2012, 6, 1), null);
+
+		// Patient #8 started AZT + 3TC + EFV on January 1st, and switched from EFV to D4T on May 1st
+		EmrTestUtils.saveRegimenOrder(TestUtils.getPatient(8), Arrays.asList(azt, _3tc), TestUtils.date(2012, 1, 1), null);
+		EmrTestUtils.saveRegimenOrder(TestUtils.getPatient(8), Arrays.asList(efv), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 5, 1));
+		EmrTestUtils.saveRegimenOrder(TestUtils.getPatient(8), Arrays.asList(d4t), TestUtils.date(2012, 5, 1), null);
+
+		// Patient #999 started AZT + 3TC + EFV + D4T on January 1st, and stopped D4T on June 1st
+		EmrTestUtils.saveRegimenOrder(TestUtils.getPatient(999), Arrays.asList(azt, _3tc, efv), TestUtils.date(2012, 1, 1), null);
+		EmrTestUtils.saveRegimenOrder(TestUtils.getPatient(999), Arrays.asList(d4t), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 6, 1));
+
+		RegimenOrderCohortDefinition cd = new RegimenOrderCohortDefinition();
+		cd.setMasterConceptSet(regimenManager.getMasterSetConcept("ARV"));
+		cd.setConceptSet(new HashSet<Concept>(Arrays.asList(azt, _3tc, efv)));
+
+		EvaluationContext context = ReportingTestUtils.reportingContext(Arrays.asList(6, 8, 999), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 6, 30));
+
+		cd.setOnDate(TestUtils.date(2012, 3, 1));
+		EvaluatedCohort evaluated = Context.getService(CohortDefinitionService.class).evaluate(cd, context);
+		ReportingTestUtils.assertCohortEquals(Arrays.asList(8), evaluated);
+
+		cd.setOnDate(TestUtils.date(2012, 6, 15));
+		evaluated = Context.getService(CohortDefinitionService.class).evaluate(cd, context);
+		ReportingTestUtils.assertCohortEquals(Arrays.asList(6, 999), evaluated);
+
+		// Only patients in the base cohort are included
+		context = ReportingTestUtils.reportingContext(Arrays.asList(8, 999), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 6, 30));
+		evaluated = Context.getService(CohortDefinitionService.class).evaluate(cd, context);
+		ReportingTestUtils.assertCohortEquals(Arrays.asList(999), evaluated);
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.api.LocationService;
+import org.openmrs.api.context.Context;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.result.CalculationResult;
+import org.openmrs.calculation.result.CalculationResultMap;
+import org.openmrs.calculation.result.SimpleResult;
+import org.openmrs.module.kenyacore.calculation.AbstractPatientCalculation;
+import org.openmrs.module.kenyacore.test.ReportingTestUtils;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.openmrs.module.kenyaemr.calculation.ConstantCalculation;
+import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.FacilityNameCalculation;
+import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.ConstantCalculationDataDefinition;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.service.PatientDataService;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link ConstantCalculationDataEvaluator}
+ */
+public class ConstantCalculationDataEvaluatorTest extends BaseModuleContextSensitiveTest {
+
+	@Autowired
+	private CommonMetadata commonMetadata;
+
+	@Autowired
+	private KenyaEmrService kenyaEmrService;
+
+	@Autowired
+	private LocationService locationService;
+
+	@Autowired
+	private PatientDataService patientDataService;
+
+	@Before
+	public void setup() throws Exception {
+		commonMetadata.install();
+
+		kenyaEmrService.setDefaultLocation(locationService.getLocation(1));
+	}
+
+	/**
+	 * @see ConstantCalculationDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldEvaluateCalculationOnceAndGiveSameResultToEveryPatient() throws Exception {
+		EvaluationContext context = ReportingTestUtils.reportingContext(Arrays.asList(2, 6, 7, 8), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 1, 31));
+		CountingCalculation calculation = new CountingCalculation();
+
+		EvaluatedPatientData data = patientDataService.evaluate(new ConstantCalculationDataDefinition("Constant", calculation), context);
+
+		Assert.assertThat(data.getData().keySet(), containsInAnyOrder(2, 6, 7, 8));
+		Object result = data.getData().get(2);
+		Assert.assertThat(((CalculationResult) result).getValue(), is((Object) "constant"));
+		for (Object patientResult : data.getData().values()) {
+			Assert.assertThat(patientResult, sameInstance(result));
+		}
+
+		// A second column using the same calculation re-uses the result
+		patientDataService.evaluate(new ConstantCalculationDataDefinition("Constant again", calculation), context);
+
+		Assert.assertThat(calculation.evaluations, is(1));
+	}
+
+	/**
+	 * @see ConstantCalculationDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldReturnEmptyDataForEmptyBaseCohort() throws Exception {
+		EvaluationContext context = ReportingTestUtils.reportingContext(Arrays.<Integer>asList(), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 1, 31));
+		CountingCalculation calculation = new CountingCalculation();
+
+		EvaluatedPatientData data = patientDataService.evaluate(new ConstantCalculationDataDefinition("Constant", calculation), context);
+
+		Assert.assertThat(data.getData().size(), is(0));
+		Assert.assertThat(calculation.evaluations, is(0));
+	}
+
+	/**
+	 * @see ConstantCalculationDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldEvaluateFacilityName() throws Exception {
+		EvaluationContext context = ReportingTestUtils.reportingContext(Arrays.asList(2, 6, 7), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 1, 31));
+
+		EvaluatedPatientData data = patientDataService.evaluate(new ConstantCalculationDataDefinition("Facility name", new FacilityNameCalculation()), context);
+
+		String expected = locationService.getLocation(1).getName();
+		Assert.assertThat(((CalculationResult) data.getData().get(2)).getValue(), is((Object) expected));
+		Assert.assertThat(data.getData().get(7), sameInstance(data.getData().get(2)));
+	}
+
+	/**
+	 * Constant calculation which counts its evaluations
+	 */
+	public static class CountingCalculation extends AbstractPatientCalculation implements ConstantCalculation {
+
+		protected int evaluations = 0;
+
+		@Override
+		public CalculationResultMap evaluate(Collection<Integer> cohort, Map<String, Object> parameterValues, PatientCalculationContext context) {
+			return EmrCalculationUtils.constantResultMap(cohort, evaluateConstant(parameterValues, context));
+		}
+
+		@Override
+		public CalculationResult evaluateConstant(Map<String, Object> parameterValues, PatientCalculationContext context) {
+			++evaluations;
+			return new SimpleResult("constant", this);
+		}
+	}
+}
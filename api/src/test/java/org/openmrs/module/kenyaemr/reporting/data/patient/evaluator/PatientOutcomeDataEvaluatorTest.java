@@ -0,0 +1,112 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.EncounterType;
+import org.openmrs.module.kenyacore.test.ReportingTestUtils;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.PatientOutComeCalculation;
+import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
+import org.openmrs.module.kenyaemr.metadata.HivMetadata;
+import org.openmrs.module.kenyaemr.reporting.data.converter.PatientOutcomeConverter;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.PatientOutcomeDataDefinition;
+import org.openmrs.module.metadatadeploy.MetadataUtils;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.service.PatientDataService;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link PatientOutcomeDataEvaluator}
+ */
+public class PatientOutcomeDataEvaluatorTest extends BaseModuleContextSensitiveTest {
+
+	@Autowired
+	private CommonMetadata commonMetadata;
+
+	@Autowired
+	private HivMetadata hivMetadata;
+
+	@Autowired
+	private PatientDataService patientDataService;
+
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("dataset/test-concepts.xml");
+
+		commonMetadata.install();
+		hivMetadata.install();
+
+		EncounterType discontinuation = MetadataUtils.existing(EncounterType.class, HivMetadata._EncounterType.HIV_DISCONTINUATION);
+		Concept reason = Dictionary.getConcept(Dictionary.REASON_FOR_PROGRAM_DISCONTINUATION);
+
+		// Patient #6 is discontinued as died on 1-Mar-2012
+		TestUtils.saveEncounter(TestUtils.getPatient(6), discontinuation, TestUtils.date(2012, 3, 1),
+				TestUtils.saveObs(TestUtils.getPatient(6), reason, Dictionary.getConcept(Dictionary.DIED), TestUtils.date(2012, 3, 1))
+		);
+
+		// Patient #8 is discontinued as transferred out on 1-Sep-2012
+		TestUtils.saveEncounter(TestUtils.getPatient(8), discontinuation, TestUtils.date(2012, 9, 1),
+				TestUtils.saveObs(TestUtils.getPatient(8), reason, Dictionary.getConcept(Dictionary.TRANSFERRED_OUT), TestUtils.date(2012, 9, 1))
+		);
+	}
+
+	/**
+	 * @see PatientOutcomeDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldEvaluateOutcomesForEachNumberOfMonths() throws Exception {
+		EvaluationContext context = ReportingTestUtils.reportingContext(Arrays.asList(6, 8), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 1, 31));
+
+		PatientOutcomeDataDefinition definition = new PatientOutcomeDataDefinition("Outcomes", 6, 12);
+		definition.setOnDate(TestUtils.date(2012, 1, 1));
+
+		EvaluatedPatientData data = patientDataService.evaluate(definition, context);
+
+		Map<Integer, String> outcomes6 = (Map<Integer, String>) data.getData().get(6);
+		Assert.assertThat(outcomes6.get(6), is(PatientOutComeCalculation.DEAD));
+		Assert.assertThat(outcomes6.get(12), is(PatientOutComeCalculation.DEAD));
+
+		Map<Integer, String> outcomes8 = (Map<Integer, String>) data.getData().get(8);
+		Assert.assertThat(outcomes8.get(6), is(PatientOutComeCalculation.ALIVE));
+		Assert.assertThat(outcomes8.get(12), is(PatientOutComeCalculation.TRANSFERRED_OUT));
+
+		Assert.assertThat(new PatientOutcomeConverter(12).convert(outcomes8), is((Object) PatientOutComeCalculation.TRANSFERRED_OUT));
+	}
+
+	/**
+	 * @see PatientOutcomeDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldReturnEmptyDataForEmptyBaseCohort() throws Exception {
+		EvaluationContext context = ReportingTestUtils.reportingContext(Arrays.<Integer>asList(), TestUtils.date(2012, 1, 1), TestUtils.date(2012, 1, 31));
+
+		EvaluatedPatientData data = patientDataService.evaluate(new PatientOutcomeDataDefinition("Outcomes", 6), context);
+
+		Assert.assertThat(data.getData().size(), is(0));
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.calculation.patient.PatientCalculation;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.module.kenyacore.test.ReportingTestUtils;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.module.kenyaemr.advice.PatientCalculationServiceAdvice;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.AgeAtARTInitiationCalculation;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.CD4AtARTInitiationCalculation;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.InitialArtStartDateCalculation;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.OriginalCohortCalculation;
+import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
+import org.openmrs.module.kenyaemr.metadata.HivMetadata;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.SharedCalculationDataDefinition;
+import org.openmrs.module.kenyaemr.test.EmrTestUtils;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.service.PatientDataService;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link SharedCalculationDataEvaluator}
+ */
+public class SharedCalculationDataEvaluatorTest extends BaseModuleContextSensitiveTest {
+
+	@Autowired
+	private CommonMetadata commonMetadata;
+
+	@Autowired
+	private HivMetadata hivMetadata;
+
+	private PatientCalculationServiceAdvice advice;
+
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("dataset/test-concepts.xml");
+
+		commonMetadata.install();
+		hivMetadata.install();
+
+		advice = EmrTestUtils.addCalculationAdvice();
+	}
+
+	@After
+	public void cleanup() {
+		EmrTestUtils.removeCalculationAdvice(advice);
+	}
+
+	/**
+	 * @see SharedCalculationDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldShareCalculationContextBetweenColumnsOnSameDate() throws Exception {
+		List<Integer> cohort = Arrays.asList(2, 6, 7, 8);
+		EvaluationContext context = ReportingTestUtils.reportingContext(cohort, TestUtils.date(2012, 1, 1), TestUtils.date(2012, 12, 31));
+		Date evaluationDate = context.getEvaluationDate();
+		PatientDataService dataService = Context.getService(PatientDataService.class);
+
+		EvaluatedPatientData data = dataService.evaluate(new SharedCalculationDataDefinition("Art start", new InitialArtStartDateCalculation()), context);
+		Assert.assertThat(data.getData().keySet(), containsInAnyOrder(2, 6, 7, 8));
+
+		// Columns without their own date are evaluated on the evaluation date rather than the end date
+		PatientCalculationContext calcContext = SharedCalculationDataEvaluator.getCalculationContext(null, evaluationDate, context);
+		Assert.assertThat(calcContext.getNow(), is(evaluationDate));
+
+		data = dataService.evaluate(new SharedCalculationDataDefinition("Original cohort", new OriginalCohortCalculation()), context);
+		Assert.assertThat(data.getData().keySet(), containsInAnyOrder(2, 6, 7, 8));
+
+		// Both columns used the same calculation context
+		Assert.assertThat(SharedCalculationDataEvaluator.getCalculationContext(null, evaluationDate, context), sameInstance(calcContext));
+	}
+
+	/**
+	 * @see SharedCalculationDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldEvaluateMemoizedPrerequisitesOncePerReport() throws Exception {
+		List<Integer> cohort = Arrays.asList(2, 6, 7, 8);
+		EvaluationContext context = ReportingTestUtils.reportingContext(cohort, TestUtils.date(2012, 1, 1), TestUtils.date(2012, 12, 31));
+		PatientDataService dataService = Context.getService(PatientDataService.class);
+
+		// Each of these columns uses InitialArtStartDateCalculation for the same cohort
+		PatientCalculation[] columns = {
+				new InitialArtStartDateCalculation(),
+				new OriginalCohortCalculation(),
+				new AgeAtARTInitiationCalculation(),
+				new CD4AtARTInitiationCalculation()
+		};
+
+		for (PatientCalculation calculation : columns) {
+			dataService.evaluate(new SharedCalculationDataDefinition(calculation.getClass().getSimpleName(), calculation), context);
+		}
+
+		Assert.assertThat(EmrTestUtils.calculationEvaluationCount(InitialArtStartDateCalculation.class), is(1l));
+		Assert.assertThat(EmrTestUtils.calculationEvaluationCount(AgeAtARTInitiationCalculation.class), is(1l));
+	}
+
+	/**
+	 * @see SharedCalculationDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldUseSeparateCalculationContextForOtherDates() throws Exception {
+		Date startDate = TestUtils.date(2012, 1, 1);
+		EvaluationContext context = ReportingTestUtils.reportingContext(Arrays.asList(6, 7), startDate, TestUtils.date(2012, 12, 31));
+
+		SharedCalculationDataDefinition onStartDate = new SharedCalculationDataDefinition("Art start", new InitialArtStartDateCalculation());
+		onStartDate.setOnDate(startDate);
+		Context.getService(PatientDataService.class).evaluate(onStartDate, context);
+
+		PatientCalculationContext calcContext = SharedCalculationDataEvaluator.getCalculationContext(null, startDate, context);
+		Assert.assertThat(calcContext.getNow(), is(startDate));
+		Assert.assertThat(context.getFromCache(SharedCalculationDataEvaluator.CACHE_KEY_PREFIX + context.getEvaluationDate().getTime()), nullValue());
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyacore.test.ReportingTestUtils;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.model.TbTreatmentEpisode;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.TbTreatmentEpisodeDataDefinition;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.service.PatientDataService;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link TbTreatmentEpisodeDataEvaluator}
+ */
+public class TbTreatmentEpisodeDataEvaluatorTest extends BaseModuleContextSensitiveTest {
+
+	private Concept cd4Count;
+
+	private Concept returnVisitDate;
+
+	/**
+	 * Setup each test
+	 */
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("dataset/test-concepts.xml");
+
+		cd4Count = Dictionary.getConcept(Dictionary.CD4_COUNT);
+		returnVisitDate = Dictionary.getConcept(Dictionary.RETURN_VISIT_DATE);
+	}
+
+	/**
+	 * @see TbTreatmentEpisodeDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldReturnLastObsOfEachQuestion() throws Exception {
+		Patient patient6 = TestUtils.getPatient(6);
+		Patient patient8 = TestUtils.getPatient(8);
+
+		// Saved out of order, and the last is after the evaluation date
+		TestUtils.saveObs(patient6, cd4Count, 200.0, TestUtils.date(2012, 2, 1));
+		TestUtils.saveObs(patient6, cd4Count, 100.0, TestUtils.date(2012, 1, 1));
+		TestUtils.saveObs(patient6, cd4Count, 300.0, TestUtils.date(2012, 6, 1));
+
+		// Time of day is ignored when the evaluation date has no time
+		TestUtils.saveObs(patient6, returnVisitDate, TestUtils.date(2012, 4, 30), TestUtils.date(2012, 3, 31, 10, 0, 0));
+
+		Obs voided = TestUtils.saveObs(patient8, cd4Count, 400.0, TestUtils.date(2012, 1, 1));
+		Context.getObsService().voidObs(voided, "Testing");
+
+		TbTreatmentEpisodeDataDefinition definition = new TbTreatmentEpisodeDataDefinition("episodes", Arrays.asList(cd4Count, returnVisitDate), TestUtils.date(2012, 3, 31));
+
+		List<Integer> cohort = Arrays.asList(6, 8, 999);
+		EvaluationContext context = ReportingTestUtils.reportingContext(cohort, TestUtils.date(2012, 1, 1), TestUtils.date(2012, 12, 31));
+		EvaluatedPatientData data = Context.getService(PatientDataService.class).evaluate(definition, context);
+
+		TbTreatmentEpisode episode6 = (TbTreatmentEpisode) data.getData().get(6);
+		Assert.assertThat(episode6.getPatientId(), is(6));
+		Assert.assertThat(episode6.getLastObs(cd4Count).getValueNumeric(), is(200.0));
+		Assert.assertThat(episode6.getLastObs(returnVisitDate).getValueDatetime(), is(TestUtils.date(2012, 4, 30)));
+
+		Assert.assertThat(data.getData().containsKey(8), is(false));
+		Assert.assertThat(data.getData().containsKey(999), is(false));
+	}
+
+	/**
+	 * @see TbTreatmentEpisodeDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldReturnNothingForEmptyBaseCohort() throws Exception {
+		TbTreatmentEpisodeDataDefinition definition = new TbTreatmentEpisodeDataDefinition("episodes", Arrays.asList(cd4Count), null);
+
+		List<Integer> cohort = Collections.emptyList();
+		EvaluationContext context = ReportingTestUtils.reportingContext(cohort, TestUtils.date(2012, 1, 1), TestUtils.date(2012, 12, 31));
+		EvaluatedPatientData data = Context.getService(PatientDataService.class).evaluate(definition, context);
+
+		Assert.assertThat(data.getData().size(), is(0));
+	}
+}
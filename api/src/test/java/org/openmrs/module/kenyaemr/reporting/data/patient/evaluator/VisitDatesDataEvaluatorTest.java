@@ -0,0 +1,100 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.reporting.data.patient.evaluator;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.Patient;
+import org.openmrs.Visit;
+import org.openmrs.VisitType;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyacore.test.ReportingTestUtils;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openmrs.module.kenyaemr.reporting.data.patient.definition.VisitDatesDataDefinition;
+import org.openmrs.module.reporting.data.patient.EvaluatedPatientData;
+import org.openmrs.module.reporting.data.patient.service.PatientDataService;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link VisitDatesDataEvaluator}
+ */
+public class VisitDatesDataEvaluatorTest extends BaseModuleContextSensitiveTest {
+
+	/**
+	 * @see VisitDatesDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldReturnSortedVisitDayNumbers() throws Exception {
+		VisitType visitType = Context.getVisitService().getVisitType(1);
+		Patient patient6 = TestUtils.getPatient(6);
+		Patient patient8 = TestUtils.getPatient(8);
+
+		// Saved out of order, and one is voided
+		TestUtils.saveVisit(patient6, visitType, TestUtils.date(2012, 3, 1, 10, 0, 0), TestUtils.date(2012, 3, 1, 11, 0, 0));
+		TestUtils.saveVisit(patient6, visitType, TestUtils.date(2012, 1, 1, 10, 0, 0), TestUtils.date(2012, 1, 1, 11, 0, 0));
+		TestUtils.saveVisit(patient6, visitType, TestUtils.date(2012, 2, 1, 10, 0, 0), TestUtils.date(2012, 2, 1, 11, 0, 0));
+		Visit voided = TestUtils.saveVisit(patient8, visitType, TestUtils.date(2012, 1, 1, 10, 0, 0), TestUtils.date(2012, 1, 1, 11, 0, 0));
+		Context.getVisitService().voidVisit(voided, "Testing");
+
+		List<Integer> cohort = Arrays.asList(2, 6, 7, 8, 999);
+		EvaluationContext context = ReportingTestUtils.reportingContext(cohort, TestUtils.date(2012, 1, 1), TestUtils.date(2012, 12, 31));
+		EvaluatedPatientData data = Context.getService(PatientDataService.class).evaluate(new VisitDatesDataDefinition(), context);
+
+		int[] expected6 = {
+				EmrCalculationUtils.dayNumber(TestUtils.date(2012, 1, 1)),
+				EmrCalculationUtils.dayNumber(TestUtils.date(2012, 2, 1)),
+				EmrCalculationUtils.dayNumber(TestUtils.date(2012, 3, 1))
+		};
+		Assert.assertThat(Arrays.equals((int[]) data.getData().get(6), expected6), is(true));
+		Assert.assertThat(data.getData().containsKey(8), is(false));
+
+		// Every other patient should match their non-voided visits
+		for (Integer ptId : cohort) {
+			List<Integer> visitDays = new ArrayList<Integer>();
+			for (Visit visit : Context.getVisitService().getVisitsByPatient(TestUtils.getPatient(ptId))) {
+				visitDays.add(EmrCalculationUtils.dayNumber(visit.getStartDatetime()));
+			}
+			Collections.sort(visitDays);
+
+			int[] days = (int[]) data.getData().get(ptId);
+			Assert.assertThat(days != null ? days.length : 0, is(visitDays.size()));
+			for (int v = 0; v < visitDays.size(); ++v) {
+				Assert.assertThat(days[v], is(visitDays.get(v)));
+			}
+		}
+	}
+
+	/**
+	 * @see VisitDatesDataEvaluator#evaluate(org.openmrs.module.reporting.data.patient.definition.PatientDataDefinition, org.openmrs.module.reporting.evaluation.EvaluationContext)
+	 */
+	@Test
+	public void evaluate_shouldReturnNothingForEmptyBaseCohort() throws Exception {
+		List<Integer> cohort = Collections.emptyList();
+		EvaluationContext context = ReportingTestUtils.reportingContext(cohort, TestUtils.date(2012, 1, 1), TestUtils.date(2012, 12, 31));
+		EvaluatedPatientData data = Context.getService(PatientDataService.class).evaluate(new VisitDatesDataDefinition(), context);
+
+		Assert.assertThat(data.getData().size(), is(0));
+	}
+}
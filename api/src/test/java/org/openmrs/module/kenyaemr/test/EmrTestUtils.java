@@ -20,13 +20,17 @@ import org.openmrs.Concept;
 import org.openmrs.DrugOrder;
 import org.openmrs.Patient;
 import org.openmrs.api.context.Context;
+import org.openmrs.calculation.patient.PatientCalculation;
 import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.patient.PatientCalculationService;
+import org.openmrs.module.kenyaemr.advice.PatientCalculationServiceAdvice;
 import org.openmrs.module.kenyaemr.regimen.RegimenOrder;
+import org.openmrs.module.kenyaemr.util.PerformanceMonitor;
 
 import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -83,4 +87,36 @@ public class EmrTestUtils {
 		context.setNow(now);
 		return context;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Adds the calculation service advice, which is only added by the module config when running in OpenMRS, and
+	 * resets the performance statistics so that calculation evaluations can be counted
+	 * @return the advice
+	 */
+	public static PatientCalculationServiceAdvice addCalculationAdvice() {
+		PatientCalculationServiceAdvice advice = new PatientCalculationServiceAdvice();
+		Context.addAdvice(PatientCalculationService.class, advice);
+		PerformanceMonitor.reset();
+		return advice;
+	}
+
+	/**
+	 * Removes the calculation service advice and resets the performance statistics
+	 * @param advice the advice
+	 */
+	public static void removeCalculationAdvice(PatientCalculationServiceAdvice advice) {
+		Context.removeAdvice(PatientCalculationService.class, advice);
+		PerformanceMonitor.reset();
+	}
+
+	/**
+	 * Gets the number of times a calculation was actually evaluated since the calculation advice was added
+	 * @param calculationClass the calculation class
+	 * @return the evaluation count
+	 */
+	public static long calculationEvaluationCount(Class<? extends PatientCalculation> calculationClass) {
+		Map<String, Object> stats = PerformanceMonitor.getStatistics(PerformanceMonitor.CATEGORY_CALCULATIONS);
+		Map<String, Object> calculationStats = (Map<String, Object>) stats.get(calculationClass.getSimpleName());
+		return calculationStats != null ? (Long) calculationStats.get("count") : 0;
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.util;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link AddressHierarchyIndex}
+ */
+public class AddressHierarchyIndexTest {
+
+	private static final String HIERARCHY_XML = "<hierarchy><country name=\"Myanmar\">"
+			+ "<state name=\"Kachin\">"
+			+ "<township name=\"Myitkyina\"><village name=\"V1\" /><village name=\"V2\" /></township>"
+			+ "<township name=\"Bhamo\"><village name=\"V3\" /></township>"
+			+ "</state>"
+			+ "<state name=\"Shan\">"
+			+ "<township name=\"Lashio\" />"
+			+ "</state>"
+			+ "</country></hierarchy>";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * @see AddressHierarchyIndex#getChildren(String...)
+	 */
+	@Test
+	public void getChildren_shouldReturnOneLevelOfHierarchy() throws Exception {
+		File file = folder.newFile(AddressHierarchyIndex.FILE_NAME);
+		FileUtils.writeStringToFile(file, HIERARCHY_XML, "UTF-8");
+
+		AddressHierarchyIndex index = new AddressHierarchyIndex(file);
+
+		Assert.assertThat(index.getStates(), is(Arrays.asList("Kachin", "Shan")));
+		Assert.assertThat(index.getTownships("Kachin"), is(Arrays.asList("Myitkyina", "Bhamo")));
+		Assert.assertThat(index.getTownships("Shan"), is(Arrays.asList("Lashio")));
+		Assert.assertThat(index.getVillages("Kachin", "Myitkyina"), is(Arrays.asList("V1", "V2")));
+		Assert.assertThat(index.getVillages("Shan", "Lashio").size(), is(0));
+		Assert.assertThat(index.getTownships("Mandalay"), nullValue());
+		Assert.assertThat(index.getVillages("Shan", "Myitkyina"), nullValue());
+	}
+
+	/**
+	 * @see AddressHierarchyIndex#getChildren(String...)
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void getChildren_shouldReturnImmutableLists() throws Exception {
+		File file = folder.newFile(AddressHierarchyIndex.FILE_NAME);
+		FileUtils.writeStringToFile(file, HIERARCHY_XML, "UTF-8");
+
+		new AddressHierarchyIndex(file).getStates().add("Mandalay");
+	}
+
+	/**
+	 * @see AddressHierarchyIndex#getSnapshot()
+	 */
+	@Test
+	public void getSnapshot_shouldOnlyReloadIfFileModified() throws Exception {
+		File file = folder.newFile(AddressHierarchyIndex.FILE_NAME);
+		FileUtils.writeStringToFile(file, HIERARCHY_XML, "UTF-8");
+		file.setLastModified(1000000000000L);
+
+		AddressHierarchyIndex index = new AddressHierarchyIndex(file);
+		AddressHierarchyIndex.Snapshot snapshot = index.getSnapshot();
+
+		Assert.assertThat(index.getSnapshot(), sameInstance(snapshot));
+
+		FileUtils.writeStringToFile(file, HIERARCHY_XML.replace("Shan", "Mandalay"), "UTF-8");
+		file.setLastModified(1000000060000L);
+
+		Assert.assertThat(index.getSnapshot(), not(sameInstance(snapshot)));
+		Assert.assertThat(index.getStates(), is(Arrays.asList("Kachin", "Mandalay")));
+	}
+
+	/**
+	 * @see AddressHierarchyIndex#getStates()
+	 */
+	@Test
+	public void getStates_shouldReturnEmptyListIfFileDoesNotExist() {
+		AddressHierarchyIndex index = new AddressHierarchyIndex(new File(folder.getRoot(), "missing.xml"));
+
+		Assert.assertThat(index.getStates().size(), is(0));
+		Assert.assertThat(index.getTownships("Kachin"), nullValue());
+	}
+
+	/**
+	 * @see AddressHierarchyIndex#getChildLevel(String...)
+	 */
+	@Test
+	public void getChildLevel_shouldReturnLevelBelowPath() {
+		Assert.assertThat(AddressHierarchyIndex.getChildLevel(), is(AddressHierarchyIndex.LEVEL_STATE));
+		Assert.assertThat(AddressHierarchyIndex.getChildLevel("Kachin"), is(AddressHierarchyIndex.LEVEL_TOWNSHIP));
+		Assert.assertThat(AddressHierarchyIndex.getChildLevel("Kachin", "Bhamo"), is(AddressHierarchyIndex.LEVEL_VILLAGE));
+		Assert.assertThat(AddressHierarchyIndex.getChildLevel("Kachin", "Bhamo", "V3"), nullValue());
+	}
+}
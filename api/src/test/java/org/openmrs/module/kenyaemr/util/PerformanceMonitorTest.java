@@ -0,0 +1,66 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link PerformanceMonitor}
+ */
+public class PerformanceMonitorTest {
+
+	@After
+	public void cleanup() {
+		PerformanceMonitor.reset();
+	}
+
+	/**
+	 * @see PerformanceMonitor#getStatistics(String)
+	 */
+	@Test
+	public void getStatistics_shouldOrderOperationsByTotalTime() {
+		long now = System.nanoTime();
+		PerformanceMonitor.record(PerformanceMonitor.CATEGORY_CALCULATIONS, "FastCalculation", now - 1000000, 100);
+		PerformanceMonitor.record(PerformanceMonitor.CATEGORY_CALCULATIONS, "SlowCalculation", now - 50000000, 100);
+		PerformanceMonitor.record(PerformanceMonitor.CATEGORY_CALCULATIONS, "SlowCalculation", now - 50000000, 300);
+
+		Map<String, Object> stats = PerformanceMonitor.getStatistics(PerformanceMonitor.CATEGORY_CALCULATIONS);
+		Assert.assertThat(new ArrayList<String>(stats.keySet()), contains("SlowCalculation", "FastCalculation"));
+
+		Map<String, Object> slow = (Map<String, Object>) stats.get("SlowCalculation");
+		Assert.assertThat((Long) slow.get("count"), is(2l));
+		Assert.assertThat((Long) slow.get("meanSize"), is(200l));
+		Assert.assertThat((Long) slow.get("maxSize"), is(300l));
+	}
+
+	/**
+	 * @see PerformanceMonitor#reset()
+	 */
+	@Test
+	public void reset_shouldClearAllStatistics() {
+		PerformanceMonitor.record(PerformanceMonitor.CATEGORY_QUERIES, "getPatientCount", System.nanoTime(), 1);
+		PerformanceMonitor.reset();
+
+		Assert.assertThat(PerformanceMonitor.getStatistics(PerformanceMonitor.CATEGORY_QUERIES).size(), is(0));
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link TimingHistogram}
+ */
+public class TimingHistogramTest {
+
+	private static final long MILLIS = 1000000;
+
+	/**
+	 * @see TimingHistogram#record(long, int)
+	 */
+	@Test
+	public void record_shouldUpdateTotals() {
+		TimingHistogram histogram = new TimingHistogram();
+		histogram.record(5 * MILLIS, 10);
+		histogram.record(15 * MILLIS, 30);
+
+		Assert.assertThat(histogram.getCount(), is(2l));
+		Assert.assertThat(histogram.getTotalNanos(), is(20 * MILLIS));
+		Assert.assertThat(histogram.getMaxNanos(), is(15 * MILLIS));
+		Assert.assertThat(histogram.getTotalSize(), is(40l));
+		Assert.assertThat(histogram.getMaxSize(), is(30l));
+	}
+
+	/**
+	 * @see TimingHistogram#getPercentileNanos(double, long)
+	 */
+	@Test
+	public void getPercentileNanos_shouldReturnBucketBoundOfPercentile() {
+		TimingHistogram histogram = new TimingHistogram();
+		long now = 0;
+
+		Assert.assertThat(histogram.getPercentileNanos(95, now), is(0l));
+
+		for (int i = 0; i < 95; ++i) {
+			histogram.record(MILLIS, 1, now);
+		}
+		for (int i = 0; i < 5; ++i) {
+			histogram.record(1000 * MILLIS, 1, now);
+		}
+
+		// Bucket bounds are within a factor of sqrt(2) of the recorded durations
+		long p95 = histogram.getPercentileNanos(95, now);
+		Assert.assertThat(p95, greaterThanOrEqualTo(MILLIS));
+		Assert.assertThat(p95, lessThan(2 * MILLIS));
+
+		long p99 = histogram.getPercentileNanos(99, now);
+		Assert.assertThat(p99, greaterThanOrEqualTo(1000 * MILLIS));
+		Assert.assertThat(p99, lessThan(2000 * MILLIS));
+	}
+
+	/**
+	 * @see TimingHistogram#getPercentileNanos(double, long)
+	 */
+	@Test
+	public void getPercentileNanos_shouldExcludeOperationsOutsideRollingWindow() {
+		TimingHistogram histogram = new TimingHistogram();
+		histogram.record(1000 * MILLIS, 1, 0);
+
+		long later = TimingHistogram.SLOTS * TimingHistogram.SLOT_MILLIS;
+		histogram.record(MILLIS, 1, later);
+
+		Assert.assertThat(histogram.getPercentileNanos(100, later), lessThan(2 * MILLIS));
+		Assert.assertThat(histogram.getCount(), is(2l));
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.benchmark;
+
+import org.openmrs.api.context.Context;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Base class for benchmarks which run against a database seeded with a synthetic cohort. The cohort size can be
+ * changed from the command line, e.g. -p patients=5000 -p encountersPerPatient=24
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractBenchmark {
+
+	/**
+	 * Fixed so that generated data (and therefore results) are identical between runs
+	 */
+	protected static final long SEED = 20140101L;
+
+	@Param({ "500" })
+	public int patients;
+
+	@Param({ "12" })
+	public int encountersPerPatient;
+
+	protected BenchmarkDatabase database;
+
+	/**
+	 * Starts the database and saves the cohort once per trial
+	 */
+	@Setup(Level.Trial)
+	public void startDatabase() throws Exception {
+		if (requiresMySql() && System.getProperty(BenchmarkDatabase.PROPERTY_URL) == null) {
+			throw new IllegalStateException(getClass().getSimpleName() + " requires a MySQL database, set with -D" + BenchmarkDatabase.PROPERTY_URL);
+		}
+
+		Context.openSession();
+
+		database = new BenchmarkDatabase();
+		database.start(SEED, patients, encountersPerPatient, getReferenceDate());
+
+		Context.closeSession();
+	}
+
+	/**
+	 * Whether this benchmark measures MySQL specific queries, so can't be run against the in-memory H2 database
+	 * @return true if MySQL is required
+	 */
+	protected boolean requiresMySql() {
+		return false;
+	}
+
+	/**
+	 * Each invocation gets its own transaction and empty session so that results aren't served from the session cache
+	 */
+	@Setup(Level.Invocation)
+	public void beginInvocation() {
+		Context.openSession();
+		database.beginInvocation();
+	}
+
+	/**
+	 * Rolls back anything done by an invocation
+	 */
+	@TearDown(Level.Invocation)
+	public void endInvocation() {
+		database.endInvocation();
+		Context.closeSession();
+	}
+
+	/**
+	 * Gets the date of the latest synthetic data, which is also used as the end of report periods
+	 * @return the reference date
+	 */
+	protected static Date getReferenceDate() {
+		Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(2014, Calendar.JUNE, 30);
+		return calendar.getTime();
+	}
+
+	/**
+	 * Formats a date in the format expected by the DAO report queries
+	 * @param date the date
+	 * @return the date string
+	 */
+	protected static String formatDate(Date date) {
+		return new SimpleDateFormat("yyyy-MM-dd").format(date);
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.benchmark;
+
+import org.junit.Ignore;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
+import org.openmrs.module.kenyaemr.metadata.HivMetadata;
+import org.openmrs.module.kenyaemr.regimen.RegimenManager;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestContextManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.Date;
+import java.util.Properties;
+
+/**
+ * Boots the OpenMRS test application context outside of JUnit and seeds it with a synthetic cohort. By default this
+ * uses the in-memory H2 database of the test framework. Setting the system property benchmark.db.url (and optionally
+ * benchmark.db.username and benchmark.db.password) runs against an empty scratch MySQL database instead.
+ */
+@Ignore
+public class BenchmarkDatabase extends BaseModuleContextSensitiveTest {
+
+	public static final String PROPERTY_URL = "benchmark.db.url";
+	public static final String PROPERTY_USERNAME = "benchmark.db.username";
+	public static final String PROPERTY_PASSWORD = "benchmark.db.password";
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private CommonMetadata commonMetadata;
+
+	@Autowired
+	private HivMetadata hivMetadata;
+
+	@Autowired
+	private RegimenManager regimenManager;
+
+	private SyntheticCohort cohort;
+
+	private TransactionStatus invocation;
+
+	/**
+	 * Starts the application context and saves the synthetic cohort
+	 * @param seed the random seed
+	 * @param patients the number of patients
+	 * @param encountersPerPatient the number of encounters per patient
+	 * @param referenceDate the date of the last encounters
+	 */
+	public void start(long seed, int patients, int encountersPerPatient, Date referenceDate) throws Exception {
+		new TestContextManager(getClass()).prepareTestInstance(this);
+
+		TransactionStatus setup = transactionManager.getTransaction(new DefaultTransactionDefinition());
+
+		// The scratch database schema is created empty by hibernate so needs the same standard data as H2
+		if (!useInMemoryDatabase()) {
+			executeDataSet(EXAMPLE_XML_DATASET_PACKAGE_PATH);
+		}
+
+		baseSetupWithStandardDataAndAuthentication();
+
+		executeDataSet("dataset/test-concepts.xml");
+		executeDataSet("dataset/test-drugs.xml");
+
+		commonMetadata.install();
+		hivMetadata.install();
+		regimenManager.refresh();
+
+		cohort = new SyntheticCohort(seed, patients, encountersPerPatient);
+		cohort.save(referenceDate);
+
+		// Committed so that queries made via plain JDBC connections can see the cohort
+		transactionManager.commit(setup);
+	}
+
+	/**
+	 * Begins a transaction for a single benchmark invocation
+	 */
+	public void beginInvocation() {
+		invocation = transactionManager.getTransaction(new DefaultTransactionDefinition());
+		authenticate();
+	}
+
+	/**
+	 * Rolls back the transaction of a benchmark invocation so that each one starts with an empty session
+	 */
+	public void endInvocation() {
+		Context.clearSession();
+		transactionManager.rollback(invocation);
+		invocation = null;
+	}
+
+	/**
+	 * Gets the synthetic cohort
+	 * @return the cohort
+	 */
+	public SyntheticCohort getCohort() {
+		return cohort;
+	}
+
+	/**
+	 * @see org.openmrs.test.BaseContextSensitiveTest#useInMemoryDatabase()
+	 */
+	@Override
+	public Boolean useInMemoryDatabase() {
+		return System.getProperty(PROPERTY_URL) == null;
+	}
+
+	/**
+	 * @see org.openmrs.test.BaseContextSensitiveTest#getRuntimeProperties()
+	 */
+	@Override
+	public Properties getRuntimeProperties() {
+		Properties properties = super.getRuntimeProperties();
+
+		String url = System.getProperty(PROPERTY_URL);
+		if (url != null) {
+			properties.setProperty("connection.url", url);
+			properties.setProperty("connection.username", System.getProperty(PROPERTY_USERNAME, "openmrs"));
+			properties.setProperty("connection.password", System.getProperty(PROPERTY_PASSWORD, ""));
+			properties.setProperty("connection.driver_class", "com.mysql.jdbc.Driver");
+			properties.setProperty("hibernate.connection.url", url);
+			properties.setProperty("hibernate.connection.driver_class", "com.mysql.jdbc.Driver");
+			properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+			properties.setProperty("hibernate.hbm2ddl.auto", "create");
+		}
+
+		return properties;
+	}
+}
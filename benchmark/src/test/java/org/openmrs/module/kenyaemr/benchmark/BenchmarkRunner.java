@@ -0,0 +1,86 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the benchmarks, reporting throughput and allocation (via the GC profiler) for each. Any arguments are passed
+ * to JMH, e.g. a benchmark name pattern, -p patients=5000 or -wi/-i/-f to override the default iterations and forks
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.parent(commandLine)
+				.addProfiler(GCProfiler.class)
+				.jvmArgsAppend(forkedJvmArgs());
+
+		// Builder values override the command line, so defaults are only set for options which it doesn't give
+		if (commandLine.getBenchModes().isEmpty()) {
+			options.mode(Mode.Throughput);
+		}
+		if (!commandLine.getTimeUnit().hasValue()) {
+			options.timeUnit(TimeUnit.SECONDS);
+		}
+		if (!commandLine.getWarmupIterations().hasValue()) {
+			options.warmupIterations(3);
+		}
+		if (!commandLine.getMeasurementIterations().hasValue()) {
+			options.measurementIterations(5);
+		}
+		if (!commandLine.getForkCount().hasValue()) {
+			options.forks(1);
+		}
+
+		if (commandLine.getIncludes().isEmpty()) {
+			options.include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark");
+
+			// The DAO count queries are MySQL specific so are only benchmarked against a MySQL database
+			if (System.getProperty(BenchmarkDatabase.PROPERTY_URL) == null) {
+				options.exclude(DaoCountBenchmark.class.getName());
+			}
+		}
+
+		new Runner(options.build()).run();
+	}
+
+	/**
+	 * Forked benchmark JVMs need the database system properties of this JVM
+	 * @return the JVM arguments
+	 */
+	private static String[] forkedJvmArgs() {
+		List<String> args = new ArrayList<String>();
+		for (String property : new String[] { BenchmarkDatabase.PROPERTY_URL, BenchmarkDatabase.PROPERTY_USERNAME, BenchmarkDatabase.PROPERTY_PASSWORD }) {
+			String value = System.getProperty(property);
+			if (value != null) {
+				args.add("-D" + property + "=" + value);
+			}
+		}
+		return args.toArray(new String[args.size()]);
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.benchmark;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.calculation.patient.PatientCalculation;
+import org.openmrs.calculation.patient.PatientCalculationContext;
+import org.openmrs.calculation.patient.PatientCalculationService;
+import org.openmrs.calculation.result.CalculationResultMap;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.CurrentArtRegimenCalculation;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.InitialArtRegimenCalculation;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.InitialArtStartDateCalculation;
+import org.openmrs.module.kenyaemr.calculation.library.hiv.art.OnArtCalculation;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks for the regimen calculations, evaluated for the whole synthetic cohort
+ */
+public class CalculationBenchmark extends AbstractBenchmark {
+
+	@Benchmark
+	public CalculationResultMap currentArtRegimen() {
+		return evaluate(new CurrentArtRegimenCalculation());
+	}
+
+	@Benchmark
+	public CalculationResultMap initialArtRegimen() {
+		return evaluate(new InitialArtRegimenCalculation());
+	}
+
+	@Benchmark
+	public CalculationResultMap initialArtStartDate() {
+		return evaluate(new InitialArtStartDateCalculation());
+	}
+
+	@Benchmark
+	public CalculationResultMap onArt() {
+		return evaluate(new OnArtCalculation());
+	}
+
+	/**
+	 * Evaluates a calculation for all patients in the cohort with a fresh calculation context
+	 * @param calculation the calculation
+	 * @return the result map
+	 */
+	private CalculationResultMap evaluate(PatientCalculation calculation) {
+		PatientCalculationService service = Context.getService(PatientCalculationService.class);
+		PatientCalculationContext context = service.createCalculationContext();
+		context.setNow(getReferenceDate());
+		return service.evaluate(database.getCohort().getPatientIds(), calculation, context);
+	}
+}
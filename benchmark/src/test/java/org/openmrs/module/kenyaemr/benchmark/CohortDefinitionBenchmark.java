@@ -0,0 +1,63 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.benchmark;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.reporting.library.shared.hiv.HivCohortLibrary;
+import org.openmrs.module.reporting.cohort.EvaluatedCohort;
+import org.openmrs.module.reporting.cohort.definition.CohortDefinition;
+import org.openmrs.module.reporting.cohort.definition.service.CohortDefinitionService;
+import org.openmrs.module.reporting.evaluation.EvaluationContext;
+import org.openmrs.module.reporting.evaluation.EvaluationException;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks for the {@link HivCohortLibrary} cohort definitions, evaluated over the period of the synthetic cohort
+ */
+public class CohortDefinitionBenchmark extends AbstractBenchmark {
+
+	@Benchmark
+	public EvaluatedCohort enrolled() throws EvaluationException {
+		return evaluate(library().enrolled());
+	}
+
+	@Benchmark
+	public EvaluatedCohort enrolledExcludingTransfers() throws EvaluationException {
+		return evaluate(library().enrolledExcludingTransfers());
+	}
+
+	@Benchmark
+	public EvaluatedCohort enrolledExcludingTransfersAndReferredFrom() throws EvaluationException {
+		return evaluate(library().enrolledExcludingTransfersAndReferredFrom(Dictionary.getConcept(Dictionary.VCT_PROGRAM)));
+	}
+
+	/**
+	 * Evaluates a cohort definition with a fresh evaluation context
+	 * @param definition the cohort definition
+	 * @return the evaluated cohort
+	 */
+	private EvaluatedCohort evaluate(CohortDefinition definition) throws EvaluationException {
+		EvaluationContext context = new EvaluationContext();
+		context.addParameterValue("onOrAfter", database.getCohort().getStartDate());
+		context.addParameterValue("onOrBefore", database.getCohort().getEndDate());
+		return Context.getService(CohortDefinitionService.class).evaluate(definition, context);
+	}
+
+	private HivCohortLibrary library() {
+		return Context.getRegisteredComponents(HivCohortLibrary.class).get(0);
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.benchmark;
+
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.Set;
+
+/**
+ * Benchmarks for the report count queries of {@link org.openmrs.module.kenyaemr.api.db.hibernate.HibernateKenyaEmrDAO}.
+ * The plain SQL queries use MySQL functions such as TIMESTAMPDIFF, and timings against H2 wouldn't mean anything, so
+ * this requires a MySQL database set with -Dbenchmark.db.url
+ */
+public class DaoCountBenchmark extends AbstractBenchmark {
+
+	private static final String ADULTS = ">=15";
+
+	@Benchmark
+	public Integer getPatientCount() {
+		return service().getPatientCount();
+	}
+
+	@Benchmark
+	public Set<Patient> getTotalNoOfCohort() {
+		return service().getTotalNoOfCohort(startOfPeriod(), endOfPeriod());
+	}
+
+	@Benchmark
+	public Integer getNoOfNewPatientEnrolledInHivCare() {
+		return service().getNoOfNewPatientEnrolledInHivCare("M", ADULTS, startOfPeriod(), endOfPeriod());
+	}
+
+	@Benchmark
+	public Integer getNoOfNewPatientsStartedOnART() {
+		return service().getNoOfNewPatientsStartedOnART("M", ADULTS, startOfPeriod(), endOfPeriod());
+	}
+
+	@Benchmark
+	public Integer getNoOfPatientsOnART() {
+		return service().getNoOfPatientsOnART("M", ADULTS, startOfPeriod(), endOfPeriod());
+	}
+
+	@Benchmark
+	public Integer getNoOfPatientsLostToFollowUp() {
+		return service().getNoOfPatientsLostToFollowUp("M", ADULTS, startOfPeriod(), endOfPeriod());
+	}
+
+	/**
+	 * @see AbstractBenchmark#requiresMySql()
+	 */
+	@Override
+	protected boolean requiresMySql() {
+		return true;
+	}
+
+	private KenyaEmrService service() {
+		return Context.getService(KenyaEmrService.class);
+	}
+
+	private String startOfPeriod() {
+		return formatDate(database.getCohort().getStartDate());
+	}
+
+	private String endOfPeriod() {
+		return formatDate(database.getCohort().getEndDate());
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.benchmark;
+
+import org.openmrs.DrugOrder;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.regimen.RegimenDefinition;
+import org.openmrs.module.kenyaemr.regimen.RegimenManager;
+import org.openmrs.module.kenyaemr.regimen.RegimenOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Benchmarks for {@link RegimenManager#findDefinitions(String, RegimenOrder, boolean)} with unsaved drug orders, so
+ * this only measures matching against the loaded regimen definitions
+ */
+public class RegimenManagerBenchmark extends AbstractBenchmark {
+
+	private RegimenManager regimenManager;
+
+	private RegimenOrder regimen;
+
+	@Setup(Level.Trial)
+	public void createRegimen() {
+		regimenManager = Context.getRegisteredComponents(RegimenManager.class).get(0);
+
+		Set<DrugOrder> orders = new LinkedHashSet<DrugOrder>();
+		orders.add(drugOrder(Dictionary.ZIDOVUDINE, 300d));
+		orders.add(drugOrder(Dictionary.LAMIVUDINE, 150d));
+		orders.add(drugOrder(Dictionary.EFAVIRENZ, 600d));
+		regimen = new RegimenOrder(orders);
+	}
+
+	@Benchmark
+	public List<RegimenDefinition> findDefinitions() {
+		return regimenManager.findDefinitions("ARV", regimen, false);
+	}
+
+	@Benchmark
+	public List<RegimenDefinition> findDefinitionsExact() {
+		return regimenManager.findDefinitions("ARV", regimen, true);
+	}
+
+	/**
+	 * Creates an unsaved drug order
+	 * @param conceptIdentifier the drug concept identifier
+	 * @param dose the dose
+	 * @return the drug order
+	 */
+	private static DrugOrder drugOrder(String conceptIdentifier, double dose) {
+		DrugOrder order = new DrugOrder();
+		order.setConcept(Dictionary.getConcept(conceptIdentifier));
+		order.setDose(dose);
+		order.setUnits("mg");
+		order.setFrequency("BD");
+		return order;
+	}
+}
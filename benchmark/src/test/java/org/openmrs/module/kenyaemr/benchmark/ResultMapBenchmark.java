@@ -0,0 +1,94 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.benchmark;
+
+import org.openmrs.calculation.result.CalculationResultMap;
+import org.openmrs.module.kenyacore.calculation.BooleanResult;
+import org.openmrs.module.kenyaemr.calculation.BooleanResultMapBuilder;
+import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks for building boolean calculation result maps. These don't need a database, and the allocation rate
+ * reported by the GC profiler is the main point of comparison.
+ */
+@State(Scope.Benchmark)
+public class ResultMapBenchmark {
+
+	@Param({ "50000" })
+	public int patients;
+
+	/**
+	 * The percentage of patients with a true result
+	 */
+	@Param({ "10" })
+	public int truePercent;
+
+	private List<Integer> cohort;
+
+	private boolean[] values;
+
+	@Setup(Level.Trial)
+	public void createCohort() {
+		Random random = new Random(AbstractBenchmark.SEED);
+
+		cohort = new ArrayList<Integer>(patients);
+		values = new boolean[patients];
+		for (int p = 0; p < patients; ++p) {
+			cohort.add(p + 1);
+			values[p] = random.nextInt(100) < truePercent;
+		}
+	}
+
+	/**
+	 * The way most calculations build their results, i.e. a new result per patient in a default sized map
+	 */
+	@Benchmark
+	public CalculationResultMap resultPerPatient() {
+		CalculationResultMap ret = new CalculationResultMap();
+		for (int p = 0; p < patients; ++p) {
+			ret.put(cohort.get(p), new BooleanResult(values[p], null, null));
+		}
+		return ret;
+	}
+
+	@Benchmark
+	public CalculationResultMap sharedResults() {
+		BooleanResultMapBuilder ret = EmrCalculationUtils.booleanResults(cohort, null, null);
+		for (int p = 0; p < patients; ++p) {
+			ret.put(cohort.get(p), values[p]);
+		}
+		return ret.build();
+	}
+
+	@Benchmark
+	public CalculationResultMap sparseResults() {
+		BooleanResultMapBuilder ret = EmrCalculationUtils.sparseBooleanResults(null, null);
+		for (int p = 0; p < patients; ++p) {
+			ret.put(cohort.get(p), values[p]);
+		}
+		return ret.build();
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+package org.openmrs.module.kenyaemr.benchmark;
+
+import org.openmrs.Concept;
+import org.openmrs.DrugOrder;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterType;
+import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.OrderType;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PatientIdentifierType;
+import org.openmrs.PatientProgram;
+import org.openmrs.PersonName;
+import org.openmrs.Program;
+import org.openmrs.User;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.openmrs.module.kenyaemr.metadata.CommonMetadata;
+import org.openmrs.module.kenyaemr.metadata.HivMetadata;
+import org.openmrs.module.kenyaemr.model.DrugOrderProcessed;
+import org.openmrs.module.metadatadeploy.MetadataUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a deterministic synthetic cohort of HIV patients. The same seed and sizes always produce the same
+ * patients, encounters, obs, drug orders and processed drug orders.
+ */
+public class SyntheticCohort {
+
+	private final long seed;
+
+	private final int patients;
+
+	private final int encountersPerPatient;
+
+	private final List<Integer> patientIds = new ArrayList<Integer>();
+
+	private Date startDate;
+
+	private Date endDate;
+
+	/**
+	 * Creates a new synthetic cohort
+	 * @param seed the random seed
+	 * @param patients the number of patients
+	 * @param encountersPerPatient the number of monthly HIV consultations per patient
+	 */
+	public SyntheticCohort(long seed, int patients, int encountersPerPatient) {
+		this.seed = seed;
+		this.patients = patients;
+		this.encountersPerPatient = encountersPerPatient;
+	}
+
+	/**
+	 * Saves the cohort to the database. Each patient is enrolled in HIV care, has one consultation per month with
+	 * CD4, viral load and return visit date obs, and is started on a two drug ARV regimen which is dispensed
+	 * @param referenceDate the date of the last consultation
+	 */
+	public void save(Date referenceDate) {
+		Random random = new Random(seed);
+
+		Location location = Context.getLocationService().getLocation(1);
+		User creator = Context.getUserService().getUser(1);
+		PatientIdentifierType idType = MetadataUtils.existing(PatientIdentifierType.class, CommonMetadata._PatientIdentifierType.OLD_ID);
+		EncounterType consultation = MetadataUtils.existing(EncounterType.class, HivMetadata._EncounterType.HIV_CONSULTATION);
+		Program hivProgram = MetadataUtils.existing(Program.class, HivMetadata._Program.HIV);
+		OrderType drugOrderType = Context.getOrderService().getOrderType(2);
+
+		Concept cd4Count = Dictionary.getConcept(Dictionary.CD4_COUNT);
+		Concept viralLoad = Dictionary.getConcept(Dictionary.HIV_VIRAL_LOAD);
+		Concept returnVisit = Dictionary.getConcept(Dictionary.RETURN_VISIT_DATE);
+		List<Concept> arvs = Arrays.asList(
+				Dictionary.getConcept(Dictionary.ZIDOVUDINE),
+				Dictionary.getConcept(Dictionary.LAMIVUDINE),
+				Dictionary.getConcept(Dictionary.STAVUDINE)
+		);
+
+		endDate = referenceDate;
+		startDate = addDays(referenceDate, -30 * encountersPerPatient);
+
+		KenyaEmrService kenyaEmrService = Context.getService(KenyaEmrService.class);
+
+		for (int p = 0; p < patients; ++p) {
+			Patient patient = new Patient();
+			patient.setGender(random.nextBoolean() ? "M" : "F");
+			patient.setBirthdate(addDays(referenceDate, -365 * (1 + random.nextInt(70))));
+			patient.addName(new PersonName("Synthetic", null, "Patient " + p));
+			patient.addIdentifier(new PatientIdentifier("BM" + p, idType, location));
+			Context.getPatientService().savePatient(patient);
+			patientIds.add(patient.getPatientId());
+
+			PatientProgram enrollment = new PatientProgram();
+			enrollment.setPatient(patient);
+			enrollment.setProgram(hivProgram);
+			enrollment.setDateEnrolled(startDate);
+			Context.getProgramWorkflowService().savePatientProgram(enrollment);
+
+			// Two of three ARVs, started at the first consultation
+			Date artStart = startDate;
+			int omitted = random.nextInt(arvs.size());
+			for (int a = 0; a < arvs.size(); ++a) {
+				if (a == omitted) {
+					continue;
+				}
+				DrugOrder order = new DrugOrder();
+				order.setOrderType(drugOrderType);
+				order.setPatient(patient);
+				order.setOrderer(creator);
+				order.setConcept(arvs.get(a));
+				order.setStartDate(artStart);
+				order.setDose(150d);
+				order.setUnits("mg");
+				order.setFrequency("BD");
+				Context.getOrderService().saveOrder(order);
+
+				DrugOrderProcessed processed = new DrugOrderProcessed();
+				processed.setDrugOrder(order);
+				processed.setPatient(patient);
+				processed.setCreatedDate(artStart);
+				processed.setProcessedDate(artStart);
+				processed.setProcessedStatus(Boolean.TRUE);
+				processed.setDrugRegimen(arvs.get(a).getName().getName());
+				processed.setDoseRegimen("150mg");
+				processed.setTypeOfRegimen("First line Anti-retoviral drugs");
+				processed.setDurationPreProcess(30);
+				processed.setQuantityPostProcess(60);
+				processed.setStartDate(artStart);
+				kenyaEmrService.saveDrugOrderProcessed(processed);
+			}
+
+			for (int e = 0; e < encountersPerPatient; ++e) {
+				Date encounterDate = addDays(startDate, 30 * e + random.nextInt(5));
+
+				Encounter encounter = new Encounter();
+				encounter.setPatient(patient);
+				encounter.setEncounterType(consultation);
+				encounter.setEncounterDatetime(encounterDate);
+				encounter.setLocation(location);
+				encounter.addObs(obs(patient, cd4Count, encounterDate, 50.0 + random.nextInt(900)));
+				encounter.addObs(obs(patient, returnVisit, encounterDate, addDays(encounterDate, 30)));
+				if (e % 6 == 5) {
+					encounter.addObs(obs(patient, viralLoad, encounterDate, (double) random.nextInt(100000)));
+				}
+				Context.getEncounterService().saveEncounter(encounter);
+			}
+
+			// Keep the session small while seeding large cohorts
+			if (p % 100 == 99) {
+				Context.flushSession();
+				Context.clearSession();
+			}
+		}
+	}
+
+	/**
+	 * Gets the ids of the generated patients
+	 * @return the patient ids
+	 */
+	public List<Integer> getPatientIds() {
+		return patientIds;
+	}
+
+	/**
+	 * Gets the date of the earliest generated data
+	 * @return the start date
+	 */
+	public Date getStartDate() {
+		return startDate;
+	}
+
+	/**
+	 * Gets the date of the latest generated data
+	 * @return the end date
+	 */
+	public Date getEndDate() {
+		return endDate;
+	}
+
+	/**
+	 * Creates an obs
+	 * @param patient the patient
+	 * @param concept the concept
+	 * @param date the obs date
+	 * @param value the numeric or date value
+	 * @return the obs
+	 */
+	protected static Obs obs(Patient patient, Concept concept, Date date, Object value) {
+		Obs obs = new Obs();
+		obs.setPerson(patient);
+		obs.setConcept(concept);
+		obs.setObsDatetime(date);
+		obs.setLocation(Context.getLocationService().getLocation(1));
+		if (value instanceof Date) {
+			obs.setValueDatetime((Date) value);
+		}
+		else {
+			obs.setValueNumeric((Double) value);
+		}
+		return obs;
+	}
+
+	/**
+	 * Adds days to a date
+	 * @param date the date
+	 * @param days the number of days
+	 * @return the new date
+	 */
+	protected static Date addDays(Date date, int days) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(date);
+		calendar.add(Calendar.DAY_OF_MONTH, days);
+		return calendar.getTime();
+	}
+}
@@ -15,21 +15,43 @@ package org.openmrs.module.kenyaemr;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.api.GlobalPropertyListener;
 import org.openmrs.api.context.Context;
 
-import java.util.Date;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.openmrs.web.WebConstants.GP_ALLOWED_LOGIN_ATTEMPTS_PER_IP;
 
 /**
- * Manages IP-level security
+ * Manages IP-level security. Failed accesses are tracked per IP address in a concurrent map without locking. Entries
+ * expire once there has been no failed access from their IP for the lockout time, and the number of tracked IPs is
+ * bounded so that failed accesses from many addresses can't grow it indefinitely.
  */
 public class IPAccessSecurity {
 
 	protected static final Log log = LogFactory.getLog(IPAccessSecurity.class);
 
+	/**
+	 * The maximum number of IP addresses tracked at once
+	 */
+	public static final int MAX_TRACKED_IPS = 10000;
+
+	/**
+	 * The number of IP addresses to which records are evicted once the maximum is reached, so that eviction happens
+	 * once per batch of new IPs rather than for every new IP
+	 */
+	public static final int EVICTION_TARGET_IPS = MAX_TRACKED_IPS * 9 / 10;
+
 	/**
 	 * Exception class for illegal access from a locked out IP
 	 */
@@ -40,37 +62,89 @@ public class IPAccessSecurity {
 	}
 
 	/**
-	 * The mapping from user's IP address to the number of failed access attempts
+	 * The failed accesses from an IP address
+	 */
+	private static class IPRecord {
+
+		private final AtomicInteger failedAccesses = new AtomicInteger();
+
+		private volatile long lastFailedAccessTime;
+
+		private volatile long lockoutTime;
+
+		private boolean isLockedOut(long now) {
+			return lockoutTime != 0 && (now - lockoutTime) < EmrWebConstants.FAILED_LOGIN_LOCKOUT_TIME;
+		}
+
+		private boolean isExpired(long now) {
+			return (now - lastFailedAccessTime) > EmrWebConstants.FAILED_LOGIN_LOCKOUT_TIME && !isLockedOut(now);
+		}
+	}
+
+	/**
+	 * Invalidates the cached maximum allowed failed accesses when its global property changes
 	 */
-	private static Map<String, Integer> failedAccessesByIP = new HashMap<String, Integer>();
+	private static class AllowedAttemptsListener implements GlobalPropertyListener {
+
+		@Override
+		public boolean supportsPropertyName(String propertyName) {
+			return GP_ALLOWED_LOGIN_ATTEMPTS_PER_IP.equals(propertyName);
+		}
+
+		@Override
+		public void globalPropertyChanged(GlobalProperty newValue) {
+			maxAllowedFailedAccesses = null;
+		}
+
+		@Override
+		public void globalPropertyDeleted(String propertyName) {
+			maxAllowedFailedAccesses = null;
+		}
+	}
 
 	/**
-	 * The mapping from user's IP address to the time that they were locked out
+	 * The mapping from user's IP address to their failed accesses
 	 */
-	private static Map<String, Date> lockoutTimeByIP = new HashMap<String, Date>();
+	private static final ConcurrentMap<String, IPRecord> recordsByIP = new ConcurrentHashMap<String, IPRecord>();
+
+	private static final Object evictionLock = new Object();
+
+	/**
+	 * The cached maximum allowed failed accesses (null if not loaded)
+	 */
+	private static volatile Integer maxAllowedFailedAccesses;
+
+	/**
+	 * The administration service which the listener is registered with
+	 */
+	private static volatile AdministrationService listenerRegisteredWith;
 
 	/**
 	 * Registers a failed access attempt
 	 * @param ipAddress the IP address
 	 */
-	public synchronized static void registerFailedAccess(String ipAddress) {
-		int attempts = getFailedAccessesByIP(ipAddress) + 1;
-		failedAccessesByIP.put(ipAddress, attempts);
-
+	public static void registerFailedAccess(String ipAddress) {
 		final int maxAllowed = getMaxAllowedFailedAccesses();
+		long now = System.currentTimeMillis();
+
+		IPRecord record = getOrCreateRecord(ipAddress, now);
+		int attempts = record.failedAccesses.incrementAndGet();
+		record.lastFailedAccessTime = now;
 
 		if (attempts > maxAllowed) {
 
 			// Has lockout time expired?
-			Date lockedOutTime = lockoutTimeByIP.get(ipAddress);
-			if (lockedOutTime != null && System.currentTimeMillis() - lockedOutTime.getTime() > EmrWebConstants.FAILED_LOGIN_LOCKOUT_TIME) {
+			long lockedOutTime = record.lockoutTime;
+			if (lockedOutTime != 0 && now - lockedOutTime > EmrWebConstants.FAILED_LOGIN_LOCKOUT_TIME) {
 
 				// End lock out, but register a failed attempt
-				endLockOut(ipAddress);
-				failedAccessesByIP.put(ipAddress, 1);
+				IPRecord fresh = new IPRecord();
+				fresh.failedAccesses.set(1);
+				fresh.lastFailedAccessTime = now;
+				recordsByIP.replace(ipAddress, record, fresh);
 			}
 			else {
-				lockOut(ipAddress);
+				record.lockoutTime = now;
 			}
 		}
 	}
@@ -80,7 +154,7 @@ public class IPAccessSecurity {
 	 * @param ipAddress the IP address
 	 * @throws IPAccessSecurity.AccessFromLockedOutIPException if account is currently locked out
 	 */
-	public synchronized static void registerSuccessfulAccess(String ipAddress) throws AccessFromLockedOutIPException {
+	public static void registerSuccessfulAccess(String ipAddress) throws AccessFromLockedOutIPException {
 		if (isLockedOut(ipAddress)) {
 			throw new AccessFromLockedOutIPException();
 		}
@@ -92,25 +166,27 @@ public class IPAccessSecurity {
 	 * Locks out an IP address from now
 	 * @param ipAddress the IP address
 	 */
-	public synchronized static void lockOut(String ipAddress) {
-		lockoutTimeByIP.put(ipAddress, new Date());
+	public static void lockOut(String ipAddress) {
+		long now = System.currentTimeMillis();
+		IPRecord record = getOrCreateRecord(ipAddress, now);
+		record.lastFailedAccessTime = now;
+		record.lockoutTime = now;
 	}
 
 	/**
 	 * Ends the locked out period for an IP address
 	 * @param ipAddress the IP address
 	 */
-	public synchronized static void endLockOut(String ipAddress) {
-		lockoutTimeByIP.remove(ipAddress);
-		failedAccessesByIP.remove(ipAddress);
+	public static void endLockOut(String ipAddress) {
+		recordsByIP.remove(ipAddress);
 	}
 
 	/**
 	 * Clears all lock outs for all IPs
 	 */
-	public synchronized static void reset() {
-		failedAccessesByIP.clear();
-		lockoutTimeByIP.clear();
+	public static void reset() {
+		recordsByIP.clear();
+		maxAllowedFailedAccesses = null;
 	}
 
 	/**
@@ -119,8 +195,8 @@ public class IPAccessSecurity {
 	 * @return true if IP is locked out
 	 */
 	public static boolean isLockedOut(String ipAddress) {
-		Date lockedOutTime = lockoutTimeByIP.get(ipAddress);
-		return (lockedOutTime != null && (System.currentTimeMillis() - lockedOutTime.getTime()) < EmrWebConstants.FAILED_LOGIN_LOCKOUT_TIME);
+		IPRecord record = recordsByIP.get(ipAddress);
+		return record != null && record.isLockedOut(System.currentTimeMillis());
 	}
 
 	/**
@@ -128,20 +204,116 @@ public class IPAccessSecurity {
 	 * @param ipAddress the IP address
 	 * @return the number of failed attempts
 	 */
-	private static int getFailedAccessesByIP(String ipAddress) {
-		Integer attempts = failedAccessesByIP.get(ipAddress);
-		return (attempts == null) ? 0 : attempts;
+	protected static int getFailedAccessesByIP(String ipAddress) {
+		IPRecord record = recordsByIP.get(ipAddress);
+		return (record == null) ? 0 : record.failedAccesses.get();
+	}
+
+	/**
+	 * Gets the number of IP addresses currently tracked
+	 * @return the number of IP addresses
+	 */
+	protected static int getTrackedIPCount() {
+		return recordsByIP.size();
+	}
+
+	/**
+	 * Gets the record for an IP address, replacing it if expired and creating it if necessary
+	 * @param ipAddress the IP address
+	 * @param now the current time
+	 * @return the record
+	 */
+	private static IPRecord getOrCreateRecord(String ipAddress, long now) {
+		IPRecord record = recordsByIP.get(ipAddress);
+
+		if (record != null && record.isExpired(now)) {
+			recordsByIP.remove(ipAddress, record);
+			record = null;
+		}
+
+		if (record == null) {
+			if (recordsByIP.size() >= MAX_TRACKED_IPS) {
+				evictRecords(now);
+			}
+
+			IPRecord created = new IPRecord();
+			created.lastFailedAccessTime = now;
+			record = recordsByIP.putIfAbsent(ipAddress, created);
+			if (record == null) {
+				record = created;
+			}
+		}
+		return record;
+	}
+
+	/**
+	 * Removes expired records, and then if still too many IPs are tracked, records of IPs which aren't locked out and
+	 * finally the least recently failed lock outs, until only {@link #EVICTION_TARGET_IPS} are tracked
+	 * @param now the current time
+	 */
+	private static void evictRecords(long now) {
+		synchronized (evictionLock) {
+			// Concurrent requests wait for one eviction rather than each scanning the records
+			if (recordsByIP.size() < MAX_TRACKED_IPS) {
+				return;
+			}
+
+			for (Iterator<Map.Entry<String, IPRecord>> i = recordsByIP.entrySet().iterator(); i.hasNext(); ) {
+				if (i.next().getValue().isExpired(now)) {
+					i.remove();
+				}
+			}
+
+			for (Iterator<Map.Entry<String, IPRecord>> i = recordsByIP.entrySet().iterator(); i.hasNext() && recordsByIP.size() > EVICTION_TARGET_IPS; ) {
+				if (!i.next().getValue().isLockedOut(now)) {
+					i.remove();
+				}
+			}
+
+			// If the records are mostly lock outs then evict the least recently failed of those too
+			int excess = recordsByIP.size() - EVICTION_TARGET_IPS;
+			if (excess > 0) {
+				List<Map.Entry<String, IPRecord>> lockedOut = new ArrayList<Map.Entry<String, IPRecord>>(recordsByIP.entrySet());
+				Collections.sort(lockedOut, new Comparator<Map.Entry<String, IPRecord>>() {
+					@Override
+					public int compare(Map.Entry<String, IPRecord> entry1, Map.Entry<String, IPRecord> entry2) {
+						long time1 = entry1.getValue().lastFailedAccessTime, time2 = entry2.getValue().lastFailedAccessTime;
+						return time1 < time2 ? -1 : (time1 == time2 ? 0 : 1);
+					}
+				});
+
+				for (Map.Entry<String, IPRecord> entry : lockedOut.subList(0, Math.min(excess, lockedOut.size()))) {
+					recordsByIP.remove(entry.getKey(), entry.getValue());
+				}
+			}
+		}
 	}
 
 	/**
-	 * Gets the maximum allowed number of failed accesses by an IP before lockout
+	 * Gets the maximum allowed number of failed accesses by an IP before lockout. The global property value is cached
+	 * until it's changed.
 	 * @return the number of accesses
 	 */
-	private static int getMaxAllowedFailedAccesses() {
+	protected static int getMaxAllowedFailedAccesses() {
+		Integer cached = maxAllowedFailedAccesses;
+		if (cached != null) {
+			return cached;
+		}
+
+		AdministrationService adminService = Context.getAdministrationService();
+
+		// Services are replaced when the application context is refreshed, so check the listener is registered with this one
+		synchronized (IPAccessSecurity.class) {
+			if (listenerRegisteredWith != adminService) {
+				adminService.addGlobalPropertyListener(new AllowedAttemptsListener());
+				listenerRegisteredWith = adminService;
+			}
+		}
+
 		// look up the allowed # of attempts per IP
 		Integer allowedLockoutAttempts = 100;
 
-		String allowedLockoutAttemptsGP = Context.getAdministrationService().getGlobalProperty(GP_ALLOWED_LOGIN_ATTEMPTS_PER_IP, "100");
+		String allowedLockoutAttemptsGP = adminService.getGlobalProperty(GP_ALLOWED_LOGIN_ATTEMPTS_PER_IP, "100");
 		try {
 			allowedLockoutAttempts = Integer.valueOf(allowedLockoutAttemptsGP.trim());
 		}
@@ -149,6 +321,7 @@ public class IPAccessSecurity {
 			log.error("Unable to format '" + allowedLockoutAttemptsGP + "' from global property " + GP_ALLOWED_LOGIN_ATTEMPTS_PER_IP + " as an integer");
 		}
 
+		maxAllowedFailedAccesses = allowedLockoutAttempts;
 		return allowedLockoutAttempts;
 	}
-}
\ No newline at end of file
+}
@@ -16,6 +16,7 @@ package org.openmrs.module.kenyaemr;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.openmrs.module.kenyaemr.util.PerformanceMonitor;
 import org.openmrs.module.kenyaemr.util.ServerInformation;
 import org.openmrs.ui.framework.SimpleObject;
 import org.openmrs.util.OpenmrsUtil;
@@ -53,6 +54,25 @@ public class SystemMonitorController {
 		response.getWriter().write(output.toJson());
 	}
 
+	@RequestMapping(value = "/sysmon/reset.form", method = RequestMethod.POST)
+	public void reset(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		SimpleObject output;
+
+		if (checkAccess(request)) {
+			log.info("Resetting timing statistics on request from " + request.getRemoteAddr());
+			PerformanceMonitor.reset();
+			output = SimpleObject.create("success", true);
+		}
+		else {
+			log.warn("Rejecting timing statistics reset from " + request.getRemoteAddr() + " (server address is " + request.getLocalAddr() + ")");
+			response.setStatus(403);
+			output = SimpleObject.create("error", "access denied");
+		}
+
+		response.setContentType("application/json");
+		response.getWriter().write(output.toJson());
+	}
+
 	/**
 	 * Gets the data which is monitored
 	 * @return the simplified data
@@ -60,6 +80,7 @@ public class SystemMonitorController {
 	protected SimpleObject getMonitoredData() {
 		SimpleObject stats = new SimpleObject();
 		stats.put("server", ServerInformation.getAllInformation());
+		stats.put("timings", PerformanceMonitor.getAllStatistics());
 		return stats;
 	}
 
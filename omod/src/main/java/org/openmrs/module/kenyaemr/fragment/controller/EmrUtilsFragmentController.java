@@ -14,37 +14,29 @@
 
 package org.openmrs.module.kenyaemr.fragment.controller;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.dom4j.Document;
-import org.dom4j.DocumentException;
-import org.dom4j.Element;
-import org.dom4j.io.SAXReader;
-import org.jaxen.JaxenException;
-import org.jaxen.XPath;
-import org.jaxen.dom4j.Dom4jXPath;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.openmrs.Concept;
 import org.openmrs.ConceptAnswer;
 import org.openmrs.DrugOrder;
 import org.openmrs.Patient;
+import org.openmrs.PersonAddress;
 import org.openmrs.Relationship;
 import org.openmrs.Visit;
 import org.openmrs.api.context.Context;
@@ -61,6 +53,7 @@ import org.openmrs.module.kenyaemr.regimen.RegimenDefinitionGroup;
 import org.openmrs.module.kenyaemr.regimen.RegimenManager;
 import org.openmrs.module.kenyaemr.regimen.RegimenOrder;
 import org.openmrs.module.kenyaemr.regimen.RegimenPropertyConfiguration;
+import org.openmrs.module.kenyaemr.util.AddressHierarchyIndex;
 import org.openmrs.module.kenyaemr.util.EmrUiUtils;
 import org.openmrs.module.kenyaui.KenyaUiUtils;
 import org.openmrs.module.kenyaui.annotation.AppAction;
@@ -69,7 +62,6 @@ import org.openmrs.ui.framework.SimpleObject;
 import org.openmrs.ui.framework.UiUtils;
 import org.openmrs.ui.framework.annotation.SpringBean;
 import org.openmrs.ui.framework.fragment.action.SuccessResult;
-import org.openmrs.util.OpenmrsUtil;
 import org.springframework.web.bind.annotation.RequestParam;
 
 /**
@@ -458,167 +450,63 @@ public class EmrUtilsFragmentController {
 	
 	public JSONObject addressHierarchy(@RequestParam(value= "state", required = false) String state,
 			@RequestParam(value= "township", required = false) String township,
-			@RequestParam(value= "patientId", required = false) Patient patient,@SpringBean KenyaUiUtils kenyaUi) {
-		
-        
-		
-		Map<String,List> townshipMap= new LinkedHashMap<String,List>();
-		
-		Map<String,List> villageMap= new LinkedHashMap<String,List>();
-		
-		String[] stateArr = null ;
-		
-		File addressFile = new File(OpenmrsUtil.getApplicationDataDirectory()
-				+ "myanmaraddresshierarchy.xml");
-		if (addressFile.exists()) {
-			SAXReader reader = new SAXReader();
-			Document document = null;
-			try {
-				document = reader.read(addressFile.toURI().toURL());
-			} catch (MalformedURLException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			} catch (DocumentException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-			XPath stateSelector = null;
-			try {
-				stateSelector = new Dom4jXPath("//country/state");
-			} catch (JaxenException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-			@SuppressWarnings("rawtypes")
-			List stateList = null;
-			try {
-				stateList = stateSelector.selectNodes(document);
-			} catch (JaxenException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-			 stateArr = new String[stateList.size()];
-			 String[] townshipArr = new String[stateList.size()];
-
-			if (stateList.size() > 0) {
-				for (int i = 0; i < stateList.size(); i++) {
-					
-					List<String> townshipList=new LinkedList<String>();
+			@RequestParam(value= "patientId", required = false) Patient patient,
+			@SpringBean AddressHierarchyIndex addressHierarchyIndex) {
 
-					stateArr[i] = ((Element) stateList.get(i))
-							.attributeValue("name");
-					@SuppressWarnings("rawtypes")
-					List townshpList = ((Element) stateList.get(i))
-							.elements("township");
-
-					String stateName = ((Element) stateList.get(i))
-							.attributeValue("name");
+		JSONObject stateJson = new JSONObject();
 
-					String townshipName = ((Element) townshpList.get(0))
-							.attributeValue("name");
-					
-					townshipArr[i] = ((Element) townshpList.get(0))
-							.attributeValue("name") + ",";
-					
-					//
-					townshipList.add(townshipName);
-					
-					@SuppressWarnings("rawtypes")
-					List villageList = ((Element) townshpList.get(0))
-							.elements("village");
-					//
-					List<String> villageList1=new LinkedList<String>();
-					for (int k = 0; k < (villageList.size()); k++) {
-						
-						String villageName = ((Element) villageList.get(k))
-								.attributeValue("name");
-						//
-						villageList1.add(villageName);
-						
-					}
-					villageMap.put(stateName+townshipName, villageList1);
+		if (patient != null && patient.getPersonAddress() != null) {
+			PersonAddress address = patient.getPersonAddress();
+			stateJson.put("selectedState", address.getStateProvince());
+			stateJson.put("townshipListForSelectedState", addressHierarchyIndex.getTownships(address.getStateProvince()));
+			stateJson.put("selectedtownship", address.getCountyDistrict());
+			stateJson.put("villageListForSelectedTownship", addressHierarchyIndex.getVillages(address.getStateProvince(), address.getCountyDistrict()));
+			stateJson.put("selectedvillage", address.getCityVillage());
+		}
 
-					for (int j = 1; j < (townshpList.size() - 1); j++) {
-						
-						townshipName = ((Element) townshpList.get(j))
-								.attributeValue("name");
-						//
-						townshipList.add(townshipName);
-						
-						townshipArr[i] += ((Element) townshpList.get(j))
-								.attributeValue("name") + ",";
-						villageList = ((Element) townshpList.get(j))
-								.elements("village");
-						//
-						List<String> villageList2=new LinkedList<String>();
-						for (int k = 0; k < (villageList.size()); k++) {
-							
-							String villageName = ((Element) villageList
-									.get(k)).attributeValue("name");
-							//
-							villageList2.add(villageName);
-						}
-						//
-						villageMap.put(stateName+townshipName, villageList2);
-					}
+		if (StringUtils.isEmpty(state)) {
+			stateJson.put("state", addressHierarchyIndex.getStates());
+			return stateJson;
+		}
+		else if (StringUtils.isEmpty(township)) {
+			JSONObject townshipJson = new JSONObject();
+			townshipJson.put("township", addressHierarchyIndex.getTownships(state));
+			return townshipJson;
+		}
+		else {
+			JSONObject villageJson = new JSONObject();
+			villageJson.put("village", addressHierarchyIndex.getVillages(state, township));
+			return villageJson;
+		}
+	}
 
-					townshipName = ((Element) townshpList.get((townshpList
-							.size() - 1))).attributeValue("name");
-					//
-					townshipList.add(townshipName);
-					townshipMap.put(stateName, townshipList);
-					
-					townshipArr[i] += ((Element) townshpList
-							.get((townshpList.size() - 1)))
-							.attributeValue("name")
-							+ ",";
-					villageList = ((Element) townshpList.get((townshpList
-							.size() - 1))).elements("village");
-					//
-					List<String> villageList3=new LinkedList<String>();
-					for (int k = 0; k < (villageList.size()); k++) {
-						
-						String villageName = ((Element) villageList.get(k))
-								.attributeValue("name");
-						
-						//
-						villageList3.add(villageName);
-					}
-					villageMap.put(stateName+townshipName, villageList3);
+	/**
+	 * Gets a single level of the address hierarchy, i.e. the states, the townships of a state or the villages of a
+	 * township
+	 * @param state the state name (optional)
+	 * @param township the township name (optional)
+	 * @return the level name and the names at that level
+	 */
+	public JSONObject addressHierarchyLevel(@RequestParam(value = "state", required = false) String state,
+			@RequestParam(value = "township", required = false) String township,
+			@SpringBean AddressHierarchyIndex addressHierarchyIndex) {
 
-				}
-			}
-		} else {
-			log.error("address file does not exist");
-		}
-		
-		
-		JSONObject stateJson = new JSONObject();
-		JSONObject townshipJson = new JSONObject();
-		JSONObject villageJson = new JSONObject();
-		
-		if(patient!= null){
-		stateJson.put("selectedState", patient.getPersonAddress().getStateProvince());
-		stateJson.put("townshipListForSelectedState", townshipMap.get(patient.getPersonAddress().getStateProvince()));
-		stateJson.put("selectedtownship", patient.getPersonAddress().getCountyDistrict());
-		stateJson.put("villageListForSelectedTownship", villageMap.get(patient.getPersonAddress().getStateProvince()+patient.getPersonAddress().getCountyDistrict()));
-		stateJson.put("selectedvillage", patient.getPersonAddress().getCityVillage());
+		String[] path;
+		if (StringUtils.isEmpty(state)) {
+			path = new String[0];
 		}
-	
-		if(state.equals("")){
-			stateJson.put("state", stateArr);
-			return stateJson;		
+		else if (StringUtils.isEmpty(township)) {
+			path = new String[] { state };
 		}
-		else{
-			if(township.equals("")){
-				townshipJson.put("township",townshipMap.get(state));
-				return townshipJson;
-			}
-			else{
-				villageJson.put("village",villageMap.get(state+township));
-		        return villageJson;
-			}
+		else {
+			path = new String[] { state, township };
 		}
-		
+
+		List<String> names = addressHierarchyIndex.getChildren(path);
+
+		JSONObject levelJson = new JSONObject();
+		levelJson.put("level", AddressHierarchyIndex.getChildLevel(path));
+		levelJson.put("names", names != null ? names : Collections.<String>emptyList());
+		return levelJson;
 	}
 }
\ No newline at end of file
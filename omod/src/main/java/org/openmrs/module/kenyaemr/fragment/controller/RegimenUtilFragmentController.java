@@ -18,10 +18,8 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
@@ -30,11 +28,10 @@ import javax.servlet.http.HttpSession;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.openmrs.Concept;
-import org.openmrs.ConceptAnswer;
 import org.openmrs.DrugOrder;
 import org.openmrs.Encounter;
 import org.openmrs.Location;
-import org.openmrs.Order;
+import org.openmrs.OrderType;
 import org.openmrs.Patient;
 import org.openmrs.User;
 import org.openmrs.Visit;
@@ -43,6 +40,7 @@ import org.openmrs.api.context.Context;
 import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import org.openmrs.module.kenyaemr.metadata.CommonMetadata._EncounterType;
 import org.openmrs.module.kenyaemr.model.DrugOrderProcessed;
+import org.openmrs.module.kenyaemr.regimen.DrugClassificationIndex;
 import org.openmrs.module.kenyaemr.regimen.Regimen;
 import org.openmrs.module.kenyaemr.regimen.RegimenChange;
 import org.openmrs.module.kenyaemr.regimen.RegimenChangeHistory;
@@ -99,8 +97,8 @@ public class RegimenUtilFragmentController {
 	 * Helper method to create a new form object
 	 * @return the form object
 	 */
-	public RegimenChangeCommandObject newRegimenChangeCommandObject(@SpringBean RegimenManager regimenManager) {
-		return new RegimenChangeCommandObject(regimenManager);
+	public RegimenChangeCommandObject newRegimenChangeCommandObject(@SpringBean RegimenManager regimenManager, @SpringBean DrugClassificationIndex drugIndex) {
+		return new RegimenChangeCommandObject(regimenManager, drugIndex);
 	}
 
 	/**
@@ -123,6 +121,8 @@ public class RegimenUtilFragmentController {
 
 		private RegimenManager regimenManager;
 
+		private DrugClassificationIndex drugIndex;
+
 		private Patient patient;
 
 		private String category;
@@ -137,8 +137,9 @@ public class RegimenUtilFragmentController {
 
 		private Regimen regimen;
 
-		public RegimenChangeCommandObject(RegimenManager regimenManager) {
+		public RegimenChangeCommandObject(RegimenManager regimenManager, DrugClassificationIndex drugIndex) {
 			this.regimenManager = regimenManager;
+			this.drugIndex = drugIndex;
 		}
 
 		/**
@@ -209,6 +210,9 @@ public class RegimenUtilFragmentController {
 			RegimenOrder baseline = lastChange != null ? lastChange.getStarted() : null;
 			Encounter encounter=null;
 			KenyaEmrService kenyaEmrService = (KenyaEmrService) Context.getService(KenyaEmrService.class);
+			OrderType drugOrderType = Context.getOrderService().getOrderType(OpenmrsConstants.ORDERTYPE_DRUG);
+			List<DrugOrder> ordersToSave = new ArrayList<DrugOrder>();
+			List<DrugOrderProcessed> processedToSave = new ArrayList<DrugOrderProcessed>();
 			
 			List<Visit> visits=Context.getVisitService().getActiveVisitsByPatient(patient);
 			Visit visit=new Visit();
@@ -240,16 +244,10 @@ public class RegimenUtilFragmentController {
 					String drugRegimen=request.getParameter("drugKey"+srn);	
 					String dose=request.getParameter("strength"+srn);
 					dose=dose.substring(0,dose.length() - 3);
-					if(drugRegimen!=null){
-						 drugConcept=Context.getConceptService().getConceptByName(drugRegimen);
-					}
-					List<ConceptAnswer> conceptAnswers=kenyaEmrService.getConceptAnswerByAnsweConcept(drugConcept);
-					for(ConceptAnswer conceptAnswer:conceptAnswers){
-						//Fixed dose combinations
-						if(conceptAnswer.getConcept().getUuid().equals("b8d460f8-0563-4416-9e0a-d77aafa7e5c3")){
-							drugRegimenn=drugRegimenn+drugRegimen+"+";
-							dosee=dosee+dose+"+";
-						}
+					drugConcept=drugIndex.getDrug(drugRegimen);
+					if(drugIndex.isFixedDoseCombination(drugConcept)){
+						drugRegimenn=drugRegimenn+drugRegimen+"+";
+						dosee=dosee+dose+"+";
 					}
 				}
 			}
@@ -277,46 +275,20 @@ public class RegimenUtilFragmentController {
 				Integer route=Integer.parseInt(request.getParameter("route"+srn));
 				Integer duration=Integer.parseInt(request.getParameter("duration"+srn));
 
-				if(drugRegimen!=null){
-					 drugConcept=Context.getConceptService().getConceptByName(drugRegimen);
-				}
+				drugConcept=drugIndex.getDrug(drugRegimen);
 				
-				List<ConceptAnswer> conceptAnswers=kenyaEmrService.getConceptAnswerByAnsweConcept(drugConcept);
-				String typeOfRegimen="";
-				Map<String,Concept> conMap=new LinkedHashMap<String,Concept>();
-				for(ConceptAnswer conceptAnswer:conceptAnswers){
-					//Fixed dose combinations
-					if(conceptAnswer.getConcept().getUuid().equals("b8d460f8-0563-4416-9e0a-d77aafa7e5c3")){
-						typeOfRegimen=conceptAnswer.getConcept().getName().getName();
-						drugRegimen=drugRegimenn;
-						doseRegimen=dosee;
-					}
-					else{
-						//ARV drugs for child
-						if(patient.getAge()<=14 && conceptAnswer.getConcept().getUuid().equals("4c132bde-0e0f-4586-a874-fe6335945144")){
-							typeOfRegimen=conceptAnswer.getConcept().getName().getName();
-							doseRegimen=dose;
-						}
-						//First line Anti-retoviral drugs
-						else if(conceptAnswer.getConcept().getUuid().equals("363c2193-f3d1-4e97-9dd3-09361bbcc233")){
-							typeOfRegimen=conceptAnswer.getConcept().getName().getName();	
-							doseRegimen=dose;
-						}
-						//Second line ART
-						else if(conceptAnswer.getConcept().getUuid().equals("f7693b07-789f-46d6-892a-fcf499b97228")){
-							typeOfRegimen=conceptAnswer.getConcept().getName().getName();	
-							doseRegimen=dose;
-						}
-						//HIV/HBV co-infection
-						else if(conceptAnswer.getConcept().getUuid().equals("ab9b1c9a-9acb-4e7f-b696-ac6870083117")){
-							typeOfRegimen=conceptAnswer.getConcept().getName().getName();	
-							doseRegimen=dose;
-						}
-					}
+				String regimenClass=drugIndex.getRegimenClass(drugConcept, patient.getAge());
+				String typeOfRegimen=drugIndex.getClassName(regimenClass);
+				if(DrugClassificationIndex.FIXED_DOSE_COMBINATIONS.equals(regimenClass)){
+					drugRegimen=drugRegimenn;
+					doseRegimen=dosee;
+				}
+				else if(regimenClass!=null){
+					doseRegimen=dose;
 				}
 				
 				DrugOrder drugOrder = new DrugOrder();
-				drugOrder.setOrderType(Context.getOrderService().getOrderType(OpenmrsConstants.ORDERTYPE_DRUG));
+				drugOrder.setOrderType(drugOrderType);
 				drugOrder.setEncounter(encounter);
 				drugOrder.setPatient(patient);
 				drugOrder.setStartDate(date);
@@ -326,10 +298,10 @@ public class RegimenUtilFragmentController {
 				drugOrder.setUnits(units);
 				drugOrder.setFrequency(frequency);
 				
-				Order order=Context.getOrderService().saveOrder(drugOrder);
+				ordersToSave.add(drugOrder);
 				
 				DrugOrderProcessed drugOrderProcessed=new DrugOrderProcessed();
-				drugOrderProcessed.setDrugOrder(Context.getOrderService().getDrugOrder(order.getOrderId()));
+				drugOrderProcessed.setDrugOrder(drugOrder);
 				drugOrderProcessed.setPatient(patient);
 				drugOrderProcessed.setCreatedDate(new Date());
 				drugOrderProcessed.setProcessedStatus(false);
@@ -343,7 +315,7 @@ public class RegimenUtilFragmentController {
 				drugOrderProcessed.setTypeOfRegimen(typeOfRegimen);	
 				drugOrderProcessed.setStartDate(date);
 				drugOrderProcessed.setVisit(visit);
-				kenyaEmrService.saveDrugOrderProcessed(drugOrderProcessed);
+				processedToSave.add(drugOrderProcessed);
 			   }
 			}
 			else {
@@ -355,7 +327,7 @@ public class RegimenUtilFragmentController {
 						    if(drugOrderProcess!=null){
 						    	dop=drugOrderProcess;
 							drugOrderProcess.setDiscontinuedDate(date);
-							kenyaEmrService.saveDrugOrderProcessed(drugOrderProcess);
+							processedToSave.add(drugOrderProcess);
 							}
 						    else{
 						    	List<DrugOrderProcessed> drugOrderProcessCompleted=kenyaEmrService.getDrugOrderProcessedCompleted(drugOrder);
@@ -379,7 +351,7 @@ public class RegimenUtilFragmentController {
 							drugOrderProcessed.setTypeOfRegimen(dop.getTypeOfRegimen());
 							drugOrderProcessed.setStartDate(date);
 							drugOrderProcessed.setVisit(visit);
-							kenyaEmrService.saveDrugOrderProcessed(drugOrderProcessed);
+							processedToSave.add(drugOrderProcessed);
 					}	
 				}
 				else if(changeType == RegimenChangeType.Substitute || changeType == RegimenChangeType.Switch){
@@ -404,42 +376,16 @@ public class RegimenUtilFragmentController {
 				Integer route=Integer.parseInt(request.getParameter("route"+srn));
 				Integer duration=Integer.parseInt(request.getParameter("duration"+srn));
 
-				if(drugRegimen!=null){
-					 drugConcept=Context.getConceptService().getConceptByName(drugRegimen);
-				}
+				drugConcept=drugIndex.getDrug(drugRegimen);
 				
-				List<ConceptAnswer> conceptAnswers=kenyaEmrService.getConceptAnswerByAnsweConcept(drugConcept);
-				String typeOfRegimen="";
-				Map<String,Concept> conMap=new LinkedHashMap<String,Concept>();
-				for(ConceptAnswer conceptAnswer:conceptAnswers){
-					//Fixed dose combinations
-					if(conceptAnswer.getConcept().getUuid().equals("b8d460f8-0563-4416-9e0a-d77aafa7e5c3")){
-						typeOfRegimen=conceptAnswer.getConcept().getName().getName();
-						drugRegimen=drugRegimenn;
-						doseRegimen=dosee;
-					}
-					else{
-						//ARV drugs for child
-						if(patient.getAge()<=14 && conceptAnswer.getConcept().getUuid().equals("4c132bde-0e0f-4586-a874-fe6335945144")){
-							typeOfRegimen=conceptAnswer.getConcept().getName().getName();	
-							doseRegimen=dose;
-						}
-						//First line Anti-retoviral drugs
-						else if(conceptAnswer.getConcept().getUuid().equals("363c2193-f3d1-4e97-9dd3-09361bbcc233")){
-							typeOfRegimen=conceptAnswer.getConcept().getName().getName();	
-							doseRegimen=dose;
-						}
-						//Second line ART
-						else if(conceptAnswer.getConcept().getUuid().equals("f7693b07-789f-46d6-892a-fcf499b97228")){
-							typeOfRegimen=conceptAnswer.getConcept().getName().getName();
-							doseRegimen=dose;
-						}
-						//HIV/HBV co-infection
-						else if(conceptAnswer.getConcept().getUuid().equals("ab9b1c9a-9acb-4e7f-b696-ac6870083117")){
-							typeOfRegimen=conceptAnswer.getConcept().getName().getName();	
-							doseRegimen=dose;
-						}
-					}
+				String regimenClass=drugIndex.getRegimenClass(drugConcept, patient.getAge());
+				String typeOfRegimen=drugIndex.getClassName(regimenClass);
+				if(DrugClassificationIndex.FIXED_DOSE_COMBINATIONS.equals(regimenClass)){
+					drugRegimen=drugRegimenn;
+					doseRegimen=dosee;
+				}
+				else if(regimenClass!=null){
+					doseRegimen=dose;
 				}
 
 								
@@ -451,7 +397,7 @@ public class RegimenUtilFragmentController {
 								commonDrugOrderList.add(drugOrder);
 								if(dop.getDose().equals(dose) && dop.getDrugOrder().getFrequency().equals(frequency)){
 									dop.setDiscontinuedDate(new Date());
-									kenyaEmrService.saveDrugOrderProcessed(dop);
+									processedToSave.add(dop);
 									DrugOrderProcessed drugOrderProcessed=new DrugOrderProcessed();
 									drugOrderProcessed.setDrugOrder(dop.getDrugOrder());
 									drugOrderProcessed.setPatient(patient);
@@ -467,20 +413,20 @@ public class RegimenUtilFragmentController {
 									drugOrderProcessed.setTypeOfRegimen(typeOfRegimen);	
 									drugOrderProcessed.setStartDate(date);
 									drugOrderProcessed.setVisit(visit);
-									kenyaEmrService.saveDrugOrderProcessed(drugOrderProcessed);	
+									processedToSave.add(drugOrderProcessed);	
 								}
 								else{
 									dop.setDiscontinuedDate(date);
-									kenyaEmrService.saveDrugOrderProcessed(dop);
+									processedToSave.add(dop);
 									drugOrder.setDiscontinued(true);
 									drugOrder.setDiscontinuedDate(date);
 									drugOrder.setDiscontinuedBy(Context.getAuthenticatedUser());
 									drugOrder.setDiscontinuedReason(changeReason);
 									drugOrder.setDiscontinuedReasonNonCoded(changeReasonNonCoded);
-									Context.getOrderService().saveOrder(drugOrder);	
+									ordersToSave.add(drugOrder);	
 									
 									DrugOrder drugOder = new DrugOrder();
-									drugOder.setOrderType(Context.getOrderService().getOrderType(OpenmrsConstants.ORDERTYPE_DRUG));
+									drugOder.setOrderType(drugOrderType);
 									drugOder.setEncounter(encounter);
 									drugOder.setPatient(patient);
 									drugOder.setStartDate(date);
@@ -488,10 +434,10 @@ public class RegimenUtilFragmentController {
 									drugOder.setUnits(units);
 									drugOder.setFrequency(frequency);
 									
-									Order order=Context.getOrderService().saveOrder(drugOder);
+									ordersToSave.add(drugOder);
 									
 									DrugOrderProcessed drugOrderProcessed=new DrugOrderProcessed();
-									drugOrderProcessed.setDrugOrder(Context.getOrderService().getDrugOrder(order.getOrderId()));
+									drugOrderProcessed.setDrugOrder(drugOder);
 									drugOrderProcessed.setPatient(patient);
 									drugOrderProcessed.setCreatedDate(new Date());
 									drugOrderProcessed.setProcessedStatus(false);
@@ -505,7 +451,7 @@ public class RegimenUtilFragmentController {
 									drugOrderProcessed.setTypeOfRegimen(typeOfRegimen);
 									drugOrderProcessed.setStartDate(date);
 									drugOrderProcessed.setVisit(visit);
-									kenyaEmrService.saveDrugOrderProcessed(drugOrderProcessed);
+									processedToSave.add(drugOrderProcessed);
 								}
 							}
 						}
@@ -513,7 +459,7 @@ public class RegimenUtilFragmentController {
 				}
 				else{
 				DrugOrder drugOder = new DrugOrder();
-				drugOder.setOrderType(Context.getOrderService().getOrderType(OpenmrsConstants.ORDERTYPE_DRUG));
+				drugOder.setOrderType(drugOrderType);
 				drugOder.setEncounter(encounter);
 				drugOder.setPatient(patient);
 				drugOder.setStartDate(date);
@@ -523,10 +469,10 @@ public class RegimenUtilFragmentController {
 				drugOder.setUnits(units);
 				drugOder.setFrequency(frequency);
 				
-				Order order=Context.getOrderService().saveOrder(drugOder);
+				ordersToSave.add(drugOder);
 				
 				DrugOrderProcessed drugOrderProcessed=new DrugOrderProcessed();
-				drugOrderProcessed.setDrugOrder(Context.getOrderService().getDrugOrder(order.getOrderId()));
+				drugOrderProcessed.setDrugOrder(drugOder);
 				drugOrderProcessed.setPatient(patient);
 				drugOrderProcessed.setCreatedDate(new Date());
 				drugOrderProcessed.setProcessedStatus(false);
@@ -540,7 +486,7 @@ public class RegimenUtilFragmentController {
 				drugOrderProcessed.setTypeOfRegimen(typeOfRegimen);	
 				drugOrderProcessed.setStartDate(date);
 				drugOrderProcessed.setVisit(visit);
-				kenyaEmrService.saveDrugOrderProcessed(drugOrderProcessed);
+				processedToSave.add(drugOrderProcessed);
 				}
 			  }
 			 }
@@ -551,16 +497,20 @@ public class RegimenUtilFragmentController {
 				
 				for(DrugOrder drugOrder:drugOrders){
 					DrugOrderProcessed dop=kenyaEmrService.getLastDrugOrderProcessedNotDiscontinued(drugOrder);	
-					dop.setDiscontinuedDate(date);
+					if(dop!=null){
+						dop.setDiscontinuedDate(date);
+						processedToSave.add(dop);
+					}
 					drugOrder.setDiscontinued(true);
 					drugOrder.setDiscontinuedDate(date);
 					drugOrder.setDiscontinuedBy(Context.getAuthenticatedUser());
 					drugOrder.setDiscontinuedReason(changeReason);
 					drugOrder.setDiscontinuedReasonNonCoded(changeReasonNonCoded);
-					Context.getOrderService().saveOrder(drugOrder);	
+					ordersToSave.add(drugOrder);	
 				}
 			}
 		   }
+			kenyaEmrService.saveRegimenChange(ordersToSave, processedToSave);
 			return encounter;
 		}
 		
@@ -14,13 +14,8 @@
 
 package org.openmrs.module.kenyaemr.fragment.controller.header;
 
-import java.util.List;
-import org.openmrs.Concept;
-import org.openmrs.Obs;
 import org.openmrs.Patient;
-import org.openmrs.api.context.Context;
 import org.openmrs.module.appframework.domain.AppDescriptor;
-import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaui.KenyaUiUtils;
 import org.openmrs.ui.framework.WebConstants;
 import org.openmrs.ui.framework.annotation.FragmentParam;
@@ -32,19 +27,19 @@ import org.openmrs.ui.framework.page.PageRequest;
  * Banner showing which patient this page is in the context of
  */
 public class PatientHeaderFragmentController {
-	private Obs savedIngoTypeConcept;
-	
+
 	public void controller(@FragmentParam("patient") Patient patient,
 						   FragmentModel model,
 						   PageRequest pageRequest,
 						   @SpringBean KenyaUiUtils kenyaUi) {
-		
-	
+
+		PatientHeaderModel header = PatientHeaderModel.forRequest(pageRequest.getRequest(), patient);
+
 		model.addAttribute("patient", patient);
-		
+
 		model.addAttribute("patientName", patient.getGivenName());
 		AppDescriptor currentApp = kenyaUi.getCurrentApp(pageRequest);
-		
+
 		if(pageRequest.getPageName().equals("dispensary/drugOrder")){
 				model.addAttribute("appHomepageUrl", "/" + WebConstants.CONTEXT_PATH + "/" + "kenyaemr/dispensary/dispensing.page?");
 			}
@@ -55,24 +50,7 @@ public class PatientHeaderFragmentController {
 				model.addAttribute("appHomepageUrl", null);
 			}
 		}
-		savedIngoTypeConcept = getLatestObs(patient, Dictionary.INGO_NAME);
-		if (savedIngoTypeConcept != null) {
-			model.addAttribute("ingoName",savedIngoTypeConcept.getValueCoded().getName());
-		}	
-		else{
-			model.addAttribute("ingoName","");
-		}
-		
-	}
 
-	
-	private Obs getLatestObs(Patient patient, String conceptIdentifier) {
-		Concept concept = Dictionary.getConcept(conceptIdentifier);
-		List<Obs> obs = Context.getObsService().getObservationsByPersonAndConcept(patient, concept);
-		if (obs.size() > 0) {
-			// these are in reverse chronological order
-			return obs.get(0);
-		}
-		return null;
+		model.addAttribute("ingoName", header.getIngoName());
 	}
-}
\ No newline at end of file
+}
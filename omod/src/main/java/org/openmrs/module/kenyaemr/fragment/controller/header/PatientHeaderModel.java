@@ -0,0 +1,156 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.fragment.controller.header;
+
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.Dictionary;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.openmrs.module.metadatadeploy.MissingMetadataException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The latest obs of a patient shown in the patient header and summary. Identifiers are not included as the header loads
+ * them with its AJAX patient lookup. It's built once per request, so the header fragments of a page share it, and it's
+ * kept in the request rather than in controller fields so it can't leak to another request.
+ */
+public class PatientHeaderModel {
+
+	private static final String REQUEST_ATTRIBUTE_PREFIX = PatientHeaderModel.class.getName() + ".";
+
+	/**
+	 * The concepts of the obs shown in the patient header and summary
+	 */
+	public static final List<String> OBS_CONCEPTS = Arrays.asList(
+			Dictionary.INGO_NAME,
+			Dictionary.METHOD_OF_ENROLLMENT,
+			Dictionary.PREGNANCY_STATUS,
+			Dictionary.ALLERGY_DRUG,
+			Dictionary.OTHER_DRUG
+	);
+
+	private final Patient patient;
+
+	private Map<Concept, Obs> latestObs = new HashMap<Concept, Obs>();
+
+	/**
+	 * Gets the header model for a patient for the given request, building it if necessary
+	 * @param request the HTTP request
+	 * @param patient the patient
+	 * @return the header model
+	 */
+	public static PatientHeaderModel forRequest(HttpServletRequest request, Patient patient) {
+		String attributeName = REQUEST_ATTRIBUTE_PREFIX + patient.getPatientId();
+
+		PatientHeaderModel model = (PatientHeaderModel) request.getAttribute(attributeName);
+		if (model == null) {
+			List<Concept> obsConcepts = new ArrayList<Concept>();
+			for (String identifier : OBS_CONCEPTS) {
+				try {
+					obsConcepts.add(Dictionary.getConcept(identifier));
+				}
+				catch (MissingMetadataException ex) {
+					// Only the pages which show this obs require its concept
+				}
+			}
+
+			model = build(patient, obsConcepts);
+			request.setAttribute(attributeName, model);
+		}
+		return model;
+	}
+
+	/**
+	 * Builds the header model for a patient. The latest obs of each header concept are fetched together.
+	 * @param patient the patient
+	 * @param obsConcepts the concepts of the obs shown in the header
+	 * @return the header model
+	 */
+	protected static PatientHeaderModel build(Patient patient, Collection<Concept> obsConcepts) {
+		KenyaEmrService emrService = Context.getService(KenyaEmrService.class);
+		PatientHeaderModel model = new PatientHeaderModel(patient);
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("patientId", patient.getPatientId());
+
+		if (!obsConcepts.isEmpty()) {
+			params.put("concepts", obsConcepts);
+
+			// Ordered newest first so the first obs of each concept is the latest
+			List<Object> obss = emrService.executeHqlQuery("from Obs o where o.voided = false and o.person.personId = :patientId and o.concept in (:concepts) order by o.obsDatetime desc, o.obsId desc", params);
+			for (Object o : obss) {
+				Obs obs = (Obs) o;
+				if (!model.latestObs.containsKey(obs.getConcept())) {
+					model.latestObs.put(obs.getConcept(), obs);
+				}
+			}
+		}
+
+		return model;
+	}
+
+	/**
+	 * Creates a new header model
+	 * @param patient the patient
+	 */
+	private PatientHeaderModel(Patient patient) {
+		this.patient = patient;
+	}
+
+	/**
+	 * Gets the patient
+	 * @return the patient
+	 */
+	public Patient getPatient() {
+		return patient;
+	}
+
+	/**
+	 * Gets the latest obs of a header concept
+	 * @param concept the concept
+	 * @return the obs or null
+	 */
+	public Obs getLatestObs(Concept concept) {
+		return latestObs.get(concept);
+	}
+
+	/**
+	 * Gets the latest obs of a header concept
+	 * @param conceptIdentifier the concept identifier
+	 * @return the obs or null
+	 */
+	public Obs getLatestObs(String conceptIdentifier) {
+		return getLatestObs(Dictionary.getConcept(conceptIdentifier));
+	}
+
+	/**
+	 * Gets the name of the patient's INGO
+	 * @return the INGO name or empty string
+	 */
+	public String getIngoName() {
+		Obs ingo = getLatestObs(Dictionary.INGO_NAME);
+		return (ingo != null && ingo.getValueCoded() != null) ? ingo.getValueCoded().getName().getName() : "";
+	}
+}
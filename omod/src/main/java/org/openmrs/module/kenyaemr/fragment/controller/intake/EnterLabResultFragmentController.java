@@ -5,6 +5,7 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.servlet.http.HttpSession;
@@ -14,19 +15,14 @@ import org.apache.commons.lang.math.NumberUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.openmrs.Concept;
-import org.openmrs.ConceptAnswer;
-import org.openmrs.ConceptComplex;
-import org.openmrs.ConceptNumeric;
 import org.openmrs.Encounter;
 import org.openmrs.EncounterType;
 import org.openmrs.Obs;
-import org.openmrs.Patient;
 import org.openmrs.Visit;
 import org.openmrs.api.APIException;
 import org.openmrs.api.EncounterService;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.kenyacore.form.FormManager;
-import org.openmrs.module.kenyaemr.EmrWebConstants;
 import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import org.openmrs.module.kenyaui.KenyaUiUtils;
 import org.openmrs.ui.framework.SimpleObject;
@@ -69,12 +65,16 @@ public class EnterLabResultFragmentController {
 		 
 		List<TestObject> listTests = null;
 		if (encounter != null) {
+			LabResultConcepts testConcepts = new LabResultConcepts();
+			Map<Integer, List<Obs>> resultObsByConcept = LabResultConcepts.indexByConcept(listResultObs);
+			String gender = encounter.getPatient().getGender();
+
 			listTests = new ArrayList<EnterLabResultFragmentController.TestObject>();
 			for (Obs obs : encounter.getAllObs()) {
 				if(obs.getValueCoded() !=null){
-					TestObject test = new TestObject(obs,visit.getPatient());
+					TestObject test = new TestObject(obs, testConcepts.get(obs.getValueCoded()), gender);
 					if (resultEncounter != null) {
-						test.setResult(listResultObs);
+						test.setResult(resultObsByConcept.get(test.conceptId));
 					}
 					listTests.add(test);
 				}
@@ -99,12 +99,13 @@ public class EnterLabResultFragmentController {
 			 HttpSession session,
 			 FragmentActionRequest actionRequest) throws Exception {
 		EncounterService encService = Context.getService(EncounterService.class);
+		LabResultConcepts testConcepts = new LabResultConcepts();
 		
 		Date curDate = new Date();
 
 		if (resultEncounter != null) {
 			// edit
-			Set<Obs> listObs = resultEncounter.getAllObs();
+			Map<Integer, List<Obs>> obsByConcept = LabResultConcepts.indexByConcept(resultEncounter.getAllObs());
 			boolean changed = false;
 			boolean isNewObs = true;
 			for (String submittedConceptId : conceptIds) {
@@ -116,16 +117,18 @@ public class EnterLabResultFragmentController {
 				} else {
 					value = actionRequest.getParameter(submittedConceptId+"_value");
 				}
-				Concept concept = Context.getConceptService().getConcept(NumberUtils.toInt(submittedConceptId));
-				for (Obs obs : listObs) {
-					if (obs.getConcept().getConceptId().equals(concept.getConceptId())) {
+				LabResultConcepts.TestConcept test = testConcepts.get(NumberUtils.toInt(submittedConceptId));
+				Concept concept = test.getConcept();
+				List<Obs> existingObs = obsByConcept.get(concept.getConceptId());
+				if (existingObs != null) {
+					for (Obs obs : existingObs) {
 						// edit existed Obs
 						isNewObs = false;
 
 						// value has been changed
 							obs.setValueText(value);
 							
-							if(obs.getConcept().getConceptId()==856 || obs.getConcept().getConceptId()==5497 || obs.getConcept().getConceptId()==730){
+							if(test.hasNumericResult()){
 								if(value!=null && value!=""){
 									obs.setValueNumeric(Double.parseDouble(value));
 								}
@@ -133,7 +136,7 @@ public class EnterLabResultFragmentController {
 							}
 							obs.setDateChanged(curDate);
 							changed = true;
-					} 
+					}
 				}
 				if (isNewObs) {
 					// save new Obs
@@ -141,7 +144,7 @@ public class EnterLabResultFragmentController {
 					newObs.setConcept(concept);
 					if(value!=null && value!=""){
 						newObs.setValueText(value);
-						if(concept.getConceptId()==856 || concept.getConceptId()==5497 || concept.getConceptId()==730){
+						if(test.hasNumericResult()){
 							newObs.setValueNumeric(Double.parseDouble(value));
 						}
 					}
@@ -194,7 +197,8 @@ public class EnterLabResultFragmentController {
 			
 			for (String conceptId : conceptIds) {
 				String value = actionRequest.getParameter(conceptId+"_value");	
-				Concept concept = Context.getConceptService().getConcept(conceptId);
+				LabResultConcepts.TestConcept test = testConcepts.get(NumberUtils.toInt(conceptId));
+				Concept concept = test.getConcept();
 				
 				Obs obs = new Obs();
 				obs.setConcept(concept);
@@ -210,7 +214,7 @@ public class EnterLabResultFragmentController {
 				} else {
 					if(value!=null && value!=""){
 						obs.setValueText(value);
-						if(concept.getConceptId()==856 || concept.getConceptId()==5497 || concept.getConceptId()==730){
+						if(test.hasNumericResult()){
 								obs.setValueNumeric(Double.parseDouble(value));
 						}
 					}
@@ -254,66 +258,44 @@ public class EnterLabResultFragmentController {
 		public Obs obs;
 		public boolean isRadioloy = false;
 
-		public TestObject (Obs obs,Patient patient) {
+		public TestObject (Obs obs, LabResultConcepts.TestConcept test, String gender) {
 			this.obs = obs;
-			this.concept = obs.getValueCoded();
+			this.concept = test.getConcept();
 			this.conceptId = concept.getConceptId();
-			 if (concept.getDatatype().isNumeric()) {
-				ConceptNumeric cn = Context.getConceptService().getConceptNumeric(conceptId);;
-				this.units = cn.getUnits();
-				range = calculateRange(patient.getGender(), cn);
-			 } else if (concept.isComplex()) {
-				ConceptComplex complex = (ConceptComplex) concept;
-				this.handlerKey = complex.getHandler();
-			 } 
-			 name = concept.getName().getName();
-			 
-			 Concept radiologyParentConcept = Context.getConceptService().getConceptByUuid(EmrWebConstants.RADIOLOGY_PARENT_CONCEPT_UUID);
-			 for (ConceptAnswer con : radiologyParentConcept.getAnswers()) {
-				 if (con.getAnswerConcept().getConceptId().equals(concept.getConceptId())) {
-					 isRadioloy = true;
-					 break;
-				 }
-			 }
+			this.units = test.getUnits();
+			this.range = test.getRange(gender);
+			this.handlerKey = test.getHandlerKey();
+			this.name = test.getName();
+			this.isRadioloy = test.isRadiology();
 		}
 		
-		public void setResult(Set<Obs> listResultObs) {
-			for (Obs resultObs : listResultObs) {
-				if (resultObs.getConcept().getConceptId().equals(concept.getConceptId())) {
-					if (isRadioloy) {
-						String text = resultObs.getValueText();
-						if (text != null) {
-							String[] arr = StringUtils.split(text, '|');
-							if (arr!= null && arr.length == 2) {
-								resultFinding = arr[0];
-								resultImpression = arr[1];
-							}
-						}
-					} else {
-						if(resultObs.getValueText()!=null){
-							result = resultObs.getValueText();	
-						}
-						else{
-							result = "";
-						}
-						
+		/**
+		 * Sets the result from the result obs of this test
+		 * @param listResultObs the result obs for this test's concept, may be null
+		 */
+		public void setResult(List<Obs> listResultObs) {
+			if (listResultObs == null || listResultObs.isEmpty()) {
+				return;
+			}
+			Obs resultObs = listResultObs.get(0);
+			if (isRadioloy) {
+				String text = resultObs.getValueText();
+				if (text != null) {
+					String[] arr = StringUtils.split(text, '|');
+					if (arr!= null && arr.length == 2) {
+						resultFinding = arr[0];
+						resultImpression = arr[1];
 					}
-					break;
 				}
-			}
-		}
-		
-		public String calculateRange(String gender, ConceptNumeric concept) {
-			
-			if (gender.equalsIgnoreCase("male")) {
-				return "" + concept.getLowCritical() + "-" + concept.getHiCritical();
 			} else {
-				return "" + concept.getLowNormal() + "-" + concept.getHiNormal();
+				if(resultObs.getValueText()!=null){
+					result = resultObs.getValueText();	
+				}
+				else{
+					result = "";
+				}
 			}
-			
 		}
-		
-		
 	}
 	
 }
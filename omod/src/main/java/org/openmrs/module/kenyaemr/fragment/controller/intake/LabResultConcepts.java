@@ -0,0 +1,192 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.fragment.controller.intake;
+
+import org.openmrs.Concept;
+import org.openmrs.ConceptAnswer;
+import org.openmrs.ConceptComplex;
+import org.openmrs.ConceptNumeric;
+import org.openmrs.Obs;
+import org.openmrs.api.ConceptService;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.EmrWebConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Concept metadata needed to enter lab results, looked up once per request. Each test concept is resolved at most
+ * once, and the radiology parent concept's answers are only walked once however many tests are entered.
+ */
+public class LabResultConcepts {
+
+	/**
+	 * Tests whose text results are also stored as numeric values (viral load, CD4 count, CD4 %)
+	 */
+	protected static final Set<Integer> NUMERIC_RESULT_CONCEPT_IDS = new HashSet<Integer>(Arrays.asList(856, 5497, 730));
+
+	private final ConceptService conceptService = Context.getConceptService();
+
+	private final Map<Integer, TestConcept> tests = new HashMap<Integer, TestConcept>();
+
+	private Set<Integer> radiologyConceptIds;
+
+	/**
+	 * Gets the metadata for the given test concept
+	 * @param concept the test concept
+	 * @return the metadata
+	 */
+	public TestConcept get(Concept concept) {
+		TestConcept test = tests.get(concept.getConceptId());
+		if (test == null) {
+			test = new TestConcept(concept);
+			tests.put(concept.getConceptId(), test);
+		}
+		return test;
+	}
+
+	/**
+	 * Gets the metadata for the given test concept id
+	 * @param conceptId the test concept id
+	 * @return the metadata or null if there is no such concept
+	 */
+	public TestConcept get(Integer conceptId) {
+		TestConcept test = tests.get(conceptId);
+		if (test == null) {
+			Concept concept = conceptService.getConcept(conceptId);
+			if (concept == null) {
+				return null;
+			}
+			test = get(concept);
+		}
+		return test;
+	}
+
+	/**
+	 * Indexes obs by their concept id
+	 * @param obss the obs
+	 * @return the map of concept ids to obs
+	 */
+	public static Map<Integer, List<Obs>> indexByConcept(Collection<Obs> obss) {
+		Map<Integer, List<Obs>> index = new HashMap<Integer, List<Obs>>();
+		if (obss != null) {
+			for (Obs obs : obss) {
+				Integer conceptId = obs.getConcept().getConceptId();
+				List<Obs> forConcept = index.get(conceptId);
+				if (forConcept == null) {
+					forConcept = new ArrayList<Obs>();
+					index.put(conceptId, forConcept);
+				}
+				forConcept.add(obs);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the ids of the tests which are answers of the radiology parent concept
+	 * @return the concept ids
+	 */
+	protected Set<Integer> getRadiologyConceptIds() {
+		if (radiologyConceptIds == null) {
+			radiologyConceptIds = new HashSet<Integer>();
+			Concept radiologyParentConcept = conceptService.getConceptByUuid(EmrWebConstants.RADIOLOGY_PARENT_CONCEPT_UUID);
+			if (radiologyParentConcept != null) {
+				for (ConceptAnswer answer : radiologyParentConcept.getAnswers()) {
+					radiologyConceptIds.add(answer.getAnswerConcept().getConceptId());
+				}
+			}
+		}
+		return radiologyConceptIds;
+	}
+
+	/**
+	 * Metadata of a single test concept
+	 */
+	public class TestConcept {
+
+		private final Concept concept;
+
+		private ConceptNumeric numeric;
+
+		private String handlerKey;
+
+		private final boolean radiology;
+
+		protected TestConcept(Concept concept) {
+			this.concept = concept;
+
+			if (concept.getDatatype().isNumeric()) {
+				numeric = (concept instanceof ConceptNumeric) ? (ConceptNumeric) concept : conceptService.getConceptNumeric(concept.getConceptId());
+			}
+			else if (concept.isComplex()) {
+				handlerKey = ((ConceptComplex) concept).getHandler();
+			}
+
+			this.radiology = getRadiologyConceptIds().contains(concept.getConceptId());
+		}
+
+		public Concept getConcept() {
+			return concept;
+		}
+
+		public String getName() {
+			return concept.getName().getName();
+		}
+
+		public String getUnits() {
+			return numeric != null ? numeric.getUnits() : "";
+		}
+
+		/**
+		 * Gets the displayed reference range for a patient of the given gender
+		 * @param gender the patient gender
+		 * @return the range or empty string if test is not numeric
+		 */
+		public String getRange(String gender) {
+			if (numeric == null) {
+				return "";
+			}
+			if ("male".equalsIgnoreCase(gender)) {
+				return "" + numeric.getLowCritical() + "-" + numeric.getHiCritical();
+			} else {
+				return "" + numeric.getLowNormal() + "-" + numeric.getHiNormal();
+			}
+		}
+
+		public String getHandlerKey() {
+			return handlerKey;
+		}
+
+		public boolean isRadiology() {
+			return radiology;
+		}
+
+		/**
+		 * Checks whether results of this test are also stored as numeric values
+		 * @return true if numeric values are stored
+		 */
+		public boolean hasNumericResult() {
+			return NUMERIC_RESULT_CONCEPT_IDS.contains(concept.getConceptId());
+		}
+	}
+}
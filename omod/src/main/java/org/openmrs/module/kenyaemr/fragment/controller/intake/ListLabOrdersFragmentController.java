@@ -1,19 +1,18 @@
 package org.openmrs.module.kenyaemr.fragment.controller.intake;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.openmrs.Encounter;
-import org.openmrs.EncounterType;
 import org.openmrs.Patient;
-import org.openmrs.Visit;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.kenyaemr.CommonUtils;
-import org.openmrs.module.kenyaemr.EmrWebConstants;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.openmrs.module.kenyaemr.model.LabWorklistEntry;
+import org.openmrs.ui.framework.SimpleObject;
 import org.openmrs.ui.framework.UiUtils;
 import org.openmrs.ui.framework.page.PageModel;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -21,34 +20,47 @@ import org.springframework.web.bind.annotation.RequestParam;
 public class ListLabOrdersFragmentController {
 	
 	protected static final Log log = LogFactory.getLog(ListLabOrdersFragmentController.class);
+
+	private static final int DEFAULT_PAGE_SIZE = 25;
 	
 	public void controller(
 			@RequestParam(required = false, value = "patientId") Patient patient,
             UiUtils ui,
             PageModel model) {
-			EncounterType encType = Context.getEncounterService().getEncounterType("Lab Results");
-		
-			List<Visit> visits = Context.getVisitService().getVisitsByPatient(patient, true, false);
-
 			List<LabOrder> listLabOrder = new ArrayList<LabOrder>();
-			for (Visit v : visits) 	{
-				for (Encounter enc : v.getEncounters()) {
-					if (enc.getEncounterType().getUuid().equals(EmrWebConstants.ENCOUNTER_TYPE_LAB_ORDER_UUID)) {
-						List<Encounter> encs = Context.getEncounterService().getEncounters(patient, null, null, null, null, Collections.singleton(encType), null, null, Collections.singleton(v), false);
-						Encounter resultEncounter = null;
-						if (encs != null && !encs.isEmpty()) {
-							resultEncounter = encs.get(encs.size() - 1);
-						}
-						LabOrder order = new LabOrder(enc, resultEncounter);
-						listLabOrder.add(order);
-						
-					}
-				}
+			for (LabWorklistEntry entry : Context.getService(KenyaEmrService.class).getLabWorklist(patient)) {
+				listLabOrder.add(new LabOrder(entry.getOrderEncounter(), entry.getResultEncounter()));
 			}
-			Collections.sort(listLabOrder);
 			model.addAttribute("listLabOrder", listLabOrder);
 			model.addAttribute("returnUrl", ui.thisUrl());
 	}
+
+	/**
+	 * Gets a page of the facility wide queue of lab orders which have no results yet, oldest first
+	 * @param start the index of the first order
+	 * @param length the maximum number of orders
+	 * @return the total number of pending orders and the orders of the page
+	 */
+	public SimpleObject pendingLabOrders(@RequestParam(value = "start", required = false) Integer start,
+			@RequestParam(value = "length", required = false) Integer length) {
+		KenyaEmrService kenyaEmrService = Context.getService(KenyaEmrService.class);
+		int firstResult = start != null ? Math.max(start, 0) : 0;
+		int maxResults = length != null && length > 0 ? length : DEFAULT_PAGE_SIZE;
+
+		List<SimpleObject> orders = new ArrayList<SimpleObject>();
+		for (LabWorklistEntry entry : kenyaEmrService.getPendingLabWorklist(firstResult, maxResults)) {
+			LabOrder order = new LabOrder(entry.getOrderEncounter(), null);
+			orders.add(SimpleObject.create(
+					"encounterId", order.encounterId,
+					"patientId", entry.getOrderEncounter().getPatient().getPatientId(),
+					"patientName", entry.getOrderEncounter().getPatient().getPersonName().getFullName(),
+					"visitDate", order.visitDate,
+					"orderDate", order.orderDate
+			));
+		}
+
+		return SimpleObject.create("total", kenyaEmrService.getNoOfPendingLabOrders(), "start", firstResult, "orders", orders);
+	}
 	
 	public class LabOrder implements Comparable<LabOrder>{
 		public String visitDate;
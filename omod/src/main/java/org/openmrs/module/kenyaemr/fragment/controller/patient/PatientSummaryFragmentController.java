@@ -28,6 +28,7 @@ import org.openmrs.module.kenyacore.form.FormDescriptor;
 import org.openmrs.module.kenyacore.form.FormManager;
 import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.calculation.library.RecordedDeceasedCalculation;
+import org.openmrs.module.kenyaemr.fragment.controller.header.PatientHeaderModel;
 import org.openmrs.module.kenyaemr.wrapper.EncounterWrapper;
 import org.openmrs.module.kenyaemr.wrapper.PatientWrapper;
 import org.openmrs.module.kenyaemr.wrapper.PersonWrapper;
@@ -74,9 +75,11 @@ public class PatientSummaryFragmentController {
 		/*
 		 * Get Entry point
 		 * */
-		if(getLatestObs(patient,Dictionary.METHOD_OF_ENROLLMENT)!=null){
-			Obs savedEntryPoint = getLatestObs(patient,
-					Dictionary.METHOD_OF_ENROLLMENT);
+		// Shares the latest obs already loaded for the patient header
+		PatientHeaderModel header = PatientHeaderModel.forRequest(pageRequest.getRequest(), patient);
+
+		Obs savedEntryPoint = header.getLatestObs(Dictionary.METHOD_OF_ENROLLMENT);
+		if(savedEntryPoint!=null){
 			String entryPoint = savedEntryPoint.getValueCoded().getName().toString();
 			String otherEntryPoint = savedEntryPoint.getValueText();
 			
@@ -122,7 +125,7 @@ public class PatientSummaryFragmentController {
 		 * */
 		String pregStatusVal = "";
 		
-		Obs pregStatus = getLatestObs(patient, Dictionary.PREGNANCY_STATUS);
+		Obs pregStatus = header.getLatestObs(Dictionary.PREGNANCY_STATUS);
 		if (pregStatus != null) {
 				pregStatusVal = pregStatus.getValueCoded().getName().toString();
 		}
@@ -134,10 +137,8 @@ public class PatientSummaryFragmentController {
 		String drugAllergiesVal = "";
 		String drugOtherVal = "";
 		
-		Obs drugAllergies = getLatestObs(patient,
-				Dictionary.ALLERGY_DRUG);
-		Obs drugOther=getLatestObs(patient,
-				Dictionary.OTHER_DRUG);
+		Obs drugAllergies = header.getLatestObs(Dictionary.ALLERGY_DRUG);
+		Obs drugOther = header.getLatestObs(Dictionary.OTHER_DRUG);
 		if (drugAllergies != null) {
 			EncounterWrapper wrapped = new EncounterWrapper(
 					drugAllergies.getEncounter());
@@ -172,17 +173,6 @@ public class PatientSummaryFragmentController {
 		return ResultUtil.isTrue(Context.getService(PatientCalculationService.class).evaluate(patient.getId(), calc));
 	}
 	
-	private Obs getLatestObs(Patient patient, String conceptIdentifier) {
-		Concept concept = Dictionary.getConcept(conceptIdentifier);
-		List<Obs> obs = Context.getObsService()
-				.getObservationsByPersonAndConcept(patient, concept);
-		if (obs.size() > 0) {
-			// these are in reverse chronological order
-			return obs.get(0);
-		}
-		return null;
-	}
-	
 	private Obs getAllLatestObs(Patient patient, String conceptIdentifier) {
 		Concept concept = Dictionary.getConcept(conceptIdentifier);
 		List<Obs> obs = Context.getObsService()
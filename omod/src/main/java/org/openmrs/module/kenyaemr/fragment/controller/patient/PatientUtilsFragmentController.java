@@ -17,7 +17,7 @@ package org.openmrs.module.kenyaemr.fragment.controller.patient;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,19 +29,16 @@ import org.openmrs.Person;
 import org.openmrs.Relationship;
 import org.openmrs.Visit;
 import org.openmrs.api.context.Context;
-import org.openmrs.calculation.patient.PatientCalculationContext;
 import org.openmrs.calculation.patient.PatientCalculationService;
 import org.openmrs.calculation.result.CalculationResult;
-import org.openmrs.calculation.result.CalculationResultMap;
-import org.openmrs.calculation.result.ListResult;
+import org.openmrs.module.kenyacore.CoreUtils;
 import org.openmrs.module.kenyacore.calculation.CalculationManager;
-import org.openmrs.module.kenyacore.calculation.CalculationUtils;
 import org.openmrs.module.kenyacore.calculation.PatientFlagCalculation;
 import org.openmrs.module.kenyaemr.EmrConstants;
-import org.openmrs.module.kenyaemr.calculation.library.ScheduledVisitOnDayCalculation;
-import org.openmrs.module.kenyaemr.calculation.library.VisitsOnDayCalculation;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
 import org.openmrs.module.kenyaui.annotation.AppAction;
 import org.openmrs.module.kenyaui.annotation.SharedAction;
+import org.openmrs.module.reporting.common.DateUtil;
 import org.openmrs.ui.framework.SimpleObject;
 import org.openmrs.ui.framework.UiUtils;
 import org.openmrs.ui.framework.annotation.SpringBean;
@@ -56,6 +53,11 @@ public class PatientUtilsFragmentController {
 
 	protected static final Log log = LogFactory.getLog(PatientUtilsFragmentController.class);
 
+	/**
+	 * The maximum number of days of scheduled patients which can be fetched at once
+	 */
+	public static final int MAX_SCHEDULE_DAYS = 7;
+
 	/**
 	 * Gets the patient flags for the given patient. If any of the calculations throws an exception, this will return a single
 	 * flag with a message with the name of the offending calculation
@@ -92,28 +94,83 @@ public class PatientUtilsFragmentController {
 	 */
 	@SharedAction
 	public List<SimpleObject> getScheduled(@RequestParam("date") Date date, UiUtils ui) {
-		// Run the calculations to get patients with scheduled visits
-		PatientCalculationService cs = Context.getService(PatientCalculationService.class);
-		Set<Integer> allPatients = Context.getPatientSetService().getAllPatients().getMemberIds();
+		Date startOfDay = DateUtil.getStartOfDay(date);
+		Date endOfDay = DateUtil.getEndOfDay(date);
+
+		KenyaEmrService emrService = Context.getService(KenyaEmrService.class);
+		Map<Date, Set<Integer>> schedule = emrService.getScheduledPatientIds(startOfDay, endOfDay);
+		Set<Integer> scheduled = schedule.containsKey(startOfDay) ? schedule.get(startOfDay) : Collections.<Integer>emptySet();
+		Map<Integer, List<Visit>> visits = emrService.getVisitsByPatient(scheduled, startOfDay, endOfDay);
+
+		return simplifyScheduledPatients(scheduled, visits, startOfDay, endOfDay, ui);
+	}
+
+	/**
+	 * Gets scheduled patients for each day of a period starting on the given date. The patients and visits of all days
+	 * are fetched together.
+	 * @param date the first date
+	 * @param days the number of days (defaults to 7, the maximum)
+	 * @param ui the UI utils
+	 * @return the days with scheduled patients, each with its date and simplified patients
+	 */
+	@SharedAction
+	public List<SimpleObject> getScheduledForDays(@RequestParam("date") Date date, @RequestParam(value = "days", required = false) Integer days, UiUtils ui) {
+		if (days == null || days < 1 || days > MAX_SCHEDULE_DAYS) {
+			days = MAX_SCHEDULE_DAYS;
+		}
+
+		Date fromDate = DateUtil.getStartOfDay(date);
+		Date toDate = DateUtil.getEndOfDay(CoreUtils.dateAddDays(fromDate, days - 1));
 
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("date", date);
-		PatientCalculationContext calcContext = cs.createCalculationContext();
+		KenyaEmrService emrService = Context.getService(KenyaEmrService.class);
+		Map<Date, Set<Integer>> schedule = emrService.getScheduledPatientIds(fromDate, toDate);
 
-		Set<Integer> scheduled = CalculationUtils.patientsThatPass(cs.evaluate(allPatients, new ScheduledVisitOnDayCalculation(), params, calcContext));
-		CalculationResultMap actual = cs.evaluate(scheduled, new VisitsOnDayCalculation(), params, calcContext);
+		Set<Integer> allScheduled = new HashSet<Integer>();
+		for (Set<Integer> scheduled : schedule.values()) {
+			allScheduled.addAll(scheduled);
+		}
+		Map<Integer, List<Visit>> visits = emrService.getVisitsByPatient(allScheduled, fromDate, toDate);
 
-		// Sort patients and convert to simple objects
-		List<Patient> scheduledPatients = Context.getPatientSetService().getPatients(scheduled);
+		List<SimpleObject> simplified = new ArrayList<SimpleObject>();
+		for (Map.Entry<Date, Set<Integer>> entry : schedule.entrySet()) {
+			Date startOfDay = entry.getKey();
+			Date endOfDay = DateUtil.getEndOfDay(startOfDay);
+			List<SimpleObject> patients = simplifyScheduledPatients(entry.getValue(), visits, startOfDay, endOfDay, ui);
+
+			simplified.add(SimpleObject.create("date", ui.format(startOfDay), "patients", patients));
+		}
+		return simplified;
+	}
+
+	/**
+	 * Sorts and simplifies scheduled patients along with their visits on the day
+	 * @param patientIds the scheduled patient ids
+	 * @param visits the visits of the scheduled patients, which may include visits on other days
+	 * @param startOfDay the start of the day
+	 * @param endOfDay the end of the day
+	 * @param ui the UI utils
+	 * @return the simplified patients
+	 */
+	protected List<SimpleObject> simplifyScheduledPatients(Set<Integer> patientIds, Map<Integer, List<Visit>> visits, Date startOfDay, Date endOfDay, UiUtils ui) {
+		List<Patient> scheduledPatients = Context.getPatientSetService().getPatients(patientIds);
 		Collections.sort(scheduledPatients, new PersonByNameComparator());
 
 		List<SimpleObject> simplified = new ArrayList<SimpleObject>();
 		for (Patient p : scheduledPatients) {
 			SimpleObject so = ui.simplifyObject(p);
 
-			ListResult visitsResult = (ListResult) actual.get(p.getPatientId());
-			List<Visit> visits = CalculationUtils.extractResultValues(visitsResult);
-			so.put("visits", ui.simplifyCollection(visits));
+			List<Visit> visitsOnDay = new ArrayList<Visit>();
+			List<Visit> patientVisits = visits.get(p.getPatientId());
+			if (patientVisits != null) {
+				for (Visit visit : patientVisits) {
+					boolean startedBeforeEnd = !visit.getStartDatetime().after(endOfDay);
+					boolean endedAfterStart = visit.getStopDatetime() == null || !visit.getStopDatetime().before(startOfDay);
+					if (startedBeforeEnd && endedAfterStart) {
+						visitsOnDay.add(visit);
+					}
+				}
+			}
+			so.put("visits", ui.simplifyCollection(visitsOnDay));
 
 			simplified.add(so);
 		}
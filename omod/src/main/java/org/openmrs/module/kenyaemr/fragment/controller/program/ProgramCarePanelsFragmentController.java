@@ -15,10 +15,9 @@
 package org.openmrs.module.kenyaemr.fragment.controller.program;
 
 import org.openmrs.Patient;
-import org.openmrs.module.kenyacore.UiResource;
 import org.openmrs.module.kenyacore.program.ProgramDescriptor;
 import org.openmrs.module.kenyacore.program.ProgramManager;
-import org.openmrs.module.kenyaemr.EmrWebConstants;
+import org.openmrs.ui.framework.SimpleObject;
 import org.openmrs.ui.framework.annotation.FragmentParam;
 import org.openmrs.ui.framework.annotation.SpringBean;
 import org.openmrs.ui.framework.fragment.FragmentModel;
@@ -29,7 +28,8 @@ import java.util.Collection;
 import java.util.List;
 
 /**
- * Program care summaries fragment
+ * Program care summaries fragment. Each care panel is loaded separately by AJAX so that the page doesn't wait for
+ * them. Panels of active programs are loaded straight away, but those of completed programs only when requested.
  */
 public class ProgramCarePanelsFragmentController {
 
@@ -41,7 +41,7 @@ public class ProgramCarePanelsFragmentController {
 						   @RequestParam(required = false, value = "endDate") String endDate,
 						   @SpringBean ProgramManager programManager) {
 
-		List<UiResource> carePanels = new ArrayList<UiResource>();
+		List<SimpleObject> carePanels = new ArrayList<SimpleObject>();
 
 /*		Collection<ProgramDescriptor> programs = activeOnly
 				? programManager.getPatientActivePrograms(patient)
@@ -49,12 +49,15 @@ public class ProgramCarePanelsFragmentController {
 */
 		//Show all care panels 
 		Collection<ProgramDescriptor> programs = programManager.getPatientPrograms(patient);
+		Collection<ProgramDescriptor> activePrograms = programManager.getPatientActivePrograms(patient);
 		for (ProgramDescriptor programDescriptor : programs) {
-			carePanels.add(programDescriptor.getFragments().get(EmrWebConstants.PROGRAM_CARE_PANEL_FRAGMENT));
+			carePanels.add(SimpleObject.create("program", programDescriptor.getTarget(), "active", activePrograms.contains(programDescriptor)));
 		}
 
 		model.addAttribute("patient", patient);
 		model.addAttribute("carePanels", carePanels);
 		model.addAttribute("complete", complete);
+		model.addAttribute("startDate", startDate);
+		model.addAttribute("endDate", endDate);
 	}
-}
\ No newline at end of file
+}
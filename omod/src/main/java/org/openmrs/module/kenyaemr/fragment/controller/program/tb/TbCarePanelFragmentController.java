@@ -24,14 +24,9 @@ import org.openmrs.module.kenyaemr.Dictionary;
 import org.openmrs.module.kenyaemr.calculation.EmrCalculationUtils;
 import org.openmrs.module.kenyaemr.regimen.RegimenManager;
 import org.openmrs.module.kenyaemr.calculation.library.hiv.LastCptCalculation;
-import org.openmrs.module.kenyaemr.calculation.library.tb.TbDiseaseClassificationCalculation;
-import org.openmrs.module.kenyaemr.calculation.library.tb.TbPatientClassificationCalculation;
+import org.openmrs.module.kenyaemr.calculation.library.tb.TbTreatmentEpisodeCalculation;
 import org.openmrs.module.kenyaemr.calculation.library.tb.TbTreatmentNumberCalculation;
-import org.openmrs.module.kenyaemr.calculation.library.tb.TbTreatmentOutcomeCalculation;
-import org.openmrs.module.kenyaemr.calculation.library.tb.TbTreatmentOutcomeDate;
-import org.openmrs.module.kenyaemr.calculation.library.tb.TbTreatmentDrugSensitivity;
-import org.openmrs.module.kenyaemr.calculation.library.tb.TbTreatmentDrugRegimen;
-import org.openmrs.module.kenyaemr.calculation.library.tb.TbTreatmentStartDateCalculation;
+import org.openmrs.module.kenyaemr.model.TbTreatmentEpisode;
 import org.openmrs.module.kenyaemr.regimen.RegimenChangeHistory;
 import org.openmrs.module.kenyaemr.wrapper.EncounterWrapper;
 import org.openmrs.ui.framework.annotation.FragmentParam;
@@ -57,8 +52,11 @@ public class TbCarePanelFragmentController {
 
 		Map<String, Object> calculationResults = new HashMap<String, Object>();
 
-		CalculationResult result = EmrCalculationUtils.evaluateForPatient(TbDiseaseClassificationCalculation.class, null, patient);
-		calculationResults.put("tbDiseaseSite", result != null ? result.getValue() : null);
+		// The TB treatment values are all read from the patient's TB treatment episode
+		CalculationResult result = EmrCalculationUtils.evaluateForPatient(TbTreatmentEpisodeCalculation.class, null, patient);
+		TbTreatmentEpisode episode = result != null ? (TbTreatmentEpisode) result.getValue() : null;
+
+		calculationResults.put("tbDiseaseSite", episodeObs(episode, Dictionary.TB_SITE));
 	String listAllSite = "";
 		
 		Obs siteList = getLatestObs(patient, Dictionary.TB_SITE);
@@ -95,26 +93,20 @@ public class TbCarePanelFragmentController {
 
 		model.addAttribute("listAllSite", listAllSite);	
 		
-		result = EmrCalculationUtils.evaluateForPatient(TbPatientClassificationCalculation.class, null, patient);
-		calculationResults.put("tbPatientStatus", result != null ? result.getValue() : null);
+		calculationResults.put("tbPatientStatus", episodeObs(episode, Dictionary.TB_PATIENT));
 
 	//	result = EmrCalculationUtils.evaluateForPatient(TbTreatmentNumberCalculation.class, null, patient);
 	//	calculationResults.put("tbTreatmentNumber", result != null ? result.getValue() : null);
 		
-		result = EmrCalculationUtils.evaluateForPatient(TbTreatmentOutcomeCalculation.class, null, patient);
-		calculationResults.put("tbTreatmentOutcome", result != null ? result.getValue() : null);
+		calculationResults.put("tbTreatmentOutcome", episodeObs(episode, Dictionary.TUBERCULOSIS_TREATMENT_OUTCOME));
 
-		result = EmrCalculationUtils.evaluateForPatient(TbTreatmentOutcomeDate.class, null, patient);
-		calculationResults.put("tbTreatmentOutcomeDate", result != null ? result.getValue() : null);
+		calculationResults.put("tbTreatmentOutcomeDate", episodeObs(episode, Dictionary.TB_OUTCOME_DATE));
 		
-		result = EmrCalculationUtils.evaluateForPatient(TbTreatmentDrugSensitivity.class, null, patient);
-		calculationResults.put("tbTreatmentDrugSensitivity", result != null ? result.getValue() : null);
+		calculationResults.put("tbTreatmentDrugSensitivity", episodeObs(episode, Dictionary.TB_DRUG_SENSITIVITY));
 
-		result = EmrCalculationUtils.evaluateForPatient(TbTreatmentDrugRegimen.class, null, patient);
-		calculationResults.put("tbTreatmentDrugRegimen", result != null ? result.getValue() : null);
+		calculationResults.put("tbTreatmentDrugRegimen", episodeObs(episode, Dictionary.TB_FORM_REGIMEN));
 		
-		result = EmrCalculationUtils.evaluateForPatient(TbTreatmentStartDateCalculation.class, null, patient);
-		calculationResults.put("tbTreatmentDrugStartDate", result != null ? result.getValue() : null);
+		calculationResults.put("tbTreatmentDrugStartDate", episodeObs(episode, Dictionary.TUBERCULOSIS_DRUG_TREATMENT_START_DATE));
 		
 		calculationResults.put("onIpt", EmrCalculationUtils.evaluateForPatient(LastCptCalculation.class, null, patient));
 		model.addAttribute("calculations", calculationResults);
@@ -222,4 +214,14 @@ public class TbCarePanelFragmentController {
 		}
 		return null;
 	}
+
+	/**
+	 * Gets the last obs of a question from a TB treatment episode
+	 * @param episode the episode (may be null)
+	 * @param conceptIdentifier the question concept identifier
+	 * @return the obs (may be null)
+	 */
+	private Obs episodeObs(TbTreatmentEpisode episode, String conceptIdentifier) {
+		return episode != null ? episode.getLastObs(Dictionary.getConcept(conceptIdentifier)) : null;
+	}
 }
\ No newline at end of file
@@ -23,10 +23,10 @@ import org.openmrs.module.kenyacore.CoreUtils;
 import org.openmrs.module.kenyacore.report.ReportDescriptor;
 import org.openmrs.module.kenyacore.report.ReportManager;
 import org.openmrs.module.kenyaemr.EmrConstants;
+import org.openmrs.module.kenyaemr.reporting.ReportResultCache;
 import org.openmrs.module.kenyaui.KenyaUiUtils;
 import org.openmrs.module.kenyaui.annotation.AppAction;
 import org.openmrs.module.kenyaui.annotation.SharedAction;
-import org.openmrs.module.reporting.evaluation.parameter.Mapped;
 import org.openmrs.module.reporting.evaluation.parameter.Parameter;
 import org.openmrs.module.reporting.report.ReportRequest;
 import org.openmrs.module.reporting.report.definition.ReportDefinition;
@@ -68,6 +68,7 @@ public class ReportUtilsFragmentController {
 	 * Requests a report evaluation
 	 * @param reportUuid the report definition UUID
 	 * @param reportManager the report manager
+	 * @param resultCache the report result cache
 	 * @return the report request id
 	 */
 	@SharedAction
@@ -77,7 +78,8 @@ public class ReportUtilsFragmentController {
 							    @SpringBean FragmentActionRequest actionRequest,
 							    @SpringBean ReportManager reportManager,
 							    @SpringBean ReportService reportService,
-							    @SpringBean ReportDefinitionService definitionService) throws ParseException {
+							    @SpringBean ReportDefinitionService definitionService,
+							    @SpringBean ReportResultCache resultCache) throws ParseException {
 //log.error("in requestReport");
 		ReportDefinition definition = definitionService.getDefinitionByUuid(reportUuid);
 		ReportDescriptor report = reportManager.getReportDescriptor(definition);
@@ -106,16 +108,11 @@ public class ReportUtilsFragmentController {
 		}
 
 
-		Mapped<ReportDefinition> mappedDefinition = new Mapped<ReportDefinition>(definition, parameterValues);
-
 		ReportRenderer renderer = new DefaultWebRenderer();
 		RenderingMode mode = renderer.getRenderingModes(definition).iterator().next();
 
-		ReportRequest request = new ReportRequest();
-		request.setReportDefinition(mappedDefinition);
-		request.setRenderingMode(mode);
-
-		request = reportService.queueReport(request);
+		// Re-uses a valid cached result for the same report and period if there is one
+		ReportRequest request = resultCache.requestReport(definition, parameterValues, mode);
 		reportService.processNextQueuedReports();
 
 		log.info("Requested report '" + definition.getName() + "' with params " + parameterValues);
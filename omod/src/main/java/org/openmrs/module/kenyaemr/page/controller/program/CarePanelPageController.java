@@ -0,0 +1,79 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.page.controller.program;
+
+import org.openmrs.Patient;
+import org.openmrs.Program;
+import org.openmrs.Visit;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.appframework.domain.AppDescriptor;
+import org.openmrs.module.kenyacore.program.ProgramDescriptor;
+import org.openmrs.module.kenyacore.program.ProgramManager;
+import org.openmrs.module.kenyaemr.EmrConstants;
+import org.openmrs.module.kenyaemr.EmrWebConstants;
+import org.openmrs.module.kenyaemr.util.CarePanelCache;
+import org.openmrs.module.kenyaui.KenyaUiUtils;
+import org.openmrs.module.kenyaui.annotation.SharedPage;
+import org.openmrs.ui.framework.annotation.SpringBean;
+import org.openmrs.ui.framework.page.PageModel;
+import org.openmrs.ui.framework.page.PageRequest;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Controller for a single program care panel, loaded into the patient chart by AJAX
+ */
+@SharedPage({EmrConstants.APP_CHART, EmrConstants.APP_CLINICIAN})
+public class CarePanelPageController {
+
+	public void controller(@RequestParam("patientId") Patient patient,
+						   @RequestParam("programId") Program program,
+						   @RequestParam("complete") boolean complete,
+						   @RequestParam("returnUrl") String returnUrl,
+						   @RequestParam(required = false, value = "startDate") String startDate,
+						   @RequestParam(required = false, value = "endDate") String endDate,
+						   PageModel model,
+						   PageRequest pageRequest,
+						   @SpringBean KenyaUiUtils kenyaUi,
+						   @SpringBean ProgramManager programManager,
+						   @SpringBean CarePanelCache carePanelCache) {
+
+		ProgramDescriptor programDescriptor = programManager.getProgramDescriptor(program);
+		AppDescriptor currentApp = kenyaUi.getCurrentApp(pageRequest);
+		Visit activeVisit = (Visit) model.getAttribute(EmrWebConstants.MODEL_ATTR_ACTIVE_VISIT);
+
+		// The rendered panel depends on the user, locale, app, active visit and return URL as well as the patient data
+		String cacheKey = CarePanelCache.key(
+				Context.getAuthenticatedUser().getUserId(),
+				Context.getLocale(),
+				patient.getPatientId(),
+				program.getProgramId(),
+				complete,
+				startDate,
+				endDate,
+				currentApp != null ? currentApp.getId() : null,
+				activeVisit != null ? activeVisit.getVisitId() : null,
+				returnUrl,
+				carePanelCache.getDataVersion(patient)
+		);
+
+		model.addAttribute("carePanel", programDescriptor.getFragments().get(EmrWebConstants.PROGRAM_CARE_PANEL_FRAGMENT));
+		model.addAttribute("complete", complete);
+		model.addAttribute("returnUrl", returnUrl);
+		model.addAttribute("cacheKey", cacheKey);
+		model.addAttribute("cachedHtml", carePanelCache.get(cacheKey));
+		model.addAttribute("carePanelCache", carePanelCache);
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.util;
+
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyaemr.api.KenyaEmrService;
+import org.springframework.stereotype.Component;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of rendered program care panels. Entries are keyed by everything a panel depends on, including the user and
+ * locale it was rendered for, a data version which changes whenever the patient's encounters, obs, enrollments or drug
+ * orders change, and the current day, as panels show intervals like "2 weeks ago". Stale entries are therefore never returned but just age out of the cache.
+ */
+@Component
+public class CarePanelCache {
+
+	/**
+	 * The maximum number of cached panels
+	 */
+	public static final int MAX_ENTRIES = 500;
+
+	/**
+	 * Queries for the latest changes to the data shown by care panels. Counts are included where a change may not
+	 * move a date forwards, e.g. discontinuing an order with a past date.
+	 */
+	private static final String[] DATA_VERSION_QUERIES = {
+			"select max(e.dateCreated), max(e.dateChanged), max(e.dateVoided) from Encounter e where e.patient.patientId = :patientId",
+			"select max(o.dateCreated), max(o.dateVoided), count(o) from Obs o where o.person.personId = :patientId",
+			"select max(pp.dateCreated), max(pp.dateChanged), max(pp.dateVoided) from PatientProgram pp where pp.patient.patientId = :patientId",
+			"select max(o.dateCreated), max(o.dateVoided), count(o.discontinuedDate) from DrugOrder o where o.patient.patientId = :patientId"
+	};
+
+	private final Map<String, String> panels = new LinkedHashMap<String, String>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/**
+	 * Gets a cached panel
+	 * @param key the cache key
+	 * @return the panel HTML or null if not cached
+	 */
+	public synchronized String get(String key) {
+		return panels.get(key);
+	}
+
+	/**
+	 * Caches a panel
+	 * @param key the cache key
+	 * @param html the panel HTML
+	 */
+	public synchronized void put(String key, String html) {
+		panels.put(key, html);
+	}
+
+	/**
+	 * Gets the number of cached panels
+	 * @return the number of panels
+	 */
+	public synchronized int size() {
+		return panels.size();
+	}
+
+	/**
+	 * Gets the current version of a patient's data
+	 * @param patient the patient
+	 * @return the data version
+	 */
+	public String getDataVersion(Patient patient) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("patientId", patient.getPatientId());
+
+		StringBuilder version = new StringBuilder(new SimpleDateFormat("yyyyMMdd").format(new Date()));
+		appendValue(version, patient.getDateChanged());
+		appendValue(version, patient.getDeathDate());
+
+		KenyaEmrService service = Context.getService(KenyaEmrService.class);
+		for (String query : DATA_VERSION_QUERIES) {
+			List<Object> rows = service.executeHqlQuery(query, params);
+			for (Object value : (Object[]) rows.get(0)) {
+				appendValue(version, value);
+			}
+		}
+		return version.toString();
+	}
+
+	/**
+	 * Creates a cache key from the given values
+	 * @param values the values
+	 * @return the key
+	 */
+	public static String key(Object... values) {
+		StringBuilder key = new StringBuilder();
+		for (Object value : values) {
+			appendValue(key, value);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Appends a value to a key or version string
+	 * @param builder the string builder
+	 * @param value the value (may be null)
+	 */
+	private static void appendValue(StringBuilder builder, Object value) {
+		if (builder.length() > 0) {
+			builder.append('|');
+		}
+		if (value instanceof Date) {
+			builder.append(((Date) value).getTime());
+		}
+		else if (value != null) {
+			builder.append(value);
+		}
+	}
+}
@@ -4,11 +4,11 @@ kenyaemrApp.controller('AddresshierarchyCtrl', ['$scope', function($scope) {
 
 	
 	$scope.stateSelection = function(myState) {
-		jq.getJSON('/' + OPENMRS_CONTEXT_PATH + '/kenyaemr/emrUtils/addressHierarchy.action',{ state: myState})
+		jq.getJSON('/' + OPENMRS_CONTEXT_PATH + '/kenyaemr/emrUtils/addressHierarchyLevel.action',{ state: myState})
 		.done(function(data) {
 			
 			$scope.$apply(function(){ 
-				$scope.townships = data.township;
+				$scope.townships = data.names;
 				//console.debug("$scope.townships = data.township;");
 				$scope.villages = "";
 			});
@@ -17,10 +17,10 @@ kenyaemrApp.controller('AddresshierarchyCtrl', ['$scope', function($scope) {
 	};
 	
 	$scope.townshipSelection = function(myState,myTownship) {
-		jq.getJSON('/' + OPENMRS_CONTEXT_PATH + '/kenyaemr/emrUtils/addressHierarchy.action',{ state: myState,township: myTownship})
+		jq.getJSON('/' + OPENMRS_CONTEXT_PATH + '/kenyaemr/emrUtils/addressHierarchyLevel.action',{ state: myState,township: myTownship})
 		.done(function(data) {
 			$scope.$apply(function(){ 
-				$scope.villages = data.village;
+				$scope.villages = data.names;
 				//console.debug("$scope.villages = data.village;");
 			});
 	    });
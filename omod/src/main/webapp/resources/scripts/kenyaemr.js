@@ -152,6 +152,24 @@ var kenyaemrApp = angular.module('kenyaemr', [ 'kenyaui' ]);
 			});
 	};
 
+	/**
+	 * Loads a program care panel into the given element, replacing its content
+	 * @param elementId the element id
+	 * @param url the care panel page URL
+	 */
+	kenyaemr.loadCarePanel = function(elementId, url) {
+		var element = $('#' + elementId);
+		element.html('<div class="ke-loading">&nbsp;</div>');
+		$.get(url)
+			.done(function(html) {
+				element.html(html);
+			})
+			.fail(function() {
+				element.empty();
+				kenyaui.notifyError('Unable to load care panel');
+			});
+	};
+
 	/**
 	 * Ensures user authentication before invoking the passed callback
 	 * @param callback the callback to invoke
@@ -22,6 +22,10 @@ import org.openmrs.module.kenyaemr.IPAccessSecurity;
 import org.openmrs.web.WebConstants;
 import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
 public class IPAccessSecurityTest extends BaseModuleWebContextSensitiveTest {
 
 	@Before
@@ -71,4 +75,114 @@ public class IPAccessSecurityTest extends BaseModuleWebContextSensitiveTest {
 		IPAccessSecurity.endLockOut(ipAddress1);
 		Assert.assertFalse(IPAccessSecurity.isLockedOut(ipAddress1));
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @see IPAccessSecurity#registerFailedAccess(String)
+	 */
+	@Test
+	public void registerFailedAccess_shouldCountConcurrentFailedAccessesCorrectly() throws Exception {
+		final String ipAddress = "127.0.0.1";
+		final int threadCount = 8, attemptsPerThread = 1000;
+		IPAccessSecurity.reset();
+
+		// Load the allowed attempts on this thread as other threads don't have a database session
+		Assert.assertEquals(10, IPAccessSecurity.getMaxAllowedFailedAccesses());
+
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < threadCount; ++t) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					}
+					catch (InterruptedException ex) {
+						return;
+					}
+					for (int i = 0; i < attemptsPerThread; ++i) {
+						IPAccessSecurity.registerFailedAccess(ipAddress);
+						IPAccessSecurity.isLockedOut(ipAddress);
+					}
+				}
+			};
+			thread.start();
+			threads.add(thread);
+		}
+
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		Assert.assertEquals(threadCount * attemptsPerThread, IPAccessSecurity.getFailedAccessesByIP(ipAddress));
+		Assert.assertTrue(IPAccessSecurity.isLockedOut(ipAddress));
+	}
+
+	/**
+	 * @see IPAccessSecurity#registerFailedAccess(String)
+	 */
+	@Test
+	public void registerFailedAccess_shouldNotTrackMoreThanMaximumNumberOfIPs() throws Exception {
+		IPAccessSecurity.reset();
+
+		// Lock out one IP which shouldn't be evicted
+		IPAccessSecurity.lockOut("10.0.0.1");
+
+		for (int i = 0; i < IPAccessSecurity.MAX_TRACKED_IPS + 100; ++i) {
+			IPAccessSecurity.registerFailedAccess("192." + (i / 65536) + "." + ((i / 256) % 256) + "." + (i % 256));
+		}
+
+		Assert.assertTrue(IPAccessSecurity.getTrackedIPCount() <= IPAccessSecurity.MAX_TRACKED_IPS);
+		Assert.assertTrue(IPAccessSecurity.isLockedOut("10.0.0.1"));
+	}
+
+	/**
+	 * @see IPAccessSecurity#registerFailedAccess(String)
+	 */
+	@Test
+	public void registerFailedAccess_shouldEvictRecordsInBatches() throws Exception {
+		IPAccessSecurity.reset();
+
+		for (int i = 0; i < IPAccessSecurity.MAX_TRACKED_IPS; ++i) {
+			IPAccessSecurity.registerFailedAccess("192." + (i / 65536) + "." + ((i / 256) % 256) + "." + (i % 256));
+		}
+		Assert.assertEquals(IPAccessSecurity.MAX_TRACKED_IPS, IPAccessSecurity.getTrackedIPCount());
+
+		// The next new IP triggers one eviction which leaves room for many more
+		IPAccessSecurity.registerFailedAccess("10.0.0.2");
+		Assert.assertEquals(IPAccessSecurity.EVICTION_TARGET_IPS + 1, IPAccessSecurity.getTrackedIPCount());
+		Assert.assertEquals(1, IPAccessSecurity.getFailedAccessesByIP("10.0.0.2"));
+	}
+
+	/**
+	 * @see IPAccessSecurity#lockOut(String)
+	 */
+	@Test
+	public void lockOut_shouldNotTrackMoreThanMaximumNumberOfIPsIfAllLockedOut() throws Exception {
+		IPAccessSecurity.reset();
+
+		for (int i = 0; i < IPAccessSecurity.MAX_TRACKED_IPS + 100; ++i) {
+			IPAccessSecurity.lockOut("192." + (i / 65536) + "." + ((i / 256) % 256) + "." + (i % 256));
+			Assert.assertTrue(IPAccessSecurity.getTrackedIPCount() <= IPAccessSecurity.MAX_TRACKED_IPS);
+		}
+
+		// Most recent lock out is kept
+		Assert.assertTrue(IPAccessSecurity.isLockedOut("192.0.39.115"));
+	}
+
+	/**
+	 * @see IPAccessSecurity#getMaxAllowedFailedAccesses()
+	 */
+	@Test
+	public void getMaxAllowedFailedAccesses_shouldReloadValueWhenGlobalPropertyChanges() throws Exception {
+		IPAccessSecurity.reset();
+		Assert.assertEquals(10, IPAccessSecurity.getMaxAllowedFailedAccesses());
+
+		GlobalProperty gp = Context.getAdministrationService().getGlobalPropertyObject(WebConstants.GP_ALLOWED_LOGIN_ATTEMPTS_PER_IP);
+		gp.setPropertyValue("3");
+		Context.getAdministrationService().saveGlobalProperty(gp);
+
+		Assert.assertEquals(3, IPAccessSecurity.getMaxAllowedFailedAccesses());
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.fragment.controller.header;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link PatientHeaderModel}
+ */
+public class PatientHeaderModelTest extends BaseModuleWebContextSensitiveTest {
+
+	/**
+	 * @see PatientHeaderModel#build(org.openmrs.Patient, java.util.Collection)
+	 */
+	@Test
+	public void build_shouldLoadLatestObs() {
+		Patient patient = TestUtils.getPatient(7);
+		Concept weight = Context.getConceptService().getConcept(5089);
+		Obs latest = TestUtils.saveObs(patient, weight, 70.0, TestUtils.date(2020, 1, 1));
+
+		PatientHeaderModel header = PatientHeaderModel.build(patient, Collections.singleton(weight));
+
+		Assert.assertThat(header.getPatient(), is(patient));
+		Assert.assertThat(header.getLatestObs(weight), is(latest));
+		Assert.assertThat(header.getLatestObs(Context.getConceptService().getConcept(5497)), nullValue());
+	}
+
+	/**
+	 * @see PatientHeaderModel#forRequest(javax.servlet.http.HttpServletRequest, org.openmrs.Patient)
+	 */
+	@Test
+	public void forRequest_shouldBuildModelOncePerRequestAndPatient() {
+		Patient patient7 = TestUtils.getPatient(7);
+		Patient patient8 = TestUtils.getPatient(8);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+
+		PatientHeaderModel header = PatientHeaderModel.forRequest(request, patient7);
+		Assert.assertThat(PatientHeaderModel.forRequest(request, patient7), sameInstance(header));
+		Assert.assertThat(PatientHeaderModel.forRequest(request, patient8).getPatient(), is(patient8));
+
+		// Another request gets its own model
+		Assert.assertThat(PatientHeaderModel.forRequest(new MockHttpServletRequest(), patient7), not(sameInstance(header)));
+	}
+}
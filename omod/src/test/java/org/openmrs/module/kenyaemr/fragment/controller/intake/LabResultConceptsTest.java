@@ -0,0 +1,76 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.fragment.controller.intake;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.api.context.Context;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link LabResultConcepts}
+ */
+public class LabResultConceptsTest extends BaseModuleWebContextSensitiveTest {
+
+	/**
+	 * @see LabResultConcepts#get(Integer)
+	 */
+	@Test
+	public void get_shouldResolveEachConceptOnce() {
+		LabResultConcepts concepts = new LabResultConcepts();
+
+		LabResultConcepts.TestConcept cd4 = concepts.get(5497);
+		Assert.assertThat(cd4.getConcept().getConceptId(), is(5497));
+		Assert.assertThat(cd4.hasNumericResult(), is(true));
+		Assert.assertThat(cd4.isRadiology(), is(false));
+		Assert.assertThat(concepts.get(5497), sameInstance(cd4));
+		Assert.assertThat(concepts.get(Context.getConceptService().getConcept(5497)), sameInstance(cd4));
+
+		Assert.assertThat(concepts.get(5089).hasNumericResult(), is(false));
+		Assert.assertThat(concepts.get(999999), nullValue());
+	}
+
+	/**
+	 * @see LabResultConcepts#indexByConcept(java.util.Collection)
+	 */
+	@Test
+	public void indexByConcept_shouldGroupObsByConceptId() {
+		Concept cd4 = Context.getConceptService().getConcept(5497);
+		Concept weight = Context.getConceptService().getConcept(5089);
+
+		Obs obs1 = new Obs();
+		obs1.setConcept(cd4);
+		Obs obs2 = new Obs();
+		obs2.setConcept(weight);
+		Obs obs3 = new Obs();
+		obs3.setConcept(cd4);
+
+		Map<Integer, List<Obs>> index = LabResultConcepts.indexByConcept(Arrays.asList(obs1, obs2, obs3));
+		Assert.assertThat(index.size(), is(2));
+		Assert.assertThat(index.get(5497), contains(obs1, obs3));
+		Assert.assertThat(index.get(5089), contains(obs2));
+
+		Assert.assertThat(LabResultConcepts.indexByConcept(null).size(), is(0));
+	}
+}
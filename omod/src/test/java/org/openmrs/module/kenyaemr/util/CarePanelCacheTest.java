@@ -0,0 +1,70 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+
+
+package org.openmrs.module.kenyaemr.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.kenyacore.test.TestUtils;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link CarePanelCache}
+ */
+public class CarePanelCacheTest extends BaseModuleWebContextSensitiveTest {
+
+	/**
+	 * @see CarePanelCache#getDataVersion(org.openmrs.Patient)
+	 */
+	@Test
+	public void getDataVersion_shouldChangeWhenPatientDataChanges() {
+		CarePanelCache cache = new CarePanelCache();
+		Patient patient7 = TestUtils.getPatient(7);
+		Patient patient8 = TestUtils.getPatient(8);
+
+		String version7 = cache.getDataVersion(patient7);
+		String version8 = cache.getDataVersion(patient8);
+
+		Assert.assertThat(cache.getDataVersion(patient7), is(version7));
+
+		TestUtils.saveObs(patient7, Context.getConceptService().getConcept(5089), 70.0, TestUtils.date(2012, 1, 1));
+
+		Assert.assertThat(cache.getDataVersion(patient7), not(version7));
+		Assert.assertThat(cache.getDataVersion(patient8), is(version8));
+	}
+
+	/**
+	 * @see CarePanelCache#put(String, String)
+	 */
+	@Test
+	public void put_shouldEvictLeastRecentlyUsedPanels() {
+		CarePanelCache cache = new CarePanelCache();
+		String first = CarePanelCache.key(7, 1, true, null);
+
+		cache.put(first, "<div>first</div>");
+		Assert.assertThat(cache.get(first), is("<div>first</div>"));
+
+		for (int p = 0; p < CarePanelCache.MAX_ENTRIES; ++p) {
+			cache.put(CarePanelCache.key(p, 2, true, null), "<div>" + p + "</div>");
+		}
+
+		Assert.assertThat(cache.size(), is(CarePanelCache.MAX_ENTRIES));
+		Assert.assertThat(cache.get(first), nullValue());
+	}
+}